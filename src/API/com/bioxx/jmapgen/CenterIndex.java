@@ -0,0 +1,99 @@
+package com.bioxx.jmapgen;
+
+/**
+ * Finds the closest center to a point in constant time. The island is covered by a raster of 8x8 block cells that
+ * each hold the center closest to the middle of the cell. A query starts from the center in its cell and walks to any
+ * neighbor that is closer until none are. Walking the neighbor graph this way always ends at the true closest center and
+ * since the cells are much smaller than a hex it rarely takes more than one step.
+ *
+ * Queries do not allocate and the index is never modified after it is built so it can be shared between threads.
+ */
+public class CenterIndex
+{
+	public static final int CELL_SHIFT = 3;
+
+	private final int cells;
+	private final int[] raster;
+	private final double[] pointX;
+	private final double[] pointY;
+	private final int[] neighborOffsets;
+	private final int[] neighbors;
+
+	/**
+	 * @param neighborOffsets CSR offsets of the center neighbor lists
+	 * @param neighbors CSR data of the center neighbor lists
+	 */
+	public CenterIndex(int size, Point[] points, int[] neighborOffsets, int[] neighbors)
+	{
+		this.neighborOffsets = neighborOffsets;
+		this.neighbors = neighbors;
+		pointX = new double[points.length];
+		pointY = new double[points.length];
+		for(int i = 0; i < points.length; i++)
+		{
+			pointX[i] = points[i].x;
+			pointY[i] = points[i].y;
+		}
+
+		cells = (size + (1 << CELL_SHIFT) - 1) >> CELL_SHIFT;
+		raster = new int[cells * cells];
+		double half = (1 << CELL_SHIFT) / 2D;
+		int last = 0;
+		for(int z = 0; z < cells; z++)
+		{
+			//Each row starts from the first cell of the previous row so that every walk is short
+			int rowStart = last;
+			for(int x = 0; x < cells; x++)
+			{
+				last = walk(last, (x << CELL_SHIFT) + half, (z << CELL_SHIFT) + half);
+				raster[z * cells + x] = last;
+				if(x == 0)
+					rowStart = last;
+			}
+			last = rowStart;
+		}
+	}
+
+	/**
+	 * @return The index of the center closest to these island coordinates.
+	 */
+	public int getClosest(double x, double y)
+	{
+		int cx = clamp((int)x >> CELL_SHIFT);
+		int cy = clamp((int)y >> CELL_SHIFT);
+		return walk(raster[cy * cells + cx], x, y);
+	}
+
+	private int clamp(int c)
+	{
+		return c < 0 ? 0 : (c >= cells ? cells - 1 : c);
+	}
+
+	private int walk(int start, double x, double y)
+	{
+		int best = start;
+		double dx = pointX[best] - x;
+		double dy = pointY[best] - y;
+		double bestDist = dx*dx + dy*dy;
+		boolean moved = true;
+		while(moved)
+		{
+			moved = false;
+			int end = neighborOffsets[best+1];
+			for(int i = neighborOffsets[best]; i < end; i++)
+			{
+				int n = neighbors[i];
+				dx = pointX[n] - x;
+				dy = pointY[n] - y;
+				double dist = dx*dx + dy*dy;
+				if(dist < bestDist)
+				{
+					bestDist = dist;
+					best = n;
+					moved = true;
+				}
+			}
+		}
+		return best;
+	}
+}
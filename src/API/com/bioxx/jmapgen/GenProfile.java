@@ -0,0 +1,111 @@
+package com.bioxx.jmapgen;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how long each stage of building an island took and how many bytes the thread that ran the stage allocated
+ * while doing it. Stages may be timed from several threads at once.
+ */
+public class GenProfile
+{
+	/**
+	 * A profile that records nothing. Islands use this unless something wants to know how they were built.
+	 */
+	public static final GenProfile DISABLED = new GenProfile(false);
+
+	private static final com.sun.management.ThreadMXBean ALLOCATION = getAllocationBean();
+
+	private final boolean enabled;
+	private final List<Stage> stages = new ArrayList<Stage>();
+
+	public GenProfile()
+	{
+		this(true);
+	}
+
+	private GenProfile(boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Starts timing a stage on the calling thread. The stage must be ended on the same thread.
+	 * @param name Names like "late/caves" mark a stage that ran during the "late" stage so it isn't counted twice
+	 */
+	public Stage begin(String name)
+	{
+		if(!enabled)
+			return null;
+		return new Stage(name);
+	}
+
+	public void end(Stage stage)
+	{
+		if(stage == null)
+			return;
+		stage.nanos = System.nanoTime() - stage.nanos;
+		if(stage.bytes >= 0)
+			stage.bytes = getAllocatedBytes() - stage.bytes;
+		synchronized(this)
+		{
+			stages.add(stage);
+		}
+	}
+
+	public synchronized List<Stage> getStages()
+	{
+		return new ArrayList<Stage>(stages);
+	}
+
+	/**
+	 * @return The number of bytes the calling thread has allocated since it started or -1 if the JVM can't tell us.
+	 */
+	public static long getAllocatedBytes()
+	{
+		if(ALLOCATION == null)
+			return -1;
+		return ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static com.sun.management.ThreadMXBean getAllocationBean()
+	{
+		try
+		{
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if(bean instanceof com.sun.management.ThreadMXBean)
+			{
+				com.sun.management.ThreadMXBean alloc = (com.sun.management.ThreadMXBean)bean;
+				if(alloc.isThreadAllocatedMemorySupported())
+				{
+					if(!alloc.isThreadAllocatedMemoryEnabled())
+						alloc.setThreadAllocatedMemoryEnabled(true);
+					return alloc;
+				}
+			}
+		}
+		catch(Throwable t)
+		{
+			//Not a HotSpot JVM or not allowed to turn it on, so allocations just won't be recorded
+		}
+		return null;
+	}
+
+	public static class Stage
+	{
+		public final String name;
+		public final String thread;
+		//Both hold the starting values until the stage is ended
+		public long nanos;
+		public long bytes;
+
+		private Stage(String name)
+		{
+			this.name = name;
+			this.thread = Thread.currentThread().getName();
+			this.bytes = getAllocatedBytes();
+			this.nanos = System.nanoTime();
+		}
+	}
+}
@@ -16,10 +16,10 @@ public class Gorge
 
 	public void addNode(GorgeNode c)
 	{
-		if(c.center.elevation < minElev)
-			minElev = c.center.elevation;
-		if(c.center.elevation > maxElev)
-			maxElev = c.center.elevation;
+		if(c.center.getElevation() < minElev)
+			minElev = c.center.getElevation();
+		if(c.center.getElevation() > maxElev)
+			maxElev = c.center.getElevation();
 		nodes.add(c);
 		if(nodes.size() == 1)
 			start = c;
@@ -3,8 +3,9 @@
 // License: MIT
 package com.bioxx.jmapgen;
 
-import java.awt.Rectangle;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -13,9 +14,6 @@ import net.minecraft.util.math.BlockPos;
 
 import com.bioxx.jmapgen.IslandParameters.Feature;
 import com.bioxx.jmapgen.attributes.*;
-import com.bioxx.jmapgen.com.nodename.delaunay.DelaunayUtil;
-import com.bioxx.jmapgen.com.nodename.delaunay.Voronoi;
-import com.bioxx.jmapgen.com.nodename.geom.LineSegment;
 import com.bioxx.jmapgen.dungeon.Dungeon;
 import com.bioxx.jmapgen.graph.*;
 import com.bioxx.jmapgen.graph.Center.HexDirection;
@@ -49,7 +47,7 @@ public class IslandMap
 	public Random mapRandom = new Random();
 
 	// These store the graph data
-	public Vector<Point> points;  // Only useful during map construction
+	public Vector<Point> points;  // Only useful during map construction. Empty for maps built from an IslandTopology
 	public Vector<Center> centers;
 	public Vector<Corner> corners;
 	public Vector<Edge> edges;
@@ -60,10 +58,19 @@ public class IslandMap
 	public CenterPathFinder pathfinder;
 	public Vector<Dungeon> dungeons;
 
+	//The shared graph template this map was built from. Null if the map was read from NBT or a file without one.
+	protected IslandTopology topology;
+	//Per cell data for all centers and corners
+	protected IslandGraphStore store;
+	//Closest center lookup. Built the first time it is needed
+	volatile CenterIndex centerIndex;
+
 	private CaveProcessor caves;
 	private OreProcessor ores;
 	private AnimalProcessor animalProc;
 	private PortalProcessor portalProc;
+	//Stage timings for generateFull. Only enabled while telemetry is watching this island being built
+	private GenProfile profile = GenProfile.DISABLED;
 
 	public IslandMap(int size, long s) 
 	{
@@ -97,6 +104,16 @@ public class IslandMap
 		return this.islandParams;
 	}
 
+	public GenProfile getProfile()
+	{
+		return profile;
+	}
+
+	public void setProfile(GenProfile p)
+	{
+		profile = p == null ? GenProfile.DISABLED : p;
+	}
+
 	public IslandData getIslandData()
 	{
 		return this.islandData;
@@ -115,13 +132,7 @@ public class IslandMap
 		animalProc = new AnimalProcessor(this);
 		dungeons.clear();
 
-		points = this.generateHexagon(SIZE);
-		Rectangle R = new Rectangle();
-		R.setFrame(0, 0, SIZE, SIZE);
-		//System.out.println("Starting Creating map Voronoi...");
-		Voronoi voronoi = new Voronoi(points, R);
-		//System.out.println("Finished Creating map Voronoi...");
-		buildGraph(points, voronoi);
+		buildGraph(IslandTopology.get(SIZE, NUM_POINTS));
 	}
 
 	public void generateFull() 
@@ -137,14 +148,11 @@ public class IslandMap
 		animalProc = new AnimalProcessor(this);
 		dungeons.clear();
 
-		points = this.generateHexagon(SIZE);
-		Rectangle R = new Rectangle();
-		R.setFrame(0, 0, SIZE, SIZE);
-		//System.out.println("Starting Creating map Voronoi...");
-		Voronoi voronoi = new Voronoi(points, R);
-		//System.out.println("Finished Creating map Voronoi...");
-		buildGraph(points, voronoi);
+		GenProfile.Stage stage = profile.begin("graph");
+		buildGraph(IslandTopology.get(SIZE, NUM_POINTS));
+		profile.end(stage);
 
+		stage = profile.begin("shape");
 		// Determine the elevations and water at Voronoi corners.
 		int borderCount = assignCornerElevations();
 
@@ -159,13 +167,14 @@ public class IslandMap
 			Corner q = (Corner)i.next();
 			if (q.hasMarker(Marker.Ocean) || q.hasMarker(Marker.Coast)) 
 			{
-				q.elevation = 0.0;
+				q.setElevation(0.0);
 			}
 		}
 		sortClockwise();
+		profile.end(stage);
 		if(!this.islandParams.hasFeature(Feature.NoLand))
 		{
-
+			stage = profile.begin("elevation");
 			// Polygon elevations are the average of their corners
 			assignPolygonElevations();
 			//if(!this.islandParams.hasFeature(Feature.Desert))
@@ -173,29 +182,48 @@ public class IslandMap
 
 			// Determine downslope paths.
 			calculateDownslopesCenter();
+			profile.end(stage);
 
+			stage = profile.begin("volcano");
 			createVolcano(getCentersAbove(getLandCenters(), 0.4));
+			profile.end(stage);
 
+			stage = profile.begin("valleys");
 			createValleys(getCentersAbove(0.4));
+			profile.end(stage);
 
+			stage = profile.begin("canyons");
 			createCanyons();
+			profile.end(stage);
 
+			stage = profile.begin("gorges");
 			calculateDownslopesCenter();
 			createGorges();
 			createRamps();
+			profile.end(stage);
 
+			stage = profile.begin("mesas");
 			createMesas();
+			profile.end(stage);
 
+			stage = profile.begin("rivers");
 			// Determine downslope paths.
 			calculateDownslopesCenter();
 			// Create rivers.
 			//if(!this.getParams().hasFeature(Feature.Desert))
 			createRivers(getCentersAbove(0.25));
+			profile.end(stage);
+
+			stage = profile.begin("noise");
 			assignSlopedNoise();
 			assignHillyNoise();
+			profile.end(stage);
+
+			stage = profile.begin("spires");
 			createSpires();
 			createClearings();
 			calculateDownslopesCenter();
+			profile.end(stage);
 		}
 		else
 		{
@@ -208,22 +236,79 @@ public class IslandMap
 			}
 		}
 
+		stage = profile.begin("moisture");
 		assignMoisture();
 		//redistributeMoisture(getLandCenters());
 		assignMoisturePostRedist();
+		profile.end(stage);
 
+		stage = profile.begin("biomes");
 		setupBiomeInfo();
+		profile.end(stage);
 
-		caves.generate();
-		ores.generate();
+		stage = profile.begin("late");
+		generateLateStages();
+		profile.end(stage);
+	}
+
+	/**
+	 * Caves, ores, portals and animal need zones only read the finished terrain and each add their own kind of
+	 * attribute so they are run at the same time. Every stage gets a random seeded from the island random before any of
+	 * them start which keeps the result the same no matter how the stages are scheduled.
+	 */
+	private void generateLateStages()
+	{
+		caves.setRandom(new Random(mapRandom.nextLong()));
+		ores.setRandom(new Random(mapRandom.nextLong()));
+		portalProc.setRandom(new Random(mapRandom.nextLong()));
+		animalProc.setRandom(new Random(mapRandom.nextLong()));
 
+		List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+		tasks.add(ForkJoinTask.adapt(new Runnable() {
+			@Override
+			public void run()
+			{
+				GenProfile.Stage stage = profile.begin("late/caves");
+				caves.generate();
+				profile.end(stage);
+			}
+		}));
+		tasks.add(ForkJoinTask.adapt(new Runnable() {
+			@Override
+			public void run()
+			{
+				GenProfile.Stage stage = profile.begin("late/ores");
+				ores.generate();
+				profile.end(stage);
+			}
+		}));
 		if(!this.getParams().hasFeature(Feature.NoLand))
 		{
-			portalProc.generate();
+			tasks.add(ForkJoinTask.adapt(new Runnable() {
+				@Override
+				public void run()
+				{
+					GenProfile.Stage stage = profile.begin("late/portals");
+					portalProc.generate();
+					profile.end(stage);
+				}
+			}));
 		}
+		tasks.add(ForkJoinTask.adapt(new Runnable() {
+			@Override
+			public void run()
+			{
+				GenProfile.Stage stage = profile.begin("late/animals");
+				animalProc.generate();
+				profile.end(stage);
+			}
+		}));
 
-		animalProc.generate();
-
+		for(ForkJoinTask<?> task : tasks)
+			ForkJoinPool.commonPool().execute(task);
+		//join rethrows anything a stage threw so a failed stage fails the island like it did before
+		for(ForkJoinTask<?> task : tasks)
+			task.join();
 	}
 
 	public Center getPortalForFacing(EnumFacing facing)
@@ -286,8 +371,8 @@ public class IslandMap
 		for(int i = 0; i < 100; i++)
 		{
 			Center c = landCenters.get(mapRandom.nextInt(landCenters.size()));
-			double elev = 1 - c.elevation;
-			elev = c.elevation+((0.5+(mapRandom.nextDouble() * 0.3)) * elev);
+			double elev = 1 - c.getElevation();
+			elev = c.getElevation()+((0.5+(mapRandom.nextDouble() * 0.3)) * elev);
 			c.setMarkers(Marker.Mesa);
 			c.setElevation(elev);
 			if(mapRandom.nextBoolean())
@@ -583,8 +668,8 @@ public class IslandMap
 					else if(c.hasMarker(Marker.Ocean)) continue;
 
 					valleyFinal.add(c);
-					if(c.elevation < minElevation)
-						minElevation = c.elevation;
+					if(c.getElevation() < minElevation)
+						minElevation = c.getElevation();
 					for(Center n : c.neighbors)
 					{
 						if(!valleyQueue.contains(n) && !valleyFinal.contains(n))
@@ -598,14 +683,14 @@ public class IslandMap
 				//System.out.println("Valley: X" + mid.point.x + " Z"+ mid.point.y);
 				for(Center n : valleyFinal)
 				{
-					n.elevation = minElevation/**0.8*/ + (-convertMCToHeight(2) + mapRandom.nextDouble()*convertMCToHeight(5));//Math.max(minElevation, n.elevation*0.8);
+					n.setElevation(minElevation/**0.8*/ + (-convertMCToHeight(2) + mapRandom.nextDouble()*convertMCToHeight(5)));//Math.max(minElevation, n.getElevation()*0.8);
 					n.setMarkers(Marker.Valley);
 				}
 				for(Lake l : lakesToDrop)
 				{
 					for(Center c : l.centers)
 					{
-						c.elevation = minElevation/**0.79*/;
+						c.setElevation(minElevation/**0.79*/);
 						if(c.hasAttribute(Attribute.Lake))
 						{
 							LakeAttribute attrib = (LakeAttribute) c.getAttribute(Attribute.Lake);
@@ -636,14 +721,14 @@ public class IslandMap
 				highest = this.getHighestNeighbor(highest);
 				highest = this.getHighestNeighbor(highest);
 
-				double diff = highest.elevation - center.elevation;
+				double diff = highest.getElevation() - center.getElevation();
 				double mult = 0.5;
 
 				if(center.hasMarker(Marker.Valley))
 					mult = 0.1;
 
-				center.elevation += diff * (mult + mult*mapRandom.nextDouble());
-				if(center.elevation <= 0)
+				center.setElevation(center.getElevation() + (diff * (mult + mult*mapRandom.nextDouble())));
+				if(center.getElevation() <= 0)
 					return;
 
 				for(Iterator<Center> centerIter2 = center.neighbors.iterator(); centerIter2.hasNext();)
@@ -651,8 +736,8 @@ public class IslandMap
 					Center center2 = (Center)centerIter2.next();
 					if(!center2.hasMarker(Marker.Lava) && !center2.hasAttribute(Attribute.Gorge) && !center2.hasMarker(Marker.Coast) && center2.getAttribute(Attribute.River) == null && !center2.hasMarker(Marker.Water))
 					{
-						center2.elevation += Math.max(0, (center.elevation - center2.elevation)*mapRandom.nextDouble());
-						if(center2.elevation <= 0)
+						center2.setElevation(center2.getElevation() + (Math.max(0, (center.getElevation() - center2.getElevation())*mapRandom.nextDouble())));
+						if(center2.getElevation() <= 0)
 							return;
 					}
 				}
@@ -684,12 +769,12 @@ public class IslandMap
 					Center highest = getHighestNeighbor(center);
 
 					if(this.mapRandom.nextInt(100) < 70)
-						center.elevation -= mapRandom.nextDouble() * (center.elevation - lowest.elevation);
+						center.setElevation(center.getElevation() - (mapRandom.nextDouble() * (center.getElevation() - lowest.getElevation())));
 					else
-						center.elevation += mapRandom.nextDouble() * (center.elevation - highest.elevation);
+						center.setElevation(center.getElevation() + (mapRandom.nextDouble() * (center.getElevation() - highest.getElevation())));
 
-					center.elevation = Math.min(Math.max(0, center.elevation), 1.0);
-					if(center.elevation <= 0)
+					center.setElevation(Math.min(Math.max(0, center.getElevation()), 1.0));
+					if(center.getElevation() <= 0)
 						return;
 				}
 			}
@@ -795,7 +880,7 @@ public class IslandMap
 		for(Iterator<Center> centerIter2 = c.neighbors.iterator(); centerIter2.hasNext();)
 		{
 			Center center2 = (Center)centerIter2.next();
-			if(highest == null || center2.elevation > highest.elevation)
+			if(highest == null || center2.getElevation() > highest.getElevation())
 				highest = center2;
 		}
 		RiverAttribute attrib = ((RiverAttribute)c.getAttribute(Attribute.River));
@@ -812,7 +897,7 @@ public class IslandMap
 		for(Iterator<Center> centerIter2 = c.neighbors.iterator(); centerIter2.hasNext();)
 		{
 			Center center2 = (Center)centerIter2.next();
-			if(lowest == null || center2.elevation < lowest.elevation)
+			if(lowest == null || center2.getElevation() < lowest.getElevation())
 				lowest = center2;
 		}
 		RiverAttribute attrib = ((RiverAttribute)c.getAttribute(Attribute.River));
@@ -827,7 +912,7 @@ public class IslandMap
 		for(Iterator<Center> centerIter2 = group.iterator(); centerIter2.hasNext();)
 		{
 			Center center2 = (Center)centerIter2.next();
-			if(lowest == null || center2.elevation < lowest.elevation)
+			if(lowest == null || center2.getElevation() < lowest.getElevation())
 				lowest = center2;
 		}
 		return lowest;
@@ -839,73 +924,20 @@ public class IslandMap
 		for(Iterator<Center> centerIter2 = group.iterator(); centerIter2.hasNext();)
 		{
 			Center center2 = (Center)centerIter2.next();
-			if(highest == null || center2.elevation > highest.elevation)
+			if(highest == null || center2.getElevation() > highest.getElevation())
 				highest = center2;
 		}
 		return highest;
 	}
 
+	/**
+	 * Reorders the neighbors and corners of every center clockwise. The orderings are precomputed by the topology
+	 * so this only needs to swap the adjacency arrays in the store.
+	 */
 	private void sortClockwise() 
 	{
-		for(Iterator<Center> centerIter = centers.iterator(); centerIter.hasNext();)
-		{
-			Center center = (Center)centerIter.next();
-			Vector<Corner> sortedCorners = new Vector<Corner>();
-			Vector<Center> sortedNeighbors = new Vector<Center>();
-			Point zeroPoint = new Point(center.point.x, center.point.y+1);
-			//Sort neighbors clockwise
-			for(Iterator<Corner> iter = center.corners.iterator(); iter.hasNext();)
-			{
-				Corner c = (Corner)iter.next();
-				if(sortedCorners.size() == 0)
-					sortedCorners.add(c);
-				else
-				{
-					boolean found = false;
-					for(int i = 0; i < sortedCorners.size(); i++)
-					{
-						Corner c1 = sortedCorners.get(i);
-						double c1angle = Math.atan2((c1.point.y - zeroPoint.y) , (c1.point.x - zeroPoint.x));
-						double c2angle = Math.atan2((c.point.y - zeroPoint.y) , (c.point.x - zeroPoint.x));
-						if(c2angle < c1angle)
-						{
-							sortedCorners.add(i, c);
-							found = true;
-							break;
-						}
-					}
-					if(!found)
-						sortedCorners.add(c);
-				}
-			}
-			//Sort neighbors clockwise
-			for(Iterator<Center> iter = center.neighbors.iterator(); iter.hasNext();)
-			{
-				Center c = (Center)iter.next();
-				if(sortedNeighbors.size() == 0)
-					sortedNeighbors.add(c);
-				else
-				{
-					boolean found = false;
-					for(int i = 0; i < sortedNeighbors.size(); i++)
-					{
-						Center c1 = sortedNeighbors.get(i);
-						double c1angle = Math.atan2((c1.point.y - zeroPoint.y) , (c1.point.x - zeroPoint.x));
-						double c2angle = Math.atan2((c.point.y - zeroPoint.y) , (c.point.x - zeroPoint.x));
-						if(c2angle < c1angle)
-						{
-							sortedNeighbors.add(i, c);
-							found = true;
-							break;
-						}
-					}
-					if(!found)
-						sortedNeighbors.add(c);
-				}
-			}
-			center.neighbors = sortedNeighbors;
-			center.corners = sortedCorners;
-		}
+		store.setAdjacency(IslandGraphStore.CENTER_NEIGHBORS, topology.centerNeighborOffsets, topology.centerNeighborsClockwise);
+		store.setAdjacency(IslandGraphStore.CENTER_CORNERS, topology.centerCornerOffsets, topology.centerCornersClockwise);
 	}
 
 	private void setupBiomeInfo() 
@@ -937,9 +969,9 @@ public class IslandMap
 			}
 
 			if(center.hasMarker(Marker.CoastWater))
-				center.elevation = -0.04/* - mapRandom.nextDouble()*0.03*/;
+				center.setElevation(-0.04/* - mapRandom.nextDouble()*0.03*/);
 			else if(center.hasMarker(Marker.Ocean))
-				center.elevation = -0.1 - mapRandom.nextDouble()*0.25;
+				center.setElevation(-0.1 - mapRandom.nextDouble()*0.25);
 
 
 		}
@@ -977,19 +1009,7 @@ public class IslandMap
 	}
 
 	public Vector<Point> generateHexagon(int size) {
-
-		Vector<Point> points = new Vector<Point>();
-		int N = (int) Math.sqrt(NUM_POINTS);
-		double xC, yC;
-		for (int x = 0; x < N; x++) {
-			for (int y = 0; y < N; y++) 
-			{
-				xC = (0.5 + x) / N * (size);
-				yC = (0.25 + 0.5 * x % 2 + y) / N * (size);
-				points.add(new Point(xC, yC));
-			}
-		}
-		return points;
+		return IslandTopology.generateHexagon(size, NUM_POINTS);
 	}
 
 	/** 
@@ -1035,175 +1055,56 @@ public class IslandMap
 	}
 
 	/**
-	// Build graph data structure in 'edges', 'centers', 'corners',
-	// based on information in the Voronoi results: point.neighbors
-	// will be a list of neighboring points of the same type (corner
-	// or center); point.edges will be a list of edges that include
-	// that point. Each edge connects to four points: the Voronoi edge
-	// edge.{v0,v1} and its dual Delaunay triangle edge edge.{d0,d1}.
-	// For boundary polygons, the Delaunay edge will have one null
-	// point, and the Voronoi edge may be null.
+	 * Creates the centers, corners and edges for this map from a shared topology. The map's graph store references
+	 * the topology adjacency arrays directly so only the per cell data is allocated for each island.
 	 */
-	public void buildGraph(Vector<Point> points, Voronoi voronoi) 
-	{
-		Center p; 
-		Corner q; 
-		Point point;
-		Point other;
-
-		Vector<com.bioxx.jmapgen.com.nodename.delaunay.Edge> libedges = voronoi.getEdges();
-		HashMap<Point, Center> centerLookup = new HashMap<Point, Center>();
-
-		//System.out.println("Starting buildGraph...");
-
-		// Build Center objects for each of the points, and a lookup map
-		// to find those Center objects again as we build the graph
-		//System.out.println("Building Centers from " + points.size() + " total Points");
-		for(int i = 0; i < points.size(); i++) 
-		{
-			point = points.get(i);
-			p = new Center();
-			p.index = centers.size();
-			p.point = point;
+	public void buildGraph(IslandTopology t)
+	{
+		topology = t;
+		centerIndex = null;
+		store = new IslandGraphStore(centers, corners, edges, t.numCenters, t.numCorners);
+		store.setAdjacency(IslandGraphStore.CENTER_NEIGHBORS, t.centerNeighborOffsets, t.centerNeighbors);
+		store.setAdjacency(IslandGraphStore.CENTER_BORDERS, t.centerBorderOffsets, t.centerBorders);
+		store.setAdjacency(IslandGraphStore.CENTER_CORNERS, t.centerCornerOffsets, t.centerCorners);
+		store.setAdjacency(IslandGraphStore.CORNER_TOUCHES, t.cornerTouchOffsets, t.cornerTouches);
+		store.setAdjacency(IslandGraphStore.CORNER_PROTRUDES, t.cornerProtrudeOffsets, t.cornerProtrudes);
+		store.setAdjacency(IslandGraphStore.CORNER_ADJACENT, t.cornerAdjacentOffsets, t.cornerAdjacent);
+
+		centers.ensureCapacity(t.numCenters);
+		corners.ensureCapacity(t.numCorners);
+		edges.ensureCapacity(t.numEdges);
+
+		for(int i = 0; i < t.numCenters; i++)
+		{
+			Center p = new Center(store, i);
+			p.point = t.centerPoints[i];
 			centers.add(p);
-			centerLookup.put(point, p);
 		}
 
-		// Workaround for Voronoi lib bug: we need to call region()
-		// before Edges or neighboringSites are available
-		for(int i = 0; i < centers.size(); i++) 
+		for(int i = 0; i < t.numCorners; i++)
 		{
-			p = centers.get(i);
-			voronoi.region(p.point);
+			Corner q = new Corner(store, i);
+			q.point = t.cornerPoints[i];
+			if(t.cornerBorder[i])
+				q.setMarkers(Marker.Border);
+			corners.add(q);
 		}
 
-
-		// The Voronoi library generates multiple Point objects for
-		// corners, and we need to canonicalize to one Corner object.
-		// To make lookup fast, we keep an array of Points, bucketed by
-		// x value, and then we only have to look at other Points in
-		// nearby buckets. When we fail to find one, we'll create a new
-		// Corner object.
-		Vector<Vector<Corner>> _cornerMap = new Vector<Vector<Corner>>();
-		_cornerMap.setSize((int)SIZE);
-
-		for(int i = 0; i < libedges.size(); i++) 
+		for(int i = 0; i < t.numEdges; i++)
 		{
-			com.bioxx.jmapgen.com.nodename.delaunay.Edge libedge = libedges.get(i);
-			LineSegment dedge = libedge.delaunayLine();
-			LineSegment vedge = libedge.voronoiEdge();
-
-			// Fill the graph data. Make an Edge object corresponding to
-			// the edge from the voronoi library.
-			Edge edge = new Edge();
-			edge.index = edges.size();
+			Edge edge = new Edge(i);
+			edge.midpoint = t.edgeMidpoints[i];
+			edge.dCenter0 = t.edgeCenter0[i] >= 0 ? centers.get(t.edgeCenter0[i]) : null;
+			edge.dCenter1 = t.edgeCenter1[i] >= 0 ? centers.get(t.edgeCenter1[i]) : null;
+			edge.vCorner0 = t.edgeCorner0[i] >= 0 ? corners.get(t.edgeCorner0[i]) : null;
+			edge.vCorner1 = t.edgeCorner1[i] >= 0 ? corners.get(t.edgeCorner1[i]) : null;
 			edges.add(edge);
-			edge.midpoint = vedge.p0 != null && vedge.p1 != null ? Point.interpolate(vedge.p0, vedge.p1, 0.5) : null;
-
-			Corner c0 = makeCorner(vedge.p0, _cornerMap);
-			Corner c1 = makeCorner(vedge.p1, _cornerMap);
-
-			edge.setVoronoiEdge(c0, c1);
-			edge.dCenter0 = centerLookup.get(dedge.p0);
-			edge.dCenter1 = centerLookup.get(dedge.p1);
-
-			// Centers point to edges. Corners point to edges.
-			if (edge.dCenter0 != null) { edge.dCenter0.borders.add(edge); }
-			if (edge.dCenter1 != null) { edge.dCenter1.borders.add(edge); }
-			if (edge.vCorner0 != null) { edge.vCorner0.protrudes.add(edge); }
-			if (edge.vCorner1 != null) { edge.vCorner1.protrudes.add(edge); }
-
-
-
-			// Centers point to centers.
-			if (edge.dCenter0 != null && edge.dCenter1 != null) 
-			{
-				addToCenterList(edge.dCenter0.neighbors, edge.dCenter1);
-				addToCenterList(edge.dCenter1.neighbors, edge.dCenter0);
-			}
-			// Centers point to corners
-			if (edge.dCenter0 != null) 
-			{
-				addToCornerList(edge.dCenter0.corners, edge.vCorner0);
-				addToCornerList(edge.dCenter0.corners, edge.vCorner1);
-			}
-			if (edge.dCenter1 != null) 
-			{
-				addToCornerList(edge.dCenter1.corners, edge.vCorner0);
-				addToCornerList(edge.dCenter1.corners, edge.vCorner1);
-			}
-
-			// Corners point to centers
-			if (edge.vCorner0 != null) 
-			{
-				addToCenterList(edge.vCorner0.touches, edge.dCenter0);
-				addToCenterList(edge.vCorner0.touches, edge.dCenter1);
-			}
-			if (edge.vCorner1 != null) 
-			{
-				addToCenterList(edge.vCorner1.touches, edge.dCenter0);
-				addToCenterList(edge.vCorner1.touches, edge.dCenter1);
-			}
 		}
-
-		//System.out.println("Finished buildGraph...");
 	}
 
-	@SuppressWarnings("unchecked")
-	public Corner makeCorner(Point point, Vector<Vector<Corner>> _cornerMap) 
+	public IslandGraphStore getGraphStore()
 	{
-		Corner q;
-		int bucket;
-
-		if (point == null) 
-			return null;
-
-		int minBucket = (int)(point.x) - 1;
-		int maxBucket = (int)(point.x) + 1;
-
-		for (bucket = minBucket; bucket <= maxBucket; bucket++) 
-		{
-			Vector<Corner> cornermap = (Vector<Corner>) DelaunayUtil.getAtPosition(_cornerMap, bucket);
-			for(int i = 0; cornermap != null && i < cornermap.size(); i++) 
-			{
-				q = cornermap.get(i);
-				double dx = point.x - q.point.x;
-				double dy = point.y - q.point.y;
-				double dxdy = dx*dx + dy*dy;
-				if (dxdy < 1E-6) 
-				{
-					return q;
-				}
-			}
-		}
-
-		bucket = (int)(point.x);
-		if (_cornerMap.size() <= bucket || _cornerMap.get(bucket) == null)
-		{
-			DelaunayUtil.setAtPosition(_cornerMap, bucket, new Vector<Corner>());
-		}
-		q = new Corner();
-		q.index = corners.size();
-		corners.add(q);
-
-		q.point = point;
-		if(point.x ==0 || point.x == SIZE || point.y == 0 || point.y == SIZE) 
-			q.setMarkers(Marker.Border);	
-
-		_cornerMap.get(bucket).add(q);
-
-		return q;
-
-	}
-
-	void addToCornerList(Vector<Corner> v, Corner x) 
-	{
-		if (x != null && !v.contains(x)) { v.add(x); }
-	}
-
-	void addToCenterList(Vector<Center> v, Center x) 
-	{
-		if (x != null && v.indexOf(x) < 0) { v.add(x); }
+		return store;
 	}
 
 	/* Determine elevations and water at Voronoi corners. By
@@ -1233,7 +1134,7 @@ public class IslandMap
 
 			if (c.hasMarker(Marker.Border)) 
 			{
-				c.elevation = 0;
+				c.setElevation(0);
 				queue.add(c);
 			}
 		}
@@ -1262,7 +1163,7 @@ public class IslandMap
 					// Every step up is epsilon over water or 1 over land. The
 					// number doesn't matter because we'll rescale the
 					// elevations later.				
-					double newElevation = 0.000000001 + baseCorner.elevation;
+					double newElevation = 0.000000001 + baseCorner.getElevation();
 
 					if (!baseCorner.hasMarker(Marker.Water) && !adjacentCorner.hasMarker(Marker.Water)) 
 					{
@@ -1270,9 +1171,9 @@ public class IslandMap
 					}
 					// If this point changed, we'll add it to the queue so
 					// that we can process its neighbors too.
-					if (newElevation < adjacentCorner.elevation) 
+					if (newElevation < adjacentCorner.getElevation()) 
 					{
-						adjacentCorner.elevation = newElevation;
+						adjacentCorner.setElevation(newElevation);
 						queue.add(adjacentCorner);
 					}
 				}
@@ -1340,7 +1241,7 @@ public class IslandMap
 		for(Corner c : corners)
 		{
 			c.resetMarkers();
-			c.elevation = 0;
+			c.setElevation(0);
 		}
 
 		for(Center c : centers)
@@ -1359,11 +1260,11 @@ public class IslandMap
 			for(int o = 0; o < locationsOut.size(); o++)
 			{
 				Corner cOut = locationsOut.get(o);
-				if(cOut.elevation < c.elevation)
+				if(cOut.getElevation() < c.getElevation())
 				{
 					locationsOut.add(o, c);
-					if(cOut.elevation < 0)
-						cOut.elevation = 0;
+					if(cOut.getElevation() < 0)
+						cOut.setElevation(0);
 					break;
 				}
 			}
@@ -1380,7 +1281,7 @@ public class IslandMap
 			for(int o = 0; o < locationsOut.size(); o++)
 			{
 				Corner cOut = locationsOut.get(o);
-				if(cOut.moisture < c.moisture)
+				if(cOut.getMoisture() < c.getMoisture())
 				{
 					locationsOut.add(o, c);
 					break;
@@ -1436,9 +1337,9 @@ public class IslandMap
 			if (x > 1.0) 
 				x = 1.0;
 
-			c.elevation = x;
+			c.setElevation(x);
 			if(!c.hasMarker(Marker.Water) && !c.isShoreline())
-				c.elevation +=0.01;
+				c.setElevation(c.getElevation() + 0.01);
 		}
 	}
 
@@ -1678,12 +1579,12 @@ public class IslandMap
 			for(int j = 0; j < p.corners.size(); j++)
 			{
 				q = p.corners.get(j);
-				sumElevation += q.elevation;
+				sumElevation += q.getElevation();
 			}
-			p.elevation = sumElevation / p.corners.size();
+			p.setElevation(sumElevation / p.corners.size());
 			//If we are generating cliffs then we multiply the elevation by .85 to keep it <= 1.0 and add 0.15
-			if(this.islandParams.hasFeature(Feature.Cliffs) && !p.hasMarker(Marker.Ocean) && !p.hasMarker(Marker.Coast) && p.elevation >= 0)
-				p.elevation = Math.max((p.elevation * 0.85) + 0.15, 0.15);
+			if(this.islandParams.hasFeature(Feature.Cliffs) && !p.hasMarker(Marker.Ocean) && !p.hasMarker(Marker.Coast) && p.getElevation() >= 0)
+				p.setElevation(Math.max((p.getElevation() * 0.85) + 0.15, 0.15));
 		}
 	}
 
@@ -1731,7 +1632,7 @@ public class IslandMap
 			lake.lakeID = lakeID;
 			for(Center c : lake.centers)
 			{
-				c.elevation = lake.lowestCenter.elevation;
+				c.setElevation(lake.lowestCenter.getElevation());
 				LakeAttribute attrib = new LakeAttribute(Attribute.Lake);
 				if(c.getElevation() < lake.lowestCenter.getElevation())
 					attrib.setLakeElev(c.getElevation() );
@@ -1751,10 +1652,10 @@ public class IslandMap
 					if(!n.hasMarker(Marker.Water))
 					{
 						attrib.setBorderDistance(0);
-						if(n.elevation < c.elevation)//Neighbor is lower than the lake
-							n.elevation += (c.elevation - n.elevation)/2;
-						else if(c.elevation < n.elevation)//Neighbor is higher than the lake
-							n.elevation -= (n.elevation - c.elevation)/2;
+						if(n.getElevation() < c.getElevation())//Neighbor is lower than the lake
+							n.setElevation(n.getElevation() + ((c.getElevation() - n.getElevation())/2));
+						else if(c.getElevation() < n.getElevation())//Neighbor is higher than the lake
+							n.setElevation(n.getElevation() - ((n.getElevation() - c.getElevation())/2));
 					}
 				}
 				if(c.getElevation() < 0.1)
@@ -1790,7 +1691,7 @@ public class IslandMap
 			for(int i = 0; i < upCorner.neighbors.size(); i++)
 			{
 				tempCorner= upCorner.neighbors.get(i);
-				if (convertHeightToMC(tempCorner.elevation) <= convertHeightToMC(downCorner.elevation)) 
+				if (convertHeightToMC(tempCorner.getElevation()) <= convertHeightToMC(downCorner.getElevation())) 
 				{
 					downCorner = tempCorner;
 				}
@@ -1809,7 +1710,7 @@ public class IslandMap
 		Vector<Center> out = new Vector<Center>();
 		for(Center c : inCenters)
 		{
-			if (c.elevation >= elev)
+			if (c.getElevation() >= elev)
 				out.add(c);
 		}
 		return out;
@@ -1820,7 +1721,7 @@ public class IslandMap
 		Vector<Center> out = new Vector<Center>();
 		for(Center c : inCenters)
 		{
-			if (c.elevation <= elev)
+			if (c.getElevation() <= elev)
 			{
 				if(allowWater || !c.hasMarker(Marker.Water))
 					out.add(c);
@@ -1974,7 +1875,7 @@ public class IslandMap
 					double elev = cn.center.getElevation();
 					if(!cn.center.hasAttribute(Attribute.Gorge))
 					{
-						cn.center.setElevation(Math.max(gorge.minElev,cn.center.elevation - Math.min(diff * 0.5, 0.2)));
+						cn.center.setElevation(Math.max(gorge.minElev,cn.center.getElevation() - Math.min(diff * 0.5, 0.2)));
 						if(cn.getUp() != null && cn.center.getElevation() > cn.getUp().center.getElevation())
 						{
 							cn.center.setElevation(cn.getUp().center.getElevation());
@@ -2003,7 +1904,7 @@ public class IslandMap
 		for(Center n : cur.center.neighbors)
 		{
 			//If the elevations are the same or lower then this might be an ok location
-			if(convertHeightToMC(n.elevation) < convertHeightToMC(cur.center.elevation))
+			if(convertHeightToMC(n.getElevation()) < convertHeightToMC(cur.center.getElevation()))
 			{
 				//If next to a gorge hex then we finish here
 				if(n.hasAttribute(Attribute.Gorge))
@@ -2016,7 +1917,7 @@ public class IslandMap
 				//If the elevation is <= our current cell elevation then we allow this cell to be selected
 				possibles.add(0.5, n);
 			}
-			else if(convertHeightToMC(n.elevation) == convertHeightToMC(cur.center.elevation))
+			else if(convertHeightToMC(n.getElevation()) == convertHeightToMC(cur.center.getElevation()))
 			{
 				possibles.add(0.1, n);
 			}
@@ -2102,7 +2003,7 @@ public class IslandMap
 		{
 			c = possibleStarts.get(i);
 			RiverAttribute cAttrib = ((RiverAttribute)c.getAttribute(Attribute.River));
-			if (c.hasMarker(Marker.Ocean) || c.elevation > 0.85 || (cAttrib != null && cAttrib.getRiver() > 0)) continue;
+			if (c.hasMarker(Marker.Ocean) || c.getElevation() > 0.85 || (cAttrib != null && cAttrib.getRiver() > 0)) continue;
 
 			River r = new River();
 			RiverNode curNode = new RiverNode(c);
@@ -2143,7 +2044,7 @@ public class IslandMap
 			boolean isValid = false;
 			//Is the riverstart valid
 			if(r.riverStart != null && r.riverStart.center.hasMarker(Marker.Water) && r.nodes.lastElement().center.hasMarker(Marker.Water) &&
-					(r.riverStart != r.nodes.lastElement()) && r.nodes.lastElement().center.elevation < r.riverStart.center.elevation)
+					(r.riverStart != r.nodes.lastElement()) && r.nodes.lastElement().center.getElevation() < r.riverStart.center.getElevation())
 				isValid = true;
 			if(r.lengthToMerge > 4 && r.nodes.lastElement().center.hasMarker(Marker.Water))
 				isValid = true;
@@ -2157,7 +2058,7 @@ public class IslandMap
 			{
 				Lake lake = centerInExistingLake(r.riverStart.center);
 				if(r.riverStart.center.hasMarker(Marker.Water) && lake != null && lake.centers.size() > 8)
-					r.riverWidth = 4 - 3 * r.riverStart.center.elevation;
+					r.riverWidth = 4 - 3 * r.riverStart.center.getElevation();
 				else if(r.riverStart.center.hasAttribute(Attribute.Gorge))
 					r.riverWidth = 1;
 				else
@@ -2283,11 +2184,11 @@ public class IslandMap
 		//The river will attempt to meander if we aren't propagating down an existing river
 		if(curAttrib == null || curAttrib.getRiver() == 0)
 		{
-			int curMCElev = convertHeightToMC(curNode.center.elevation);
+			int curMCElev = convertHeightToMC(curNode.center.getElevation());
 			//Go through each neighbor and find all possible hexes at the same elevation or lower
 			for(Center n : curNode.center.neighbors)
 			{
-				int nMCElev = convertHeightToMC(n.elevation);
+				int nMCElev = convertHeightToMC(n.getElevation());
 				//Make sure that we aren't trying to flow backwards if the hexes are on the same level
 				if(n == curNode.upRiver)
 					continue;
@@ -2311,7 +2212,7 @@ public class IslandMap
 					if(n.getAttribute(Attribute.River) != null && ((RiverAttribute)n.getAttribute(Attribute.River)).getRiver() > 0)
 						return new RiverNode(n);
 
-					if(curNode.center.elevation - n.elevation > 0.06)
+					if(curNode.center.getElevation() - n.getElevation() > 0.06)
 						return new RiverNode(n);
 
 					//If the elevation is <= our current cell elevation then we allow this cell to be selected
@@ -2362,9 +2263,9 @@ public class IslandMap
 		} 
 		else if (p.hasMarker(Marker.Water)) 
 		{
-			if (this.getParams().getIslandMoisture().isGreaterThanOrEqual(Moisture.VERYHIGH) && p.elevation < 0.1) 
+			if (this.getParams().getIslandMoisture().isGreaterThanOrEqual(Moisture.VERYHIGH) && p.getElevation() < 0.1) 
 				return BiomeType.SWAMP;
-			if (p.elevation < 0.1) 
+			if (p.getElevation() < 0.1) 
 				return BiomeType.MARSH;
 			if(p.hasAttribute(Attribute.Lake))
 			{
@@ -2474,7 +2375,7 @@ public class IslandMap
 	double elevationBucket(Center p) 
 	{
 		if (p.hasMarker(Marker.Ocean)) return -1;
-		else return Math.floor(p.elevation*10);
+		else return Math.floor(p.getElevation()*10);
 	}
 
 	/**
@@ -2482,73 +2383,90 @@ public class IslandMap
 	 */
 	public Center getClosestCenter(BlockPos p)
 	{
-		return getClosestCenter(new Point(p.getX() % 4096, p.getZ() % 4096));
+		return getClosestCenter(p.getX(), p.getZ());
 	}
 
 	/**
+	 * @param x World or Island X Coordinate
+	 * @param z World or Island Z Coordinate
 	 * @return nearest Center point for the containing hex
 	 */
-	public Center getClosestCenter(Point param)
+	public Center getClosestCenter(int x, int z)
 	{
-		Point p = param.toIslandCoord();
-		//Form the best guess coordinates
-		int x = (int)Math.floor((p.x /(SIZE/NUM_POINTS_SQ)));
-		int y = (int)Math.floor((p.y /(SIZE/NUM_POINTS_SQ)));
-		if(NUM_POINTS_SQ*x+y >= centers.size())
-			return centers.get(0);
+		x = x % 4096;
+		z = z % 4096;
+		if(x < 0)
+			x = 4095 + x;
+		if(z < 0)
+			z = 4095 + z;
+		return centers.get(getCenterIndex().getClosest(x, z));
+	}
 
-		Center orig = this.centers.get( NUM_POINTS_SQ*x+y);
-		//Get the inCircle radius
-		double r = 0;
-		if(orig.corners.size() > 0)
-		{
-			r = Math.sqrt(3)/2*(orig.borders.get(0).midpoint.distanceSq(orig.point));
-		}
-		Center bestGuess = orig;
-		double dist = p.distanceSq(orig.point);
-		//Perform a quick test to see if the point is within the inCircle. If it is then we can skip the rest of the method and return the Best Guess
-		if(dist < r)
-			return bestGuess;
+	/**
+	 * @return nearest Center point for the containing hex
+	 */
+	public Center getClosestCenter(Point param)
+	{
+		//Same wrapping as Point.toIslandCoord without creating a new point
+		int x = (int) (param.x % 4096);
+		int y = (int) (param.y % 4096);
+		if(x < 0)
+			x = 4095 + x;
+		if(param.y < 0)
+			y = 4095 + y;
+		return centers.get(getCenterIndex().getClosest(x, y));
+	}
 
-		for (int i = 0; i < orig.neighbors.size(); i++)
+	/**
+	 * Returns the lookup used to find the closest center. Maps built from a topology share the topology's index.
+	 */
+	public CenterIndex getCenterIndex()
+	{
+		CenterIndex index = centerIndex;
+		if(index == null)
 		{
-			Center guess = orig.neighbors.get(i);
-			double newDist = p.distanceSq(guess.point);
-			if(newDist < dist)
-			{
-				dist = newDist;
-				bestGuess = guess;
-				if(dist < r)
-					return bestGuess;
-			}
-			for (int j = 0; j < guess.neighbors.size(); j++)
+			if(topology != null)
+				index = topology.getCenterIndex();
+			else
 			{
-				Center guess2 = guess.neighbors.get(j);
-				double newDist2 = p.distanceSq(guess2.point);
-				if(newDist2 < dist)
-				{
-					dist = newDist2;
-					bestGuess = guess2;
-					if(dist < r)
-						return bestGuess;
-				}
+				Point[] p = new Point[centers.size()];
+				for(int i = 0; i < p.length; i++)
+					p[i] = centers.get(i).point;
+				index = new CenterIndex(SIZE, p, store.getOffsets(IslandGraphStore.CENTER_NEIGHBORS), store.getData(IslandGraphStore.CENTER_NEIGHBORS));
 			}
+			centerIndex = index;
 		}
-		return bestGuess;
+		return index;
 	}
 
+	/**
+	 * @param p Island Coordinates
+	 */
 	public Corner getClosestCorner(Point p)
 	{
-		Corner closest = corners.get(0);
-		double distance = p.distance(corners.get(0).point);
+		//The closest corner always belongs to the closest center or one of its neighbors
+		int center = getCenterIndex().getClosest(p.x, p.y);
+		Corner closest = getClosestCorner(p, center, null);
+		int count = store.getCount(IslandGraphStore.CENTER_NEIGHBORS, center);
+		for(int i = 0; i < count; i++)
+		{
+			closest = getClosestCorner(p, store.getIndex(IslandGraphStore.CENTER_NEIGHBORS, center, i), closest);
+		}
+		return closest;
+	}
 
-		for (int i = 1; i < corners.size(); i++)
+	private Corner getClosestCorner(Point p, int center, Corner closest)
+	{
+		double distance = closest == null ? Double.MAX_VALUE : p.distanceSq(closest.point);
+		int count = store.getCount(IslandGraphStore.CENTER_CORNERS, center);
+		for(int i = 0; i < count; i++)
 		{
-			double newDist = p.distance(corners.get(i).point);
+			Corner corner = corners.get(store.getIndex(IslandGraphStore.CENTER_CORNERS, center, i));
+			double newDist = p.distanceSq(corner.point);
 			if(newDist < distance)
 			{
 				distance = newDist;
-				closest = corners.get(i);
+				closest = corner;
 			}
 		}
 		return closest;
@@ -2609,14 +2527,20 @@ public class IslandMap
 		edges.clear();
 
 		//First we create empty centers, corners, and edges that can be referenced from each other
+		topology = null;
+		centerIndex = null;
+		store = new IslandGraphStore(centers, corners, edges, centerList.tagCount(), cornerList.tagCount());
+		centers.ensureCapacity(centerList.tagCount());
+		corners.ensureCapacity(cornerList.tagCount());
+		edges.ensureCapacity(edgeList.tagCount());
 		for(int i = 0; i < centerList.tagCount(); i++)
 		{
-			centers.add(new Center(i));
+			centers.add(new Center(store, i));
 		}
 
 		for(int i = 0; i < cornerList.tagCount(); i++)
 		{
-			corners.add(new Corner(i));
+			corners.add(new Corner(store, i));
 		}
 
 		for(int i = 0; i < edgeList.tagCount(); i++)
@@ -2624,25 +2548,40 @@ public class IslandMap
 			edges.add(new Edge(i));
 		}
 
+		//The adjacency lists have to be packed for all centers and corners at once
+		int[][] neighbors = new int[centers.size()][];
+		int[][] borders = new int[centers.size()][];
+		int[][] centerCorners = new int[centers.size()][];
 		for(int i = 0; i < centers.size(); i++)
 		{
-			c = centers.get(i);
-			c.readFromNBT(centerList.getCompoundTagAt(i), this);
+			NBTTagCompound cNBT = centerList.getCompoundTagAt(i);
+			neighbors[i] = cNBT.getIntArray("neighbors");
+			borders[i] = cNBT.getIntArray("borders");
+			centerCorners[i] = cNBT.getIntArray("corners");
+		}
+		setAdjacency(IslandGraphStore.CENTER_NEIGHBORS, IslandGraphStore.pack(neighbors));
+		setAdjacency(IslandGraphStore.CENTER_BORDERS, IslandGraphStore.pack(borders));
+		setAdjacency(IslandGraphStore.CENTER_CORNERS, IslandGraphStore.pack(centerCorners));
 
-			//Rebuild the lake list
-			if(c.hasAttribute(Attribute.Lake))
-			{
-				int lakeID = ((LakeAttribute)c.getAttribute(Attribute.Lake)).getLakeID();
-				if(lakes.size() <= lakeID)
-					lakes.setSize(lakeID+1);
-				if(lakes.get(lakeID) == null)
-				{
-					lakes.set(lakeID, new Lake());
-					lakes.get(lakeID).lakeID = lakeID;
-				}
+		int[][] touches = new int[corners.size()][];
+		int[][] protrudes = new int[corners.size()][];
+		int[][] adjacent = new int[corners.size()][];
+		for(int i = 0; i < corners.size(); i++)
+		{
+			NBTTagCompound cNBT = cornerList.getCompoundTagAt(i);
+			touches[i] = cNBT.getIntArray("touches");
+			protrudes[i] = cNBT.getIntArray("protrudes");
+			adjacent[i] = cNBT.getIntArray("adjacent");
+		}
+		setAdjacency(IslandGraphStore.CORNER_TOUCHES, IslandGraphStore.pack(touches));
+		setAdjacency(IslandGraphStore.CORNER_PROTRUDES, IslandGraphStore.pack(protrudes));
+		setAdjacency(IslandGraphStore.CORNER_ADJACENT, IslandGraphStore.pack(adjacent));
 
-				lakes.get(lakeID).addCenter(c);
-			}
+		for(int i = 0; i < centers.size(); i++)
+		{
+			c = centers.get(i);
+			c.readFromNBT(centerList.getCompoundTagAt(i), this);
+			addToLake(c);
 		}
 
 		for(int i = 0; i < corners.size(); i++)
@@ -2667,5 +2606,28 @@ public class IslandMap
 		islandData.readFromNBT(nbt.getCompoundTag("data"));
 	}
 
+	/**
+	 * Adds a center that was just loaded to its lake, rebuilding the lake list as centers are read.
+	 */
+	void addToLake(Center c)
+	{
+		if(c.hasAttribute(Attribute.Lake))
+		{
+			int lakeID = ((LakeAttribute)c.getAttribute(Attribute.Lake)).getLakeID();
+			if(lakes.size() <= lakeID)
+				lakes.setSize(lakeID+1);
+			if(lakes.get(lakeID) == null)
+			{
+				lakes.set(lakeID, new Lake());
+				lakes.get(lakeID).lakeID = lakeID;
+			}
 
-}
\ No newline at end of file
+			lakes.get(lakeID).addCenter(c);
+		}
+	}
+
+	private void setAdjacency(int kind, int[][] packed)
+	{
+		store.setAdjacency(kind, packed[0], packed[1]);
+	}
+}
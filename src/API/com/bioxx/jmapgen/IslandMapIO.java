@@ -0,0 +1,535 @@
+package com.bioxx.jmapgen;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+
+import com.bioxx.jmapgen.attributes.Attribute;
+import com.bioxx.jmapgen.dungeon.Dungeon;
+import com.bioxx.jmapgen.graph.Center;
+import com.bioxx.jmapgen.graph.Corner;
+import com.bioxx.jmapgen.graph.Edge;
+import com.bioxx.jmapgen.graph.IslandGraphStore;
+
+/**
+ * Reads and writes islands in a flat binary format. Every per cell value is written as one array for the whole island so
+ * that loading is mostly bulk copies out of a ByteBuffer instead of walking a tree of NBT tags.
+ *
+ * Islands that were built from an IslandTopology only store the size and point count of the topology. The points and
+ * adjacency lists are rebuilt from the shared topology when the island is loaded.
+ *
+ * Layout, all values big endian:
+ * <pre>
+ * int numCenters, numCorners, numEdges
+ * boolean shared topology
+ *   true:  int size, int numPoints
+ *   false: double[] center x/y, corner x/y, edge midpoint x/y, int[] edge center0/center1/corner0/corner1
+ * 6 adjacency lists: byte source (0 = stored here, 1 = topology, 2 = clockwise topology), stored lists are int[] offsets, int[] data
+ * centers: byte[] biome, long[] markers, double[] elevation, float[] moisture, int[] downslope, byte[] hasGenerated
+ * corners: long[] markers, double[] elevation, double[] moisture
+ * attributes: class name table, then int count of (int center, short class, NBT payload)
+ * custom data: int count of (int center, NBT)
+ * NBT dungeons, NBT island data
+ * </pre>
+ * Arrays are prefixed with their length. NBT values are prefixed with their length in bytes and are not compressed.
+ */
+public class IslandMapIO
+{
+	public static final int MAGIC = 0x54464349;
+	public static final int VERSION = 1;
+
+	private static final byte ADJ_STORED = 0;
+	private static final byte ADJ_TOPOLOGY = 1;
+	private static final byte ADJ_CLOCKWISE = 2;
+
+	//Attribute classes are looked up once per name instead of once per attribute
+	private static final HashMap<String, Class<?>> attributeClasses = new HashMap<String, Class<?>>();
+
+	public static void write(IslandMap map, DataOutputStream out) throws IOException
+	{
+		IslandGraphStore store = map.store;
+		IslandTopology t = map.topology;
+		int numCenters = map.centers.size();
+		int numCorners = map.corners.size();
+		int numEdges = map.edges.size();
+		boolean shared = t != null && t.numCenters == numCenters && t.numCorners == numCorners && t.numEdges == numEdges;
+
+		out.writeInt(numCenters);
+		out.writeInt(numCorners);
+		out.writeInt(numEdges);
+		out.writeBoolean(shared);
+		if(shared)
+		{
+			out.writeInt(t.size);
+			out.writeInt(t.numPoints);
+		}
+		else
+		{
+			double[] x = new double[numCenters];
+			double[] y = new double[numCenters];
+			for(int i = 0; i < numCenters; i++)
+			{
+				x[i] = map.centers.get(i).point.x;
+				y[i] = map.centers.get(i).point.y;
+			}
+			writeDoubles(out, x);
+			writeDoubles(out, y);
+
+			x = new double[numCorners];
+			y = new double[numCorners];
+			for(int i = 0; i < numCorners; i++)
+			{
+				x[i] = map.corners.get(i).point.x;
+				y[i] = map.corners.get(i).point.y;
+			}
+			writeDoubles(out, x);
+			writeDoubles(out, y);
+
+			x = new double[numEdges];
+			y = new double[numEdges];
+			int[] c0 = new int[numEdges];
+			int[] c1 = new int[numEdges];
+			int[] v0 = new int[numEdges];
+			int[] v1 = new int[numEdges];
+			for(int i = 0; i < numEdges; i++)
+			{
+				Edge e = map.edges.get(i);
+				x[i] = e.midpoint.x;
+				y[i] = e.midpoint.y;
+				c0[i] = e.dCenter0 != null ? e.dCenter0.index : -1;
+				c1[i] = e.dCenter1 != null ? e.dCenter1.index : -1;
+				v0[i] = e.vCorner0 != null ? e.vCorner0.index : -1;
+				v1[i] = e.vCorner1 != null ? e.vCorner1.index : -1;
+			}
+			writeDoubles(out, x);
+			writeDoubles(out, y);
+			writeInts(out, c0);
+			writeInts(out, c1);
+			writeInts(out, v0);
+			writeInts(out, v1);
+		}
+
+		for(int kind = 0; kind < 6; kind++)
+		{
+			byte source = ADJ_STORED;
+			if(shared)
+			{
+				int[] data = store.getData(kind);
+				if(data == getTopologyData(t, kind, false))
+					source = ADJ_TOPOLOGY;
+				else if(data == getTopologyData(t, kind, true))
+					source = ADJ_CLOCKWISE;
+			}
+			out.writeByte(source);
+			if(source == ADJ_STORED)
+			{
+				writeInts(out, store.getOffsets(kind));
+				writeInts(out, store.getData(kind));
+			}
+		}
+
+		//Centers
+		byte[] biomes = new byte[numCenters];
+		int[] downslope = new int[numCenters];
+		byte[] generated = new byte[numCenters];
+		for(int i = 0; i < numCenters; i++)
+		{
+			Center c = map.centers.get(i);
+			biomes[i] = (byte)(c.biome != null ? c.biome.ordinal() : 0);
+			downslope[i] = c.downslope != null ? c.downslope.index : -1;
+			generated[i] = (byte)(c.hasGenerated ? 1 : 0);
+		}
+		writeBytes(out, biomes);
+		writeLongs(out, store.centerMarkers);
+		writeDoubles(out, store.centerElevation);
+		writeFloats(out, store.centerMoisture);
+		writeInts(out, downslope);
+		writeBytes(out, generated);
+
+		//Corners
+		writeLongs(out, store.cornerMarkers);
+		writeDoubles(out, store.cornerElevation);
+		writeDoubles(out, store.cornerMoisture);
+
+		//Attributes
+		ArrayList<String> classNames = new ArrayList<String>();
+		HashMap<String, Integer> classIndex = new HashMap<String, Integer>();
+		int attributeCount = 0;
+		for(int i = 0; i < numCenters; i++)
+		{
+			for(Attribute a : store.getAttributes(i))
+			{
+				String name = a.getClass().getName();
+				if(!classIndex.containsKey(name))
+				{
+					classIndex.put(name, classNames.size());
+					classNames.add(name);
+				}
+				attributeCount++;
+			}
+		}
+		out.writeInt(classNames.size());
+		for(String name : classNames)
+			out.writeUTF(name);
+		out.writeInt(attributeCount);
+		for(int i = 0; i < numCenters; i++)
+		{
+			for(Attribute a : store.getAttributes(i))
+			{
+				out.writeInt(i);
+				out.writeShort(classIndex.get(a.getClass().getName()));
+				NBTTagCompound nbt = new NBTTagCompound();
+				a.writeToNBT(nbt);
+				writeNBT(out, nbt);
+			}
+		}
+
+		//Custom Data
+		int customCount = 0;
+		for(int i = 0; i < numCenters; i++)
+		{
+			NBTTagCompound custom = store.getCustomNBTIfPresent(i);
+			if(custom != null && !custom.hasNoTags())
+				customCount++;
+		}
+		out.writeInt(customCount);
+		for(int i = 0; i < numCenters; i++)
+		{
+			NBTTagCompound custom = store.getCustomNBTIfPresent(i);
+			if(custom != null && !custom.hasNoTags())
+			{
+				out.writeInt(i);
+				writeNBT(out, custom);
+			}
+		}
+
+		NBTTagList dungeonList = new NBTTagList();
+		for(Dungeon d : map.dungeons)
+		{
+			NBTTagCompound n = new NBTTagCompound();
+			d.writeToNBT(n);
+			dungeonList.appendTag(n);
+		}
+		NBTTagCompound dungeonNBT = new NBTTagCompound();
+		dungeonNBT.setTag("dungeons", dungeonList);
+		writeNBT(out, dungeonNBT);
+
+		NBTTagCompound dataNBT = new NBTTagCompound();
+		map.islandData.writeToNBT(dataNBT);
+		writeNBT(out, dataNBT);
+	}
+
+	/**
+	 * Reads an island that was written by write. The map must already have had newIsland called on it.
+	 */
+	public static void read(IslandMap map, ByteBuffer buf) throws IOException
+	{
+		int numCenters = buf.getInt();
+		int numCorners = buf.getInt();
+		int numEdges = buf.getInt();
+		boolean shared = buf.get() != 0;
+
+		map.centers.clear();
+		map.corners.clear();
+		map.edges.clear();
+		map.lakes.clear();
+
+		IslandTopology t = null;
+		if(shared)
+		{
+			t = IslandTopology.get(buf.getInt(), buf.getInt());
+			if(t.numCenters != numCenters || t.numCorners != numCorners || t.numEdges != numEdges)
+				throw new IOException("Island topology does not match the saved island");
+			map.buildGraph(t);
+		}
+		else
+		{
+			map.topology = null;
+			map.centerIndex = null;
+			map.store = new IslandGraphStore(map.centers, map.corners, map.edges, numCenters, numCorners);
+			map.centers.ensureCapacity(numCenters);
+			map.corners.ensureCapacity(numCorners);
+			map.edges.ensureCapacity(numEdges);
+
+			double[] x = readDoubles(buf);
+			double[] y = readDoubles(buf);
+			for(int i = 0; i < numCenters; i++)
+			{
+				Center c = new Center(map.store, i);
+				c.point = new Point(x[i], y[i]);
+				map.centers.add(c);
+			}
+
+			x = readDoubles(buf);
+			y = readDoubles(buf);
+			for(int i = 0; i < numCorners; i++)
+			{
+				Corner c = new Corner(map.store, i);
+				c.point = new Point(x[i], y[i]);
+				map.corners.add(c);
+			}
+
+			x = readDoubles(buf);
+			y = readDoubles(buf);
+			int[] c0 = readInts(buf);
+			int[] c1 = readInts(buf);
+			int[] v0 = readInts(buf);
+			int[] v1 = readInts(buf);
+			for(int i = 0; i < numEdges; i++)
+			{
+				Edge e = new Edge(i);
+				e.midpoint = new Point(x[i], y[i]);
+				e.dCenter0 = c0[i] >= 0 ? map.centers.get(c0[i]) : null;
+				e.dCenter1 = c1[i] >= 0 ? map.centers.get(c1[i]) : null;
+				e.vCorner0 = v0[i] >= 0 ? map.corners.get(v0[i]) : null;
+				e.vCorner1 = v1[i] >= 0 ? map.corners.get(v1[i]) : null;
+				map.edges.add(e);
+			}
+		}
+
+		IslandGraphStore store = map.store;
+		for(int kind = 0; kind < 6; kind++)
+		{
+			byte source = buf.get();
+			if(source == ADJ_STORED)
+			{
+				int[] off = readInts(buf);
+				store.setAdjacency(kind, off, readInts(buf));
+			}
+			else
+			{
+				if(t == null)
+					throw new IOException("Island adjacency refers to a missing topology");
+				boolean clockwise = source == ADJ_CLOCKWISE;
+				store.setAdjacency(kind, getTopologyOffsets(t, kind), getTopologyData(t, kind, clockwise));
+			}
+		}
+
+		//Centers
+		byte[] biomes = readBytes(buf);
+		readLongs(buf, store.centerMarkers);
+		readDoubles(buf, store.centerElevation);
+		readFloats(buf, store.centerMoisture);
+		int[] downslope = readInts(buf);
+		byte[] generated = readBytes(buf);
+		BiomeType[] biomeTypes = BiomeType.values();
+		for(int i = 0; i < numCenters; i++)
+		{
+			Center c = map.centers.get(i);
+			c.biome = biomeTypes[biomes[i]];
+			c.downslope = downslope[i] >= 0 ? map.centers.get(downslope[i]) : null;
+			c.hasGenerated = generated[i] != 0;
+		}
+
+		//Corners
+		readLongs(buf, store.cornerMarkers);
+		readDoubles(buf, store.cornerElevation);
+		readDoubles(buf, store.cornerMoisture);
+
+		//Attributes
+		Class<?>[] classes = new Class<?>[buf.getInt()];
+		for(int i = 0; i < classes.length; i++)
+			classes[i] = getAttributeClass(readUTF(buf));
+		int attributeCount = buf.getInt();
+		for(int i = 0; i < attributeCount; i++)
+		{
+			Center c = map.centers.get(buf.getInt());
+			Class<?> clazz = classes[buf.getShort()];
+			NBTTagCompound nbt = readNBT(buf);
+			try
+			{
+				Attribute a = (Attribute)clazz.newInstance();
+				a.readFromNBT(nbt, map);
+				c.addAttribute(a);
+			}
+			catch(Exception e)
+			{
+				IslandMap.log.warn("Unable to load attribute " + clazz.getName(), e);
+			}
+		}
+		for(Center c : map.centers)
+			map.addToLake(c);
+
+		//Custom Data
+		int customCount = buf.getInt();
+		for(int i = 0; i < customCount; i++)
+		{
+			int index = buf.getInt();
+			store.setCustomNBT(index, readNBT(buf));
+		}
+
+		map.dungeons.clear();
+		NBTTagList dungeonList = readNBT(buf).getTagList("dungeons", 10);
+		for(int i = 0; i < dungeonList.tagCount(); i++)
+		{
+			Dungeon d = new Dungeon("generic", 0, 0, 0);
+			d.readFromNBT(map, dungeonList.getCompoundTagAt(i));
+			map.dungeons.add(d);
+		}
+
+		map.islandData = new IslandData(map, map.getParams());
+		map.islandData.readFromNBT(readNBT(buf));
+	}
+
+	private static int[] getTopologyOffsets(IslandTopology t, int kind)
+	{
+		switch(kind)
+		{
+		case IslandGraphStore.CENTER_NEIGHBORS: return t.centerNeighborOffsets;
+		case IslandGraphStore.CENTER_BORDERS: return t.centerBorderOffsets;
+		case IslandGraphStore.CENTER_CORNERS: return t.centerCornerOffsets;
+		case IslandGraphStore.CORNER_TOUCHES: return t.cornerTouchOffsets;
+		case IslandGraphStore.CORNER_PROTRUDES: return t.cornerProtrudeOffsets;
+		default: return t.cornerAdjacentOffsets;
+		}
+	}
+
+	private static int[] getTopologyData(IslandTopology t, int kind, boolean clockwise)
+	{
+		switch(kind)
+		{
+		case IslandGraphStore.CENTER_NEIGHBORS: return clockwise ? t.centerNeighborsClockwise : t.centerNeighbors;
+		case IslandGraphStore.CENTER_BORDERS: return clockwise ? null : t.centerBorders;
+		case IslandGraphStore.CENTER_CORNERS: return clockwise ? t.centerCornersClockwise : t.centerCorners;
+		case IslandGraphStore.CORNER_TOUCHES: return clockwise ? null : t.cornerTouches;
+		case IslandGraphStore.CORNER_PROTRUDES: return clockwise ? null : t.cornerProtrudes;
+		default: return clockwise ? null : t.cornerAdjacent;
+		}
+	}
+
+	private static synchronized Class<?> getAttributeClass(String name) throws IOException
+	{
+		Class<?> clazz = attributeClasses.get(name);
+		if(clazz == null)
+		{
+			try
+			{
+				clazz = Class.forName(name);
+			}
+			catch(ClassNotFoundException e)
+			{
+				throw new IOException("Unknown attribute class " + name, e);
+			}
+			attributeClasses.put(name, clazz);
+		}
+		return clazz;
+	}
+
+	/*****************************
+	 * Array Helpers
+	 *****************************/
+	private static void writeBytes(DataOutputStream out, byte[] a) throws IOException
+	{
+		out.writeInt(a.length);
+		out.write(a);
+	}
+
+	private static void writeInts(DataOutputStream out, int[] a) throws IOException
+	{
+		out.writeInt(a.length);
+		for(int v : a)
+			out.writeInt(v);
+	}
+
+	private static void writeLongs(DataOutputStream out, long[] a) throws IOException
+	{
+		out.writeInt(a.length);
+		for(long v : a)
+			out.writeLong(v);
+	}
+
+	private static void writeFloats(DataOutputStream out, float[] a) throws IOException
+	{
+		out.writeInt(a.length);
+		for(float v : a)
+			out.writeFloat(v);
+	}
+
+	private static void writeDoubles(DataOutputStream out, double[] a) throws IOException
+	{
+		out.writeInt(a.length);
+		for(double v : a)
+			out.writeDouble(v);
+	}
+
+	public static void writeNBT(DataOutputStream out, NBTTagCompound nbt) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CompressedStreamTools.write(nbt, new DataOutputStream(bytes));
+		out.writeInt(bytes.size());
+		bytes.writeTo(out);
+	}
+
+	private static byte[] readBytes(ByteBuffer buf)
+	{
+		byte[] a = new byte[buf.getInt()];
+		buf.get(a);
+		return a;
+	}
+
+	private static int[] readInts(ByteBuffer buf)
+	{
+		int[] a = new int[buf.getInt()];
+		buf.asIntBuffer().get(a);
+		buf.position(buf.position() + a.length * 4);
+		return a;
+	}
+
+	private static void readLongs(ByteBuffer buf, long[] out) throws IOException
+	{
+		checkLength(buf.getInt(), out.length);
+		buf.asLongBuffer().get(out);
+		buf.position(buf.position() + out.length * 8);
+	}
+
+	private static void readFloats(ByteBuffer buf, float[] out) throws IOException
+	{
+		checkLength(buf.getInt(), out.length);
+		buf.asFloatBuffer().get(out);
+		buf.position(buf.position() + out.length * 4);
+	}
+
+	private static double[] readDoubles(ByteBuffer buf)
+	{
+		double[] a = new double[buf.getInt()];
+		buf.asDoubleBuffer().get(a);
+		buf.position(buf.position() + a.length * 8);
+		return a;
+	}
+
+	private static void readDoubles(ByteBuffer buf, double[] out) throws IOException
+	{
+		checkLength(buf.getInt(), out.length);
+		buf.asDoubleBuffer().get(out);
+		buf.position(buf.position() + out.length * 8);
+	}
+
+	private static void checkLength(int length, int expected) throws IOException
+	{
+		if(length != expected)
+			throw new IOException("Expected an array of length " + expected + " but found " + length);
+	}
+
+	private static String readUTF(ByteBuffer buf) throws IOException
+	{
+		byte[] b = new byte[buf.getShort() & 0xFFFF];
+		buf.get(b);
+		return new String(b, "UTF-8");
+	}
+
+	public static NBTTagCompound readNBT(ByteBuffer buf) throws IOException
+	{
+		byte[] b = new byte[buf.getInt()];
+		buf.get(b);
+		return CompressedStreamTools.read(new DataInputStream(new ByteArrayInputStream(b)));
+	}
+}
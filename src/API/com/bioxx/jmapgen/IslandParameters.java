@@ -381,8 +381,6 @@ public class IslandParameters
 
 		public final double rarity;
 		private String name;
-		private static RandomCollection<Feature> potMajor = new RandomCollection<Feature>();
-		private static RandomCollection<Feature> potMinor = new RandomCollection<Feature>();
 		private boolean shouldGen = true;
 		public FeatureSig featureSig = FeatureSig.Major;
 
@@ -405,36 +403,13 @@ public class IslandParameters
 			shouldGen = gen;
 		}
 
-		public static void setupFeatures(Random r)
+		/**
+		 * Creates a new picker for choosing random features. Every island gets its own picker so that islands can be
+		 * created on several threads at once.
+		 */
+		public static FeaturePicker setupFeatures(Random r)
 		{
-			potMajor = new RandomCollection<Feature>(r);
-			if(potMajor.size() == 0)
-			{
-				for(Feature f : Feature.values())
-				{
-					if(f.shouldGen && f.featureSig == FeatureSig.Major)
-						potMajor.add(f.rarity, f);
-				}
-			}
-
-			potMinor = new RandomCollection<Feature>(r);
-			if(potMinor.size() == 0)
-			{
-				for(Feature f : Feature.values())
-				{
-					if(f.shouldGen && f.featureSig == FeatureSig.Minor)
-						potMinor.add(f.rarity, f);
-				}
-			}
-		}
-
-		public static Feature getRandomFeature(FeatureSig sig)
-		{
-			if(sig == FeatureSig.Major && potMajor.size() > 0)
-				return potMajor.next();
-			else if(potMinor.size() > 0)
-				return potMinor.next();
-			return null;
+			return new FeaturePicker(r);
 		}
 
 		@Override
@@ -448,4 +423,32 @@ public class IslandParameters
 			Major, Minor;
 		}
 	}
+
+	public static class FeaturePicker
+	{
+		private final RandomCollection<Feature> potMajor;
+		private final RandomCollection<Feature> potMinor;
+
+		public FeaturePicker(Random r)
+		{
+			potMajor = new RandomCollection<Feature>(r);
+			potMinor = new RandomCollection<Feature>(r);
+			for(Feature f : Feature.values())
+			{
+				if(f.shouldGen && f.featureSig == Feature.FeatureSig.Major)
+					potMajor.add(f.rarity, f);
+				else if(f.shouldGen && f.featureSig == Feature.FeatureSig.Minor)
+					potMinor.add(f.rarity, f);
+			}
+		}
+
+		public Feature getRandomFeature(Feature.FeatureSig sig)
+		{
+			if(sig == Feature.FeatureSig.Major && potMajor.size() > 0)
+				return potMajor.next();
+			else if(potMinor.size() > 0)
+				return potMinor.next();
+			return null;
+		}
+	}
 }
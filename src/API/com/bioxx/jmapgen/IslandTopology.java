@@ -0,0 +1,353 @@
+package com.bioxx.jmapgen;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Vector;
+
+import com.bioxx.jmapgen.com.nodename.delaunay.Voronoi;
+import com.bioxx.jmapgen.com.nodename.geom.LineSegment;
+
+/**
+ * Every island is built from the exact same hexagonal point set so the voronoi graph is identical for
+ * every island of the same size. Instead of running the voronoi for each island we build the graph once,
+ * flatten it into index arrays and let each IslandMap reference these arrays from its IslandGraphStore.
+ *
+ * All adjacency is stored in CSR form. The entries for element i are found at data[offsets[i]] to data[offsets[i+1]-1].
+ * A value of -1 is used for a missing element. None of the arrays or points in this class may be modified.
+ */
+public class IslandTopology
+{
+	private static final HashMap<Long, IslandTopology> TOPOLOGIES = new HashMap<Long, IslandTopology>();
+
+	public final int size;
+	public final int numPoints;
+	public final int numCenters;
+	public final int numCorners;
+	public final int numEdges;
+
+	//These points are shared by every island that uses this topology
+	public final Point[] centerPoints;
+	public final Point[] cornerPoints;
+	public final Point[] edgeMidpoints;
+	public final boolean[] cornerBorder;
+
+	public final int[] centerNeighborOffsets;
+	public final int[] centerNeighbors;
+	public final int[] centerBorderOffsets;
+	public final int[] centerBorders;
+	public final int[] centerCornerOffsets;
+	public final int[] centerCorners;
+
+	//Same offsets as the unsorted arrays. These are the orderings produced by sortClockwise.
+	public final int[] centerNeighborsClockwise;
+	public final int[] centerCornersClockwise;
+
+	public final int[] cornerTouchOffsets;
+	public final int[] cornerTouches;
+	public final int[] cornerProtrudeOffsets;
+	public final int[] cornerProtrudes;
+	public final int[] cornerAdjacentOffsets;
+	public final int[] cornerAdjacent;
+
+	public final int[] edgeCenter0;
+	public final int[] edgeCenter1;
+	public final int[] edgeCorner0;
+	public final int[] edgeCorner1;
+
+	private CenterIndex centerIndex;
+
+	/**
+	 * Returns the shared topology for islands of this size and point count, building it the first time it is requested.
+	 */
+	public static IslandTopology get(int size, int numPoints)
+	{
+		long key = ((long)size << 32) | (numPoints & 0xffffffffL);
+		synchronized(TOPOLOGIES)
+		{
+			IslandTopology t = TOPOLOGIES.get(key);
+			if(t == null)
+			{
+				t = new IslandTopology(size, numPoints);
+				TOPOLOGIES.put(key, t);
+			}
+			return t;
+		}
+	}
+
+	/**
+	 * Returns the closest center lookup for this topology, building it the first time it is requested.
+	 */
+	public synchronized CenterIndex getCenterIndex()
+	{
+		if(centerIndex == null)
+			centerIndex = new CenterIndex(size, centerPoints, centerNeighborOffsets, centerNeighbors);
+		return centerIndex;
+	}
+
+	private IslandTopology(int size, int numPoints)
+	{
+		this.size = size;
+		this.numPoints = numPoints;
+
+		Vector<Point> points = generateHexagon(size, numPoints);
+		Rectangle R = new Rectangle();
+		R.setFrame(0, 0, size, size);
+		Voronoi voronoi = new Voronoi(points, R);
+
+		/**
+		 * Build the graph in the same order that IslandMap.buildGraph always has. point.neighbors
+		 * will be a list of neighboring points of the same type (corner or center); point.edges will be a list
+		 * of edges that include that point. Each edge connects to four points: the Voronoi edge
+		 * edge.{v0,v1} and its dual Delaunay triangle edge edge.{d0,d1}.
+		 */
+		Vector<com.bioxx.jmapgen.com.nodename.delaunay.Edge> libedges = voronoi.getEdges();
+		HashMap<Point, Integer> centerLookup = new HashMap<Point, Integer>();
+
+		numCenters = points.size();
+		centerPoints = new Point[numCenters];
+		ArrayList<ArrayList<Integer>> cNeighbors = newLists(numCenters);
+		ArrayList<ArrayList<Integer>> cBorders = newLists(numCenters);
+		ArrayList<ArrayList<Integer>> cCorners = newLists(numCenters);
+		for(int i = 0; i < numCenters; i++) 
+		{
+			centerPoints[i] = points.get(i);
+			centerLookup.put(points.get(i), i);
+		}
+
+		// Workaround for Voronoi lib bug: we need to call region()
+		// before Edges or neighboringSites are available
+		for(int i = 0; i < numCenters; i++) 
+		{
+			voronoi.region(centerPoints[i]);
+		}
+
+		// The Voronoi library generates multiple Point objects for
+		// corners, and we need to canonicalize to one Corner. To make
+		// lookup fast, we keep the corners bucketed by x value and then
+		// only have to look at other Points in nearby buckets.
+		HashMap<Integer, ArrayList<Integer>> cornerMap = new HashMap<Integer, ArrayList<Integer>>();
+		ArrayList<Point> cPoints = new ArrayList<Point>();
+		ArrayList<ArrayList<Integer>> qTouches = new ArrayList<ArrayList<Integer>>();
+		ArrayList<ArrayList<Integer>> qProtrudes = new ArrayList<ArrayList<Integer>>();
+		ArrayList<ArrayList<Integer>> qAdjacent = new ArrayList<ArrayList<Integer>>();
+
+		numEdges = libedges.size();
+		edgeMidpoints = new Point[numEdges];
+		edgeCenter0 = new int[numEdges];
+		edgeCenter1 = new int[numEdges];
+		edgeCorner0 = new int[numEdges];
+		edgeCorner1 = new int[numEdges];
+
+		for(int i = 0; i < numEdges; i++) 
+		{
+			com.bioxx.jmapgen.com.nodename.delaunay.Edge libedge = libedges.get(i);
+			LineSegment dedge = libedge.delaunayLine();
+			LineSegment vedge = libedge.voronoiEdge();
+
+			edgeMidpoints[i] = vedge.p0 != null && vedge.p1 != null ? Point.interpolate(vedge.p0, vedge.p1, 0.5) : null;
+
+			int v0 = makeCorner(vedge.p0, cornerMap, cPoints, qTouches, qProtrudes, qAdjacent);
+			int v1 = makeCorner(vedge.p1, cornerMap, cPoints, qTouches, qProtrudes, qAdjacent);
+			Integer d0 = centerLookup.get(dedge.p0);
+			Integer d1 = centerLookup.get(dedge.p1);
+			edgeCorner0[i] = v0;
+			edgeCorner1[i] = v1;
+			edgeCenter0[i] = d0 != null ? d0 : -1;
+			edgeCenter1[i] = d1 != null ? d1 : -1;
+
+			// Corners point to adjacent corners
+			if(v0 >= 0 && v1 >= 0 && v0 != v1)
+			{
+				addUnique(qAdjacent.get(v0), v1);
+				addUnique(qAdjacent.get(v1), v0);
+			}
+
+			// Centers point to edges. Corners point to edges.
+			if (d0 != null) { cBorders.get(d0).add(i); }
+			if (d1 != null) { cBorders.get(d1).add(i); }
+			if (v0 >= 0) { qProtrudes.get(v0).add(i); }
+			if (v1 >= 0) { qProtrudes.get(v1).add(i); }
+
+			// Centers point to centers.
+			if (d0 != null && d1 != null) 
+			{
+				addUnique(cNeighbors.get(d0), d1);
+				addUnique(cNeighbors.get(d1), d0);
+			}
+			// Centers point to corners
+			if (d0 != null) 
+			{
+				addUnique(cCorners.get(d0), v0);
+				addUnique(cCorners.get(d0), v1);
+			}
+			if (d1 != null) 
+			{
+				addUnique(cCorners.get(d1), v0);
+				addUnique(cCorners.get(d1), v1);
+			}
+
+			// Corners point to centers
+			if (v0 >= 0) 
+			{
+				addUnique(qTouches.get(v0), edgeCenter0[i]);
+				addUnique(qTouches.get(v0), edgeCenter1[i]);
+			}
+			if (v1 >= 0) 
+			{
+				addUnique(qTouches.get(v1), edgeCenter0[i]);
+				addUnique(qTouches.get(v1), edgeCenter1[i]);
+			}
+		}
+
+		numCorners = cPoints.size();
+		cornerPoints = cPoints.toArray(new Point[numCorners]);
+		cornerBorder = new boolean[numCorners];
+		for(int i = 0; i < numCorners; i++)
+		{
+			Point point = cornerPoints[i];
+			cornerBorder[i] = point.x == 0 || point.x == size || point.y == 0 || point.y == size;
+		}
+
+		int[][] packed = pack(cNeighbors);
+		centerNeighborOffsets = packed[0];
+		centerNeighbors = packed[1];
+		packed = pack(cBorders);
+		centerBorderOffsets = packed[0];
+		centerBorders = packed[1];
+		packed = pack(cCorners);
+		centerCornerOffsets = packed[0];
+		centerCorners = packed[1];
+		packed = pack(qTouches);
+		cornerTouchOffsets = packed[0];
+		cornerTouches = packed[1];
+		packed = pack(qProtrudes);
+		cornerProtrudeOffsets = packed[0];
+		cornerProtrudes = packed[1];
+		packed = pack(qAdjacent);
+		cornerAdjacentOffsets = packed[0];
+		cornerAdjacent = packed[1];
+
+		centerNeighborsClockwise = new int[centerNeighbors.length];
+		centerCornersClockwise = new int[centerCorners.length];
+		for(int i = 0; i < numCenters; i++)
+		{
+			sortClockwise(centerPoints[i], centerNeighbors, centerNeighborOffsets[i], centerNeighborOffsets[i+1], centerPoints, centerNeighborsClockwise);
+			sortClockwise(centerPoints[i], centerCorners, centerCornerOffsets[i], centerCornerOffsets[i+1], cornerPoints, centerCornersClockwise);
+		}
+	}
+
+	public static Vector<Point> generateHexagon(int size, int numPoints)
+	{
+		Vector<Point> points = new Vector<Point>();
+		int N = (int) Math.sqrt(numPoints);
+		double xC, yC;
+		for (int x = 0; x < N; x++) {
+			for (int y = 0; y < N; y++) 
+			{
+				xC = (0.5 + x) / N * (size);
+				yC = (0.25 + 0.5 * x % 2 + y) / N * (size);
+				points.add(new Point(xC, yC));
+			}
+		}
+		return points;
+	}
+
+	private int makeCorner(Point point, HashMap<Integer, ArrayList<Integer>> cornerMap, ArrayList<Point> cPoints, 
+			ArrayList<ArrayList<Integer>> touches, ArrayList<ArrayList<Integer>> protrudes, ArrayList<ArrayList<Integer>> adjacent) 
+	{
+		if (point == null) 
+			return -1;
+
+		int minBucket = (int)(point.x) - 1;
+		int maxBucket = (int)(point.x) + 1;
+
+		for (int bucket = minBucket; bucket <= maxBucket; bucket++) 
+		{
+			ArrayList<Integer> list = cornerMap.get(bucket);
+			for(int i = 0; list != null && i < list.size(); i++) 
+			{
+				Point q = cPoints.get(list.get(i));
+				double dx = point.x - q.x;
+				double dy = point.y - q.y;
+				if (dx*dx + dy*dy < 1E-6) 
+				{
+					return list.get(i);
+				}
+			}
+		}
+
+		int bucket = (int)(point.x);
+		ArrayList<Integer> list = cornerMap.get(bucket);
+		if (list == null)
+		{
+			list = new ArrayList<Integer>();
+			cornerMap.put(bucket, list);
+		}
+		int index = cPoints.size();
+		cPoints.add(point);
+		touches.add(new ArrayList<Integer>());
+		protrudes.add(new ArrayList<Integer>());
+		adjacent.add(new ArrayList<Integer>());
+		list.add(index);
+		return index;
+	}
+
+	private static ArrayList<ArrayList<Integer>> newLists(int count)
+	{
+		ArrayList<ArrayList<Integer>> out = new ArrayList<ArrayList<Integer>>(count);
+		for(int i = 0; i < count; i++)
+			out.add(new ArrayList<Integer>());
+		return out;
+	}
+
+	private static void addUnique(ArrayList<Integer> list, int value)
+	{
+		if(value >= 0 && !list.contains(value))
+			list.add(value);
+	}
+
+	private static int[][] pack(ArrayList<ArrayList<Integer>> lists)
+	{
+		int[] offsets = new int[lists.size()+1];
+		for(int i = 0; i < lists.size(); i++)
+			offsets[i+1] = offsets[i] + lists.get(i).size();
+		int[] data = new int[offsets[lists.size()]];
+		for(int i = 0; i < lists.size(); i++)
+		{
+			ArrayList<Integer> list = lists.get(i);
+			for(int j = 0; j < list.size(); j++)
+				data[offsets[i]+j] = list.get(j);
+		}
+		return new int[][] {offsets, data};
+	}
+
+	/**
+	 * Sorts one adjacency list clockwise starting from the point directly above the center and writes the result into out.
+	 * This is the same insertion sort that IslandMap.sortClockwise used to perform on every island.
+	 */
+	private static void sortClockwise(Point center, int[] in, int start, int end, Point[] targetPoints, int[] out)
+	{
+		Point zeroPoint = new Point(center.x, center.y+1);
+		int count = 0;
+		for(int k = start; k < end; k++)
+		{
+			int c = in[k];
+			double c2angle = Math.atan2((targetPoints[c].y - zeroPoint.y) , (targetPoints[c].x - zeroPoint.x));
+			int insertAt = count;
+			for(int i = 0; i < count; i++)
+			{
+				Point c1 = targetPoints[out[start+i]];
+				double c1angle = Math.atan2((c1.y - zeroPoint.y) , (c1.x - zeroPoint.x));
+				if(c2angle < c1angle)
+				{
+					insertAt = i;
+					break;
+				}
+			}
+			System.arraycopy(out, start+insertAt, out, start+insertAt+1, count-insertAt);
+			out[start+insertAt] = c;
+			count++;
+		}
+	}
+}
@@ -17,7 +17,7 @@ public class Lake
 
 	public void addCenter(Center c)
 	{
-		if(lowestCenter == null || c.elevation < lowestCenter.elevation)
+		if(lowestCenter == null || c.getElevation() < lowestCenter.getElevation())
 		{
 			lowestCenter = c;
 		}
@@ -3,6 +3,7 @@ package com.bioxx.jmapgen.com.nodename.delaunay;
 import java.awt.Rectangle;
 import java.util.Comparator;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.bioxx.jmapgen.Point;
 import com.bioxx.jmapgen.com.nodename.geom.LineSegment;
@@ -14,15 +15,13 @@ import com.bioxx.jmapgen.com.nodename.geom.LineSegment;
  */
 public class Edge implements  Comparator<Edge>
 {
-	private static Vector<Edge> _pool = new Vector<Edge>();
-	
 	public static final Edge DELETED = new Edge();
 
 	public int _edgeIndex;
 
 	public Edge()
 	{			
-		_edgeIndex = _nedges++;
+		_edgeIndex = _nedges.getAndIncrement();
 		init();
 	}
 
@@ -77,18 +76,8 @@ public class Edge implements  Comparator<Edge>
 
 	private static Edge create()
 	{
-		Edge edge;
-		if (_pool.size() > 0)
-		{
-			edge = _pool.lastElement();
-			_pool.remove(_pool.size()-1);
-			edge.init();
-		}
-		else
-		{
-			edge = new Edge();
-		}
-		return edge;
+		//Edges used to come from a static pool which made it unsafe to run more than one Voronoi at a time
+		return new Edge();
 	}
 
 	public LineSegment delaunayLine()
@@ -110,7 +99,8 @@ public class Edge implements  Comparator<Edge>
 				(Point)_clippedVertices[LR.RIGHT.value]);
 	}
 
-	public static int _nedges = 0;
+	//Only used to tell edges apart when debugging
+	private static final AtomicInteger _nedges = new AtomicInteger();
 
 	// the equation of the edge: ax + by = c
 	public double a, b, c;
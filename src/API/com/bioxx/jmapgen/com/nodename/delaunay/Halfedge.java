@@ -1,24 +1,12 @@
 package com.bioxx.jmapgen.com.nodename.delaunay;
 
-import java.util.Vector;
-
 import com.bioxx.jmapgen.Point;
 	
 	public class Halfedge
 	{
-		private static Vector<Halfedge> _pool = new Vector<Halfedge>();
 		public static Halfedge create(Edge edge, LR lr)
 		{
-			if (_pool.size() > 0)
-			{
-				Halfedge he = _pool.lastElement().init(edge,lr);
-				_pool.remove(_pool.size()-1);
-				return he;
-			}
-			else
-			{
-				return new Halfedge(edge, lr);
-			}
+			return new Halfedge(edge, lr);
 		}
 		
 		public static Halfedge createDummy()
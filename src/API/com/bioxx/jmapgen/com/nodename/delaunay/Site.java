@@ -16,8 +16,6 @@ import com.bioxx.jmapgen.com.nodename.geom.Winding;
  */
 public class Site implements ICoord, Comparator<Site>
 {
-	private static Vector<Site> _pool = new Vector<Site>();
-
 	public Site()
 	{
 
@@ -25,16 +23,7 @@ public class Site implements ICoord, Comparator<Site>
 
 	public static Site create(Point p, int index)
 	{
-		if (_pool.size() > 0)
-		{
-			Site site = _pool.lastElement().init(p, index);
-			_pool.remove(_pool.size()-1);
-			return site;
-		}
-		else
-		{
-			return new Site(p, index);
-		}
+		return new Site(p, index);
 	}
 
 	/**
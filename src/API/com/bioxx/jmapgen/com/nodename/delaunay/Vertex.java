@@ -1,6 +1,6 @@
 package com.bioxx.jmapgen.com.nodename.delaunay;
 
-import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.bioxx.jmapgen.Point;
 
@@ -9,28 +9,17 @@ import com.bioxx.jmapgen.Point;
 	{
 		static final Vertex VERTEX_AT_INFINITY = new Vertex(Double.NaN, Double.NaN);
 		
-		private static Vector<Vertex> _pool = new Vector<Vertex>();
 		private static Vertex create(double x, double y)
 		{
 			if (Double.isNaN(x) || Double.isNaN(y))
 			{
 				return VERTEX_AT_INFINITY;
 			}
-			if (_pool.size() > 0)
-			{
-				Vertex v = _pool.lastElement();
-				_pool.remove(_pool.size()-1);
-				v.init(x,y);
-				return v;
-			}
-			else
-			{
-				return new Vertex(x, y);
-			}
+			return new Vertex(x, y);
 		}
 
 
-		private static int _nvertices = 0;
+		private static final AtomicInteger _nvertices = new AtomicInteger();
 		
 		private Point _coord;
 		public Point getCoord()
@@ -58,12 +47,11 @@ import com.bioxx.jmapgen.Point;
 		public void dispose()
 		{
 			_coord = null;
-			_pool.add(this);
 		}
 		
 		public void setIndex()
 		{
-			_vertexIndex = _nvertices++;
+			_vertexIndex = _nvertices.getAndIncrement();
 		}
 		
 		public String toString()
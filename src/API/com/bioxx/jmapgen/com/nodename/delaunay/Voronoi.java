@@ -27,7 +27,7 @@ public class Voronoi
 	private Vector<Triangle> _triangles;
 	private Vector<Edge> _edges;
 	private Rectangle _plotBounds;
-	private static Site bottomMostSite = null;
+	private Site bottomMostSite = null;
 
 
 	public Voronoi(Vector<Point> points, Rectangle plotBounds)
@@ -261,7 +261,7 @@ public class Voronoi
 		}
 	}
 
-	public static Site leftRegion(Halfedge he)
+	public Site leftRegion(Halfedge he)
 	{
 		Edge edge = he.edge;
 		if (edge == null)
@@ -271,7 +271,7 @@ public class Voronoi
 		return edge.site(he.leftRight);
 	}
 
-	public static Site rightRegion(Halfedge he)
+	public Site rightRegion(Halfedge he)
 	{
 		Edge edge = he.edge;
 		if (edge == null)
@@ -40,7 +40,7 @@ public class DungeonTheme
 
 	public RoomSchematic getRandomEntrance(Random random)
 	{
-		RandomCollection<RoomSchematic> rooms = new RandomCollection<RoomSchematic>();
+		RandomCollection<RoomSchematic> rooms = new RandomCollection<RoomSchematic>(random);
 		for(RoomSchematic rs : schematicMap.values())
 		{
 			if(rs.getRoomType() == RoomType.Entrance && rs.getChooseWeight() > 0)
@@ -55,7 +55,7 @@ public class DungeonTheme
 
 	public RoomSchematic getRandomRoomForDirection(Random random, DungeonDirection dir, RoomType rt)
 	{
-		RandomCollection<RoomSchematic> rooms = new RandomCollection<RoomSchematic>();
+		RandomCollection<RoomSchematic> rooms = new RandomCollection<RoomSchematic>(random);
 		for(RoomSchematic rs : schematicMap.values())
 		{
 			//Schematic must be able to connect in this direction, but must not have a matching schematic for this direction registered.
@@ -76,7 +76,7 @@ public class DungeonTheme
 
 	public RoomSchematic getRandomRoomSingleDirection(Random random, DungeonDirection dir)
 	{
-		RandomCollection<RoomSchematic> rooms = new RandomCollection<RoomSchematic>();
+		RandomCollection<RoomSchematic> rooms = new RandomCollection<RoomSchematic>(random);
 		for(RoomSchematic rs : schematicMap.values())
 		{
 			//Schematic must be able to connect in this direction, but must not have a matching schematic for this direction registered.
@@ -16,83 +16,72 @@ import com.bioxx.tfc2.api.types.Moisture;
 
 public class Center 
 {
-	public int index;
+	public final int index;
 
 	public Point point;  // location
 
-	private EnumSet<Marker> flags = EnumSet.noneOf(Marker.class);
-
 	public BiomeType biome;
-	public double elevation = 0; // 0.0-1.0
-	private float moisture = 0; // 0.0-1.0
 
 	public Center downslope; // pointer to adjacent center most downhill
 
-	public Vector<Center> neighbors;
-	public Vector<Edge> borders;
-	public Vector<Corner> corners;
+	public final List<Center> neighbors;
+	public final List<Edge> borders;
+	public final List<Corner> corners;
 
-	public HashMap<UUID, Attribute> attribMap;
 	public boolean hasGenerated = false;
 
-	private NBTTagCompound customNBT;
-
-	public Center()
-	{
-		index = 0;
-		neighbors = new  Vector<Center>();
-		borders = new Vector<Edge>();
-		corners = new Vector<Corner>();
-		attribMap = new HashMap<UUID, Attribute>();
-		customNBT = new NBTTagCompound();
-	}
+	//Elevation, moisture, markers, attributes and custom data all live in the store
+	private final IslandGraphStore store;
 
-	public Center(int i)
+	public Center(IslandGraphStore store, int i)
 	{
-		this();
+		this.store = store;
 		index = i;
+		neighbors = new GraphList<Center>(store, IslandGraphStore.CENTER_NEIGHBORS, i);
+		borders = new GraphList<Edge>(store, IslandGraphStore.CENTER_BORDERS, i);
+		corners = new GraphList<Corner>(store, IslandGraphStore.CENTER_CORNERS, i);
 	}
 
 	public float getMoistureRaw()
 	{
-		return this.moisture;
+		return store.centerMoisture[index];
 	}
 
 	public void setMoistureRaw(double d)
 	{
-		this.moisture = (float)d;
+		store.centerMoisture[index] = (float)d;
 	}
 
 	public void setMoistureRaw(float d)
 	{
-		this.moisture = d;
+		store.centerMoisture[index] = d;
 	}
 
 	public double getElevation()
 	{
-		return this.elevation;
+		return store.centerElevation[index];
 	}
 
 	public void setElevation(double d)
 	{
-		this.elevation = d;
+		store.centerElevation[index] = d;
 	}
 
 	public void setMarkers(Marker... m)
 	{
 		for(Marker mk : m)
-			flags.add(mk);
+			store.centerMarkers[index] |= mk.getFlag();
 	}
 
 	public boolean hasMarker(Marker m)
 	{
-		return flags.contains(m);
+		return (store.centerMarkers[index] & m.getFlag()) != 0;
 	}
 
 	public boolean hasAnyMarkersOf(Marker... m)
 	{
 		for(Marker mk : m)
-			if(flags.contains(mk))
+			if(hasMarker(mk))
 				return true;
 		return false;
 	}
@@ -100,36 +89,48 @@ public class Center
 	public void removeMarkers(Marker... m)
 	{
 		for(Marker mk : m)
-			flags.remove(mk);
+			store.centerMarkers[index] &= ~mk.getFlag();
 	}
 
 	public void resetMarkers()
 	{
-		flags.clear();
+		store.centerMarkers[index] = 0;
+	}
+
+	/**
+	 * @return All of the markers on this center as a bit field of Marker flags
+	 */
+	public long getMarkerBits()
+	{
+		return store.centerMarkers[index];
 	}
 
 	public Attribute getAttribute(UUID id)
 	{
-		return attribMap.get(id);
+		return store.getAttribute(index, id);
 	}
 
 	public boolean hasAttribute(UUID id)
 	{
-		return attribMap.containsKey(id);
+		return store.getAttribute(index, id) != null;
 	}
 
 	public boolean addAttribute(Attribute a)
 	{
-		if(attribMap.containsKey(a.id))
-			return false;
+		return store.addAttribute(index, a);
+	}
 
-		attribMap.put(a.id, a);
-		return true;
+	/**
+	 * @return All attributes on this center. This array must not be modified.
+	 */
+	public Attribute[] getAttributes()
+	{
+		return store.getAttributes(index);
 	}
 
 	public double getAverageElevation()
 	{
-		double sum = elevation;
+		double sum = getElevation();
 		int total = 1;
 		for(Center n : neighbors)
 		{
@@ -203,7 +204,7 @@ public class Center
 		for(Iterator<Center> centerIter2 = neighbors.iterator(); centerIter2.hasNext();)
 		{
 			Center center2 = (Center)centerIter2.next();
-			if(highest == null || center2.elevation > highest.elevation)
+			if(highest == null || center2.getElevation() > highest.getElevation())
 				highest = center2;
 		}
 		RiverAttribute attrib = ((RiverAttribute)getAttribute(Attribute.River));
@@ -220,7 +221,7 @@ public class Center
 		for(Iterator<Center> centerIter2 = neighbors.iterator(); centerIter2.hasNext();)
 		{
 			Center center2 = (Center)centerIter2.next();
-			if(lowest == null || center2.elevation < lowest.elevation)
+			if(lowest == null || center2.getElevation() < lowest.getElevation())
 				lowest = center2;
 		}
 		RiverAttribute attrib = ((RiverAttribute)getAttribute(Attribute.River));
@@ -229,25 +230,25 @@ public class Center
 		return lowest;
 	}
 
-	public Center getLowestFromGroup(Vector<Center> group)
+	public Center getLowestFromGroup(List<Center> group)
 	{
 		Center lowest = group.get(0);
 		for(Iterator<Center> centerIter2 = group.iterator(); centerIter2.hasNext();)
 		{
 			Center center2 = (Center)centerIter2.next();
-			if(lowest == null || center2.elevation < lowest.elevation)
+			if(lowest == null || center2.getElevation() < lowest.getElevation())
 				lowest = center2;
 		}
 		return lowest;
 	}
 
-	public Center getHighestFromGroup(Vector<Center> group)
+	public Center getHighestFromGroup(List<Center> group)
 	{
 		Center highest = group.get(0);
 		for(Iterator<Center> centerIter2 = group.iterator(); centerIter2.hasNext();)
 		{
 			Center center2 = (Center)centerIter2.next();
-			if(highest == null || center2.elevation > highest.elevation)
+			if(highest == null || center2.getElevation() > highest.getElevation())
 				highest = center2;
 		}
 		return highest;
@@ -314,7 +315,7 @@ public class Center
 
 	public Moisture getMoisture()
 	{
-		return Moisture.fromVal(moisture);
+		return Moisture.fromVal(getMoistureRaw());
 	}
 
 	public void writeToNBT(NBTTagCompound nbt)
@@ -323,46 +324,22 @@ public class Center
 		nbt.setInteger("biome", biome.ordinal());
 		nbt.setDouble("xCoord", point.x);
 		nbt.setDouble("yCoord", point.y);
-		long f = 0;
-		for(Marker ff : flags)
-		{
-			f += ff.getFlag();
-		}
-		nbt.setLong("flags", f);
-		nbt.setDouble("elevation", elevation);
-		nbt.setFloat("moisture", moisture);
+		nbt.setLong("flags", getMarkerBits());
+		nbt.setDouble("elevation", getElevation());
+		nbt.setFloat("moisture", getMoistureRaw());
 		nbt.setBoolean("hasGenerated", hasGenerated);
 
 
 		if(downslope != null)
 			nbt.setInteger("downslope", downslope.index);
 
-		int[] nArray = new int[neighbors.size()];
-		for(int i = 0; i < nArray.length; i++)
-		{
-			nArray[i] = neighbors.get(i).index;
-		}
-		nbt.setIntArray("neighbors", nArray);
-
-		nArray = new int[corners.size()];
-		for(int i = 0; i < nArray.length; i++)
-		{
-			nArray[i] = corners.get(i).index;
-		}
-		nbt.setIntArray("corners", nArray);
-
-		nArray = new int[borders.size()];
-		for(int i = 0; i < nArray.length; i++)
-		{
-			nArray[i] = borders.get(i).index;
-		}
-		nbt.setIntArray("borders", nArray);
+		nbt.setIntArray("neighbors", store.getIndices(IslandGraphStore.CENTER_NEIGHBORS, index));
+		nbt.setIntArray("corners", store.getIndices(IslandGraphStore.CENTER_CORNERS, index));
+		nbt.setIntArray("borders", store.getIndices(IslandGraphStore.CENTER_BORDERS, index));
 
-		Iterator<Attribute> iter = attribMap.values().iterator();
 		NBTTagList attribList = new NBTTagList();
-		while(iter.hasNext())
+		for(Attribute a : getAttributes())
 		{
-			Attribute a = iter.next();
 			NBTTagCompound attribNBT = new NBTTagCompound();
 			attribNBT.setString("class", a.getClass().getName());
 			a.writeToNBT(attribNBT);
@@ -370,37 +347,28 @@ public class Center
 		}
 		nbt.setTag("attribMap", attribList);
 
-		nbt.setTag("CustomData", this.customNBT);
+		NBTTagCompound custom = store.getCustomNBTIfPresent(index);
+		if(custom != null && !custom.hasNoTags())
+			nbt.setTag("CustomData", custom);
 	}
 
+	/**
+	 * Reads everything except the neighbor, corner and border lists. Those are read by the IslandMap directly into the store
+	 * since they have to be packed for every center at once.
+	 */
 	public void readFromNBT(NBTTagCompound nbt, IslandMap m)
 	{
 		try 
 		{
 			biome = BiomeType.values()[nbt.getInteger("biome")];
 			point = new Point(nbt.getDouble("xCoord"), nbt.getDouble("yCoord"));
-			setMarkers(nbt.getLong("flags"));
-			elevation = nbt.getDouble("elevation");
-			moisture = nbt.getFloat("moisture");
+			store.centerMarkers[index] = nbt.getLong("flags");
+			setElevation(nbt.getDouble("elevation"));
+			setMoistureRaw(nbt.getFloat("moisture"));
 			hasGenerated = nbt.getBoolean("hasGenerated");
 
 			if(nbt.hasKey("downslope"))
 				downslope = m.centers.get(nbt.getInteger("downslope"));
-			int[] nArray = nbt.getIntArray("neighbors");
-			for(int i = 0; i < nArray.length; i++)
-			{
-				this.neighbors.add(m.centers.get(nArray[i]));
-			}
-			nArray = nbt.getIntArray("corners");
-			for(int i = 0; i < nArray.length; i++)
-			{
-				this.corners.add(m.corners.get(nArray[i]));
-			}
-			nArray = nbt.getIntArray("borders");
-			for(int i = 0; i < nArray.length; i++)
-			{
-				this.borders.add(m.edges.get(nArray[i]));
-			}
 
 			if(nbt.hasKey("attribMap"))
 			{
@@ -410,10 +378,15 @@ public class Center
 					NBTTagCompound aNBT = list.getCompoundTagAt(i);
 					Object o = Class.forName(aNBT.getString("class")).newInstance();
 					((Attribute)o).readFromNBT(aNBT, m);
-					this.attribMap.put(((Attribute)o).id, (Attribute)o);
+					addAttribute((Attribute)o);
 				}
 			}
-			this.customNBT = nbt.getCompoundTag("CustomData");
+			if(nbt.hasKey("CustomData"))
+			{
+				NBTTagCompound custom = nbt.getCompoundTag("CustomData");
+				if(!custom.hasNoTags())
+					store.setCustomNBT(index, custom);
+			}
 		} 
 		catch (Exception e) 
 		{
@@ -426,7 +399,15 @@ public class Center
 	 */
 	public NBTTagCompound getCustomNBT()
 	{
-		return this.customNBT;
+		return store.getCustomNBT(index);
+	}
+
+	/**
+	 * @return The custom nbt tag for this hex or null if nothing has ever requested it.
+	 */
+	public NBTTagCompound getCustomNBTIfPresent()
+	{
+		return store.getCustomNBTIfPresent(index);
 	}
 
 	public AxisAlignedBB getAABB()
@@ -448,20 +429,6 @@ public class Center
 	}
 
 
-	/**
-	 * Used for reading stored nbt information
-	 */
-	private void setMarkers(long i)
-	{
-		for(Marker f : Marker.values())
-		{
-			if((i & f.getFlag()) > 0)
-			{
-				flags.add(f);
-			}
-		}
-	}
-
 	public enum Marker
 	{
 		Water(1), 
@@ -1,7 +1,6 @@
 package com.bioxx.jmapgen.graph;
 
-import java.util.EnumSet;
-import java.util.Vector;
+import java.util.List;
 
 import net.minecraft.nbt.NBTTagCompound;
 
@@ -11,47 +10,61 @@ import com.bioxx.jmapgen.graph.Center.Marker;
 
 public class Corner
 {
-	public int index = 0;
+	public final int index;
 
 	public Point point;  // location
 
-	private EnumSet<Marker> flags = EnumSet.noneOf(Marker.class);
-	public double elevation;  // 0.0-1.0
-	public double moisture;  // 0.0-1.0
+	public final List<Center> touches;
+	public final List<Edge> protrudes;
+	public final List<Corner> adjacent;
 
-	public Vector<Center> touches;
-	public Vector<Edge> protrudes;
-	public Vector<Corner> adjacent;
+	//Elevation, moisture and markers all live in the store
+	private final IslandGraphStore store;
 
-	public Corner()
+	public Corner(IslandGraphStore store, int i)
 	{
-		elevation = Double.MAX_VALUE;
-		touches = new Vector<Center>();
-		protrudes = new Vector<Edge>();
-		adjacent = new Vector<Corner>();
+		this.store = store;
+		index = i;
+		touches = new GraphList<Center>(store, IslandGraphStore.CORNER_TOUCHES, i);
+		protrudes = new GraphList<Edge>(store, IslandGraphStore.CORNER_PROTRUDES, i);
+		adjacent = new GraphList<Corner>(store, IslandGraphStore.CORNER_ADJACENT, i);
 	}
 
-	public Corner(int i)
+	public double getElevation()
 	{
-		this();
-		index = i;
+		return store.cornerElevation[index];
+	}
+
+	public void setElevation(double d)
+	{
+		store.cornerElevation[index] = d;
+	}
+
+	public double getMoisture()
+	{
+		return store.cornerMoisture[index];
+	}
+
+	public void setMoisture(double d)
+	{
+		store.cornerMoisture[index] = d;
 	}
 
 	public void setMarkers(Marker... m)
 	{
 		for(Marker mk : m)
-			flags.add(mk);
+			store.cornerMarkers[index] |= mk.getFlag();
 	}
 
 	public boolean hasMarker(Marker m)
 	{
-		return flags.contains(m);
+		return (store.cornerMarkers[index] & m.getFlag()) != 0;
 	}
 
 	public void removeMarkers(Marker... m)
 	{
 		for(Marker mk : m)
-			flags.remove(mk);
+			store.cornerMarkers[index] &= ~mk.getFlag();
 	}
 
 	/**
@@ -59,7 +72,15 @@ public class Corner
 	 */
 	public void resetMarkers()
 	{
-		flags.clear();
+		store.cornerMarkers[index] = 0;
+	}
+
+	/**
+	 * @return All of the markers on this corner as a bit field of Marker flags
+	 */
+	public long getMarkerBits()
+	{
+		return store.cornerMarkers[index];
 	}
 
 	public Edge getTouchingEdge(Corner c)
@@ -107,72 +128,23 @@ public class Corner
 		nbt.setInteger("index", index);
 		nbt.setDouble("xCoord", point.x);
 		nbt.setDouble("yCoord", point.y);
-		int f = 0;
-		for(Marker ff : flags)
-		{
-			f += ff.getFlag();
-		}
-		nbt.setInteger("flags", f);
-		nbt.setDouble("elevation", elevation);
-		nbt.setDouble("moisture", moisture);
-
-		int[] nArray = new int[touches.size()];
-		for(int i = 0; i < nArray.length; i++)
-		{
-			nArray[i] = touches.get(i).index;
-		}
-		nbt.setIntArray("touches", nArray);
-
-		nArray = new int[protrudes.size()];
-		for(int i = 0; i < nArray.length; i++)
-		{
-			nArray[i] = protrudes.get(i).index;
-		}
-		nbt.setIntArray("protrudes", nArray);
-
-		nArray = new int[adjacent.size()];
-		for(int i = 0; i < nArray.length; i++)
-		{
-			nArray[i] = adjacent.get(i).index;
-		}
-		nbt.setIntArray("adjacent", nArray);
-	}
+		nbt.setInteger("flags", (int)getMarkerBits());
+		nbt.setDouble("elevation", getElevation());
+		nbt.setDouble("moisture", getMoisture());
 
-	public void readFromNBT(NBTTagCompound nbt, IslandMap m)
-	{
-		this.point = new Point(nbt.getDouble("xCoord"), nbt.getDouble("yCoord"));
-		setMarkers(nbt.getInteger("flags"));
-		elevation = nbt.getDouble("elevation");
-		moisture = nbt.getDouble("moisture");
-
-		int[] nArray = nbt.getIntArray("touches");
-		for(int i = 0; i < nArray.length; i++)
-		{
-			this.touches.add(m.centers.get(nArray[i]));
-		}
-		nArray = nbt.getIntArray("adjacent");
-		for(int i = 0; i < nArray.length; i++)
-		{
-			this.adjacent.add(m.corners.get(nArray[i]));
-		}
-		nArray = nbt.getIntArray("protrudes");
-		for(int i = 0; i < nArray.length; i++)
-		{
-			this.protrudes.add(m.edges.get(nArray[i]));
-		}
+		nbt.setIntArray("touches", store.getIndices(IslandGraphStore.CORNER_TOUCHES, index));
+		nbt.setIntArray("protrudes", store.getIndices(IslandGraphStore.CORNER_PROTRUDES, index));
+		nbt.setIntArray("adjacent", store.getIndices(IslandGraphStore.CORNER_ADJACENT, index));
 	}
 
 	/**
-	 * Used for reading stored nbt information
+	 * Reads everything except the touches, protrudes and adjacent lists. Those are read by the IslandMap directly into the store.
 	 */
-	private void setMarkers(int i)
+	public void readFromNBT(NBTTagCompound nbt, IslandMap m)
 	{
-		for(Marker f : Marker.values())
-		{
-			if((i & f.getFlag()) > 0)
-			{
-				flags.add(f);
-			}
-		}
+		this.point = new Point(nbt.getDouble("xCoord"), nbt.getDouble("yCoord"));
+		store.cornerMarkers[index] = nbt.getInteger("flags");
+		setElevation(nbt.getDouble("elevation"));
+		setMoisture(nbt.getDouble("moisture"));
 	}
 }
@@ -2,15 +2,15 @@ package com.bioxx.jmapgen.graph;
 
 import java.util.Comparator;
 
-public class CornerElevationSorter extends Corner implements Comparator<Corner>
+public class CornerElevationSorter implements Comparator<Corner>
 {
 	@Override
 	public int compare(Corner arg0, Corner arg1) {
 		int returnValue = 0;
 		
-		if(arg0.elevation < arg1.elevation)
+		if(arg0.getElevation() < arg1.getElevation())
 			returnValue = -1;
-		else if(arg0.elevation > arg1.elevation)
+		else if(arg0.getElevation() > arg1.getElevation())
 			returnValue = 1;
 		
 		return returnValue;
@@ -24,22 +24,6 @@ public class Edge
 		index = i;
 	}
 
-	public void setVoronoiEdge(Corner c0, Corner c1)
-	{
-		vCorner0 = c0;
-		vCorner1 = c1;
-
-		if(/*v0 != null && */ !vCorner0.adjacent.contains(vCorner1) && vCorner0.index != vCorner1.index)
-		{
-			vCorner0.adjacent.add(vCorner1);
-		}
-
-		if(/*v1 != null && */ !vCorner1.adjacent.contains(vCorner0) && vCorner1.index != vCorner0.index)
-		{
-			vCorner1.adjacent.add(vCorner0);
-		}
-	}
-
 	/**
 	 * 
 	 * @param c The Corner that you already have
@@ -0,0 +1,37 @@
+package com.bioxx.jmapgen.graph;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read only list view over one adjacency list in an IslandGraphStore. This replaces the Vectors that every
+ * Center and Corner used to carry around.
+ */
+public class GraphList<T> extends AbstractList<T> implements RandomAccess
+{
+	private final IslandGraphStore store;
+	private final int kind;
+	private final int index;
+
+	GraphList(IslandGraphStore store, int kind, int index)
+	{
+		this.store = store;
+		this.kind = kind;
+		this.index = index;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int i)
+	{
+		if(i < 0 || i >= size())
+			throw new IndexOutOfBoundsException("Index: "+i+", Size: "+size());
+		return (T)store.resolve(kind, store.getIndex(kind, index, i));
+	}
+
+	@Override
+	public int size()
+	{
+		return store.getCount(kind, index);
+	}
+}
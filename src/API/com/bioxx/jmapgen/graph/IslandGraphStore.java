@@ -0,0 +1,223 @@
+package com.bioxx.jmapgen.graph;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+import com.bioxx.jmapgen.attributes.Attribute;
+
+/**
+ * Holds the per cell data for every Center and Corner of an island in flat arrays. Center and Corner objects
+ * are only lightweight views that read and write through to this store using their index.
+ *
+ * Adjacency is stored in CSR form. The entries for element i of a given kind are found at
+ * data[offsets[i]] to data[offsets[i+1]-1]. Maps built from an IslandTopology share the topology arrays so the
+ * adjacency costs nothing per island. These arrays are never modified in place, they are only ever replaced.
+ */
+public class IslandGraphStore
+{
+	public static final int CENTER_NEIGHBORS = 0;
+	public static final int CENTER_BORDERS = 1;
+	public static final int CENTER_CORNERS = 2;
+	public static final int CORNER_TOUCHES = 3;
+	public static final int CORNER_PROTRUDES = 4;
+	public static final int CORNER_ADJACENT = 5;
+
+	private static final Attribute[] NO_ATTRIBUTES = new Attribute[0];
+
+	final Vector<Center> centers;
+	final Vector<Corner> corners;
+	final Vector<Edge> edges;
+
+	private final int[][] offsets = new int[6][];
+	private final int[][] data = new int[6][];
+
+	public final double[] centerElevation;
+	public final float[] centerMoisture;
+	public final long[] centerMarkers;
+
+	public final double[] cornerElevation;
+	public final double[] cornerMoisture;
+	public final long[] cornerMarkers;
+
+	//Sparse tables. Most centers never receive an attribute or custom data so these are only filled as needed.
+	//Attribute lists are copied on write and published through the atomic array so that the late generation stages can
+	//read them while other stages add to them.
+	private final AtomicReferenceArray<Attribute[]> centerAttributes;
+	private final NBTTagCompound[] centerNBT;
+
+	public IslandGraphStore(Vector<Center> centers, Vector<Corner> corners, Vector<Edge> edges, int numCenters, int numCorners)
+	{
+		this.centers = centers;
+		this.corners = corners;
+		this.edges = edges;
+		centerElevation = new double[numCenters];
+		centerMoisture = new float[numCenters];
+		centerMarkers = new long[numCenters];
+		cornerElevation = new double[numCorners];
+		Arrays.fill(cornerElevation, Double.MAX_VALUE);
+		cornerMoisture = new double[numCorners];
+		cornerMarkers = new long[numCorners];
+		centerAttributes = new AtomicReferenceArray<Attribute[]>(numCenters);
+		centerNBT = new NBTTagCompound[numCenters];
+	}
+
+	/**
+	 * Replaces the adjacency list for one kind of relation. The arrays are referenced, not copied.
+	 */
+	public void setAdjacency(int kind, int[] offsetArray, int[] dataArray)
+	{
+		offsets[kind] = offsetArray;
+		data[kind] = dataArray;
+	}
+
+	/**
+	 * Packs one list of indices per element into a {offsets, data} pair that can be handed to setAdjacency
+	 */
+	public static int[][] pack(int[][] lists)
+	{
+		int[] off = new int[lists.length+1];
+		for(int i = 0; i < lists.length; i++)
+			off[i+1] = off[i] + lists[i].length;
+		int[] out = new int[off[lists.length]];
+		for(int i = 0; i < lists.length; i++)
+			System.arraycopy(lists[i], 0, out, off[i], lists[i].length);
+		return new int[][] {off, out};
+	}
+
+	/**
+	 * @return The raw offsets array for one kind of relation. This array must not be modified.
+	 */
+	public int[] getOffsets(int kind)
+	{
+		return offsets[kind];
+	}
+
+	/**
+	 * @return The raw data array for one kind of relation. This array must not be modified.
+	 */
+	public int[] getData(int kind)
+	{
+		return data[kind];
+	}
+
+	public int getOffset(int kind, int index)
+	{
+		return offsets[kind][index];
+	}
+
+	public int getCount(int kind, int index)
+	{
+		return offsets[kind][index+1] - offsets[kind][index];
+	}
+
+	/**
+	 * @return The raw index stored at position i of the list for this element.
+	 */
+	public int getIndex(int kind, int index, int i)
+	{
+		return data[kind][offsets[kind][index] + i];
+	}
+
+	public int[] getIndices(int kind, int index)
+	{
+		return Arrays.copyOfRange(data[kind], offsets[kind][index], offsets[kind][index+1]);
+	}
+
+	Object resolve(int kind, int index)
+	{
+		switch(kind)
+		{
+		case CENTER_NEIGHBORS:
+		case CORNER_TOUCHES: return centers.get(index);
+		case CENTER_CORNERS:
+		case CORNER_ADJACENT: return corners.get(index);
+		default: return edges.get(index);
+		}
+	}
+
+	/*****************************
+	 * Attributes
+	 *****************************/
+	public Attribute getAttribute(int center, UUID id)
+	{
+		Attribute[] list = centerAttributes.get(center);
+		if(list == null)
+			return null;
+		for(Attribute a : list)
+		{
+			if(a.id.equals(id))
+				return a;
+		}
+		return null;
+	}
+
+	/**
+	 * Attributes are kept sorted by id so that their order does not depend on which generation stage added them first.
+	 * This is synchronized because the late generation stages add attributes from several threads at once. Readers do not
+	 * need the lock since a list is never changed once it has been set.
+	 */
+	public synchronized boolean addAttribute(int center, Attribute a)
+	{
+		Attribute[] list = centerAttributes.get(center);
+		if(list == null)
+		{
+			centerAttributes.set(center, new Attribute[] {a});
+			return true;
+		}
+		int pos = list.length;
+		for(int i = list.length-1; i >= 0; i--)
+		{
+			int cmp = list[i].id.compareTo(a.id);
+			if(cmp == 0)
+				return false;
+			if(cmp > 0)
+				pos = i;
+		}
+		Attribute[] out = new Attribute[list.length+1];
+		System.arraycopy(list, 0, out, 0, pos);
+		out[pos] = a;
+		System.arraycopy(list, pos, out, pos+1, list.length-pos);
+		centerAttributes.set(center, out);
+		return true;
+	}
+
+	/**
+	 * @return The attributes of this center. This array must not be modified.
+	 */
+	public Attribute[] getAttributes(int center)
+	{
+		Attribute[] list = centerAttributes.get(center);
+		return list == null ? NO_ATTRIBUTES : list;
+	}
+
+	/*****************************
+	 * Custom NBT
+	 *****************************/
+	public NBTTagCompound getCustomNBT(int center)
+	{
+		NBTTagCompound nbt = centerNBT[center];
+		if(nbt == null)
+		{
+			nbt = new NBTTagCompound();
+			centerNBT[center] = nbt;
+		}
+		return nbt;
+	}
+
+	/**
+	 * @return The custom nbt for this center or null if nothing has ever requested it.
+	 */
+	public NBTTagCompound getCustomNBTIfPresent(int center)
+	{
+		return centerNBT[center];
+	}
+
+	public void setCustomNBT(int center, NBTTagCompound nbt)
+	{
+		centerNBT[center] = nbt;
+	}
+}
@@ -2,7 +2,7 @@ package com.bioxx.jmapgen.graph;
 
 import java.util.Comparator;
 
-public class MoistureComparator extends Center implements Comparator<Center>
+public class MoistureComparator implements Comparator<Center>
 {
 	@Override
 	public int compare(Center arg0, Center arg1) {
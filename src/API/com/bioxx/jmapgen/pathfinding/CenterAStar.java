@@ -0,0 +1,252 @@
+package com.bioxx.jmapgen.pathfinding;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.jmapgen.graph.Center;
+import com.bioxx.jmapgen.graph.IslandGraphStore;
+
+/**
+ * A* search over the center indices of an island. The open set is an indexed binary heap so a center that is already
+ * open has its cost lowered in place instead of being added again, and the closed set is a BitSet. All of the working
+ * arrays belong to the thread so searches don't allocate once they have grown to the size of the island.
+ *
+ * The heuristic is the number of steps needed to cover the straight line distance to the goal, taking the longest step
+ * between two neighbors on the island, multiplied by the profile's minimum weight. No step can cost less than that so
+ * the heuristic is consistent and the first path found to the goal is the cheapest one.
+ */
+public class CenterAStar
+{
+	private static final ThreadLocal<CenterAStar> INSTANCE = new ThreadLocal<CenterAStar>()
+	{
+		@Override
+		protected CenterAStar initialValue()
+		{
+			return new CenterAStar();
+		}
+	};
+
+	private int[] gScore = new int[0];
+	private int[] parent = new int[0];
+	//g and parent are only valid for centers whose stamp matches the current search
+	private int[] stamps = new int[0];
+	private int stamp = 0;
+	private final BitSet closed = new BitSet();
+
+	private int[] heap = new int[0];
+	private long[] heapCost = new long[0];
+	//Position of each center in the heap or -1. Only valid for stamped centers
+	private int[] heapPos = new int[0];
+	private int heapSize;
+
+	private WeakReference<IslandMap> lastMap = new WeakReference<IslandMap>(null);
+	private double maxStep;
+
+	private CenterAStar() {}
+
+	public static CenterAStar get()
+	{
+		return INSTANCE.get();
+	}
+
+	/**
+	 * Steps with a weight of Integer.MAX_VALUE or less than zero can't be taken.
+	 * @return The center indices of the path from the end back to the start or null if the end can't be reached.
+	 */
+	public int[] search(IslandMap map, int start, int end, IPathProfile profile)
+	{
+		int count = map.centers.size();
+		prepare(count);
+		IslandGraphStore store = map.getGraphStore();
+		int[] offsets = store.getOffsets(IslandGraphStore.CENTER_NEIGHBORS);
+		int[] neighbors = store.getData(IslandGraphStore.CENTER_NEIGHBORS);
+		Center goal = map.centers.get(end);
+		double stepScale = getStepScale(map, profile);
+
+		visit(start, 0, -1);
+		push(start, heuristic(map.centers.get(start), goal, stepScale));
+		while(heapSize > 0)
+		{
+			int node = pop();
+			if(node == end)
+				return buildPath(end);
+			closed.set(node);
+
+			Center c = map.centers.get(node);
+			int g = gScore[node];
+			for(int i = offsets[node]; i < offsets[node+1]; i++)
+			{
+				int n = neighbors[i];
+				if(closed.get(n))
+					continue;
+				Center nc = map.centers.get(n);
+				if(profile.shouldIgnoreCenter(map, c, nc))
+					continue;
+				int weight = profile.getPathWeight(map, c, nc);
+				if(weight < 0 || weight == Integer.MAX_VALUE || g + weight < g)
+					continue;
+				int cost = g + weight;
+				if(stamps[n] == stamp && gScore[n] <= cost)
+					continue;
+				visit(n, cost, node);
+				push(n, (long)cost + heuristic(nc, goal, stepScale));
+			}
+		}
+		return null;
+	}
+
+	private void prepare(int count)
+	{
+		if(stamps.length < count)
+		{
+			gScore = new int[count];
+			parent = new int[count];
+			stamps = new int[count];
+			heapPos = new int[count];
+			heap = new int[count];
+			heapCost = new long[count];
+			stamp = 0;
+		}
+		stamp++;
+		if(stamp == 0)
+		{
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		closed.clear();
+		heapSize = 0;
+	}
+
+	private void visit(int node, int g, int from)
+	{
+		if(stamps[node] != stamp)
+		{
+			stamps[node] = stamp;
+			heapPos[node] = -1;
+		}
+		gScore[node] = g;
+		parent[node] = from;
+	}
+
+	private int[] buildPath(int end)
+	{
+		int length = 0;
+		for(int n = end; n != -1; n = parent[n])
+			length++;
+		int[] path = new int[length];
+		int i = 0;
+		for(int n = end; n != -1; n = parent[n])
+			path[i++] = n;
+		return path;
+	}
+
+	private static long heuristic(Center c, Center goal, double stepScale)
+	{
+		if(stepScale == 0)
+			return 0;
+		double dx = c.point.x - goal.point.x;
+		double dy = c.point.y - goal.point.y;
+		return (long)Math.ceil(Math.sqrt(dx*dx + dy*dy) * stepScale);
+	}
+
+	/**
+	 * @return The minimum weight of a step divided by the longest step on the island.
+	 */
+	private double getStepScale(IslandMap map, IPathProfile profile)
+	{
+		int minWeight = profile.getMinimumWeight();
+		if(minWeight <= 0)
+			return 0;
+		if(lastMap.get() != map)
+		{
+			IslandGraphStore store = map.getGraphStore();
+			int[] offsets = store.getOffsets(IslandGraphStore.CENTER_NEIGHBORS);
+			int[] neighbors = store.getData(IslandGraphStore.CENTER_NEIGHBORS);
+			double max = 0;
+			for(int c = 0; c < map.centers.size(); c++)
+			{
+				Center center = map.centers.get(c);
+				for(int i = offsets[c]; i < offsets[c+1]; i++)
+					max = Math.max(max, center.point.distanceSq(map.centers.get(neighbors[i]).point));
+			}
+			maxStep = Math.sqrt(max);
+			lastMap = new WeakReference<IslandMap>(map);
+		}
+		return maxStep == 0 ? 0 : minWeight / maxStep;
+	}
+
+	/*****************************
+	 * Indexed binary heap
+	 *****************************/
+	private void push(int node, long cost)
+	{
+		int pos = heapPos[node];
+		if(pos < 0)
+		{
+			pos = heapSize++;
+			heap[pos] = node;
+			heapPos[node] = pos;
+		}
+		//A center is only pushed again when its cost drops so it only ever needs to move up
+		heapCost[pos] = cost;
+		siftUp(pos);
+	}
+
+	private int pop()
+	{
+		int top = heap[0];
+		heapPos[top] = -1;
+		heapSize--;
+		if(heapSize > 0)
+		{
+			heap[0] = heap[heapSize];
+			heapCost[0] = heapCost[heapSize];
+			heapPos[heap[0]] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	private void siftUp(int pos)
+	{
+		int node = heap[pos];
+		long cost = heapCost[pos];
+		while(pos > 0)
+		{
+			int up = (pos - 1) >> 1;
+			if(heapCost[up] <= cost)
+				break;
+			heap[pos] = heap[up];
+			heapCost[pos] = heapCost[up];
+			heapPos[heap[pos]] = pos;
+			pos = up;
+		}
+		heap[pos] = node;
+		heapCost[pos] = cost;
+		heapPos[node] = pos;
+	}
+
+	private void siftDown(int pos)
+	{
+		int node = heap[pos];
+		long cost = heapCost[pos];
+		int half = heapSize >> 1;
+		while(pos < half)
+		{
+			int child = (pos << 1) + 1;
+			if(child + 1 < heapSize && heapCost[child + 1] < heapCost[child])
+				child++;
+			if(heapCost[child] >= cost)
+				break;
+			heap[pos] = heap[child];
+			heapCost[pos] = heapCost[child];
+			heapPos[heap[pos]] = pos;
+			pos = child;
+		}
+		heap[pos] = node;
+		heapCost[pos] = cost;
+		heapPos[node] = pos;
+	}
+}
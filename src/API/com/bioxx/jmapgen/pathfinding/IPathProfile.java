@@ -7,4 +7,13 @@ public interface IPathProfile
 {
 	public int getPathWeight(IslandMap map, Center prev, Center c);
 	public boolean shouldIgnoreCenter(IslandMap map, Center prev, Center c);
+
+	/**
+	 * @return The lowest weight that getPathWeight will ever return. Path finding uses this to estimate how much the
+	 * rest of a path will cost so a value that is too high gives worse paths. 0 disables the estimate.
+	 */
+	public default int getMinimumWeight()
+	{
+		return 0;
+	}
 }
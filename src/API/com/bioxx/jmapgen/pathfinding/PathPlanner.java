@@ -0,0 +1,152 @@
+package com.bioxx.jmapgen.pathfinding;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.jmapgen.graph.Center;
+
+/**
+ * Finds paths across an island on a small shared pool of worker threads so that herds never path find on the tick
+ * thread. Requests for a path that is already being searched share the same future and finished paths are kept in a
+ * small least recently used cache since herds keep travelling between the same need zones.
+ *
+ * Futures complete with the center indices of the path ordered from the end back to the start, or null if there is no
+ * path or the workers were too busy to take the request. Callers should check isDone on a later tick instead of waiting.
+ */
+public class PathPlanner
+{
+	private static final int CACHE_SIZE = 128;
+	private static final int MAX_QUEUED = 256;
+
+	private static final ThreadPoolExecutor EXECUTOR;
+	static
+	{
+		int threads = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+		EXECUTOR = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(MAX_QUEUED), new ThreadFactory()
+		{
+			private int count = 0;
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread t = new Thread(r, "Herd Path Thread: "+(count++));
+				t.setDaemon(true);
+				t.setPriority(Thread.MIN_PRIORITY+1);
+				return t;
+			}
+		});
+		EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	private final IslandMap map;
+	private final HashMap<Key, CompletableFuture<int[]>> pending = new HashMap<Key, CompletableFuture<int[]>>();
+	//Access ordered so that the least recently used path is dropped first
+	private final LinkedHashMap<Key, int[]> cache = new LinkedHashMap<Key, int[]>(16, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest)
+		{
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	public PathPlanner(IslandMap map)
+	{
+		this.map = map;
+	}
+
+	public CompletableFuture<int[]> request(final IPathProfile profile, Center start, Center end)
+	{
+		final Key key = new Key(profile, start.index, end.index);
+		final CompletableFuture<int[]> future;
+		synchronized(this)
+		{
+			int[] path = cache.get(key);
+			if(path != null)
+				return CompletableFuture.completedFuture(path);
+			CompletableFuture<int[]> existing = pending.get(key);
+			if(existing != null)
+				return existing;
+			future = new CompletableFuture<int[]>();
+			pending.put(key, future);
+		}
+
+		try
+		{
+			EXECUTOR.execute(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					int[] path = null;
+					try
+					{
+						path = CenterAStar.get().search(map, key.start, key.end, profile);
+					}
+					finally
+					{
+						finish(key, future, path);
+					}
+				}
+			});
+		}
+		catch(RejectedExecutionException e)
+		{
+			//Every worker is busy and the queue is full so the herd will have to ask again later
+			finish(key, future, null);
+		}
+		return future;
+	}
+
+	private void finish(Key key, CompletableFuture<int[]> future, int[] path)
+	{
+		synchronized(this)
+		{
+			pending.remove(key);
+			if(path != null)
+				cache.put(key, path);
+		}
+		future.complete(path);
+	}
+
+	public synchronized void clear()
+	{
+		cache.clear();
+	}
+
+	private static class Key
+	{
+		final IPathProfile profile;
+		final int start;
+		final int end;
+
+		Key(IPathProfile profile, int start, int end)
+		{
+			this.profile = profile;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if(!(o instanceof Key))
+				return false;
+			Key k = (Key)o;
+			return k.profile == profile && k.start == start && k.end == end;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (System.identityHashCode(profile) * 31 + start) * 31 + end;
+		}
+	}
+}
@@ -1,14 +1,36 @@
 package com.bioxx.jmapgen.pathfinding.dungeon;
 
-import java.util.Vector;
-
 import com.bioxx.jmapgen.IslandMap;
-import com.bioxx.jmapgen.Point;
 import com.bioxx.jmapgen.graph.Center;
 import com.bioxx.jmapgen.graph.Center.Marker;
+import com.bioxx.jmapgen.pathfinding.CenterAStar;
+import com.bioxx.jmapgen.pathfinding.IPathProfile;
 
 public class PathFinder 
 {
+	//Dungeons can only path over dry land and every step costs the same
+	private static final IPathProfile DUNGEON_PROFILE = new IPathProfile()
+	{
+		@Override
+		public int getPathWeight(IslandMap map, Center prev, Center c)
+		{
+			//Same as PathNode.transitCost
+			return c.hasMarker(Marker.Water) ? 10001 : 1;
+		}
+
+		@Override
+		public boolean shouldIgnoreCenter(IslandMap map, Center prev, Center c)
+		{
+			return c.hasAnyMarkersOf(Marker.Water, Marker.Border, Marker.Ocean, Marker.Coast, Marker.Lava);
+		}
+
+		@Override
+		public int getMinimumWeight()
+		{
+			return 1;
+		}
+	};
+
 	IslandMap map;
 
 	public PathFinder(IslandMap m)
@@ -18,83 +40,28 @@ public class PathFinder
 
 	public Path findPath(Center start, Center end)
 	{
-		Vector<PathNode> reachable = new Vector<PathNode>();
-		Vector<Center> explored = new Vector<Center>();
-		reachable.add(new PathNode(start, 0));
-
-		while(!reachable.isEmpty())
-		{
-			PathNode node = choose_node(reachable, end);
-			Center c = node.center;
-
-			if(c == end)
-			{
-				return buildPath(node);
-			}
-
-			explored.add(c);
-			reachable.remove(node);
-
-			Vector<PathNode> newReachable = new Vector<PathNode>();
-
-			for(Center n : c.neighbors)
-			{
-				if(!explored.contains(n) && !n.hasAnyMarkersOf(Marker.Water, Marker.Border, Marker.Ocean, Marker.Coast, Marker.Lava))
-					newReachable.add(new PathNode(n, Integer.MAX_VALUE));
-			}
-
-			for(PathNode n : newReachable)
-			{
-				if(!reachable.contains(n))
-					reachable.add(n);
-				if(node.nodeCost + n.transitCost < n.nodeCost)
-				{
-					n.prev = node;
-					n.nodeCost = node.nodeCost + n.transitCost;
-				}
-			}
-
-		}
-
-		return null;
+		int[] indices = CenterAStar.get().search(map, start.index, end.index, DUNGEON_PROFILE);
+		if(indices == null)
+			return null;
+		return buildPath(indices);
 	}
 
-	private Path buildPath(PathNode endNode)
+	private Path buildPath(int[] indices)
 	{
-		Path p = new Path();
-		p.addNode(endNode);
-		PathNode pn = endNode.prev;
-		while(pn != null)
+		PathNode[] nodes = new PathNode[indices.length];
+		PathNode prev = null;
+		for(int i = indices.length-1; i >= 0; i--)
 		{
-			p.addNode(pn);
-			pn = pn.prev;
+			PathNode node = new PathNode(map.centers.get(indices[i]), 0);
+			node.prev = prev;
+			node.nodeCost = prev == null ? 0 : prev.nodeCost + node.transitCost;
+			nodes[i] = node;
+			prev = node;
 		}
 
+		Path p = new Path();
+		for(PathNode node : nodes)
+			p.addNode(node);
 		return p;
 	}
-
-	private PathNode choose_node(Vector<PathNode>reachable, Center end)
-	{
-		int min_cost = Integer.MAX_VALUE;
-		PathNode best_node = null;
-
-		for(PathNode node : reachable)
-		{
-			int cost_start_to_node = node.nodeCost;
-			int cost_node_to_goal = estimateDistance(node.center.point, end.point);
-			int total_cost = cost_start_to_node + cost_node_to_goal;
-
-			if( min_cost > total_cost)
-			{
-				min_cost = total_cost;
-				best_node = node;
-			}
-		}
-		return best_node;
-	}
-
-	private int estimateDistance(Point p0, Point p1)
-	{
-		return (int)Math.floor(Math.sqrt( Math.pow((p0.x - p1.x),2) + Math.pow((p0.y - p1.y),2)));
-	}
 }
@@ -1,5 +1,6 @@
 package com.bioxx.jmapgen.processing;
 
+import java.util.Random;
 import java.util.Vector;
 
 import com.bioxx.jmapgen.IslandMap;
@@ -14,10 +15,20 @@ import com.bioxx.tfc2.api.interfaces.IAnimalDef;
 public class AnimalProcessor 
 {
 	IslandMap map;
+	Random rand;
 
 	public AnimalProcessor(IslandMap m)
 	{
 		map = m;
+		rand = m.mapRandom;
+	}
+
+	/**
+	 * Sets the random used by generate so that this stage does not share the island random with other stages.
+	 */
+	public void setRandom(Random r)
+	{
+		rand = r;
 	}
 
 	public void generate()
@@ -30,7 +41,7 @@ public class AnimalProcessor
 				Vector<Center> centers = map.filterOutMarkers(map.centers, Marker.Ocean);
 				for(int i = 0; i < 10; i++)
 				{
-					Center c = centers.get(map.mapRandom.nextInt(centers.size()));
+					Center c = centers.get(rand.nextInt(centers.size()));
 					if(!def.isValidNeedZone(c, HerdGoalEnum.FOOD) || c.hasAttribute(Attribute.NeedZone))
 					{
 						i--;
@@ -45,7 +56,7 @@ public class AnimalProcessor
 
 				for(int i = 0; i < 50; i++)
 				{
-					Center c = centers.get(map.mapRandom.nextInt(centers.size()));
+					Center c = centers.get(rand.nextInt(centers.size()));
 					if(!def.isValidNeedZone(c, HerdGoalEnum.REST) || c.hasAttribute(Attribute.NeedZone))
 					{
 						i--;
@@ -60,7 +71,7 @@ public class AnimalProcessor
 
 				for(int i = 0; i < 10; i++)
 				{
-					Center c = centers.get(map.mapRandom.nextInt(centers.size()));
+					Center c = centers.get(rand.nextInt(centers.size()));
 					if(!def.isValidNeedZone(c, HerdGoalEnum.WATER) || c.hasAttribute(Attribute.NeedZone))
 					{
 						i--;
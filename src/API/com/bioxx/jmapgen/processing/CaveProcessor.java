@@ -1,5 +1,6 @@
 package com.bioxx.jmapgen.processing;
 
+import java.util.Random;
 import java.util.Vector;
 
 import net.minecraft.util.math.BlockPos;
@@ -16,10 +17,20 @@ import com.bioxx.tfc2.api.types.StoneType;
 public class CaveProcessor 
 {
 	IslandMap map;
+	Random rand;
 
 	public CaveProcessor(IslandMap m)
 	{
 		map = m;
+		rand = m.mapRandom;
+	}
+
+	/**
+	 * Sets the random used by generate so that this stage does not share the island random with other stages.
+	 */
+	public void setRandom(Random r)
+	{
+		rand = r;
 	}
 
 	public void generate()
@@ -38,7 +49,7 @@ public class CaveProcessor
 		Center s;
 		for(int i = 0; i < majorCavesToGen; i++)
 		{
-			s = land.get(map.mapRandom.nextInt(land.size()));
+			s = land.get(rand.nextInt(land.size()));
 
 			//We don't want any caves to start on the edge of the map or in a lava tile.
 			if(s.hasAnyMarkersOf(Marker.Border, Marker.Lava) || s.hasAttribute(Attribute.River))
@@ -61,7 +72,7 @@ public class CaveProcessor
 		starts.clear();
 		for(Center c : getBeachesWithCliffs(land))
 		{
-			if(map.mapRandom.nextDouble() < 0.6)
+			if(rand.nextDouble() < 0.6)
 				starts.add(c);
 		}
 		if(starts.size() > 0)
@@ -75,7 +86,7 @@ public class CaveProcessor
 		starts.clear();
 		for(Center c : this.getCoastalOcean(map.centers))
 		{
-			if(map.mapRandom.nextDouble() < 0.5)
+			if(rand.nextDouble() < 0.5)
 				starts.add(c);
 		}
 		if(starts.size() > 0)
@@ -166,29 +177,29 @@ public class CaveProcessor
 
 			if(mcElev(center.getElevation()) - curNode.offset.getY() > 20)
 			{
-				if(map.mapRandom.nextDouble() < 0.1)
+				if(rand.nextDouble() < 0.1)
 					curNode.setMajorNode(true);
 			}
 
 			//If the cave is long enough, we may want to create little subcave offshoots in random directions
 			if(curLength > 3)
 			{
-				int subCaveCount = map.mapRandom.nextInt(5)+1;
+				int subCaveCount = rand.nextInt(5)+1;
 				while(subCaveCount > 0)
 				{
 					sCenter = center;
-					if(map.mapRandom.nextDouble() < 0.25)
+					if(rand.nextDouble() < 0.25)
 						sNextCenter = sCenter;
 					else
-						sNextCenter = sCenter.getRandomNeighbor(map.mapRandom);
+						sNextCenter = sCenter.getRandomNeighbor(rand);
 					sCurNode = new CaveAttrNode(1000+subCaveCount);
 					sCurNode.setOffset(curNode.getOffset());
 					sCurNode.setNext(sNextCenter);
-					sCurNode.setNodeHeight(1+map.mapRandom.nextInt(3));
-					sCurNode.setNodeWidth(2+map.mapRandom.nextInt(2));
+					sCurNode.setNodeHeight(1+rand.nextInt(3));
+					sCurNode.setNodeWidth(2+rand.nextInt(2));
 					sNextNode = new CaveAttrNode(1000+subCaveCount);
-					sNextNode.setOffset(new BlockPos(sNextCenter.point.x, sCurNode.getOffset().getY()+map.mapRandom.nextInt(20)-10, sNextCenter.point.y));
-					sCurNode.setNextOffset(getMidpoint(sCurNode.getOffset(), sNextNode.getOffset()).add(10-map.mapRandom.nextInt(6), 10-map.mapRandom.nextInt(6), 10-map.mapRandom.nextInt(6)));
+					sNextNode.setOffset(new BlockPos(sNextCenter.point.x, sCurNode.getOffset().getY()+rand.nextInt(20)-10, sNextCenter.point.y));
+					sCurNode.setNextOffset(getMidpoint(sCurNode.getOffset(), sNextNode.getOffset()).add(10-rand.nextInt(6), 10-rand.nextInt(6), 10-rand.nextInt(6)));
 					sNextNode.setPrevOffset(sCurNode.getNextOffset());
 					sNextNode.setPrev(sCenter);
 
@@ -199,28 +210,28 @@ public class CaveProcessor
 				}
 			}
 
-			elevOffset = map.mapRandom.nextInt(21)-10;
+			elevOffset = rand.nextInt(21)-10;
 
 
 			//Acquire the next hex
-			if(map.mapRandom.nextDouble() < 0.05)//5% chance to move vertically in the same hex
+			if(rand.nextDouble() < 0.05)//5% chance to move vertically in the same hex
 			{
 				nextCenter = center;
-				elevOffset = map.mapRandom.nextInt(31)-15;
+				elevOffset = rand.nextInt(31)-15;
 			}
 			else
 			{
-				nextCenter = center.getRandomNeighborExcept(map.mapRandom, prevCenter);
+				nextCenter = center.getRandomNeighborExcept(rand, prevCenter);
 			}
 
-			curNode.setNodeHeight(minCaveSize+map.mapRandom.nextInt(maxCaveSize));
-			curNode.setNodeWidth(minCaveSize+map.mapRandom.nextInt(maxCaveSize));
+			curNode.setNodeHeight(minCaveSize+rand.nextInt(maxCaveSize));
+			curNode.setNodeWidth(minCaveSize+rand.nextInt(maxCaveSize));
 
 			//Create our next node
 			nextNode = new CaveAttrNode(caveId);
 			if(curNode.isSeaCave)
 			{
-				nextCenter = center.getRandomFromGroup(map.mapRandom, center.getOnlyHigherCenters());
+				nextCenter = center.getRandomFromGroup(rand, center.getOnlyHigherCenters());
 				if(nextCenter == null)
 					break;				
 
@@ -237,9 +248,9 @@ public class CaveProcessor
 
 			nextNode.setOffset(new BlockPos(nextCenter.point.x, curNode.getOffset().getY() + elevOffset, nextCenter.point.y));
 
-			int midOffsetX = -5+map.mapRandom.nextInt(11);
-			int midOffsetY = -5+map.mapRandom.nextInt(11);
-			int midOffsetZ = -5+map.mapRandom.nextInt(11);
+			int midOffsetX = -5+rand.nextInt(11);
+			int midOffsetY = -5+rand.nextInt(11);
+			int midOffsetZ = -5+rand.nextInt(11);
 			//If this cave is moving into a hex that has a surface river then we need to make sure that it doesnt try to peek the surface
 			if(nextCenter.hasAttribute(Attribute.River) || (!isSeaCave && nextCenter.hasMarker(Marker.Water)))
 			{
@@ -305,7 +316,7 @@ public class CaveProcessor
 		Vector<Center> out = new Vector<Center>();
 		for(Center c : centers)
 		{
-			if (c.elevation > min && c.getElevation() < max)
+			if (c.getElevation() > min && c.getElevation() < max)
 				out.add(c);
 		}
 		return out;
@@ -1,5 +1,6 @@
 package com.bioxx.jmapgen.processing;
 
+import java.util.Random;
 import java.util.Vector;
 
 import net.minecraft.util.math.BlockPos;
@@ -19,10 +20,20 @@ import com.bioxx.tfc2.api.ore.OreRegistry;
 public class OreProcessor 
 {
 	IslandMap map;
+	Random rand;
 
 	public OreProcessor(IslandMap m)
 	{
 		map = m;
+		rand = m.mapRandom;
+	}
+
+	/**
+	 * Sets the random used by generate so that this stage does not share the island random with other stages.
+	 */
+	public void setRandom(Random r)
+	{
+		rand = r;
 	}
 
 	public void generate()
@@ -37,13 +48,13 @@ public class OreProcessor
 		for(OreConfig oc : configs)
 		{
 			int total = Math.max(map.getParams().hasFeature(Feature.MineralRich) ? oc.getRarity()/2 : 1, 1);
-			total = map.mapRandom.nextInt(map.getParams().hasFeature(Feature.MineralRich) ? oc.getRarity() * 2 : oc.getRarity()) + total;
+			total = rand.nextInt(map.getParams().hasFeature(Feature.MineralRich) ? oc.getRarity() * 2 : oc.getRarity()) + total;
 			for(int i = 0; i < total; i++)
 			{
 				if(oc.getVeinType() == VeinType.Seam)
-					genSeam(landCenters.get(map.mapRandom.nextInt(landCenters.size())), oc);
+					genSeam(landCenters.get(rand.nextInt(landCenters.size())), oc);
 				else if(oc.getVeinType() == VeinType.Layer)
-					genLayer(landCenters.get(map.mapRandom.nextInt(landCenters.size())), oc);
+					genLayer(landCenters.get(rand.nextInt(landCenters.size())), oc);
 			}
 		}
 	}
@@ -53,9 +64,9 @@ public class OreProcessor
 		/**
 		 * Stage 0: Setup all of our variables
 		 */
-		int maxLength = oc.getMinSeamLength()+map.mapRandom.nextInt(oc.getMaxSeamLength()-oc.getMinSeamLength());
+		int maxLength = oc.getMinSeamLength()+rand.nextInt(oc.getMaxSeamLength()-oc.getMinSeamLength());
 		int curLength = 0;
-		HexDirection seamDir = HexDirection.values()[map.mapRandom.nextInt(HexDirection.values().length)];
+		HexDirection seamDir = HexDirection.values()[rand.nextInt(HexDirection.values().length)];
 		Center prevCenter = null;
 		Center center = start;
 		Center nextCenter = start.getNeighbor(seamDir);
@@ -66,7 +77,7 @@ public class OreProcessor
 		OreAttrNode curNode = new OreAttrNode(oc.getOreName());
 
 		int startElev = (int)(mcElev(start.getElevation())*0.75);
-		startElev = map.mapRandom.nextInt(Math.max(startElev, 10));
+		startElev = rand.nextInt(Math.max(startElev, 10));
 
 		curNode.setOffset(new BlockPos(center.point.x, startElev, center.point.y));
 		setupHeightAndWidth(oc, curNode);
@@ -118,13 +129,13 @@ public class OreProcessor
 			//first we perform the bias math
 			elevOffset = (int)Math.floor((double)oc.getNoiseVertical() * 2.0d);
 			//then we apply the bias to the vertical noise
-			elevOffset = oc.getNoiseVertical() - map.mapRandom.nextInt(elevOffset);
+			elevOffset = oc.getNoiseVertical() - rand.nextInt(elevOffset);
 
-			nextCenter = center.getNeighbor(seamDir.getRandomTurnBig(map.mapRandom));
+			nextCenter = center.getNeighbor(seamDir.getRandomTurnBig(rand));
 
 			//Sanity
 			if(nextCenter == null)
-				nextCenter = center.getRandomNeighbor(map.mapRandom);
+				nextCenter = center.getRandomNeighbor(rand);
 
 			//Create our next node
 			nextNode = new OreAttrNode(oc.getOreName());
@@ -139,9 +150,9 @@ public class OreProcessor
 		/**
 		 * Stage 0: Setup all of our variables
 		 */
-		int maxLength = oc.getMinSeamLength()+map.mapRandom.nextInt(oc.getMaxSeamLength()-oc.getMinSeamLength());
+		int maxLength = oc.getMinSeamLength()+rand.nextInt(oc.getMaxSeamLength()-oc.getMinSeamLength());
 		int curLength = 0;
-		HexDirection seamDir = HexDirection.values()[map.mapRandom.nextInt(HexDirection.values().length)];
+		HexDirection seamDir = HexDirection.values()[rand.nextInt(HexDirection.values().length)];
 		Center prevCenter = null;
 		Center center = start;
 		Center nextCenter = start.getNeighbor(seamDir);
@@ -152,7 +163,7 @@ public class OreProcessor
 		OreAttrNode curNode = new OreAttrNode(oc.getOreName());
 
 		int startElev = (int)(mcElev(start.getElevation())*0.75);
-		startElev = map.mapRandom.nextInt(Math.max(startElev, 10));
+		startElev = rand.nextInt(Math.max(startElev, 10));
 
 		curNode.setOffset(new BlockPos(center.point.x, startElev, center.point.y));
 		setupHeightAndWidth(oc, curNode);
@@ -204,10 +215,10 @@ public class OreProcessor
 			setupHeightAndWidth(oc, curNode);
 
 			//Create little offshoots of the main seam.
-			if(oc.getSubSeamRarity() > 0 && map.mapRandom.nextInt(oc.getSubSeamRarity()) == 0)
+			if(oc.getSubSeamRarity() > 0 && rand.nextInt(oc.getSubSeamRarity()) == 0)
 			{
-				int subSeamLength = map.mapRandom.nextInt(2)+1;
-				HexDirection subSeamDir = seamDir.getRandomTurnBig(map.mapRandom, false);
+				int subSeamLength = rand.nextInt(2)+1;
+				HexDirection subSeamDir = seamDir.getRandomTurnBig(rand, false);
 				//Perform initial setup
 				sCenter = center;
 				sCurNode = new OreAttrNode(oc.getOreName());
@@ -221,7 +232,7 @@ public class OreProcessor
 				if(sNextCenter == null)
 					break;
 
-				elevOffset = oc.getNoiseVertical()*2 - map.mapRandom.nextInt(oc.getNoiseVertical() * 4);
+				elevOffset = oc.getNoiseVertical()*2 - rand.nextInt(oc.getNoiseVertical() * 4);
 				sNextNode.setOffset(new BlockPos(sNextCenter.point.x, sCurNode.getOffset().getY() + elevOffset, sNextCenter.point.y));
 				sCurNode.setNextOffset(getMidpoint(sCurNode.getOffset(), sNextNode.getOffset()));
 				sNextNode.setPrevOffset(sCurNode.getNextOffset());
@@ -235,15 +246,15 @@ public class OreProcessor
 					sCenter = sNextCenter;
 					// End Cycling 
 
-					if(oc.getNoiseVertical() >= 10 && map.mapRandom.nextDouble() < 0.15)
+					if(oc.getNoiseVertical() >= 10 && rand.nextDouble() < 0.15)
 					{
 						sNextCenter = sCenter;
-						elevOffset = oc.getNoiseVertical() - map.mapRandom.nextInt((int)Math.floor(oc.getNoiseVertical() * 2));
+						elevOffset = oc.getNoiseVertical() - rand.nextInt((int)Math.floor(oc.getNoiseVertical() * 2));
 					}
 					else
 					{
-						sNextCenter = sCenter.getNeighbor(subSeamDir.getRandomTurnSmall(map.mapRandom));
-						elevOffset = oc.getNoiseVertical() - map.mapRandom.nextInt((int)Math.floor(oc.getNoiseVertical() * 2));
+						sNextCenter = sCenter.getNeighbor(subSeamDir.getRandomTurnSmall(rand));
+						elevOffset = oc.getNoiseVertical() - rand.nextInt((int)Math.floor(oc.getNoiseVertical() * 2));
 					}
 
 					if(sNextCenter == null)
@@ -270,9 +281,9 @@ public class OreProcessor
 					//Link the current node and the next node together
 					sCurNode.setNext(sNextCenter);
 					sCurNode.setNextOffset(getMidpoint(sCurNode.getOffset(), sNextNode.getOffset()).add(
-							oc.getNoiseHorizontal()-map.mapRandom.nextInt((oc.getNoiseHorizontal()*2)), 
+							oc.getNoiseHorizontal()-rand.nextInt((oc.getNoiseHorizontal()*2)), 
 							elevOffset, 
-							oc.getNoiseHorizontal()-map.mapRandom.nextInt((oc.getNoiseHorizontal()*2))));
+							oc.getNoiseHorizontal()-rand.nextInt((oc.getNoiseHorizontal()*2))));
 					sNextNode.setPrevOffset(sCurNode.getNextOffset());
 					sNextNode.setPrev(sCenter);
 
@@ -284,11 +295,11 @@ public class OreProcessor
 			//first we perform the bias math
 			elevOffset = (int)Math.floor((double)oc.getNoiseVertical() * 2.0d);
 			//then we apply the bias to the vertical noise
-			elevOffset = oc.getNoiseVertical() - map.mapRandom.nextInt(elevOffset);
+			elevOffset = oc.getNoiseVertical() - rand.nextInt(elevOffset);
 
-			nextCenter = center.getNeighbor(seamDir.getRandomTurnSmall(map.mapRandom));
+			nextCenter = center.getNeighbor(seamDir.getRandomTurnSmall(rand));
 
-			if(map.mapRandom.nextDouble() < 0.05) //Otherwise, 5% chance that a seam will spike vertically within the same hex
+			if(rand.nextDouble() < 0.05) //Otherwise, 5% chance that a seam will spike vertically within the same hex
 			{
 				nextCenter = center;
 				elevOffset *= 2;
@@ -296,7 +307,7 @@ public class OreProcessor
 
 			//Sanity
 			if(nextCenter == null)
-				nextCenter = center.getRandomNeighbor(map.mapRandom);
+				nextCenter = center.getRandomNeighbor(rand);
 
 			//Create our next node
 			nextNode = new OreAttrNode(oc.getOreName());
@@ -305,7 +316,7 @@ public class OreProcessor
 
 			int horiz = oc.getNoiseHorizontal()*2;
 			//Setup the midpoint offsets for each node
-			nextNode.setPrevOffset(getMidpoint(curNode.getOffset(), nextNode.getOffset()).add(oc.getNoiseHorizontal()-map.mapRandom.nextInt(horiz), 0, oc.getNoiseHorizontal()-map.mapRandom.nextInt(horiz)));
+			nextNode.setPrevOffset(getMidpoint(curNode.getOffset(), nextNode.getOffset()).add(oc.getNoiseHorizontal()-rand.nextInt(horiz), 0, oc.getNoiseHorizontal()-rand.nextInt(horiz)));
 			curNode.setNextOffset(nextNode.getPrevOffset());
 			curLength++;
 		}
@@ -316,12 +327,12 @@ public class OreProcessor
 		if(oc.getVeinHeightMin() == oc.getVeinHeightMax())
 			curNode.setNodeHeight(oc.getVeinHeightMin());
 		else
-			curNode.setNodeHeight(oc.getVeinHeightMin()+map.mapRandom.nextInt(oc.getVeinHeightMax()-oc.getVeinHeightMin()));
+			curNode.setNodeHeight(oc.getVeinHeightMin()+rand.nextInt(oc.getVeinHeightMax()-oc.getVeinHeightMin()));
 
 		if(oc.getVeinWidthMin() == oc.getVeinWidthMax())
 			curNode.setNodeWidth(oc.getVeinWidthMin());
 		else
-			curNode.setNodeWidth(oc.getVeinWidthMin()+map.mapRandom.nextInt(oc.getVeinWidthMax()-oc.getVeinWidthMin()));
+			curNode.setNodeWidth(oc.getVeinWidthMin()+rand.nextInt(oc.getVeinWidthMax()-oc.getVeinWidthMin()));
 	}
 
 	private BlockPos getMidpoint(BlockPos p0, BlockPos p1)
@@ -368,7 +379,7 @@ public class OreProcessor
 		Vector<Center> out = new Vector<Center>();
 		for(Center c : centers)
 		{
-			if (c.elevation > min && c.getElevation() < max)
+			if (c.getElevation() > min && c.getElevation() < max)
 				out.add(c);
 		}
 		return out;
@@ -1,6 +1,7 @@
 package com.bioxx.jmapgen.processing;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 import net.minecraft.util.EnumFacing;
 
@@ -15,10 +16,20 @@ import com.bioxx.tfc2.api.util.Helper;
 public class PortalProcessor 
 {
 	IslandMap map;
+	Random rand;
 
 	public PortalProcessor(IslandMap m)
 	{
 		map = m;
+		rand = m.mapRandom;
+	}
+
+	/**
+	 * Sets the random used by generate so that this stage does not share the island random with other stages.
+	 */
+	public void setRandom(Random r)
+	{
+		rand = r;
 	}
 
 	public void generate()
@@ -46,10 +57,10 @@ public class PortalProcessor
 		{
 			indexList.add(c.index);
 			if(c.downslope == null || c.downslope == c || indexList.contains(c.index))
-				c = map.getClosestCenter(new Point(c.point.getX()-100+map.mapRandom.nextInt(200), c.point.getY()-100+map.mapRandom.nextInt(200)));
+				c = map.getClosestCenter(new Point(c.point.getX()-100+rand.nextInt(200), c.point.getY()-100+rand.nextInt(200)));
 
 			indexList.add(c.index);
-			if(c.elevation < 0.3 && !c.hasAnyMarkersOf(Marker.Water, Marker.Spire, Marker.Coast) && c.biome != BiomeType.RIVER)
+			if(c.getElevation() < 0.3 && !c.hasAnyMarkersOf(Marker.Water, Marker.Spire, Marker.Coast) && c.biome != BiomeType.RIVER)
 				centerList.add(c);
 
 			if(c.hasAnyMarkersOf(Marker.Coast))
@@ -59,7 +70,7 @@ public class PortalProcessor
 		}
 
 		if(centerList.size() > 0)
-			return centerList.get(map.mapRandom.nextInt(centerList.size()));
+			return centerList.get(rand.nextInt(centerList.size()));
 		return c;
 	}
 }
@@ -97,4 +97,19 @@ public class Plane {
 			throw new NoModuleException();
 		return module.GetValue(x, 0, z);
 	}
+
+	/**
+	 * Fills an array with the output values of a @a w by @a h grid of
+	 * points on the plane starting at ( @a x0, @a z0 ) and spaced @a step
+	 * apart. The value at ( x0 + i * step, z0 + j * step ) is stored at
+	 * out[j * w + i].
+	 * 
+	 * @param out Receives the output values. Must hold at least w * h values.
+	 * @pre A noise module was passed to the SetModule() method.
+	 */
+	public void fill(double[] out, double x0, double z0, int w, int h, double step) {
+		if (module == null)
+			throw new NoModuleException();
+		module.fill(out, x0, 0, z0, w, h, step);
+	}
 }
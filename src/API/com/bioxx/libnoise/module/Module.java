@@ -61,4 +61,22 @@ public abstract class Module {
 	public abstract int GetSourceModuleCount();
 
 	public abstract double GetValue(double x, double y, double z);
+
+	/**
+	 * Fills an array with the output values of a grid of input values
+	 * starting at ( @a x0, @a y, @a z0 ) and spaced @a step apart. The value
+	 * for column @a i and row @a j is stored at out[j * w + i].
+	 * 
+	 * Modules that can evaluate a whole grid at once override this so that a
+	 * module graph costs one call per module instead of one call per module
+	 * per value.
+	 */
+	public void fill(double[] out, double x0, double y, double z0, int w, int h, double step) {
+		for (int j = 0; j < h; j++) {
+			double z = z0 + j * step;
+			for (int i = 0; i < w; i++) {
+				out[j * w + i] = GetValue(x0 + i * step, y, z);
+			}
+		}
+	}
 }
@@ -47,4 +47,19 @@ public class Max extends Module {
 		return Utils.GetMax(v0, v1);
 	}
 
+	@Override
+	public void fill(double[] out, double x0, double y, double z0, int w, int h, double step) {
+		if (SourceModule[0] == null)
+			throw new NoModuleException();
+		if (SourceModule[1] == null)
+			throw new NoModuleException();
+
+		double[] v1 = new double[w * h];
+		SourceModule[0].fill(out, x0, y, z0, w, h, step);
+		SourceModule[1].fill(v1, x0, y, z0, w, h, step);
+		for (int i = 0; i < v1.length; i++) {
+			out[i] = Utils.GetMax(out[i], v1[i]);
+		}
+	}
+
 }
@@ -73,4 +73,15 @@ public class ScaleBias extends Module {
 		return SourceModule[0].GetValue(x, y, z) * scale + bias;
 	}
 
+	@Override
+	public void fill(double[] out, double x0, double y, double z0, int w, int h, double step) {
+		if (SourceModule[0] == null)
+			throw new NoModuleException();
+
+		SourceModule[0].fill(out, x0, y, z0, w, h, step);
+		for (int i = 0; i < w * h; i++) {
+			out[i] = out[i] * scale + bias;
+		}
+	}
+
 }
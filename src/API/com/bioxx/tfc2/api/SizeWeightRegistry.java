@@ -1,8 +1,11 @@
 package com.bioxx.tfc2.api;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 
 import net.minecraftforge.fml.common.registry.ForgeRegistries;
@@ -16,7 +19,12 @@ public class SizeWeightRegistry
 	private static SizeWeightRegistry instance = new SizeWeightRegistry();
 	public static SizeWeightRegistry GetInstance(){return instance;};
 
+	public static final SizeWeightProp DEFAULT = new SizeWeightProp(EnumSize.SMALL, EnumWeight.VERYLIGHT);
+
 	private Map<String, SizeWeightProp> propertyMap = new HashMap<String, SizeWeightProp>();
+	//Properties that have already been looked up for each item, indexed by meta+1 so that items without subtypes use 0.
+	//Items do not override equals so this is keyed by identity, and it is read from both the client and server threads.
+	private Map<Item, SizeWeightProp[]> itemCache = new ConcurrentHashMap<Item, SizeWeightProp[]>();
 
 	public void addProperty(SizeWeightJSON json)
 	{
@@ -24,15 +32,37 @@ public class SizeWeightRegistry
 		if(!propertyMap.containsKey(key))
 		{
 			propertyMap.put(key, new SizeWeightProp(json.size, json.weight));
+			itemCache.clear();
 		}
 	}
 
 	public SizeWeightProp getProperty(ItemStack is)
 	{
-		int meta = is.getItem().getHasSubtypes() ? is.getItemDamage() : -1;
-		String key = ForgeRegistries.ITEMS.getKey(is.getItem()).toString();
+		Item item = is.getItem();
+		int meta = item.getHasSubtypes() ? is.getItemDamage() : -1;
+		int index = meta + 1;
+		if(index < 0)
+			return findProperty(item, meta);
+
+		SizeWeightProp[] props = itemCache.get(item);
+		if(props != null && index < props.length && props[index] != null)
+			return props[index];
+
+		SizeWeightProp prop = findProperty(item, meta);
+		if(props == null || index >= props.length)
+		{
+			props = props == null ? new SizeWeightProp[index + 1] : Arrays.copyOf(props, index + 1);
+			itemCache.put(item, props);
+		}
+		props[index] = prop;
+		return prop;
+	}
+
+	private SizeWeightProp findProperty(Item item, int meta)
+	{
+		String key = ForgeRegistries.ITEMS.getKey(item).toString();
 		SizeWeightProp prop = propertyMap.get(key + " " + meta);
-		if(prop == null && meta >= 0 && is.getItem().getHasSubtypes())
+		if(prop == null && meta >= 0 && item.getHasSubtypes())
 		{
 			prop = propertyMap.get(key + " -1");
 		}
@@ -40,7 +70,7 @@ public class SizeWeightRegistry
 		if(prop != null)
 			return prop;
 
-		return new SizeWeightProp(EnumSize.SMALL, EnumWeight.VERYLIGHT);
+		return DEFAULT;
 	}
 
 	public static class SizeWeightProp
@@ -7,6 +7,14 @@ public class TFCOptions
 {
 	// World Generation
 	public static int maxThreadsForIslandGen = 1;
+	public static int maxCachedIslands = 16;
+	public static int maxIslandCacheMB = 512;
+	public static int islandWaitTimeout = 2000;
+	public static int heightfieldCacheTiles = 64;
+	public static boolean islandGenTelemetry = false;
+	public static String islandGenTelemetryLog = "none";
+	public static int hexUpdateBudgetMicros = 500;
+	public static int leafDecayPerTick = 64;
 	public static boolean shouldGenTrees = true;
 	public static boolean shouldStripChunks = false;
 
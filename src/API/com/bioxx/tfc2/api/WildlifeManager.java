@@ -1,7 +1,10 @@
 package com.bioxx.tfc2.api;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.UUID;
 import java.util.Vector;
 
@@ -14,31 +17,102 @@ import com.bioxx.jmapgen.attributes.Attribute;
 import com.bioxx.jmapgen.attributes.NeedZoneAttribute;
 import com.bioxx.jmapgen.graph.Center;
 import com.bioxx.jmapgen.graph.Center.Marker;
-import com.bioxx.jmapgen.threads.ThreadPathfind;
+import com.bioxx.jmapgen.pathfinding.PathPlanner;
 import com.bioxx.tfc2.api.animals.AnimalSpawnRegistry;
 import com.bioxx.tfc2.api.animals.Herd;
+import com.bioxx.tfc2.api.animals.HerdGoalEnum;
 import com.bioxx.tfc2.api.animals.VirtualAnimal;
 import com.bioxx.tfc2.api.interfaces.IAnimalDef;
-import com.bioxx.tfc2.api.util.IThreadCompleteListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-public class WildlifeManager implements IThreadCompleteListener
+public class WildlifeManager
 {
 	public static Logger log = LogManager.getLogger("IslandWildlifeManager");
 	HashMap<UUID, Herd> herdMap = new HashMap<UUID, Herd>();
-	ThreadPathfind[] pathfindThreads;
+	//Herds by the index of the center they are in and the center each herd was last indexed under
+	HashMap<Integer, ArrayList<Herd>> herdsByCenter = new HashMap<Integer, ArrayList<Herd>>();
+	HashMap<UUID, Integer> herdCenters = new HashMap<UUID, Integer>();
+	//Need zones grouped by goal and by animal type in center order. Built the first time they are needed
+	EnumMap<HerdGoalEnum, ArrayList<Center>> needZonesByGoal;
+	HashMap<String, ArrayList<Center>> needZonesByAnimal;
 	long lastTickHour = -1;
 	IslandMap map;
 
+	PathPlanner pathPlanner;
+
 	public WildlifeManager(IslandMap map)
 	{
 		this.map = map;
+		pathPlanner = new PathPlanner(map);
+	}
+
+	/**
+	 * Herd brains request their paths from here so that path finding happens off the tick thread.
+	 */
+	public PathPlanner getPathPlanner()
+	{
+		return pathPlanner;
 	}
 
 	public void addHerd(Herd h)
 	{
 		herdMap.put(h.getUUID(), h);
+		updateHerdLocation(h);
+	}
+
+	public void removeHerd(UUID uuid)
+	{
+		herdMap.remove(uuid);
+		Integer center = herdCenters.remove(uuid);
+		if(center != null)
+			removeFromCenter(center, uuid);
+	}
+
+	/**
+	 * Moves the herd to the center its brain is in now. Herds are updated after every time their brain is processed so
+	 * this only needs to be called after changing a herd's location from somewhere else.
+	 */
+	public void updateHerdLocation(Herd h)
+	{
+		Center loc = h.brain.getLocation();
+		Integer next = loc == null ? null : loc.index;
+		Integer prev = herdCenters.get(h.getUUID());
+		if(next == null ? prev == null : next.equals(prev))
+			return;
+
+		if(prev != null)
+			removeFromCenter(prev, h.getUUID());
+		if(next == null)
+		{
+			herdCenters.remove(h.getUUID());
+			return;
+		}
+		herdCenters.put(h.getUUID(), next);
+		ArrayList<Herd> list = herdsByCenter.get(next);
+		if(list == null)
+		{
+			list = new ArrayList<Herd>(2);
+			herdsByCenter.put(next, list);
+		}
+		list.add(h);
+	}
+
+	private void removeFromCenter(int center, UUID uuid)
+	{
+		ArrayList<Herd> list = herdsByCenter.get(center);
+		if(list == null)
+			return;
+		for(int i = 0; i < list.size(); i++)
+		{
+			if(list.get(i).getUUID().equals(uuid))
+			{
+				list.remove(i);
+				break;
+			}
+		}
+		if(list.isEmpty())
+			herdsByCenter.remove(center);
 	}
 
 	public Herd getHerd(UUID uuid)
@@ -49,6 +123,8 @@ public class WildlifeManager implements IThreadCompleteListener
 	public void readFromNBT(NBTTagCompound nbt)
 	{
 		herdMap.clear();
+		herdsByCenter.clear();
+		herdCenters.clear();
 		NBTTagList invList = nbt.getTagList("herds", 10);
 		for(int i = 0; i < invList.tagCount(); i++)
 		{
@@ -83,8 +159,6 @@ public class WildlifeManager implements IThreadCompleteListener
 		if(map.getParams().getXCoord() != 0 || map.getParams().getZCoord() != -2)
 			return;
 
-		Vector<Center> needZones = map.filterKeepAttributes(map.filterOutMarkers(map.centers, Marker.Ocean), Attribute.NeedZone);
-
 		for(String animalType : map.getParams().animalTypes)
 		{
 			IAnimalDef def = AnimalSpawnRegistry.getInstance().getDefFromName(animalType);
@@ -99,10 +173,9 @@ public class WildlifeManager implements IThreadCompleteListener
 			{
 				genCenters = new Vector<Center>();
 				//Filter out only our own need zones
-				for(Center c : needZones)
+				for(Center c : getNeedZones(def.getName()))
 				{
-					NeedZoneAttribute attrib = (NeedZoneAttribute) c.getAttribute(Attribute.NeedZone);
-					if(attrib.animalType.equals(def.getName()))
+					if(!c.hasMarker(Marker.Ocean))
 						genCenters.add(c);
 				}
 			}
@@ -110,7 +183,7 @@ public class WildlifeManager implements IThreadCompleteListener
 			int numToGen = def.getMaxIslandPop(map.getParams());
 			while(numToGen > 0)
 			{
-				ArrayList<VirtualAnimal> list = def.provideHerd(world);
+				ArrayList<VirtualAnimal> list = def.provideHerd(world, map.mapRandom);
 				if(list.size() > 0)
 				{
 					numToGen -= list.size();
@@ -140,6 +213,7 @@ public class WildlifeManager implements IThreadCompleteListener
 			for(Herd h : herdMap.values())
 			{
 				h.brain.process(world, map, lastTickHour);
+				updateHerdLocation(h);
 				//Mark herd for deletion if all of the animals are gone.
 				if(h.animals.size() == 0)
 					herdsToRemove.add(h.getUUID());
@@ -148,30 +222,61 @@ public class WildlifeManager implements IThreadCompleteListener
 			//Cull empty herds
 			for(UUID uuid : herdsToRemove)
 			{
-				herdMap.remove(uuid);
+				removeHerd(uuid);
 			}
 		}
 	}
 
 	public ArrayList<Herd> getHerdsInCenter(Center c)
 	{
-		ArrayList<Herd> herds = new ArrayList<Herd>();
-		for(Herd h : herdMap.values())
-		{
-			if(h.brain.getLocation() == c)
-			{
-				herds.add(h);
-			}
-		}
-		return herds;
+		ArrayList<Herd> herds = herdsByCenter.get(c.index);
+		return herds == null ? new ArrayList<Herd>() : new ArrayList<Herd>(herds);
 	}
 
+	/**
+	 * @return Every need zone for this goal on the island. The list must not be modified.
+	 */
+	public List<Center> getNeedZones(HerdGoalEnum goal)
+	{
+		buildNeedZones();
+		return needZonesByGoal.get(goal);
+	}
 
-	@Override
-	public void notifyOfThreadComplete(Thread thread) 
+	/**
+	 * @return Every need zone for this animal on the island. The list must not be modified.
+	 */
+	public List<Center> getNeedZones(String animalType)
 	{
-		pathfindThreads[((ThreadPathfind)thread).threadID] = null;
+		buildNeedZones();
+		ArrayList<Center> list = needZonesByAnimal.get(animalType);
+		return list == null ? Collections.<Center>emptyList() : list;
 	}
 
+	private synchronized void buildNeedZones()
+	{
+		if(needZonesByGoal != null)
+			return;
+		//Need zones are only placed while the island is generated so they never have to be updated
+		EnumMap<HerdGoalEnum, ArrayList<Center>> byGoal = new EnumMap<HerdGoalEnum, ArrayList<Center>>(HerdGoalEnum.class);
+		for(HerdGoalEnum goal : HerdGoalEnum.values())
+			byGoal.put(goal, new ArrayList<Center>());
+		HashMap<String, ArrayList<Center>> byAnimal = new HashMap<String, ArrayList<Center>>();
+		for(Center c : map.centers)
+		{
+			NeedZoneAttribute attrib = (NeedZoneAttribute) c.getAttribute(Attribute.NeedZone);
+			if(attrib == null)
+				continue;
+			byGoal.get(attrib.goalType).add(c);
+			ArrayList<Center> list = byAnimal.get(attrib.animalType);
+			if(list == null)
+			{
+				list = new ArrayList<Center>();
+				byAnimal.put(attrib.animalType, list);
+			}
+			list.add(c);
+		}
+		needZonesByAnimal = byAnimal;
+		needZonesByGoal = byGoal;
+	}
 
 }
@@ -28,6 +28,18 @@ public class HerdPath
 		}
 	}
 
+	/**
+	 * @param indices Center indices ordered from the end of the path back to the start, as returned by the PathPlanner
+	 */
+	public HerdPath(long timestamp, IslandMap map, int[] indices)
+	{
+		this(timestamp);
+		for(int i : indices)
+		{
+			addNode(map.centers.get(i));
+		}
+	}
+
 	public void addNode(Center c)
 	{
 		path.add(c);
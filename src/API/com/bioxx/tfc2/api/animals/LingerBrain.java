@@ -2,6 +2,7 @@ package com.bioxx.tfc2.api.animals;
 
 import java.util.ArrayList;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NBTTagCompound;
@@ -11,8 +12,7 @@ import net.minecraft.world.World;
 
 import com.bioxx.jmapgen.IslandMap;
 import com.bioxx.jmapgen.graph.Center;
-import com.bioxx.jmapgen.pathfinding.CenterPath;
-import com.bioxx.jmapgen.pathfinding.CenterPathFinder;
+import com.bioxx.jmapgen.pathfinding.IPathProfile;
 import com.bioxx.tfc2.Core;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -28,6 +28,11 @@ public class LingerBrain implements IHerdBrain
 
 	int hoursWaitingOnHerd = 0;
 
+	//Path being found in the background for the goal the herd picked
+	CompletableFuture<int[]> pendingPath;
+	HerdGoalEnum pendingGoal;
+	Center pendingGoalLocation;
+
 	public LingerBrain(Herd h, Center curLoc)
 	{
 		herd = h;
@@ -47,19 +52,30 @@ public class LingerBrain implements IHerdBrain
 			{
 				activityTimer = 1;
 
+				//A path was requested on an earlier tick so wait for it instead of picking a new goal
+				if(pendingPath != null)
+				{
+					if(!pendingPath.isDone())
+						return;
+					int[] path = pendingPath.getNow(null);
+					pendingPath = null;
+					if(path == null)
+						return;
+					currentGoal = new HerdGoal(pendingGoal, pendingGoalLocation, new HerdPath(currentHour, map, path));
+					currentActivity = HerdActivityEnum.TRAVELING;
+					return;
+				}
+
 				//========Create a new goal========
 				//1. Find a hex near the home hex to wander to
 				Vector<Center> goalZones = map.filterRange(map.landCenters(map.centers), homeLocation, 300);
 				//2. Choose a location to move to
 				Center goalLoc = goalZones.get(world.rand.nextInt(goalZones.size()));
-				//3. Figure out a path to reach the destination
-				CenterPathFinder pathfinder = new CenterPathFinder(AnimalSpawnRegistry.getInstance().getDefFromName(herd.animalType).getPathProfile());
-				CenterPath path = pathfinder.findPath(map, currentLocation, goalLoc);
-				//4. Move the herd
-				if(path == null)
-					return;
-				currentGoal = new HerdGoal(HerdGoalEnum.REST, goalLoc, new HerdPath(currentHour, path));
-				currentActivity = HerdActivityEnum.TRAVELING;
+				//3. Figure out a path to reach the destination. The herd starts moving once it has been found
+				IPathProfile profile = AnimalSpawnRegistry.getInstance().getDefFromName(herd.animalType).getPathProfile();
+				pendingPath = map.getIslandData().wildlifeManager.getPathPlanner().request(profile, currentLocation, goalLoc);
+				pendingGoal = HerdGoalEnum.REST;
+				pendingGoalLocation = goalLoc;
 			}
 			else if(currentActivity == HerdActivityEnum.TRAVELING)//The herd is actively moving to a new needzone
 			{
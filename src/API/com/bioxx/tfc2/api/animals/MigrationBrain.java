@@ -1,7 +1,8 @@
 package com.bioxx.tfc2.api.animals;
 
 import java.util.ArrayList;
-import java.util.Vector;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NBTTagCompound;
@@ -10,11 +11,8 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
 import com.bioxx.jmapgen.IslandMap;
-import com.bioxx.jmapgen.attributes.Attribute;
-import com.bioxx.jmapgen.attributes.NeedZoneAttribute;
 import com.bioxx.jmapgen.graph.Center;
-import com.bioxx.jmapgen.pathfinding.CenterPath;
-import com.bioxx.jmapgen.pathfinding.CenterPathFinder;
+import com.bioxx.jmapgen.pathfinding.IPathProfile;
 import com.bioxx.tfc2.Core;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
@@ -29,6 +27,11 @@ public class MigrationBrain implements IHerdBrain
 
 	int hoursWaitingOnHerd = 0;
 
+	//Path being found in the background for the goal the herd picked
+	CompletableFuture<int[]> pendingPath;
+	HerdGoalEnum pendingGoal;
+	Center pendingGoalLocation;
+
 	public MigrationBrain(Herd h, Center curLoc)
 	{
 		herd = h;
@@ -48,6 +51,20 @@ public class MigrationBrain implements IHerdBrain
 			{
 				activityTimer = 1;
 
+				//A path was requested on an earlier tick so wait for it instead of picking a new goal
+				if(pendingPath != null)
+				{
+					if(!pendingPath.isDone())
+						return;
+					int[] path = pendingPath.getNow(null);
+					pendingPath = null;
+					if(path == null)
+						return;
+					currentGoal = new HerdGoal(pendingGoal, pendingGoalLocation, new HerdPath(currentHour, map, path));
+					currentActivity = HerdActivityEnum.TRAVELING;
+					return;
+				}
+
 				//========Create a new goal========
 				//1. Decide what the herd needs
 				HerdGoalEnum goal = HerdGoalEnum.REST;
@@ -64,23 +81,15 @@ public class MigrationBrain implements IHerdBrain
 					goal = world.rand.nextBoolean() ? HerdGoalEnum.REST : HerdGoalEnum.FOOD;
 				}
 				//2. Find an appropriate location to fill this need
-				Vector<Center> allZones = map.filterKeepAttributes(map.centers, Attribute.NeedZone);
-				Vector<Center> goalZones = new Vector<Center>();
-				for(Center z : allZones)
-				{
-					NeedZoneAttribute attrib = (NeedZoneAttribute) z.getAttribute(Attribute.NeedZone);
-					if(attrib.goalType == goal)
-						goalZones.add(z);
-				}
-				Center goalLoc = goalZones.get(world.rand.nextInt(goalZones.size()));
-				//3. Figure out a path to reach the destination
-				CenterPathFinder pathfinder = new CenterPathFinder(AnimalSpawnRegistry.getInstance().getDefFromName(herd.animalType).getPathProfile());
-				CenterPath path = pathfinder.findPath(map, currentLocation, goalLoc);
-				//4. Move the herd
-				if(path == null)
+				List<Center> goalZones = map.getIslandData().wildlifeManager.getNeedZones(goal);
+				if(goalZones.isEmpty())
 					return;
-				currentGoal = new HerdGoal(goal, goalLoc, new HerdPath(currentHour, path));
-				currentActivity = HerdActivityEnum.TRAVELING;
+				Center goalLoc = goalZones.get(world.rand.nextInt(goalZones.size()));
+				//3. Figure out a path to reach the destination. The herd starts moving once it has been found
+				IPathProfile profile = AnimalSpawnRegistry.getInstance().getDefFromName(herd.animalType).getPathProfile();
+				pendingPath = map.getIslandData().wildlifeManager.getPathPlanner().request(profile, currentLocation, goalLoc);
+				pendingGoal = goal;
+				pendingGoalLocation = goalLoc;
 			}
 			else if(currentActivity == HerdActivityEnum.TRAVELING)//The herd is actively moving to a new needzone
 			{
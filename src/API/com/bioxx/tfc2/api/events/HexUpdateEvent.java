@@ -6,10 +6,13 @@ import com.bioxx.jmapgen.IslandMap;
 import com.bioxx.jmapgen.graph.Center;
 
 /**
- * This is called right after the parameters have been created and before the island itself is generated.<br>
+ * This is called when a hex that holds state which changes over time is due for an update. Hexes are only updated
+ * while a handler keeps asking for them with {@link #requestUpdateAt(long)}, so a handler must work out everything that
+ * happened since the last update from the elapsed ticks.<br>
  * <br>
- * {@link #map} is the set of island parameters that has been chosen for this island before generation.<br>
- * {@link #centerToUpdate} is the set of island parameters that has been chosen for this island before generation.<br>
+ * {@link #map} is the island that the hex belongs to.<br>
+ * {@link #centerToUpdate} is the hex being updated.<br>
+ * {@link #totalTicks} is the current world time.<br>
  * <br>
  * This event is fired on the {@link com.bioxx.tfc2.api.Global#EVENT_BUS}.<br>
  * @author Bioxx
@@ -19,11 +22,30 @@ public class HexUpdateEvent extends Event
 {
 	public final IslandMap map;
 	public final Center centerToUpdate;
+	public final long totalTicks;
+	private long nextUpdate = Long.MAX_VALUE;
 
-	public HexUpdateEvent(IslandMap map, Center centerToUpdate)
+	public HexUpdateEvent(IslandMap map, Center centerToUpdate, long totalTicks)
 	{
 		this.map = map;
 		this.centerToUpdate = centerToUpdate;
+		this.totalTicks = totalTicks;
+	}
+
+	/**
+	 * Asks for this hex to be updated again once the world time reaches this tick. The earliest request wins.
+	 */
+	public void requestUpdateAt(long tick)
+	{
+		nextUpdate = Math.min(nextUpdate, tick);
+	}
+
+	/**
+	 * @return The tick of the next update or Long.MAX_VALUE if no handler needs this hex anymore.
+	 */
+	public long getNextUpdate()
+	{
+		return nextUpdate;
 	}
 
 }
@@ -30,6 +30,8 @@ public class IslandGenEvent
 	 * This is called immediately following the creation of the map and before this data is saved to the cache or used.<br>
 	 * <br>
 	 * {@link #islandMap} is the island map after TFC has built the island.<br>
+	 * {@link #isRemote} is true if the island is being built for the client. Islands are built on worker threads so
+	 * this should be used instead of checking the side of the current thread.<br>
 	 * <br>
 	 * This event is fired on the {@link com.bioxx.tfc2.api.Global#EVENT_BUS}.<br>
 	 * @author Bioxx
@@ -38,9 +40,11 @@ public class IslandGenEvent
 	public static class Post extends Event
 	{
 		public final IslandMap islandMap;
-		public Post(IslandMap map)
+		public final boolean isRemote;
+		public Post(IslandMap map, boolean remote)
 		{
 			islandMap = map;
+			isRemote = remote;
 		}
 	}
 }
@@ -3,14 +3,31 @@ package com.bioxx.tfc2.api.heat;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 
-public class ItemHeat 
+import com.bioxx.tfc2.core.Timekeeper;
+
+/**
+ * Heat is stored on the stack along with the tick it started cooling at, if it is cooling. The current heat is worked
+ * out from the ticks that have passed since then so cooling stacks never need to be updated.
+ */
+public class ItemHeat
 {
 	public static final String HEAT_TAG = "tfc2:heat";
+	public static final String COOLING_TAG = "tfc2:coolingSince";
+	/** Heat lost per tick while cooling. */
+	public static final float COOLING_RATE = 1f;
+
 	public static float Get(ItemStack is)
 	{
 		if(is.hasTagCompound())
 		{
-			return is.getTagCompound().getFloat(HEAT_TAG);
+			NBTTagCompound nbt = is.getTagCompound();
+			float heat = nbt.getFloat(HEAT_TAG);
+			if(heat > 0 && nbt.hasKey(COOLING_TAG) && Timekeeper.getInstance() != null)
+			{
+				long elapsed = Timekeeper.getInstance().getTotalTicks() - nbt.getLong(COOLING_TAG);
+				heat = Math.max(0, heat - Math.max(0, elapsed) * COOLING_RATE);
+			}
+			return heat;
 		}
 		return 0;
 	}
@@ -23,6 +40,7 @@ public class ItemHeat
 		}
 
 		is.getTagCompound().setFloat(HEAT_TAG, heat);
+		is.getTagCompound().removeTag(COOLING_TAG);
 	}
 
 	public static void Increase(ItemStack is, float heatToAdd)
@@ -32,7 +50,8 @@ public class ItemHeat
 			is.setTagCompound(new NBTTagCompound());
 		}
 
-		float heat = is.getTagCompound().getFloat(HEAT_TAG) + heatToAdd;
+		float heat = Get(is) + heatToAdd;
+		is.getTagCompound().removeTag(COOLING_TAG);
 
 		if(heat < 0)//Just in case we add a negative for some dumb reason
 			is.getTagCompound().removeTag(HEAT_TAG);
@@ -47,7 +66,8 @@ public class ItemHeat
 			is.setTagCompound(new NBTTagCompound());
 		}
 
-		float heat = is.getTagCompound().getFloat(HEAT_TAG) - heatToSub;
+		float heat = Get(is) - heatToSub;
+		is.getTagCompound().removeTag(COOLING_TAG);
 
 		if(heat <= 0)
 			is.getTagCompound().removeTag(HEAT_TAG);
@@ -57,4 +77,33 @@ public class ItemHeat
 		if(is.getTagCompound().getSize() == 0)
 			is.setTagCompound(null);
 	}
+
+	/**
+	 * Lets a hot stack start losing heat from this tick on. Does nothing if it is already cooling.
+	 * @return The tick the stack will be cold at or Long.MAX_VALUE if it is not hot.
+	 */
+	public static long startCooling(ItemStack is, long tick)
+	{
+		if(!is.hasTagCompound() || is.getTagCompound().getFloat(HEAT_TAG) <= 0)
+			return Long.MAX_VALUE;
+
+		NBTTagCompound nbt = is.getTagCompound();
+		if(!nbt.hasKey(COOLING_TAG))
+			nbt.setLong(COOLING_TAG, tick);
+		return nbt.getLong(COOLING_TAG) + (long)Math.ceil(nbt.getFloat(HEAT_TAG) / COOLING_RATE);
+	}
+
+	/**
+	 * Removes the heat tags from a stack that has finished cooling so that it stacks with cold items again.
+	 */
+	public static void clearIfCold(ItemStack is)
+	{
+		if(is.hasTagCompound() && is.getTagCompound().hasKey(HEAT_TAG) && Get(is) <= 0)
+		{
+			is.getTagCompound().removeTag(HEAT_TAG);
+			is.getTagCompound().removeTag(COOLING_TAG);
+			if(is.getTagCompound().getSize() == 0)
+				is.setTagCompound(null);
+		}
+	}
 }
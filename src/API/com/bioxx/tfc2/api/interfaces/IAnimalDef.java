@@ -1,6 +1,7 @@
 package com.bioxx.tfc2.api.interfaces;
 
 import java.util.ArrayList;
+import java.util.Random;
 import java.util.Vector;
 
 import net.minecraft.entity.Entity;
@@ -33,9 +34,10 @@ public interface IAnimalDef
 	public Class<? extends EntityLiving> getEntityClass();
 
 	/**
+	 * @param rand The island's random so that herds are the same every time an island is generated
 	 * @return A list of VirtualAnimals for use in {@link com.bioxx.tfc2.api.WildlifeManager}
 	 */
-	public ArrayList<VirtualAnimal> provideHerd(World world);
+	public ArrayList<VirtualAnimal> provideHerd(World world, Random rand);
 
 	/**
 	 * @return Is this Center a valid location for animals of this type to start?
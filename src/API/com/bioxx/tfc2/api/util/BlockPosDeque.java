@@ -0,0 +1,107 @@
+package com.bioxx.tfc2.api.util;
+
+import java.util.NoSuchElementException;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * A growable ring buffer of block positions packed with BlockPosSet.pack. Can be used as a queue, a stack or a list.
+ */
+public class BlockPosDeque
+{
+	private long[] elements;
+	private int head;
+	private int size;
+
+	public BlockPosDeque()
+	{
+		this(16);
+	}
+
+	public BlockPosDeque(int expected)
+	{
+		elements = new long[Integer.highestOneBit(Math.max(4, expected - 1)) << 1];
+	}
+
+	public void addLast(long pos)
+	{
+		if(size == elements.length)
+			grow();
+		elements[(head + size) & (elements.length - 1)] = pos;
+		size++;
+	}
+
+	public void addLast(BlockPos pos)
+	{
+		addLast(BlockPosSet.pack(pos.getX(), pos.getY(), pos.getZ()));
+	}
+
+	public void addFirst(long pos)
+	{
+		if(size == elements.length)
+			grow();
+		head = (head - 1) & (elements.length - 1);
+		elements[head] = pos;
+		size++;
+	}
+
+	public long pollFirst()
+	{
+		if(size == 0)
+			throw new NoSuchElementException();
+		long pos = elements[head];
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		return pos;
+	}
+
+	public long pollLast()
+	{
+		if(size == 0)
+			throw new NoSuchElementException();
+		size--;
+		return elements[(head + size) & (elements.length - 1)];
+	}
+
+	/**
+	 * @return The position at this index counting from the first element.
+	 */
+	public long get(int index)
+	{
+		if(index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+		return elements[(head + index) & (elements.length - 1)];
+	}
+
+	public BlockPos getPos(int index)
+	{
+		long pos = get(index);
+		return new BlockPos(BlockPosSet.getX(pos), BlockPosSet.getY(pos), BlockPosSet.getZ(pos));
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public void clear()
+	{
+		head = 0;
+		size = 0;
+	}
+
+	private void grow()
+	{
+		long[] grown = new long[elements.length * 2];
+		int first = Math.min(size, elements.length - head);
+		System.arraycopy(elements, head, grown, 0, first);
+		System.arraycopy(elements, 0, grown, first, size - first);
+		elements = grown;
+		head = 0;
+	}
+}
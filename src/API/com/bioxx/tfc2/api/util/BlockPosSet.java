@@ -0,0 +1,180 @@
+package com.bioxx.tfc2.api.util;
+
+import java.util.Arrays;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * A hash set of block positions packed into longs the same way as BlockPos.toLong, so adding and checking a position
+ * never allocates. Uses open addressing with linear probing.
+ */
+public class BlockPosSet
+{
+	private static final int NUM_X_BITS = 26;
+	private static final int NUM_Z_BITS = 26;
+	private static final int NUM_Y_BITS = 64 - NUM_X_BITS - NUM_Z_BITS;
+	private static final int Y_SHIFT = NUM_Z_BITS;
+	private static final int X_SHIFT = Y_SHIFT + NUM_Y_BITS;
+	private static final long X_MASK = (1L << NUM_X_BITS) - 1L;
+	private static final long Y_MASK = (1L << NUM_Y_BITS) - 1L;
+	private static final long Z_MASK = (1L << NUM_Z_BITS) - 1L;
+
+	//x = -2^25 lies outside of the world border so this can never be a real position
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] keys;
+	private int size;
+	private int mask;
+
+	public BlockPosSet()
+	{
+		this(16);
+	}
+
+	public BlockPosSet(int expected)
+	{
+		int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+	}
+
+	public static long pack(int x, int y, int z)
+	{
+		return ((long)x & X_MASK) << X_SHIFT | ((long)y & Y_MASK) << Y_SHIFT | ((long)z & Z_MASK);
+	}
+
+	public static int getX(long pos)
+	{
+		return (int)(pos << 64 - X_SHIFT - NUM_X_BITS >> 64 - NUM_X_BITS);
+	}
+
+	public static int getY(long pos)
+	{
+		return (int)(pos << 64 - Y_SHIFT - NUM_Y_BITS >> 64 - NUM_Y_BITS);
+	}
+
+	public static int getZ(long pos)
+	{
+		return (int)(pos << 64 - NUM_Z_BITS >> 64 - NUM_Z_BITS);
+	}
+
+	/**
+	 * @return True if the position was not already in the set.
+	 */
+	public boolean add(long pos)
+	{
+		int i = hash(pos) & mask;
+		while(keys[i] != EMPTY)
+		{
+			if(keys[i] == pos)
+				return false;
+			i = (i + 1) & mask;
+		}
+		keys[i] = pos;
+		size++;
+		//Keep the table at most half full so probes stay short
+		if(size * 2 > keys.length)
+			grow();
+		return true;
+	}
+
+	public boolean add(BlockPos pos)
+	{
+		return add(pack(pos.getX(), pos.getY(), pos.getZ()));
+	}
+
+	/**
+	 * @return True if the position was in the set.
+	 */
+	public boolean remove(long pos)
+	{
+		int i = hash(pos) & mask;
+		while(keys[i] != pos)
+		{
+			if(keys[i] == EMPTY)
+				return false;
+			i = (i + 1) & mask;
+		}
+		//Move later keys of the same probe run back into the gap so lookups for them do not stop early
+		int gap = i;
+		for(int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask)
+		{
+			int home = hash(keys[j]) & mask;
+			if(((j - home) & mask) >= ((j - gap) & mask))
+			{
+				keys[gap] = keys[j];
+				gap = j;
+			}
+		}
+		keys[gap] = EMPTY;
+		size--;
+		return true;
+	}
+
+	public boolean remove(BlockPos pos)
+	{
+		return remove(pack(pos.getX(), pos.getY(), pos.getZ()));
+	}
+
+	public boolean contains(long pos)
+	{
+		int i = hash(pos) & mask;
+		while(keys[i] != EMPTY)
+		{
+			if(keys[i] == pos)
+				return true;
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	public boolean contains(BlockPos pos)
+	{
+		return contains(pack(pos.getX(), pos.getY(), pos.getZ()));
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public void clear()
+	{
+		if(size > 0)
+		{
+			Arrays.fill(keys, EMPTY);
+			size = 0;
+		}
+	}
+
+	private void grow()
+	{
+		long[] old = keys;
+		keys = new long[old.length * 2];
+		Arrays.fill(keys, EMPTY);
+		mask = keys.length - 1;
+		for(long k : old)
+		{
+			if(k == EMPTY)
+				continue;
+			int i = hash(k) & mask;
+			while(keys[i] != EMPTY)
+				i = (i + 1) & mask;
+			keys[i] = k;
+		}
+	}
+
+	private static int hash(long pos)
+	{
+		pos ^= pos >>> 33;
+		pos *= 0xff51afd7ed558ccdL;
+		pos ^= pos >>> 33;
+		return (int)pos;
+	}
+}
@@ -0,0 +1,148 @@
+package com.bioxx.tfc2.api.util;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Breadth first flood fill over block positions. Each position is visited at most once and the visitor decides whether
+ * it is collected into the results and whether the fill spreads to its neighbors through the kernel. Visitors that
+ * need to choose neighbors themselves can use a null kernel and call enqueue instead.
+ *
+ * The position handed to the visitor is reused for every visit and must be copied if it needs to be kept.
+ */
+public class FloodFill
+{
+	/** The position is added to the results. */
+	public static final int COLLECT = 1;
+	/** Every neighbor in the kernel is queued. */
+	public static final int EXPAND = 2;
+	/** The fill ends right away. */
+	public static final int STOP = 4;
+
+	public static final int[][] FACES = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+	public static final int[][] HORIZONTAL = {{0, 0, -1}, {0, 0, 1}, {1, 0, 0}, {-1, 0, 0}};
+	public static final int[][] CUBE = createCube();
+
+	private final int[][] kernel;
+	private int limit = Integer.MAX_VALUE;
+	private final BlockPosSet visited = new BlockPosSet(64);
+	private final BlockPosDeque queue = new BlockPosDeque(64);
+	private final BlockPosDeque results = new BlockPosDeque();
+	private final BlockPos.MutableBlockPos current = new BlockPos.MutableBlockPos();
+
+	public FloodFill(int[][] kernel)
+	{
+		this.kernel = kernel;
+	}
+
+	/**
+	 * The fill stops once this many positions have been collected.
+	 */
+	public FloodFill setLimit(int limit)
+	{
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * Marks a position as already visited so that the fill never enters it.
+	 */
+	public void exclude(BlockPos pos)
+	{
+		visited.add(pos);
+	}
+
+	/**
+	 * Queues a position to be visited unless it has been queued before.
+	 */
+	public boolean enqueue(int x, int y, int z)
+	{
+		long pos = BlockPosSet.pack(x, y, z);
+		if(!visited.add(pos))
+			return false;
+		queue.addLast(pos);
+		return true;
+	}
+
+	public boolean enqueue(BlockPos pos)
+	{
+		return enqueue(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	public boolean run(BlockPos start, IFloodVisitor visitor)
+	{
+		enqueue(start);
+		return run(visitor);
+	}
+
+	/**
+	 * Visits every queued position and everything the visitor spreads to.
+	 * @return True if the visitor or the limit stopped the fill early.
+	 */
+	public boolean run(IFloodVisitor visitor)
+	{
+		while(!queue.isEmpty())
+		{
+			long pos = queue.pollFirst();
+			int x = BlockPosSet.getX(pos);
+			int y = BlockPosSet.getY(pos);
+			int z = BlockPosSet.getZ(pos);
+			current.setPos(x, y, z);
+			int result = visitor.visit(this, current);
+
+			if((result & COLLECT) != 0)
+			{
+				results.addLast(pos);
+				if(results.size() >= limit)
+					return true;
+			}
+			if((result & STOP) != 0)
+				return true;
+			if((result & EXPAND) != 0 && kernel != null)
+			{
+				for(int[] k : kernel)
+					enqueue(x + k[0], y + k[1], z + k[2]);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The collected positions in the order they were visited.
+	 */
+	public BlockPosDeque getResults()
+	{
+		return results;
+	}
+
+	public int getVisitedCount()
+	{
+		return visited.size();
+	}
+
+	private static int[][] createCube()
+	{
+		int[][] out = new int[26][];
+		int i = 0;
+		for(int x = -1; x <= 1; x++)
+		{
+			for(int z = -1; z <= 1; z++)
+			{
+				for(int y = -1; y <= 1; y++)
+				{
+					if(x == 0 && y == 0 && z == 0)
+						continue;
+					out[i++] = new int[] {x, y, z};
+				}
+			}
+		}
+		return out;
+	}
+
+	public interface IFloodVisitor
+	{
+		/**
+		 * @return Any combination of COLLECT, EXPAND and STOP. 0 skips the position.
+		 */
+		int visit(FloodFill fill, BlockPos pos);
+	}
+}
@@ -16,7 +16,6 @@ import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.Item;
 import net.minecraft.network.Packet;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.ColorizerGrass;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 
@@ -33,8 +32,6 @@ import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 
-import com.bioxx.jmapgen.IslandMap;
-import com.bioxx.jmapgen.IslandParameters.Feature;
 import com.bioxx.tfc2.api.Global;
 import com.bioxx.tfc2.api.types.WoodType;
 import com.bioxx.tfc2.api.util.KeyBindings;
@@ -42,11 +39,10 @@ import com.bioxx.tfc2.blocks.BlockLeaves;
 import com.bioxx.tfc2.blocks.BlockLeaves2;
 import com.bioxx.tfc2.blocks.BlockVegDesert;
 import com.bioxx.tfc2.blocks.BlockVegDesert.DesertVegType;
-import com.bioxx.tfc2.blocks.BlockVegetation;
-import com.bioxx.tfc2.blocks.BlockVegetation.VegType;
 import com.bioxx.tfc2.core.RegistryItemQueue;
 import com.bioxx.tfc2.entity.*;
 import com.bioxx.tfc2.handlers.client.*;
+import com.bioxx.tfc2.rendering.ClimateSampler;
 import com.bioxx.tfc2.rendering.MeshDef;
 import com.bioxx.tfc2.rendering.model.*;
 import com.bioxx.tfc2.rendering.tesr.AnvilTESR;
@@ -219,24 +215,10 @@ public class ClientProxy extends CommonProxy
 			{
 				if(worldIn == null || pos == null || WorldGen.getInstance() == null)
 					return 0x55ff55;
-				int x = pos.getX() >> 12;
-				int z = pos.getZ() >> 12;
-				IslandMap m = WorldGen.getInstance().getIslandMap(x, z);
-				double d0 = m.getParams().getIslandTemp().getMapTemp();
-				double d1 = m.getClosestCenter(pos).getMoistureRaw() * m.getParams().getIslandMoisture().getMoisture();
-
-				if(m.getParams().hasFeature(Feature.Desert))
-				{
-					d1 *= 0.25;
-					d0 *= 1.5;
-				}
-
-				if(d1 < 0.25)
-				{
-					if(state.getBlock() == TFCBlocks.Leaves && state.getValue(BlockLeaves.META_PROPERTY) == WoodType.Acacia)
-						d1 = 0.25;
-				}
-				return ColorizerGrass.getGrassColor(Math.min(d0, 1), Math.min(d1, 1));
+				double minMoisture = 0;
+				if(state.getBlock() == TFCBlocks.Leaves && state.getValue(BlockLeaves.META_PROPERTY) == WoodType.Acacia)
+					minMoisture = 0.25;
+				return ClimateSampler.getInstance().getGrassColor(pos, true, minMoisture);
 			}
 		}, new Block[] { TFCBlocks.Leaves, TFCBlocks.Leaves2});
 
@@ -247,21 +229,7 @@ public class ClientProxy extends CommonProxy
 			{
 				if(worldIn == null ||pos == null || WorldGen.getInstance() == null || state.getBlock() != TFCBlocks.Vegetation)
 					return 0x55ff55;
-				VegType veg = (VegType)state.getValue(BlockVegetation.META_PROPERTY);
-
-				int x = pos.getX() >> 12;
-				int z = pos.getZ() >> 12;
-
-				IslandMap m = WorldGen.getInstance().getIslandMap(x, z);
-				double d0 = m.getParams().getIslandTemp().getMapTemp();
-				double d1 = m.getClosestCenter(pos).getMoistureRaw() * m.getParams().getIslandMoisture().getMoisture();
-
-				if(m.getParams().hasFeature(Feature.Desert))
-				{
-					d1 *= 0.25;
-					d0 *= 1.5;
-				}
-				return ColorizerGrass.getGrassColor(Math.min(d0, 1), Math.min(d1, 1));
+				return ClimateSampler.getInstance().getGrassColor(pos, true, 0);
 			}
 		}, new Block[] { TFCBlocks.Vegetation});
 
@@ -275,15 +243,7 @@ public class ClientProxy extends CommonProxy
 				DesertVegType veg = (DesertVegType)state.getValue(BlockVegDesert.META_PROPERTY);
 				if(veg == DesertVegType.DeadBush)
 					return 0xD8D8D8;
-				int x = pos.getX() >> 12;
-				int z = pos.getZ() >> 12;
-
-				IslandMap m = WorldGen.getInstance().getIslandMap(x, z);
-				double d0 = m.getParams().getIslandTemp().getMapTemp();
-				double d1 = m.getClosestCenter(pos).getMoistureRaw() * m.getParams().getIslandMoisture().getMoisture();
-				/*if(m.getParams().hasFeature(Feature.Desert))
-					d1 *= 0.25;*/
-				return ColorizerGrass.getGrassColor(Math.min(d0, 1), Math.min(d1, 1));
+				return ClimateSampler.getInstance().getGrassColor(pos, false, 0);
 			}
 		}, new Block[] { TFCBlocks.VegDesert});
 
@@ -294,18 +254,7 @@ public class ClientProxy extends CommonProxy
 			{
 				if(worldIn == null ||pos == null || WorldGen.getInstance() == null)
 					return 0x55ff55;
-				int x = pos.getX() >> 12;
-				int z = pos.getZ() >> 12;
-				IslandMap m = WorldGen.getInstance().getIslandMap(x, z);
-				double d0 = m.getParams().getIslandTemp().getMapTemp();
-				double d1 = m.getClosestCenter(pos).getMoistureRaw() * m.getParams().getIslandMoisture().getMoisture();
-
-				if(m.getParams().hasFeature(Feature.Desert))
-				{
-					d1 *= 0.25;
-					d0 *= 1.5;
-				}
-				return ColorizerGrass.getGrassColor(Math.min(d0, 1), Math.min(d1, 1));
+				return ClimateSampler.getInstance().getGrassColor(pos, true, 0);
 			}
 		}, new Block[] { TFCBlocks.Grass});
 	}
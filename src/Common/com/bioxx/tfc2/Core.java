@@ -238,7 +238,24 @@ public class Core
 		return TFCBlocks.Leaves.getDefaultState().withProperty(BlockLeaves.META_PROPERTY, w);
 	}
 
+	/**
+	 * On the server this only returns an island that is already in memory. A missing island is queued to be loaded or
+	 * generated in the background and null is returned, so code that runs during the tick never waits on it. Use
+	 * awaitMapForWorld where the real island is needed before going on.
+	 */
 	public static IslandMap getMapForWorld(World w, BlockPos pos)
+	{
+		int shift = w.provider.getDimension() == 2 ? 9 : 12;
+		//The client never generates islands so its lookup does not wait on anything
+		if(w.isRemote)
+			return WorldGen.getInstance().getIslandMap(pos.getX() >> shift, pos.getZ() >> shift);
+		return WorldGen.getInstance().tryGetIslandMap(pos.getX() >> shift, pos.getZ() >> shift);
+	}
+
+	/**
+	 * Waits for the island at this position to be loaded or generated. Only for chunk generation, commands and teleports.
+	 */
+	public static IslandMap awaitMapForWorld(World w, BlockPos pos)
 	{
 		if(w.provider.getDimension() == 2)
 		{
@@ -304,6 +321,8 @@ public class Core
 		if(pos.getY() > 64)
 			return true;
 		IslandMap map = Core.getMapForWorld(world, pos);
+		if(map == null)
+			return false;
 		Center closest = map.getClosestCenter(pos);
 
 		if(closest.hasMarker(Marker.Ocean))
@@ -228,6 +228,14 @@ public class TFC
 		TFCOptions.torchBurnTime = TFCOptions.getIntFor(config, GAMEL_HEADER, "torchBurnTime", 48, "This is how many in-game hours torches will last before burning out. Set to 0 for infinitely burning torches.");
 		//Engine
 		TFCOptions.maxThreadsForIslandGen = TFCOptions.getIntFor(config, ENGINE_HEADER, "maxThreadsForIslandGen", 1, "Maximum number of neighboring islands that can be pregenerated at once. Setting this higher may reduce performance.");
+		TFCOptions.maxCachedIslands = TFCOptions.getIntFor(config, ENGINE_HEADER, "maxCachedIslands", 16, "Maximum number of island maps to keep in memory. Islands with players or loaded chunks are always kept.");
+		TFCOptions.maxIslandCacheMB = TFCOptions.getIntFor(config, ENGINE_HEADER, "maxIslandCacheMB", 512, "Approximate amount of memory in MB that cached island maps may use before the least recently used islands are unloaded.");
+		TFCOptions.islandWaitTimeout = TFCOptions.getIntFor(config, ENGINE_HEADER, "islandWaitTimeout", 2000, "Milliseconds that chunk generation will wait for a queued island before building it on the server thread instead. 0 always builds it on the server thread.");
+		TFCOptions.heightfieldCacheTiles = TFCOptions.getIntFor(config, ENGINE_HEADER, "heightfieldCacheTiles", 64, "Number of 256x256 block tiles of generated terrain heights to keep so that regenerated chunks do not have to calculate them again. Each tile uses about 256KB. 0 disables the cache.");
+		TFCOptions.islandGenTelemetry = TFCOptions.getBooleanFor(config, ENGINE_HEADER, "islandGenTelemetry", false, "Records how long each stage of generating, loading and saving islands takes. Use /dbg genstats to view the results. Only needed for profiling.");
+		TFCOptions.islandGenTelemetryLog = TFCOptions.getStringFor(config, ENGINE_HEADER, "islandGenTelemetryLog", "none", "Also appends island generation telemetry to logs/tfc2-islandgen.csv or .json. Valid values are none, csv and json.");
+		TFCOptions.hexUpdateBudgetMicros = TFCOptions.getIntFor(config, ENGINE_HEADER, "hexUpdateBudgetMicros", 500, "Microseconds per tick that may be spent updating hexes with crops or hydration across every loaded island. Updates that don't fit are carried over to the next tick.");
+		TFCOptions.leafDecayPerTick = TFCOptions.getIntFor(config, ENGINE_HEADER, "leafDecayPerTick", 64, "Maximum number of leaves in each dimension that may decay in a single tick. Leaves that don't fit decay on later ticks.");
 		//Debug
 		TFCOptions.shouldGenTrees = TFCOptions.getBooleanFor(config, DEBUG_HEADER, "shouldGenTrees", true, "Setting to false will cause no trees to generate.");
 		TFCOptions.shouldStripChunks = TFCOptions.getBooleanFor(config, DEBUG_HEADER, "shouldStripChunks", false, "Setting to true will cause all land hexes to generated stripped.");
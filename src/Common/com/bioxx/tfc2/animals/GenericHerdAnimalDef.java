@@ -1,6 +1,7 @@
 package com.bioxx.tfc2.animals;
 
 import java.util.ArrayList;
+import java.util.Random;
 import java.util.Vector;
 
 import net.minecraft.entity.Entity;
@@ -50,18 +51,18 @@ public class GenericHerdAnimalDef implements IAnimalDef
 	}
 
 	@Override
-	public ArrayList<VirtualAnimal> provideHerd(World world) 
+	public ArrayList<VirtualAnimal> provideHerd(World world, Random rand) 
 	{
 		ArrayList<VirtualAnimal> out = new ArrayList<VirtualAnimal>();
 
-		if(world.rand.nextFloat() < 0.3)//Generate a solo male
+		if(rand.nextFloat() < 0.3)//Generate a solo male
 		{
 			out.add(new VirtualAnimal(getName(), Gender.Male));
 		}
 		else//Generate a small herd that may or may not have a male
 		{
-			int amount = 2+world.rand.nextInt(5);
-			if(world.rand.nextBoolean())
+			int amount = 2+rand.nextInt(5);
+			if(rand.nextBoolean())
 			{
 				out.add(new VirtualAnimal(getName(), Gender.Male));
 				amount--;
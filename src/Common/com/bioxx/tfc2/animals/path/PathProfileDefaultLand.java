@@ -48,4 +48,11 @@ public class PathProfileDefaultLand implements IPathProfile {
 
 		return false;
 	}
+
+	@Override
+	public int getMinimumWeight()
+	{
+		//Every step starts at a weight of 1 and only has more added to it
+		return 1;
+	}
 }
@@ -49,6 +49,8 @@ public class BlockAncientDevice extends BlockTerra
 			net.minecraft.util.EnumHand hand, EnumFacing side, float hitX, float hitY, float hitZ)
 	{
 		IslandMap map = Core.getMapForWorld(world, pos);
+		if(map == null)
+			return false;
 		map.getIslandData().unlockIsland();
 		return true;
 	}
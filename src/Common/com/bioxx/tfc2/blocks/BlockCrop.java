@@ -65,6 +65,8 @@ public class BlockCrop extends BlockTerra implements ITileEntityProvider
 			return false;
 
 		IslandMap map = Core.getMapForWorld(worldIn, pos);
+		if(map == null)
+			return false;
 		TileCrop tile = (TileCrop) worldIn.getTileEntity(pos);
 		CropEvent.Harvest event = new CropEvent.Harvest(worldIn, map, pos);
 		Global.EVENT_BUS.post(event);
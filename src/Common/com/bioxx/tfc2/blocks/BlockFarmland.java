@@ -77,6 +77,8 @@ public class BlockFarmland extends BlockTerra
 	{
 
 		IslandMap map = Core.getMapForWorld(world, pos);
+		if(map == null)
+			return false;
 		Center closest = map.getClosestCenter(pos);
 
 		if(closest != null && closest.getCustomNBT() != null)
@@ -102,13 +102,11 @@ public class BlockLeaves extends BlockTerra
 	{
 		if(world.isRemote || state.getBlock() != this)
 			return;
-		IBlockState scanState;
 		WoodType wood = (WoodType)state.getValue(getMetaProperty());
-		BlockPos scanPos;
 
 		if(wood == WoodType.Palm)
 		{
-			scanState = world.getBlockState(pos.down());
+			IBlockState scanState = world.getBlockState(pos.down());
 			if(scanState.getBlock() != TFCBlocks.LogNaturalPalm)
 				world.setBlockToAir(pos);
 			return;
@@ -116,32 +114,9 @@ public class BlockLeaves extends BlockTerra
 
 		if (world.isAreaLoaded(pos.add(-5, -5, -5), pos.add(5, 5, 5)))
 		{
-			for(int y = -4; y <= 4; y++)
-			{
-				for(int x = -4; x <= 4; x++)
-				{
-					for(int z = -4; z <= 4; z++)
-					{
-						scanPos = pos.add(x, y, z);
-						scanState = world.getBlockState(pos.add(x, y, z));
-						if((state.getBlock() == TFCBlocks.Leaves && scanState.getBlock() == TFCBlocks.LogNatural && scanState.getValue(BlockLogNatural.WOOD) == wood) ||
-								(state.getBlock() == TFCBlocks.Leaves2 && scanState.getBlock() == TFCBlocks.LogNatural2 && scanState.getValue(BlockLogNatural2.WOOD) == wood))
-							return;
-					}
-				}
-			}
-
-			for(int y = -1; y <= 1; y++)
-			{
-				for(int x = -1; x <= 1; x++)
-				{
-					for(int z = -1; z <= 1; z++)
-					{
-						world.scheduleUpdate(pos.add(x, y, z), this, tickRate(world));
-					}
-				}
-			}
-			world.setBlockToAir(pos);
+			//Leaves that can't reach their log through other leaves have their whole cluster checked at the end of the tick
+			if(!LeafDecay.hasLogNearby(world, pos, state))
+				LeafDecay.get(world).markDirty(pos);
 		}
 	}
 
@@ -21,7 +21,8 @@ import net.minecraft.world.World;
 import com.bioxx.tfc2.Core;
 import com.bioxx.tfc2.TFCBlocks;
 import com.bioxx.tfc2.api.types.WoodType;
-import com.bioxx.tfc2.api.util.BlockPosList;
+import com.bioxx.tfc2.api.util.BlockPosDeque;
+import com.bioxx.tfc2.api.util.FloodFill;
 import com.bioxx.tfc2.core.TFCTabs;
 import com.bioxx.tfc2.items.ItemAxe;
 
@@ -83,8 +84,8 @@ public class BlockLogNatural extends BlockTerra
 		}
 		else return false;
 
-		//create the map of our tree
-		BlockPosList tree = BlockLogNatural.getTreeForCut(world, pos);
+		//create the map of our tree. We only need to know if it has more than maxCut blocks
+		BlockPosDeque tree = BlockLogNatural.getTreeForCut(world, pos, maxCut + 1);
 		int count = tree.size();
 
 		//if the tree has too many blocks then prevent chopping
@@ -100,8 +101,9 @@ public class BlockLogNatural extends BlockTerra
 		}
 		else
 		{
-			for(BlockPos p : tree)
+			for(int i = 0; i < tree.size(); i++)
 			{
+				BlockPos p = tree.getPos(i);
 				IBlockState s = world.getBlockState(p);
 				this.onBlockHarvested(world, pos, s, player);
 				world.setBlockToAir(p);
@@ -113,52 +115,38 @@ public class BlockLogNatural extends BlockTerra
 		return true;
 	}
 
-	public static BlockPosList getTreeForCut(World world, BlockPos pos)
+	public static BlockPosDeque getTreeForCut(World world, BlockPos pos)
 	{
-		BlockPosList outList = new BlockPosList();
+		return getTreeForCut(world, pos, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param limit The scan stops once this many blocks have been found
+	 */
+	public static BlockPosDeque getTreeForCut(final World world, BlockPos pos, int limit)
+	{
+		FloodFill fill = new FloodFill(FloodFill.CUBE).setLimit(limit);
 
 		IBlockState scanState = world.getBlockState(pos);
 		if(!Core.isNaturalLog(scanState))
-			return outList;
-
-		WoodType baseWoodType = getWoodType(scanState);
+			return fill.getResults();
 
-		BlockPosList queue = new BlockPosList();
-		queue.add(pos);
+		final WoodType baseWoodType = getWoodType(scanState);
 
-		BlockPos scanPos;
-		while(!queue.isEmpty())
+		fill.run(pos, new FloodFill.IFloodVisitor()
 		{
-			scanPos = queue.pop();
-			scanState = world.getBlockState(scanPos);
-
-			if(baseWoodType == WoodType.Palm && scanState.getBlock() == TFCBlocks.Leaves2 && scanState.getValue(BlockLeaves2.META_PROPERTY) == baseWoodType)
-				outList.add(scanPos);
-
-			if(Core.isNaturalLog(scanState) && getWoodType(scanState) == baseWoodType) //Leaves2 is needed for the palm top (maybe there is a better way to do this?)
+			@Override
+			public int visit(FloodFill fill, BlockPos scanPos)
 			{
-				if(!outList.contains(scanPos))
-					outList.add(scanPos);
-				//Iterable<BlockPos> list = BlockPos.getAllInBox(scanPos.add(-1, 0, -1), scanPos.add(1, 1, 1));
-				for(int x = -1; x <= 1; x++)
-				{
-					for(int z = -1; z <= 1; z++)
-					{
-						for(int y = -1; y <= 1; y++)
-						{
-							if(x == 0 && y == 0 && z == 0)
-								continue;
-							BlockPos p = scanPos.add(x, y, z);
-							if(Core.isNaturalLog(world.getBlockState(p)) 
-									&& !queue.contains(p)&& !outList.contains(p))
-								queue.add(p);
-						}
-					}
-				}
+				IBlockState state = world.getBlockState(scanPos);
+				//Only logs of the tree are cut. Leaves, palm fronds included, are left where they are
+				if(Core.isNaturalLog(state) && getWoodType(state) == baseWoodType)
+					return FloodFill.COLLECT | FloodFill.EXPAND;
+				return 0;
 			}
-		}
+		});
 
-		return outList;
+		return fill.getResults();
 	}
 
 	public static WoodType getWoodType(IBlockState state)
@@ -21,7 +21,7 @@ import net.minecraft.world.World;
 import com.bioxx.tfc2.Core;
 import com.bioxx.tfc2.TFCBlocks;
 import com.bioxx.tfc2.api.types.WoodType;
-import com.bioxx.tfc2.api.util.BlockPosList;
+import com.bioxx.tfc2.api.util.BlockPosDeque;
 import com.bioxx.tfc2.core.TFCTabs;
 import com.bioxx.tfc2.items.ItemAxe;
 
@@ -97,8 +97,8 @@ public class BlockLogNaturalPalm extends BlockTerra
 		}
 		else return false;
 
-		//create the map of our tree
-		BlockPosList tree = BlockLogNatural.getTreeForCut(world, pos);
+		//create the map of our tree. We only need to know if it has more than maxCut blocks
+		BlockPosDeque tree = BlockLogNatural.getTreeForCut(world, pos, maxCut + 1);
 		int count = tree.size();
 
 		//if the tree has too many blocks then prevent chopping
@@ -114,8 +114,9 @@ public class BlockLogNaturalPalm extends BlockTerra
 		}
 		else
 		{
-			for(BlockPos p : tree)
+			for(int i = 0; i < tree.size(); i++)
 			{
+				BlockPos p = tree.getPos(i);
 				IBlockState s = world.getBlockState(p);
 				this.onBlockHarvested(world, pos, s, player);
 				world.setBlockToAir(p);
@@ -0,0 +1,345 @@
+package com.bioxx.tfc2.blocks;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import com.bioxx.tfc2.TFCBlocks;
+import com.bioxx.tfc2.api.TFCOptions;
+import com.bioxx.tfc2.api.types.WoodType;
+import com.bioxx.tfc2.api.util.BlockPosDeque;
+import com.bioxx.tfc2.api.util.BlockPosSet;
+import com.bioxx.tfc2.api.util.FloodFill;
+
+/**
+ * Decides which leaves are too far from a log of their tree and removes them a few at a time.
+ *
+ * A leaf that gets a block update first looks for its log through the leaves around it, which finds it after a handful
+ * of blocks for nearly every leaf. Leaves that fail are marked dirty and at the end of the tick the whole cluster of
+ * leaves around each dirty leaf is solved at once. Every matching log near the cluster seeds a breadth first search
+ * that gives the distance from each block to the nearest log, and every leaf further than RANGE is queued to decay.
+ * Decay queues are kept per chunk and at most leafDecayPerTick leaves are removed each tick. Removing a leaf does not
+ * change how far any other leaf is from a log, but a cluster that is cut off at CLUSTER_RADIUS and had leaves queued
+ * marks the leaves just past the cut as dirty so that large canopies keep being solved on the following ticks.
+ */
+public class LeafDecay
+{
+	private static final Map<World, LeafDecay> DECAYS = new WeakHashMap<World, LeafDecay>();
+
+	/** How far a leaf can be from a log of its tree. */
+	public static final int RANGE = 4;
+	/** How far from the dirty leaf a cluster is followed. Leaves beyond this are solved in their own cluster. */
+	private static final int CLUSTER_RADIUS = 12;
+	/** Roughly how many blocks may be looked at each tick while solving clusters. */
+	private static final int SOLVE_BUDGET = 32768;
+
+	private final BlockPosDeque dirty = new BlockPosDeque();
+	private final BlockPosSet dirtySet = new BlockPosSet();
+	private final BlockPosSet pending = new BlockPosSet();
+	private final Map<Long, BlockPosDeque> decayQueues = new LinkedHashMap<Long, BlockPosDeque>();
+
+	//Scratch space for solving a cluster. The world is only held while ticking so the manager does not keep it loaded
+	private World world;
+	private final BlockPosSet solved = new BlockPosSet(1024);
+	//Leaves just past CLUSTER_RADIUS of the cluster being solved and dirty leaves whose area was not loaded yet
+	private final BlockPosDeque boundary = new BlockPosDeque();
+	private final BlockPosDeque unloaded = new BlockPosDeque();
+	private byte[] distance = new byte[4096];
+	private int[] queue = new int[4096];
+	private final BlockPos.MutableBlockPos scanPos = new BlockPos.MutableBlockPos();
+
+	public static LeafDecay get(World world)
+	{
+		LeafDecay decay = DECAYS.get(world);
+		if(decay == null)
+		{
+			decay = new LeafDecay();
+			DECAYS.put(world, decay);
+		}
+		return decay;
+	}
+
+	/**
+	 * Solves the dirty leaf clusters and removes queued leaves in this world. Called once at the end of each world tick.
+	 */
+	public static void tick(World world)
+	{
+		LeafDecay decay = DECAYS.get(world);
+		if(decay != null && (!decay.dirty.isEmpty() || !decay.decayQueues.isEmpty()))
+		{
+			decay.world = world;
+			try
+			{
+				decay.solveDirty();
+				decay.decay();
+			}
+			finally
+			{
+				decay.world = null;
+			}
+		}
+	}
+
+	/**
+	 * Queues a leaf that could not find its log nearby to have its cluster solved.
+	 */
+	public void markDirty(BlockPos pos)
+	{
+		markDirty(BlockPosSet.pack(pos.getX(), pos.getY(), pos.getZ()));
+	}
+
+	/**
+	 * Looks for a log of this leaf's tree through the leaves connected to it.
+	 * @return True if a log was found within RANGE. False does not mean that there is no log in range since the leaves
+	 * may not connect to it.
+	 */
+	public static boolean hasLogNearby(final World world, final BlockPos pos, IBlockState state)
+	{
+		final Block leafBlock = state.getBlock();
+		final WoodType wood = (WoodType)state.getValue(((BlockLeaves)leafBlock).getMetaProperty());
+		final Block logBlock = getLogBlock(leafBlock);
+		FloodFill fill = new FloodFill(FloodFill.CUBE);
+		return fill.run(pos, new FloodFill.IFloodVisitor()
+		{
+			@Override
+			public int visit(FloodFill fill, BlockPos scanPos)
+			{
+				if(Math.abs(scanPos.getX() - pos.getX()) > RANGE || Math.abs(scanPos.getY() - pos.getY()) > RANGE || Math.abs(scanPos.getZ() - pos.getZ()) > RANGE)
+					return 0;
+				IBlockState scanState = world.getBlockState(scanPos);
+				if(scanState.getBlock() == logBlock && BlockLogNatural.getWoodType(scanState) == wood)
+					return FloodFill.STOP;
+				if(scanState.getBlock() == leafBlock && scanState.getValue(((BlockLeaves)leafBlock).getMetaProperty()) == wood)
+					return FloodFill.EXPAND;
+				return 0;
+			}
+		});
+	}
+
+	/**
+	 * Looks for a log of this leaf's tree anywhere within RANGE, the same rule the distance field uses. Slower than
+	 * hasLogNearby but a false result means there really is no log in range.
+	 */
+	public static boolean hasLogInRange(World world, BlockPos pos, IBlockState state)
+	{
+		if(hasLogNearby(world, pos, state))
+			return true;
+		Block leafBlock = state.getBlock();
+		WoodType wood = (WoodType)state.getValue(((BlockLeaves)leafBlock).getMetaProperty());
+		Block logBlock = getLogBlock(leafBlock);
+		BlockPos.MutableBlockPos scanPos = new BlockPos.MutableBlockPos();
+		for(int y = Math.max(0, pos.getY() - RANGE); y <= Math.min(255, pos.getY() + RANGE); y++)
+		{
+			for(int z = -RANGE; z <= RANGE; z++)
+			{
+				for(int x = -RANGE; x <= RANGE; x++)
+				{
+					IBlockState s = world.getBlockState(scanPos.setPos(pos.getX() + x, y, pos.getZ() + z));
+					if(s.getBlock() == logBlock && BlockLogNatural.getWoodType(s) == wood)
+						return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static Block getLogBlock(Block leafBlock)
+	{
+		return leafBlock == TFCBlocks.Leaves2 ? TFCBlocks.LogNatural2 : TFCBlocks.LogNatural;
+	}
+
+	private void solveDirty()
+	{
+		solved.clear();
+		int budget = SOLVE_BUDGET;
+		while(budget > 0 && !dirty.isEmpty())
+		{
+			long pos = dirty.pollFirst();
+			dirtySet.remove(pos);
+			if(solved.contains(pos) || pending.contains(pos))
+				continue;
+			budget -= solveCluster(pos);
+		}
+		//Try these again on a later tick
+		while(!unloaded.isEmpty())
+			markDirty(unloaded.pollFirst());
+	}
+
+	private void markDirty(long key)
+	{
+		if(!pending.contains(key) && dirtySet.add(key))
+			dirty.addLast(key);
+	}
+
+	/**
+	 * @return About how many blocks were looked at.
+	 */
+	private int solveCluster(long seed)
+	{
+		final int sx = BlockPosSet.getX(seed), sy = BlockPosSet.getY(seed), sz = BlockPosSet.getZ(seed);
+		scanPos.setPos(sx, sy, sz);
+		if(!world.isAreaLoaded(scanPos, RANGE + CLUSTER_RADIUS + 1))
+		{
+			unloaded.addLast(seed);
+			return 1;
+		}
+		IBlockState state = world.getBlockState(scanPos);
+		if(!(state.getBlock() instanceof BlockLeaves))
+			return 1;
+		final Block leafBlock = state.getBlock();
+		final WoodType wood = (WoodType)state.getValue(((BlockLeaves)leafBlock).getMetaProperty());
+		if(wood == WoodType.Palm)
+			return 1;
+		Block logBlock = getLogBlock(leafBlock);
+
+		//Gather the leaves of this cluster
+		boundary.clear();
+		FloodFill fill = new FloodFill(FloodFill.CUBE);
+		fill.run(scanPos.toImmutable(), new FloodFill.IFloodVisitor()
+		{
+			@Override
+			public int visit(FloodFill fill, BlockPos pos)
+			{
+				IBlockState s = world.getBlockState(pos);
+				if(s.getBlock() != leafBlock || s.getValue(((BlockLeaves)leafBlock).getMetaProperty()) != wood)
+					return 0;
+				if(Math.abs(pos.getX() - sx) > CLUSTER_RADIUS || Math.abs(pos.getY() - sy) > CLUSTER_RADIUS || Math.abs(pos.getZ() - sz) > CLUSTER_RADIUS)
+				{
+					boundary.addLast(BlockPosSet.pack(pos.getX(), pos.getY(), pos.getZ()));
+					return 0;
+				}
+				return FloodFill.COLLECT | FloodFill.EXPAND;
+			}
+		});
+		BlockPosDeque cluster = fill.getResults();
+
+		int minX = sx, minY = sy, minZ = sz, maxX = sx, maxY = sy, maxZ = sz;
+		for(int i = 0; i < cluster.size(); i++)
+		{
+			long p = cluster.get(i);
+			minX = Math.min(minX, BlockPosSet.getX(p)); maxX = Math.max(maxX, BlockPosSet.getX(p));
+			minY = Math.min(minY, BlockPosSet.getY(p)); maxY = Math.max(maxY, BlockPosSet.getY(p));
+			minZ = Math.min(minZ, BlockPosSet.getZ(p)); maxZ = Math.max(maxZ, BlockPosSet.getZ(p));
+		}
+		//Every log that could hold up a leaf of the cluster is inside this box
+		minX -= RANGE; minZ -= RANGE; maxX += RANGE; maxZ += RANGE;
+		minY = Math.max(0, minY - RANGE); maxY = Math.min(255, maxY + RANGE);
+		int sizeX = maxX - minX + 1, sizeY = maxY - minY + 1, sizeZ = maxZ - minZ + 1;
+		int volume = sizeX * sizeY * sizeZ;
+		if(distance.length < volume)
+		{
+			distance = new byte[volume];
+			queue = new int[volume];
+		}
+
+		//Seed the search with every matching log
+		int head = 0, tail = 0;
+		for(int y = 0; y < sizeY; y++)
+		{
+			for(int z = 0; z < sizeZ; z++)
+			{
+				for(int x = 0; x < sizeX; x++)
+				{
+					int index = (y * sizeZ + z) * sizeX + x;
+					IBlockState s = world.getBlockState(scanPos.setPos(minX + x, minY + y, minZ + z));
+					if(s.getBlock() == logBlock && BlockLogNatural.getWoodType(s) == wood)
+					{
+						distance[index] = 0;
+						queue[tail++] = index;
+					}
+					else distance[index] = Byte.MAX_VALUE;
+				}
+			}
+		}
+
+		while(head < tail)
+		{
+			int index = queue[head++];
+			int d = distance[index] + 1;
+			if(d > RANGE)
+				continue;
+			int x = index % sizeX, z = (index / sizeX) % sizeZ, y = index / (sizeX * sizeZ);
+			for(int[] k : FloodFill.CUBE)
+			{
+				int nx = x + k[0], ny = y + k[1], nz = z + k[2];
+				if(nx < 0 || ny < 0 || nz < 0 || nx >= sizeX || ny >= sizeY || nz >= sizeZ)
+					continue;
+				int n = (ny * sizeZ + nz) * sizeX + nx;
+				if(distance[n] > d)
+				{
+					distance[n] = (byte)d;
+					queue[tail++] = n;
+				}
+			}
+		}
+
+		boolean queued = false;
+		for(int i = 0; i < cluster.size(); i++)
+		{
+			long p = cluster.get(i);
+			solved.add(p);
+			int index = ((BlockPosSet.getY(p) - minY) * sizeZ + BlockPosSet.getZ(p) - minZ) * sizeX + BlockPosSet.getX(p) - minX;
+			if(distance[index] > RANGE && pending.add(p))
+			{
+				queued = true;
+				long chunk = ChunkPos.asLong(BlockPosSet.getX(p) >> 4, BlockPosSet.getZ(p) >> 4);
+				BlockPosDeque chunkQueue = decayQueues.get(chunk);
+				if(chunkQueue == null)
+				{
+					chunkQueue = new BlockPosDeque();
+					decayQueues.put(chunk, chunkQueue);
+				}
+				chunkQueue.addLast(p);
+			}
+		}
+
+		//The leaves past the cut may have lost their log too. Only done when something new decays here so that two
+		//neighboring clusters can not keep marking each other
+		if(queued)
+		{
+			for(int i = 0; i < boundary.size(); i++)
+				markDirty(boundary.get(i));
+		}
+		return volume + fill.getVisitedCount() + boundary.size();
+	}
+
+	/**
+	 * Removes up to leafDecayPerTick queued leaves, taking them from one chunk after another.
+	 */
+	private void decay()
+	{
+		int budget = Math.max(1, TFCOptions.leafDecayPerTick);
+		Iterator<BlockPosDeque> iter = decayQueues.values().iterator();
+		while(budget > 0 && iter.hasNext())
+		{
+			BlockPosDeque chunkQueue = iter.next();
+			while(budget > 0 && !chunkQueue.isEmpty())
+			{
+				long p = chunkQueue.pollFirst();
+				pending.remove(p);
+				BlockPos pos = new BlockPos(BlockPosSet.getX(p), BlockPosSet.getY(p), BlockPosSet.getZ(p));
+				//Leaves in chunks that have been unloaded since are solved again once they are loaded
+				if(!world.isBlockLoaded(pos))
+				{
+					markDirty(p);
+					continue;
+				}
+				IBlockState state = world.getBlockState(pos);
+				//A log may have been placed since the cluster was solved
+				if(!(state.getBlock() instanceof BlockLeaves) || hasLogInRange(world, pos, state))
+					continue;
+				world.setBlockToAir(pos);
+				budget--;
+			}
+			if(chunkQueue.isEmpty())
+				iter.remove();
+		}
+	}
+}
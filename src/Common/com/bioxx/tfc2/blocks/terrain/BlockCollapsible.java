@@ -15,7 +15,6 @@ import net.minecraft.world.World;
 import com.bioxx.tfc2.Core;
 import com.bioxx.tfc2.api.interfaces.IGravityBlock;
 import com.bioxx.tfc2.api.interfaces.ISupportBlock;
-import com.bioxx.tfc2.api.util.BlockPosList;
 import com.bioxx.tfc2.blocks.BlockTerra;
 import com.bioxx.tfc2.entity.EntityFallingBlockTFC;
 
@@ -49,27 +48,9 @@ public class BlockCollapsible extends BlockTerra
 	@Override
 	public void updateTick(World world, BlockPos pos, IBlockState state, Random rand)
 	{
-		doCollapse(world, pos, state);
-	}
-
-	protected void doCollapse(World world, BlockPos pos, IBlockState state) {
-		if (!world.isRemote)
-		{
-			state = state.getBlock().getActualState(state, world, pos);
-			//If this block is considered natural then it uses the support scan for natural blocks
-			if(collapseType == CollapsibleType.Nature && !hasSupport(world, pos, state))
-			{
-				createFallingEntity(world, pos, state);
-				scheduleNeighbors(world, pos);
-				return;
-			}
-			if(collapseType == CollapsibleType.Structure && !hasSupport(world, pos, state))
-			{
-				createFallingEntity(world, pos, state);
-				scheduleNeighbors(world, pos);
-				return;
-			}
-		}
+		//The support check is done for every block updated this tick at once by the SupportSolver
+		if(!world.isRemote)
+			SupportSolver.get(world).markDirty(pos);
 	}
 
 	public void createFallingEntity(World world, BlockPos pos, IBlockState state)
@@ -97,115 +78,36 @@ public class BlockCollapsible extends BlockTerra
 
 	}
 
-	protected void scheduleNeighbors(World world, BlockPos pos)
+	/**
+	 * @return Is this block resting on a block that can hold it up.
+	 */
+	public boolean isSupportedBelow(IBlockState myState, IBlockAccess world, BlockPos pos)
 	{
-		for(int x = -1; x <= 1; x++)
-		{
-			for(int z = -1; z <= 1; z++)
-			{
-				for(int y = 0; y <= 2; y++)
-				{
-					world.scheduleUpdate(pos.add(x, y, z), world.getBlockState(pos.add(x, y, z)).getBlock(), tickRate(world));
-				}
-			}
-		}
+		BlockPos down = pos.down();
+		IBlockState stateDown = world.getBlockState(down);
+		if(!canSupportFacing(myState, world, pos, EnumFacing.DOWN))
+			return false;
+		if(stateDown.getBlock() instanceof BlockCollapsible && ((BlockCollapsible)stateDown.getBlock()).canSupportFacing(stateDown, world, down, EnumFacing.UP))
+			return true;
+		return stateDown.getBlock().isBlockSolid(world, down, EnumFacing.UP);
 	}
 
-	protected boolean hasSupport(World world, BlockPos pos, IBlockState state)
+	/**
+	 * @return Is the block below part of a support column for this block. Unlike isSupportedBelow this also requires
+	 * that this block canBeSupportedBy the block below.
+	 */
+	public boolean canRestOn(IBlockState myState, IBlockAccess world, BlockPos pos, IBlockState stateDown)
 	{
-		IBlockState scanState, scanState2;
-		Block scanBlock;
-		BlockPos scanPos;
-		BlockPos pos1 = new BlockPos(pos.getX()+0.5, 0, pos.getZ()+0.5), pos2;
-
-		boolean isSupported = false;
-		float supportRangeDefault = getNaturalSupportRange(world, pos, state);
-		float supportRangeSqDefault = supportRangeDefault*supportRangeDefault;
-
-		//If the block beneath this one is solid then we will assume for now that this block is naturally supported
-		IBlockState stateDown = world.getBlockState(pos.down());
-		if(this.canSupportFacing(state, world, pos, EnumFacing.DOWN) && 
-				((stateDown.getBlock() instanceof BlockCollapsible && ((BlockCollapsible)stateDown.getBlock()).canSupportFacing(stateDown, world, pos.down(), EnumFacing.UP)) || 
-						stateDown.getBlock().isBlockSolid(world, pos.down(), EnumFacing.UP)))
-			return true;
-		//If we fail the first case scenario then we will begin a recursive scan downward for each of the blocks surrounding this block
-
-		Queue<BlockPos> scanQueue = new LinkedList<BlockPos>();
-		BlockPosList scannedQueue = new BlockPosList();
-		scannedQueue.add(pos);
-		if(recievesHorizontalSupport(state, world, pos, EnumFacing.NORTH))
-			scanQueue.add(pos.north());
-		if(recievesHorizontalSupport(state, world, pos, EnumFacing.SOUTH))
-			scanQueue.add(pos.south());
-		if(recievesHorizontalSupport(state, world, pos, EnumFacing.EAST))
-			scanQueue.add(pos.east());
-		if(recievesHorizontalSupport(state, world, pos, EnumFacing.WEST))
-			scanQueue.add(pos.west());
-
-
-		while(scanQueue.peek() != null)
-		{
-			scanPos = scanQueue.poll();
-			scanState = world.getBlockState(scanPos);
-			scanBlock = scanState.getBlock();
-			scanState = scanBlock.getActualState(scanState, world, scanPos);
-			scannedQueue.add(scanPos);
-			//If we've scanned down X blocks and we're still scanning then just assume that we're supported so we do not waste time
-			if(pos.subtract(scanPos).getY() > scanDepth)
-			{
-				isSupported = true; 
-				break;
-			}
-
-
-			if(scanState.getBlock() instanceof BlockCollapsible/* && canBeSupportedBy(state, scanState)*/)
-			{
-				float supportRange = supportRangeDefault;
-				float supportRangeSq = supportRangeSqDefault;
-				if((!Core.isTerrain(state) && !Core.isTerrain(scanState)) || (Core.isTerrain(state) && Core.isTerrain(scanState)))
-				{
-					supportRange = Math.min(supportRange, ((BlockCollapsible)scanState.getBlock()).getNaturalSupportRange(world, pos, scanState));
-					supportRangeSq = supportRange*supportRange;
-				}
-
-				//If we move horizontally more than X blocks then stop scanning any further away
-				pos2 = new BlockPos(scanPos.getX()+0.5, 0, scanPos.getZ()+0.5);
-				double dist = pos1.distanceSq(pos2);
-				if(dist > supportRangeSq)
-				{
-					continue;
-				}
-
-				scanState2 = world.getBlockState(scanPos.down());
-				if(scanState.getBlock().isSideSolid(scanState, world, scanPos, EnumFacing.DOWN) && 
-						canBeSupportedBy(scanState, scanState2) && scanState2.getBlock().isSideSolid(scanState2, world, scanPos.down(), EnumFacing.UP))
-				{
-					if(!scannedQueue.contains(scanPos.down()))
-						scanQueue.add(scanPos.down());
-				}
-				if(scanState.getBlock() instanceof BlockCollapsible)
-					if(((BlockCollapsible)scanState.getBlock()).recievesHorizontalSupport(scanState, world, scanPos, EnumFacing.NORTH) && notCurrentlyScanning((List<BlockPos>) scanQueue, scannedQueue, scanPos.north()))
-						scanQueue.add(scanPos.north());
-				if(scanState.getBlock() instanceof BlockCollapsible)
-					if(((BlockCollapsible)scanState.getBlock()).recievesHorizontalSupport(scanState, world, scanPos, EnumFacing.SOUTH) && notCurrentlyScanning((List<BlockPos>) scanQueue, scannedQueue, scanPos.south()))
-						scanQueue.add(scanPos.south());
-				if(scanState.getBlock() instanceof BlockCollapsible)
-					if(((BlockCollapsible)scanState.getBlock()).recievesHorizontalSupport(scanState, world, scanPos, EnumFacing.EAST) && notCurrentlyScanning((List<BlockPos>) scanQueue, scannedQueue, scanPos.east()))
-						scanQueue.add(scanPos.east());
-				if(scanState.getBlock() instanceof BlockCollapsible)
-					if(((BlockCollapsible)scanState.getBlock()).recievesHorizontalSupport(scanState, world, scanPos,EnumFacing.WEST) && notCurrentlyScanning((List<BlockPos>) scanQueue, scannedQueue, scanPos.west()))
-						scanQueue.add(scanPos.west());
-			}
-		}
-
-		return isSupported;
+		return myState.getBlock().isSideSolid(myState, world, pos, EnumFacing.DOWN) && canBeSupportedBy(myState, stateDown) &&
+				stateDown.getBlock().isSideSolid(stateDown, world, pos.down(), EnumFacing.UP);
 	}
 
-	private boolean notCurrentlyScanning(List<BlockPos> scanQueue, List<BlockPos> scannedQueue, BlockPos pos)
+	/**
+	 * @return How deep the column of blocks beneath this block has to be before it can hold up its neighbors.
+	 */
+	public int getSupportDepth(World world, BlockPos pos, IBlockState myState)
 	{
-		if(scanQueue.contains(pos) || scannedQueue.contains(pos))
-			return false;
-		return true;
+		return scanDepth;
 	}
 
 	/**
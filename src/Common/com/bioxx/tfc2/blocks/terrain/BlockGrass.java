@@ -163,7 +163,7 @@ public class BlockGrass extends BlockCollapsible
 				SOUTH, world.getBlockState(pos.south().down()).getBlock() == TFCBlocks.Grass).withProperty(
 						EAST, world.getBlockState(pos.east().down()).getBlock() == TFCBlocks.Grass).withProperty(
 								WEST, world.getBlockState(pos.west().down()).getBlock() == TFCBlocks.Grass);
-		IslandMap map = WorldGen.getInstance().getIslandMap(pos.getX() >> 12, pos.getZ() >> 12);
+		IslandMap map = WorldGen.getInstance().getIslandMapOrPlaceholder(pos.getX() >> 12, pos.getZ() >> 12);
 		if(map.getParams().getIslandMoisture().equals(Moisture.LOW) &&
 				!map.getClosestCenter(pos).getMoisture().equals(Moisture.MAX))
 			out = out.withProperty(SPARSE, true);
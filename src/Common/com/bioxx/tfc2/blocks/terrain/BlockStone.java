@@ -115,12 +115,9 @@ public class BlockStone extends BlockCollapsible
 	}
 
 	@Override
-	protected boolean hasSupport(World world, BlockPos pos, IBlockState state)
+	public int getSupportDepth(World world, BlockPos pos, IBlockState myState)
 	{
-		scanDepth = getDepthScanRangeScaled(world, pos);
-		boolean natural = super.hasSupport(world, pos, state);
-		scanDepth = 10;
-		return natural;
+		return getDepthScanRangeScaled(world, pos);
 	}
 
 	protected int getDepthScanRangeScaled(World world, BlockPos pos)
@@ -0,0 +1,367 @@
+package com.bioxx.tfc2.blocks.terrain;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import com.bioxx.tfc2.Core;
+import com.bioxx.tfc2.api.util.BlockPosDeque;
+import com.bioxx.tfc2.api.util.BlockPosSet;
+
+/**
+ * Decides which collapsible blocks have lost their support. Blocks that get a block update during a tick are only
+ * marked dirty and are all solved together at the end of the tick, so a cave-in costs one scan of the area around it
+ * instead of one scan for every block involved.
+ *
+ * The blocks are solved one layer at a time from the bottom up. A block that rests on a column of blocks it can be
+ * supported by, at least its getSupportDepth deep, is an anchor. Column depths are remembered for the rest of the tick
+ * until something collapses so neighboring anchors do not walk the same column again. Each anchor spreads support sideways on its own to every block that recievesHorizontalSupport from a block
+ * the anchor reached and is still within its getNaturalSupportRange of the anchor. Every block in the scanned area that
+ * no anchor reaches collapses and the blocks above it are added to the layers above.
+ */
+public class SupportSolver
+{
+	private static final Map<World, SupportSolver> SOLVERS = new WeakHashMap<World, SupportSolver>();
+
+	/**
+	 * How many steps sideways from a dirty block the scan goes. Blocks at the edge of the scan are treated as anchors
+	 * so we do not waste time, and are solved again next tick if anything inside the scan collapsed.
+	 */
+	private static final int SCAN_STEPS = 16;
+	/** Support columns are never followed further down than this. */
+	private static final int MAX_COLUMN = 64;
+
+	private static final EnumFacing[] HORIZONTALS = {EnumFacing.NORTH, EnumFacing.SOUTH, EnumFacing.EAST, EnumFacing.WEST};
+
+	private final BlockPosDeque[] layers = new BlockPosDeque[256];
+	private int minLayer = Integer.MAX_VALUE;
+	private int maxLayer = Integer.MIN_VALUE;
+
+	//Scratch space for solving a layer. The world is only held while solving so the solver does not keep it loaded
+	private World world;
+	private final BlockPosSet marked = new BlockPosSet(256);
+	private final BlockPosSet region = new BlockPosSet(1024);
+	private final BlockPosDeque regionList = new BlockPosDeque(1024);
+	private final BlockPosSet supported = new BlockPosSet(1024);
+	private final BlockPosSet reached = new BlockPosSet(256);
+	private final BlockPosDeque queue = new BlockPosDeque(256);
+	private final BlockPosDeque anchors = new BlockPosDeque(256);
+	private final BlockPosDeque edges = new BlockPosDeque(256);
+	private final BlockPosDeque deferred = new BlockPosDeque();
+	private final BlockPos.MutableBlockPos scanPos = new BlockPos.MutableBlockPos();
+	private final BlockPos.MutableBlockPos otherPos = new BlockPos.MutableBlockPos();
+	private final BlockPos.MutableBlockPos columnPos = new BlockPos.MutableBlockPos();
+	//Known column depths for this tick keyed by the packed position at the top of the column
+	private final Map<Long, Integer> columnDepths = new HashMap<Long, Integer>();
+
+	public static SupportSolver get(World world)
+	{
+		SupportSolver solver = SOLVERS.get(world);
+		if(solver == null)
+		{
+			solver = new SupportSolver();
+			SOLVERS.put(world, solver);
+		}
+		return solver;
+	}
+
+	/**
+	 * Solves the blocks that were marked dirty in this world. Called once at the end of each world tick.
+	 */
+	public static void tick(World world)
+	{
+		SupportSolver solver = SOLVERS.get(world);
+		if(solver != null && solver.minLayer <= solver.maxLayer)
+		{
+			solver.world = world;
+			try
+			{
+				solver.solve();
+			}
+			finally
+			{
+				solver.world = null;
+			}
+		}
+	}
+
+	/**
+	 * Queues a block to have its support checked at the end of this tick.
+	 */
+	public void markDirty(BlockPos pos)
+	{
+		markDirty(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	private void markDirty(int x, int y, int z)
+	{
+		if(y < 0 || y >= layers.length)
+			return;
+		if(layers[y] == null)
+			layers[y] = new BlockPosDeque();
+		layers[y].addLast(BlockPosSet.pack(x, y, z));
+		minLayer = Math.min(minLayer, y);
+		maxLayer = Math.max(maxLayer, y);
+	}
+
+	private void solve()
+	{
+		columnDepths.clear();
+		//Collapsing blocks can add more dirty blocks to the layers above so maxLayer is checked again every pass
+		for(int y = minLayer; y <= maxLayer && y < layers.length; y++)
+		{
+			if(layers[y] != null && !layers[y].isEmpty())
+				solveLayer(layers[y]);
+		}
+		minLayer = Integer.MAX_VALUE;
+		maxLayer = Integer.MIN_VALUE;
+
+		//Edges of scans that had blocks collapse carry on from there next tick
+		while(!deferred.isEmpty())
+		{
+			long pos = deferred.pollFirst();
+			markDirty(BlockPosSet.getX(pos), BlockPosSet.getY(pos), BlockPosSet.getZ(pos));
+		}
+	}
+
+	private void solveLayer(BlockPosDeque dirty)
+	{
+		region.clear();
+		regionList.clear();
+		supported.clear();
+		anchors.clear();
+		edges.clear();
+		marked.clear();
+
+		//Gather every block that the dirty blocks could be getting their support through
+		while(!dirty.isEmpty())
+		{
+			long pos = dirty.pollFirst();
+			if(!marked.add(pos))
+				continue;
+			setPos(scanPos, pos);
+			IBlockState state = getActualState(scanPos);
+			if(!(state.getBlock() instanceof BlockCollapsible))
+				continue;
+			if(((BlockCollapsible)state.getBlock()).isSupportedBelow(state, world, scanPos))
+				continue;
+			if(region.add(pos))
+			{
+				regionList.addLast(pos);
+				queue.addLast(pos);
+			}
+		}
+		gatherRegion();
+
+		//Spread support sideways from each anchor. Every anchor is followed on its own since a block that one anchor
+		//reached first may still lead to blocks that only a different anchor is close enough to hold up
+		while(!anchors.isEmpty())
+			spreadSupport(anchors.pollFirst());
+
+		//Everything that support did not reach comes down
+		boolean collapsed = false;
+		for(int i = 0; i < regionList.size(); i++)
+		{
+			long pos = regionList.get(i);
+			if(supported.contains(pos))
+				continue;
+			BlockPos collapsePos = regionList.getPos(i);
+			IBlockState state = getActualState(collapsePos);
+			if(!(state.getBlock() instanceof BlockCollapsible))
+				continue;
+			((BlockCollapsible)state.getBlock()).createFallingEntity(world, collapsePos, state);
+			scheduleNeighbors(collapsePos);
+			collapsed = true;
+		}
+
+		//Any column may have lost a block
+		if(collapsed)
+			columnDepths.clear();
+		while(collapsed && !edges.isEmpty())
+			deferred.addLast(edges.pollFirst());
+	}
+
+	/**
+	 * Breadth first search from one anchor through the region, limited to the support range of the anchor and of each
+	 * block it reaches.
+	 */
+	private void spreadSupport(long anchor)
+	{
+		setPos(scanPos, anchor);
+		IBlockState anchorState = getActualState(scanPos);
+		if(!(anchorState.getBlock() instanceof BlockCollapsible))
+			return;
+		int anchorX = scanPos.getX(), anchorZ = scanPos.getZ();
+		int anchorRange = ((BlockCollapsible)anchorState.getBlock()).getNaturalSupportRange(world, scanPos, anchorState);
+		boolean anchorTerrain = Core.isTerrain(anchorState);
+
+		reached.clear();
+		reached.add(anchor);
+		queue.addLast(anchor);
+		while(!queue.isEmpty())
+		{
+			long pos = queue.pollFirst();
+			for(EnumFacing facing : HORIZONTALS)
+			{
+				long other = BlockPosSet.pack(BlockPosSet.getX(pos) + facing.getFrontOffsetX(), BlockPosSet.getY(pos), BlockPosSet.getZ(pos) + facing.getFrontOffsetZ());
+				if(!region.contains(other) || reached.contains(other))
+					continue;
+				setPos(otherPos, other);
+				IBlockState otherState = getActualState(otherPos);
+				BlockCollapsible otherBlock = (BlockCollapsible)otherState.getBlock();
+				//Whether a block takes support depends on the side it comes from so it is only marked once it does
+				if(!otherBlock.recievesHorizontalSupport(otherState, world, otherPos, facing.getOpposite()))
+					continue;
+				int range = otherBlock.getNaturalSupportRange(world, otherPos, otherState);
+				if(Core.isTerrain(otherState) == anchorTerrain)
+					range = Math.min(range, anchorRange);
+				int dx = otherPos.getX() - anchorX;
+				int dz = otherPos.getZ() - anchorZ;
+				if(dx * dx + dz * dz > range * range)
+					continue;
+				reached.add(other);
+				supported.add(other);
+				queue.addLast(other);
+			}
+		}
+	}
+
+	/**
+	 * Breadth first scan outward from the dirty blocks in the queue. Blocks that stand on a deep enough support column
+	 * are anchors and the scan does not go past them since nothing beyond an anchor can lose its support through the
+	 * dirty blocks.
+	 */
+	private void gatherRegion()
+	{
+		for(int step = 0; step <= SCAN_STEPS && !queue.isEmpty(); step++)
+		{
+			for(int count = queue.size(); count > 0; count--)
+			{
+				long pos = queue.pollFirst();
+				setPos(scanPos, pos);
+				IBlockState state = getActualState(scanPos);
+				BlockCollapsible block = (BlockCollapsible)state.getBlock();
+				if(step > 0 && getColumnDepth(scanPos.getX(), scanPos.getY(), scanPos.getZ()) > block.getSupportDepth(world, scanPos, state))
+				{
+					supported.add(pos);
+					anchors.addLast(pos);
+					continue;
+				}
+				//Only blocks within their own support range of the edge are held up by it
+				if(step == SCAN_STEPS)
+				{
+					supported.add(pos);
+					anchors.addLast(pos);
+					edges.addLast(pos);
+					continue;
+				}
+				for(EnumFacing facing : HORIZONTALS)
+				{
+					if(!block.recievesHorizontalSupport(state, world, scanPos, facing))
+						continue;
+					long other = BlockPosSet.pack(scanPos.getX() + facing.getFrontOffsetX(), scanPos.getY(), scanPos.getZ() + facing.getFrontOffsetZ());
+					if(region.contains(other))
+						continue;
+					setPos(otherPos, other);
+					if(!(world.getBlockState(otherPos).getBlock() instanceof BlockCollapsible))
+						continue;
+					region.add(other);
+					regionList.addLast(other);
+					queue.addLast(other);
+				}
+			}
+		}
+		queue.clear();
+	}
+
+	/**
+	 * @return How many blocks down from this position each block canRestOn the one below it. A column that ends on a
+	 * block that is not collapsible but that the block above it canRestOn counts as MAX_COLUMN deep.
+	 */
+	private int getColumnDepth(int x, int y, int z)
+	{
+		int walked = 0;
+		int depth = 0;
+		boolean known = true;
+		while(true)
+		{
+			long key = BlockPosSet.pack(x, y - walked, z);
+			Integer cached = columnDepths.get(key);
+			if(cached != null)
+			{
+				depth = cached;
+				break;
+			}
+			if(walked == MAX_COLUMN)
+			{
+				//Everything above is deep enough but the depth of the lower blocks is not known
+				known = false;
+				break;
+			}
+			columnPos.setPos(x, y - walked, z);
+			IBlockState state = getActualState(columnPos);
+			if(!(state.getBlock() instanceof BlockCollapsible))
+			{
+				//Only reached through a block that canRestOn this one
+				depth = MAX_COLUMN;
+				break;
+			}
+			if(!((BlockCollapsible)state.getBlock()).canRestOn(state, world, columnPos, world.getBlockState(columnPos.down())))
+			{
+				columnDepths.put(key, 0);
+				break;
+			}
+			walked++;
+		}
+		for(int i = walked - 1; i >= 0; i--)
+		{
+			depth = Math.min(MAX_COLUMN, depth + 1);
+			if(known)
+				columnDepths.put(BlockPosSet.pack(x, y - i, z), depth);
+		}
+		return depth;
+	}
+
+	/**
+	 * Collapsible blocks on top of and around a collapsed block are solved in this same pass. Anything else gets a
+	 * block update like it did before.
+	 */
+	private void scheduleNeighbors(BlockPos pos)
+	{
+		for(int x = -1; x <= 1; x++)
+		{
+			for(int z = -1; z <= 1; z++)
+			{
+				for(int y = 0; y <= 2; y++)
+				{
+					BlockPos p = pos.add(x, y, z);
+					Block block = world.getBlockState(p).getBlock();
+					if(block instanceof BlockCollapsible)
+					{
+						if(y > 0)
+							markDirty(p.getX(), p.getY(), p.getZ());
+					}
+					else
+						world.scheduleUpdate(p, block, block.tickRate(world));
+				}
+			}
+		}
+	}
+
+	private IBlockState getActualState(BlockPos pos)
+	{
+		IBlockState state = world.getBlockState(pos);
+		return state.getBlock().getActualState(state, world, pos);
+	}
+
+	private static void setPos(BlockPos.MutableBlockPos out, long pos)
+	{
+		out.setPos(BlockPosSet.getX(pos), BlockPosSet.getY(pos), BlockPosSet.getZ(pos));
+	}
+}
@@ -3,14 +3,21 @@ package com.bioxx.tfc2.commands;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
+import java.util.Collections;
+import java.util.List;
 
 import net.minecraft.command.CommandBase;
 import net.minecraft.command.ICommandSender;
 import net.minecraft.command.PlayerNotFoundException;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
 import net.minecraft.world.WorldServer;
 
+import com.bioxx.tfc2.world.IslandGenScheduler;
+import com.bioxx.tfc2.world.IslandGenTelemetry;
+import com.bioxx.tfc2.world.WorldGen;
+
 public class DebugCommand extends CommandBase
 {
 	@Override
@@ -41,6 +48,41 @@ public class DebugCommand extends CommandBase
 				clipboard.setContents(selection, selection);
 
 		}
+		else if(params.length >= 1 && params[0].equalsIgnoreCase("determinism"))
+		{
+			//Generates the player's island on several threads and checks that every copy is identical
+			int threads = params.length > 1 ? Integer.parseInt(params[1]) : Runtime.getRuntime().availableProcessors();
+			int xM = player.getPosition().getX() >> 12;
+			int zM = player.getPosition().getZ() >> 12;
+			String out = WorldGen.getInstance().checkDeterminism(xM, zM, Math.max(2, threads));
+			player.sendMessage(new TextComponentString(out));
+		}
+		else if(params.length >= 1 && params[0].equalsIgnoreCase("genstats"))
+		{
+			IslandGenTelemetry telemetry = IslandGenTelemetry.getInstance();
+			List<String> lines;
+			if(params.length > 1 && params[1].equalsIgnoreCase("reset"))
+			{
+				telemetry.clear();
+				lines = Collections.singletonList("Island generation telemetry cleared");
+			}
+			else if(params.length > 1 && params[1].equalsIgnoreCase("island"))
+			{
+				//Stage breakdown for the island the player is standing on
+				lines = telemetry.getIslandReport(player.getPosition().getX() >> 12, player.getPosition().getZ() >> 12);
+			}
+			else
+			{
+				lines = telemetry.getSummary();
+				IslandGenScheduler generator = WorldGen.getInstance().getGenerator();
+				lines.add("queue: " + generator.getQueuedCount() + " queued, " + generator.getRunningCount() + " running, " + generator.getWaitCount() +
+						" waits, max wait " + (generator.getMaxWaitNanos() / 1000000) + "ms, " + generator.getWaitTimeouts() + " timeouts");
+			}
+			if(lines.isEmpty())
+				lines = Collections.singletonList("No island generation telemetry recorded" + (IslandGenTelemetry.isEnabled() ? "" : ", it is disabled in the config"));
+			for(String line : lines)
+				player.sendMessage(new TextComponentString(line));
+		}
 	}
 
 	@Override
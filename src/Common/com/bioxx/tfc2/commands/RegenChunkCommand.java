@@ -99,8 +99,8 @@ public class RegenChunkCommand extends CommandBase
 		else if(player.getEntityWorld().provider.getDimension() == 0 && params.length == 2 && params[1].equalsIgnoreCase("hex"))
 		{
 			execute(server, sender, new String[] {params[0]});
-			IslandMap map = Core.getMapForWorld(world, player.getPosition());
-			HexGenRegistry.generate(Core.getMapForWorld(world, player.getPosition()), map.getClosestCenter(player.getPosition()), world);
+			IslandMap map = Core.awaitMapForWorld(world, player.getPosition());
+			HexGenRegistry.generate(Core.awaitMapForWorld(world, player.getPosition()), map.getClosestCenter(player.getPosition()), world);
 		}
 	}
 
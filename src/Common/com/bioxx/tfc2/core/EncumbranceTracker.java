@@ -0,0 +1,132 @@
+package com.bioxx.tfc2.core;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionEffect;
+import net.minecraft.util.NonNullList;
+
+import com.bioxx.tfc2.api.SizeWeightRegistry;
+import com.bioxx.tfc2.potion.PotionTFC;
+
+/**
+ * Keeps a running total of how encumbered a player is. The item and meta of each main inventory slot is remembered
+ * along with the weight it added, so each update only looks up the weight of slots whose contents changed, and the
+ * encumbrance potions are only changed when the player moves to a different tier.
+ */
+public class EncumbranceTracker
+{
+	//Players on the client and the integrated server are tracked from different threads
+	private static final Map<EntityPlayer, EncumbranceTracker> TRACKERS = new WeakHashMap<EntityPlayer, EncumbranceTracker>();
+
+	/** Encumbrance at which the player is fully encumbered. */
+	public static final float MAX_ENCUMBRANCE = 80f;
+
+	private static final Potion[] TIER_POTIONS = {null, PotionTFC.ENCUMB_MEDIUM_POTION, PotionTFC.ENCUMB_HEAVY_POTION, PotionTFC.ENCUMB_MAX_POTION};
+
+	private Item[] items = new Item[0];
+	private int[] metas = new int[0];
+	private int[] weights = new int[0];
+	private int encumbrance = 0;
+	private int tier = -1;
+
+	public static EncumbranceTracker get(EntityPlayer player)
+	{
+		synchronized(TRACKERS)
+		{
+			EncumbranceTracker tracker = TRACKERS.get(player);
+			if(tracker == null)
+			{
+				tracker = new EncumbranceTracker();
+				TRACKERS.put(player, tracker);
+			}
+			return tracker;
+		}
+	}
+
+	/**
+	 * Brings the encumbrance up to date with the player's inventory and applies the potion for the current tier.
+	 */
+	public void update(EntityPlayer player)
+	{
+		updateEncumbrance(player.inventory.mainInventory);
+
+		int newTier = getTier();
+		//The effect is also put back if something else removed it
+		if(newTier != tier || (newTier > 0 && !player.isPotionActive(TIER_POTIONS[newTier])))
+		{
+			tier = newTier;
+			applyTier(player);
+		}
+	}
+
+	/**
+	 * @return The encumbrance as of the last update.
+	 */
+	public int getEncumbrance()
+	{
+		return encumbrance;
+	}
+
+	/**
+	 * @return The encumbrance as of the last update as a fraction of MAX_ENCUMBRANCE.
+	 */
+	public float getEncumbranceMult()
+	{
+		return encumbrance / MAX_ENCUMBRANCE;
+	}
+
+	private void updateEncumbrance(NonNullList<ItemStack> stackList)
+	{
+		if(items.length != stackList.size())
+		{
+			items = new Item[stackList.size()];
+			metas = new int[stackList.size()];
+			weights = new int[stackList.size()];
+			encumbrance = 0;
+		}
+
+		for(int i = 0; i < items.length; i++)
+		{
+			ItemStack is = stackList.get(i);
+			Item item = is.isEmpty() ? null : is.getItem();
+			int meta = item == null ? 0 : is.getItemDamage();
+			if(item == items[i] && meta == metas[i])
+				continue;
+
+			int weight = item == null ? 0 : SizeWeightRegistry.GetInstance().getProperty(is).weight.encumbrance;
+			encumbrance += weight - weights[i];
+			items[i] = item;
+			metas[i] = meta;
+			weights[i] = weight;
+		}
+	}
+
+	private int getTier()
+	{
+		float encumb = getEncumbranceMult();
+		if(encumb >= 1.0)
+			return 3;
+		else if(encumb >= 0.75)
+			return 2;
+		else if(encumb >= 0.5)
+			return 1;
+		return 0;
+	}
+
+	private void applyTier(EntityPlayer player)
+	{
+		for(int i = 1; i < TIER_POTIONS.length; i++)
+		{
+			if(i != tier && player.isPotionActive(TIER_POTIONS[i]))
+				player.removeActivePotionEffect(TIER_POTIONS[i]);
+		}
+
+		if(tier > 0 && !player.isPotionActive(TIER_POTIONS[tier]))
+			player.addPotionEffect(new PotionEffect(TIER_POTIONS[tier], Integer.MAX_VALUE, 0, false, false));
+	}
+}
@@ -168,8 +168,7 @@ public class Food
 
 	public static boolean hasDecayTimer(ItemStack is)
 	{
-		NBTTagCompound nbt = getNBT(is);
-		return nbt.hasKey("Expiration");
+		return is.hasTagCompound() && is.getTagCompound().hasKey("Expiration");
 	}
 
 	public static boolean isDried(ItemStack is)
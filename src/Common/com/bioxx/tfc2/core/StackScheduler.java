@@ -0,0 +1,228 @@
+package com.bioxx.tfc2.core;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.InventoryPlayer;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.inventory.InventoryHelper;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import com.bioxx.tfc2.api.heat.ItemHeat;
+import com.bioxx.tfc2.api.interfaces.IFood;
+import com.bioxx.tfc2.api.interfaces.IUpdateInInventory;
+
+/**
+ * Handles food decay, cooling and IUpdateInInventory items for the stacks of one inventory. Each slot is looked at once
+ * when its stack changes to find the next tick anything has to happen to it, and slots are only processed again once
+ * that tick has come. Cooling is worked out by ItemHeat from the tick the stack started cooling so hot stacks are only
+ * visited once they have gone cold.
+ *
+ * Players are updated every tick. Containers only need to call update when getNextDue has passed or their stacks have
+ * changed.
+ */
+public class StackScheduler
+{
+	private static final Map<EntityPlayer, StackScheduler> PLAYERS = new WeakHashMap<EntityPlayer, StackScheduler>();
+	//Heap entries are due << SLOT_BITS | slot
+	private static final int SLOT_BITS = 8;
+	private static final int MAX_SLOTS = 1 << SLOT_BITS;
+
+	//The stack and count each slot was last indexed with, so we can tell when a slot has changed
+	private ItemStack[] stacks = new ItemStack[0];
+	private int[] counts = new int[0];
+	private long[] due = new long[0];
+	private long[] heap = new long[16];
+	private int heapSize = 0;
+
+	public static StackScheduler get(EntityPlayer player)
+	{
+		synchronized(PLAYERS)
+		{
+			StackScheduler scheduler = PLAYERS.get(player);
+			if(scheduler == null)
+			{
+				scheduler = new StackScheduler();
+				PLAYERS.put(player, scheduler);
+			}
+			return scheduler;
+		}
+	}
+
+	/**
+	 * @return The earliest tick that any slot has to be processed at. May be earlier than needed if the slot changed.
+	 */
+	public long getNextDue()
+	{
+		return heapSize == 0 ? Long.MAX_VALUE : heap[0] >>> SLOT_BITS;
+	}
+
+	/**
+	 * Indexes every slot that changed and processes the slots that are due.
+	 * @param pos Where anything that decayed food turns into is dropped if it does not fit back in the inventory.
+	 */
+	public void update(IInventory inv, World world, BlockPos pos, long now)
+	{
+		int size = Math.min(inv.getSizeInventory(), MAX_SLOTS);
+		if(stacks.length != size)
+		{
+			stacks = new ItemStack[size];
+			counts = new int[size];
+			due = new long[size];
+			heapSize = 0;
+		}
+
+		for(int i = 0; i < size; i++)
+		{
+			ItemStack is = inv.getStackInSlot(i);
+			if(is != stacks[i] || is.getCount() != counts[i])
+				index(inv, i, is, now);
+		}
+
+		while(heapSize > 0 && (heap[0] >>> SLOT_BITS) <= now)
+		{
+			long entry = poll();
+			int slot = (int)(entry & (MAX_SLOTS - 1));
+			//The slot was indexed again since this entry was added
+			if(due[slot] != entry >>> SLOT_BITS)
+				continue;
+			process(inv, slot, world, pos, now);
+			index(inv, slot, inv.getStackInSlot(slot), now);
+		}
+	}
+
+	private void index(IInventory inv, int slot, ItemStack is, long now)
+	{
+		stacks[slot] = is;
+		counts[slot] = is.getCount();
+		long next = Long.MAX_VALUE;
+		if(!is.isEmpty())
+		{
+			if(is.getItem() instanceof IUpdateInInventory && inv instanceof InventoryPlayer)
+				next = now + 1;
+			if(is.getItem() instanceof IFood && Food.hasDecayTimer(is))
+				next = Math.min(next, Food.getDecayTimer(is) + 1);
+			next = Math.min(next, ItemHeat.startCooling(is, now));
+		}
+		due[slot] = next;
+		if(next != Long.MAX_VALUE)
+		{
+			//Entries for slots that were indexed again are only dropped once they are due so clear them out now and then
+			if(heapSize > due.length * 2 + 16)
+				rebuild();
+			add(next << SLOT_BITS | slot);
+		}
+	}
+
+	private void process(IInventory inv, int slot, World world, BlockPos pos, long now)
+	{
+		ItemStack is = inv.getStackInSlot(slot);
+		if(is.isEmpty())
+			return;
+
+		if(is.getItem() instanceof IUpdateInInventory && inv instanceof InventoryPlayer)
+		{
+			((IUpdateInInventory)is.getItem()).inventoryUpdate(((InventoryPlayer)inv).player, is);
+			if(is.isEmpty())
+			{
+				inv.setInventorySlotContents(slot, ItemStack.EMPTY);
+				return;
+			}
+		}
+
+		if(is.getItem() instanceof IFood)
+		{
+			IFood food = (IFood)is.getItem();
+			long time = Food.getDecayTimer(is) - now;
+			if(time < 0)
+			{
+				int expiredAmt = (int)Math.min(1+(time / Food.getExpirationTimer(is))* (-1), is.getMaxStackSize());
+				expiredAmt = Math.max(expiredAmt, 0);
+				is.shrink(expiredAmt);
+				Food.setDecayTimer(is, Food.getDecayTimer(is)+Food.getExpirationTimer(is)*expiredAmt);
+				if(is.isEmpty())
+					inv.setInventorySlotContents(slot, ItemStack.EMPTY);
+
+				ItemStack out = food.onDecayed(is, world, pos.getX(), pos.getY(), pos.getZ());
+				if(out != null)
+				{
+					out.setCount(expiredAmt);
+					addOutput(inv, slot, out, world, pos);
+				}
+			}
+		}
+
+		ItemHeat.clearIfCold(is);
+	}
+
+	private void addOutput(IInventory inv, int slot, ItemStack out, World world, BlockPos pos)
+	{
+		if(inv instanceof InventoryPlayer)
+		{
+			((InventoryPlayer)inv).addItemStackToInventory(out);
+			return;
+		}
+		if(inv.getStackInSlot(slot).isEmpty() && out.getCount() <= inv.getInventoryStackLimit())
+			inv.setInventorySlotContents(slot, out);
+		else
+			InventoryHelper.spawnItemStack(world, pos.getX(), pos.getY(), pos.getZ(), out);
+	}
+
+	/*******************************************************************************
+	 * Binary min-heap of due << SLOT_BITS | slot
+	 *******************************************************************************/
+	private void add(long entry)
+	{
+		if(heapSize == heap.length)
+		{
+			long[] grown = new long[heap.length * 2];
+			System.arraycopy(heap, 0, grown, 0, heapSize);
+			heap = grown;
+		}
+		int i = heapSize++;
+		while(i > 0)
+		{
+			int parent = (i - 1) >> 1;
+			if(heap[parent] <= entry)
+				break;
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = entry;
+	}
+
+	private void rebuild()
+	{
+		heapSize = 0;
+		for(int i = 0; i < due.length; i++)
+		{
+			if(due[i] != Long.MAX_VALUE)
+				add(due[i] << SLOT_BITS | i);
+		}
+	}
+
+	private long poll()
+	{
+		long top = heap[0];
+		long last = heap[--heapSize];
+		int i = 0;
+		while(true)
+		{
+			int child = (i << 1) + 1;
+			if(child >= heapSize)
+				break;
+			if(child + 1 < heapSize && heap[child + 1] < heap[child])
+				child++;
+			if(last <= heap[child])
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		if(heapSize > 0)
+			heap[i] = last;
+		return top;
+	}
+}
@@ -137,6 +137,8 @@ public class EntityBear extends EntityAnimal implements IHerdAnimal, IGenderedAn
 		if(getEntityWorld().provider.getDimension() == 0)
 		{
 			IslandMap map = Core.getMapForWorld(getEntityWorld(), getPosition());
+			if(map == null)
+				return false;
 			boolean inLoaded = Core.isHexFullyLoaded(getEntityWorld(), map, map.getClosestCenter(getPosition()));
 			return !inLoaded;
 		}
@@ -150,7 +152,7 @@ public class EntityBear extends EntityAnimal implements IHerdAnimal, IGenderedAn
 		if(canDespawn())
 		{
 			IslandMap map = Core.getMapForWorld(getEntityWorld(), getPosition());
-			Herd h = map.getIslandData().wildlifeManager.getHerd(getHerdUUID());
+			Herd h = map == null ? null : map.getIslandData().wildlifeManager.getHerd(getHerdUUID());
 			if(h != null)
 			{
 				for(VirtualAnimal a : h.getVirtualAnimals())
@@ -146,6 +146,8 @@ public class EntityElk extends EntityAnimal implements IHerdAnimal, IGenderedAni
 		if(getEntityWorld().provider.getDimension() == 0)
 		{
 			IslandMap map = Core.getMapForWorld(getEntityWorld(), getPosition());
+			if(map == null)
+				return false;
 			boolean inLoaded = Core.isHexFullyLoaded(getEntityWorld(), map, map.getClosestCenter(getPosition()));
 			return !inLoaded;
 		}
@@ -159,7 +161,7 @@ public class EntityElk extends EntityAnimal implements IHerdAnimal, IGenderedAni
 		if(canDespawn())
 		{
 			IslandMap map = Core.getMapForWorld(getEntityWorld(), getPosition());
-			Herd h = map.getIslandData().wildlifeManager.getHerd(getHerdUUID());
+			Herd h = map == null ? null : map.getIslandData().wildlifeManager.getHerd(getHerdUUID());
 			if(h != null)
 			{
 				for(VirtualAnimal a : h.getVirtualAnimals())
@@ -67,6 +67,8 @@ public class EntityAIHerdMove extends EntityAIBase
 			IHerdAnimal animal = (IHerdAnimal)entity;
 
 			IslandMap map = Core.getMapForWorld(entity.world, entity.getPosition());
+			if(map == null)
+				return false;
 			WildlifeManager iwf = map.getIslandData().wildlifeManager;
 			Herd herd = iwf.getHerd(animal.getHerdUUID());
 			if(herd!= null && herd.getHerdBrain().getActivity() == HerdActivityEnum.TRAVELING)
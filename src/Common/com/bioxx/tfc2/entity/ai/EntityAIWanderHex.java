@@ -61,6 +61,8 @@ public class EntityAIWanderHex extends EntityAIBase
 			}
 		}
 		IslandMap map = Core.getMapForWorld(entity.world, entity.getPosition());
+		if(map == null)
+			return false;
 		Vec3d vec3d = generateRandomPosInCenter(entity, 18, 5, true, map, map.getClosestCenter(entity.getPosition()));
 
 		if(entity instanceof IHerdAnimal)
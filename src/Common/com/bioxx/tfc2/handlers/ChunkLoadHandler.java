@@ -28,6 +28,7 @@ import com.bioxx.tfc2.api.animals.IGenderedAnimal;
 import com.bioxx.tfc2.api.animals.VirtualAnimal;
 import com.bioxx.tfc2.api.interfaces.IAnimalDef;
 import com.bioxx.tfc2.api.interfaces.IHerdAnimal;
+import com.bioxx.tfc2.world.WorldGen;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 
@@ -41,7 +42,8 @@ public class ChunkLoadHandler
 		if(!event.getWorld().isRemote && event.getWorld().provider.getDimension() == 0)
 		{
 			BlockPos chunkWorldPos = new BlockPos(event.getChunk().xPosition * 16, 0, event.getChunk().zPosition * 16);
-			IslandMap map = Core.getMapForWorld(event.getWorld(), chunkWorldPos);
+			//Chunks are only loaded around players so this island is normally in memory already
+			IslandMap map = WorldGen.getInstance().awaitIslandMap(chunkWorldPos.getX() >> 12, chunkWorldPos.getZ() >> 12);
 
 			Point islandPos = new Point(chunkWorldPos.getX(), chunkWorldPos.getZ()).toIslandCoord();
 			Center temp = map.getClosestCenter(islandPos);
@@ -140,7 +142,10 @@ public class ChunkLoadHandler
 		if(!event.getWorld().isRemote && event.getWorld().provider.getDimension() == 0)
 		{
 			BlockPos chunkWorldPos = new BlockPos(event.getChunk().xPosition * 16, 0, event.getChunk().zPosition * 16);
-			IslandMap map = Core.getMapForWorld(event.getWorld(), chunkWorldPos);
+			//If the island isn't loaded then none of its centers can be in loadedCentersMap
+			IslandMap map = WorldGen.getInstance().tryGetIslandMap(chunkWorldPos.getX() >> 12, chunkWorldPos.getZ() >> 12);
+			if(map == null)
+				return;
 
 			Point islandPos = new Point(chunkWorldPos.getX(), chunkWorldPos.getZ()).toIslandCoord();
 			AxisAlignedBB chunkAABB = new AxisAlignedBB(islandPos.getX(), 0, islandPos.getZ(), islandPos.getX()+16, 1, islandPos.getZ()+16);
@@ -4,9 +4,7 @@ import java.util.*;
 
 import net.minecraft.init.Blocks;
 
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
-import net.minecraftforge.fml.relauncher.Side;
 
 import com.bioxx.jmapgen.IslandMap;
 import com.bioxx.jmapgen.Point;
@@ -24,11 +22,10 @@ import com.bioxx.tfc2.blocks.BlockStoneSmooth;
 
 public class CreateDungeonHandler 
 {
-	private boolean[] tempMap;
 	@SubscribeEvent
 	public void createDungeon(IslandGenEvent.Post event)
 	{
-		if(FMLCommonHandler.instance().getEffectiveSide() == Side.CLIENT)
+		if(event.isRemote)
 			return;
 		DungeonSchemManager dsm = DungeonSchemManager.getInstance();
 		Random random = event.islandMap.mapRandom;
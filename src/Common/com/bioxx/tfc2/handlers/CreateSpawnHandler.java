@@ -68,7 +68,7 @@ public class CreateSpawnHandler
 				blockpos = new BlockPos((int)c.point.x + map.getParams().getWorldX(), 0, (int)c.point.y + map.getParams().getWorldZ());
 				return blockpos;
 			}
-			else if(c.elevation > 0)
+			else if(c.getElevation() > 0)
 			{
 				c = c.downslope;
 			}
@@ -29,12 +29,12 @@ import com.bioxx.jmapgen.IslandMap;
 import com.bioxx.tfc2.Core;
 import com.bioxx.tfc2.TFC;
 import com.bioxx.tfc2.api.TFCOptions;
-import com.bioxx.tfc2.api.heat.ItemHeat;
 import com.bioxx.tfc2.api.interfaces.IFood;
 import com.bioxx.tfc2.api.interfaces.IFoodStatsTFC;
-import com.bioxx.tfc2.api.interfaces.IUpdateInInventory;
 import com.bioxx.tfc2.api.types.EnumFoodGroup;
+import com.bioxx.tfc2.core.EncumbranceTracker;
 import com.bioxx.tfc2.core.Food;
+import com.bioxx.tfc2.core.StackScheduler;
 import com.bioxx.tfc2.core.Timekeeper;
 import com.bioxx.tfc2.networking.client.CFoodPacket;
 import com.bioxx.tfc2.potion.PotionTFC;
@@ -56,10 +56,11 @@ public class EntityLivingHandler
 				player.setGameType(GameType.ADVENTURE);
 			else if(player.world.provider.getDimension() == 0 && !player.capabilities.isCreativeMode && !player.isSpectator())
 			{
-				IslandMap map = WorldGen.getInstance().getIslandMap((int)player.posX >> 12, (int)player.posZ >> 12);
-				if(map.getIslandData().isIslandUnlocked && !player.isSpectator())
+				//Leave the game type alone until the island has finished loading
+				IslandMap map = WorldGen.getInstance().tryGetIslandMap((int)player.posX >> 12, (int)player.posZ >> 12);
+				if(map != null && map.getIslandData().isIslandUnlocked && !player.isSpectator())
 					player.setGameType(GameType.SURVIVAL);
-				else if(!player.isSpectator())
+				else if(map != null && !player.isSpectator())
 					player.setGameType(GameType.ADVENTURE);
 			}
 
@@ -74,47 +75,8 @@ public class EntityLivingHandler
 
 			if(!player.world.isRemote)
 			{
-				int size = player.inventory.getSizeInventory();
 				//Tick Item Updates
-				for(int i = 0; i < size; i++)
-				{
-					ItemStack is = player.inventory.getStackInSlot(i);
-					if(is != ItemStack.EMPTY)
-					{
-						if(is.getItem() instanceof IUpdateInInventory)
-						{
-							((IUpdateInInventory)is.getItem()).inventoryUpdate(player, is);
-							if(is.getMaxStackSize() == 0)
-								player.inventory.setInventorySlotContents(i, ItemStack.EMPTY);
-						}
-						if(is.getItem() instanceof IFood)
-						{
-							IFood food = (IFood)is.getItem();
-							long time = Food.getDecayTimer(is)-player.world.getWorldTime();
-							if(time < 0)
-							{
-								int expiredAmt = (int)Math.min(1+(time / Food.getExpirationTimer(is))* (-1), is.getMaxStackSize());
-								expiredAmt = Math.max(expiredAmt, 0);
-								is.shrink(expiredAmt);
-								Food.setDecayTimer(is, Food.getDecayTimer(is)+Food.getExpirationTimer(is)*expiredAmt);
-								if(is.getMaxStackSize() <= 0)
-									player.inventory.setInventorySlotContents(i, ItemStack.EMPTY);
-
-								ItemStack out = food.onDecayed(is, player.world, player.getPosition().getX(), player.getPosition().getY(), player.getPosition().getZ());
-								if(out != null)
-								{
-									out.setCount(expiredAmt);
-									player.inventory.addItemStackToInventory(out);
-								}
-							}
-						}
-
-						if(ItemHeat.Get(is) > 0)
-						{
-							ItemHeat.Decrease(is, 1);
-						}
-					}
-				}
+				StackScheduler.get(player).update(player.inventory, player.world, player.getPosition(), player.world.getWorldTime());
 
 				updateEncumb(player);
 
@@ -155,52 +117,7 @@ public class EntityLivingHandler
 
 	public void updateEncumb(EntityPlayer player)
 	{
-		float encumb = Core.getEncumbrance(player.inventory.mainInventory) / 80f;
-		if(encumb >= 1.0)
-		{
-			if(player.isPotionActive(PotionTFC.ENCUMB_HEAVY_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_HEAVY_POTION);
-			if(player.isPotionActive(PotionTFC.ENCUMB_MEDIUM_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_MEDIUM_POTION);
-
-			if(player.isPotionActive(PotionTFC.ENCUMB_MAX_POTION))
-				return;
-
-			player.addPotionEffect(new PotionEffect(PotionTFC.ENCUMB_MAX_POTION, Integer.MAX_VALUE, 0, false, false));
-		}
-		else if(encumb >= 0.75)
-		{
-			if(player.isPotionActive(PotionTFC.ENCUMB_MAX_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_MAX_POTION);
-			if(player.isPotionActive(PotionTFC.ENCUMB_MEDIUM_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_MEDIUM_POTION);
-
-			if(player.isPotionActive(PotionTFC.ENCUMB_HEAVY_POTION))
-				return;
-
-			player.addPotionEffect(new PotionEffect(PotionTFC.ENCUMB_HEAVY_POTION, Integer.MAX_VALUE, 0, false, false));
-		}
-		else if(encumb >= 0.5)
-		{
-			if(player.isPotionActive(PotionTFC.ENCUMB_MAX_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_MAX_POTION);
-			if(player.isPotionActive(PotionTFC.ENCUMB_HEAVY_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_HEAVY_POTION);
-
-			if(player.isPotionActive(PotionTFC.ENCUMB_MEDIUM_POTION))
-				return;
-
-			player.addPotionEffect(new PotionEffect(PotionTFC.ENCUMB_MEDIUM_POTION, Integer.MAX_VALUE, 0, false, false));
-		}
-		else
-		{
-			if(player.isPotionActive(PotionTFC.ENCUMB_MAX_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_MAX_POTION);
-			if(player.isPotionActive(PotionTFC.ENCUMB_HEAVY_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_HEAVY_POTION);
-			if(player.isPotionActive(PotionTFC.ENCUMB_MEDIUM_POTION))
-				player.removeActivePotionEffect(PotionTFC.ENCUMB_MEDIUM_POTION);
-		}
+		EncumbranceTracker.get(player).update(player);
 	}
 
 	public void updateNutrition(NBTTagCompound tfcData, IFoodStatsTFC food, EntityPlayer player)
@@ -8,40 +8,62 @@ import com.bioxx.tfc2.api.events.HexUpdateEvent;
 import com.bioxx.tfc2.core.Timekeeper;
 import com.bioxx.tfc2.tileentities.TileCrop;
 
-public class HexUpdateHandler 
+public class HexUpdateHandler
 {
+	/**
+	 * Hydration drains by 5 every this many ticks. This is about how often each hex was visited when every hex on an
+	 * island was updated in turn.
+	 */
+	public static final long HYDRATION_INTERVAL = 320;
+
 	@SubscribeEvent
 	public void handle(HexUpdateEvent event)
 	{
-		NBTTagCompound nbt = event.centerToUpdate.getCustomNBT();
-		if(nbt.hasKey("TFC2_Data"))
+		NBTTagCompound nbt = event.centerToUpdate.getCustomNBTIfPresent();
+		if(nbt != null && nbt.hasKey("TFC2_Data"))
 		{
+			long now = event.totalTicks;
 			NBTTagCompound data = nbt.getCompoundTag("TFC2_Data");
 			if(data.hasKey("CropData"))
 			{
 				NBTTagCompound cropData = data.getCompoundTag("CropData");
 				long lastRegenTick = cropData.getLong("lastRegenTick");
-				if(lastRegenTick + Timekeeper.ticksInPeriod < Timekeeper.getInstance().getTotalTicks())
+				if(lastRegenTick + Timekeeper.ticksInPeriod < now)
 				{
-					cropData.setLong("lastRegenTick", lastRegenTick + Timekeeper.ticksInPeriod);
+					//Every period that has fully passed since the last regen restores a quarter of the nutrients
+					long periods = (now - lastRegenTick - 1) / Timekeeper.ticksInPeriod;
+					lastRegenTick += periods * Timekeeper.ticksInPeriod;
+					cropData.setLong("lastRegenTick", lastRegenTick);
 					float nutrients = cropData.getFloat("nutrients");
 					float maxNutrients = TileCrop.GetMaxNutrients(event.map);
-					cropData.setFloat("nutrients", Math.min(maxNutrients, nutrients + maxNutrients/4));
+					cropData.setFloat("nutrients", Math.min(maxNutrients, nutrients + periods * maxNutrients/4));
 				}
+				event.requestUpdateAt(lastRegenTick + Timekeeper.ticksInPeriod + 1);
 			}
 			if(data.hasKey("hydration"))
 			{
+				long lastTick = data.hasKey("hydrationTick") ? data.getLong("hydrationTick") : now;
+				long steps = Math.max(0, (now - lastTick) / HYDRATION_INTERVAL);
 				byte[] hydrationArray = data.getByteArray("hydration");
+				int drain = (int)Math.min(steps * 5, 255);
 				int waterLevel = 0;
-				for(int i = 0; i < 64; i++)
+				for(int i = 0; i < hydrationArray.length; i++)
 				{
-					hydrationArray[i] = (byte)Math.max(0, hydrationArray[i]-5);
+					hydrationArray[i] = (byte)Math.max(0, hydrationArray[i]-drain);
 					waterLevel += hydrationArray[i];
 				}
 				if(waterLevel > 0)
+				{
+					lastTick += steps * HYDRATION_INTERVAL;
 					data.setByteArray("hydration", hydrationArray);
+					data.setLong("hydrationTick", lastTick);
+					event.requestUpdateAt(lastTick + HYDRATION_INTERVAL);
+				}
 				else
+				{
 					data.removeTag("hydration");
+					data.removeTag("hydrationTick");
+				}
 			}
 		}
 	}
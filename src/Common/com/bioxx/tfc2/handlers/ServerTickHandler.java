@@ -6,6 +6,8 @@ import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.common.gameevent.TickEvent.WorldTickEvent;
 
+import com.bioxx.tfc2.blocks.LeafDecay;
+import com.bioxx.tfc2.blocks.terrain.SupportSolver;
 import com.bioxx.tfc2.world.WorldGen;
 
 public class ServerTickHandler
@@ -26,6 +28,11 @@ public class ServerTickHandler
 				}
 			}			
 		}
+		else if(event.phase == Phase.END)
+		{
+			SupportSolver.tick(world);
+			LeafDecay.tick(world);
+		}
 	}
 
 
@@ -16,6 +16,7 @@ import com.bioxx.tfc2.Reference;
 import com.bioxx.tfc2.rendering.bakedmodels.BakedAnvilModel;
 import com.bioxx.tfc2.rendering.bakedmodels.BakedPitKilnModel;
 import com.bioxx.tfc2.rendering.bakedmodels.BakedSmallVesselModel;
+import com.bioxx.tfc2.rendering.bakedmodels.CompositeModelCache;
 
 public class ModelBakeHandler 
 {
@@ -31,6 +32,9 @@ public class ModelBakeHandler
 	@SubscribeEvent
 	public void onModelBake(ModelBakeEvent event) 
 	{
+		// models are baked again after every resource reload so anything cached from the old models has to go
+		CompositeModelCache.clearAll();
+
 		// tool tables
 		replaceAnvilModel(locAnvilN, Core.CreateRes(Reference.ModID + ":block/anvil"), event);
 		replaceAnvilModel(locAnvilS, Core.CreateRes(Reference.ModID + ":block/anvil"), event);
@@ -20,12 +20,10 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import com.bioxx.tfc2.api.interfaces.ICookableFood;
-import com.bioxx.tfc2.api.interfaces.IUpdateInInventory;
 import com.bioxx.tfc2.api.types.EnumFoodGroup;
-import com.bioxx.tfc2.core.Food;
 import com.bioxx.tfc2.core.TFCTabs;
 
-public class ItemFoodTFC extends ItemTerra implements ICookableFood, IUpdateInInventory
+public class ItemFoodTFC extends ItemTerra implements ICookableFood
 {
 	private long expiration = 300000L;//time expressed in milliseconds
 	private float nourishment = 20f;
@@ -172,16 +170,4 @@ public class ItemFoodTFC extends ItemTerra implements ICookableFood, IUpdateInIn
 	public boolean canSmoke() {
 		return canBeSmoked;
 	}
-
-	@Override
-	public void inventoryUpdate(EntityPlayer player, ItemStack is) 
-	{
-		long time = Food.getDecayTimer(is)-net.minecraft.client.Minecraft.getMinecraft().world.getWorldTime();
-		if(time < 0)
-		{
-			int expiredAmt = (int)Math.min(1+(time / expiration)* (-1), is.getMaxStackSize());
-			is.shrink(expiredAmt);
-			Food.setDecayTimer(is, Food.getDecayTimer(is)+expiration*expiredAmt);
-		}
-	}
 }
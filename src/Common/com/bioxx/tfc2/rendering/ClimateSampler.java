@@ -0,0 +1,195 @@
+package com.bioxx.tfc2.rendering;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.ColorizerGrass;
+
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.jmapgen.IslandParameters.Feature;
+import com.bioxx.tfc2.core.Timekeeper;
+import com.bioxx.tfc2.world.WeatherManager;
+import com.bioxx.tfc2.world.WorldGen;
+
+/**
+ * Client side cache of the climate values used for block colours and weather rendering.
+ *
+ * Colours only depend on the island so the moisture of every column in a chunk is worked out the first time a block in
+ * that chunk is coloured and reused until an island is loaded or unloaded. Weather temperatures are kept for the columns
+ * around the camera until the hour changes, and precipitation until the half hour changes.
+ */
+public class ClimateSampler
+{
+	private static final ClimateSampler INSTANCE = new ClimateSampler();
+	private static final int MAX_CHUNKS = 1024;
+
+	//Access ordered so that the least recently used chunk is dropped first
+	private final LinkedHashMap<Long, ChunkClimate> chunks = new LinkedHashMap<Long, ChunkClimate>(64, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, ChunkClimate> eldest)
+		{
+			return size() > MAX_CHUNKS;
+		}
+	};
+	private WorldGen lastWorldGen;
+	private int lastVersion;
+	private WeatherManager lastWeather;
+
+	//Columns around the camera indexed by the low 5 bits of x and z
+	private final int[] columnX = new int[1024];
+	private final int[] columnZ = new int[1024];
+	private final double[] columnTemp = new double[1024];
+	private final int[] columnStamp = new int[1024];
+	private int stamp = 1;
+	private long lastHour = Long.MIN_VALUE;
+
+	private IslandMap precipIsland;
+	private long precipBucket = Long.MIN_VALUE;
+	private double precip;
+
+	private ClimateSampler() {}
+
+	public static ClimateSampler getInstance()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * @param desertDries If true islands with the Desert feature are drier and hotter
+	 * @param minMoisture Moisture is raised to at least this value
+	 */
+	public int getGrassColor(BlockPos pos, boolean desertDries, double minMoisture)
+	{
+		ChunkClimate c = getChunk(pos.getX() >> 4, pos.getZ() >> 4);
+		double d0 = c.temp;
+		double d1 = c.moisture[(pos.getX() & 15) << 4 | (pos.getZ() & 15)];
+		if(desertDries && c.desert)
+		{
+			d1 *= 0.25;
+			d0 *= 1.5;
+		}
+		if(d1 < minMoisture)
+			d1 = minMoisture;
+		return ColorizerGrass.getGrassColor(Math.min(d0, 1), Math.min(d1, 1));
+	}
+
+	private ChunkClimate getChunk(int chunkX, int chunkZ)
+	{
+		long key = ((long)chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+		WorldGen wg = WorldGen.getInstance();
+		synchronized(this)
+		{
+			checkIslands(wg);
+			ChunkClimate c = chunks.get(key);
+			if(c != null)
+				return c;
+		}
+
+		//Colour handlers run on the chunk builder threads so the chunk is sampled outside of the lock
+		ChunkClimate c = new ChunkClimate();
+		IslandMap m = wg.getIslandMap(chunkX >> 8, chunkZ >> 8);
+		double moisture = m.getParams().getIslandMoisture().getMoisture();
+		c.temp = m.getParams().getIslandTemp().getMapTemp();
+		c.desert = m.getParams().hasFeature(Feature.Desert);
+		for(int x = 0; x < 16; x++)
+		{
+			for(int z = 0; z < 16; z++)
+			{
+				c.moisture[x << 4 | z] = m.getClosestCenter((chunkX << 4) + x, (chunkZ << 4) + z).getMoistureRaw() * moisture;
+			}
+		}
+
+		synchronized(this)
+		{
+			//Only keep it if no island changed while we were sampling
+			if(wg == lastWorldGen && wg.getIslandCacheVersion() == lastVersion)
+				chunks.put(key, c);
+		}
+		return c;
+	}
+
+	/**
+	 * Drops everything once an island has been loaded, replaced or unloaded since the values were sampled.
+	 */
+	private void checkIslands(WorldGen wg)
+	{
+		int version = wg.getIslandCacheVersion();
+		if(wg != lastWorldGen || version != lastVersion)
+		{
+			lastWorldGen = wg;
+			lastVersion = version;
+			chunks.clear();
+			stamp++;
+			precipIsland = null;
+		}
+	}
+
+	/**
+	 * The weather manager is replaced when a new world is joined and its noise is seeded from the world.
+	 */
+	private WeatherManager checkWeather()
+	{
+		WeatherManager wm = WeatherManager.getInstance();
+		if(wm != lastWeather)
+		{
+			lastWeather = wm;
+			stamp++;
+			precipIsland = null;
+		}
+		return wm;
+	}
+
+	public double getTemperature(BlockPos pos)
+	{
+		return getTemperature(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	public synchronized double getTemperature(int x, int y, int z)
+	{
+		WorldGen wg = WorldGen.getInstance();
+		checkIslands(wg);
+		WeatherManager wm = checkWeather();
+		long hour = Timekeeper.getInstance().getTotalHours();
+		if(hour != lastHour)
+		{
+			lastHour = hour;
+			stamp++;
+		}
+
+		int index = (x & 31) << 5 | (z & 31);
+		if(columnStamp[index] != stamp || columnX[index] != x || columnZ[index] != z)
+		{
+			IslandMap island = wg.getIslandMapOrPlaceholder(x >> 12, z >> 12);
+			columnTemp[index] = wm.getBaseTemperature(island, x, z);
+			columnX[index] = x;
+			columnZ[index] = z;
+			columnStamp[index] = stamp;
+		}
+		return columnTemp[index] - WeatherManager.getElevationModifier(y);
+	}
+
+	public synchronized double getPrecipitation(int x, int z)
+	{
+		WorldGen wg = WorldGen.getInstance();
+		checkIslands(wg);
+		WeatherManager wm = checkWeather();
+		IslandMap island = wg.getIslandMapOrPlaceholder(x >> 12, z >> 12);
+		long bucket = Timekeeper.getInstance().getTotalHalfHours();
+		if(island != precipIsland || bucket != precipBucket)
+		{
+			precip = wm.getPrecipitation(island, x, z);
+			precipIsland = island;
+			precipBucket = bucket;
+		}
+		return precip;
+	}
+
+	private static class ChunkClimate
+	{
+		final double[] moisture = new double[256];
+		double temp;
+		boolean desert;
+	}
+}
@@ -24,8 +24,6 @@ import net.minecraftforge.client.IRenderHandler;
 
 import org.lwjgl.opengl.GL11;
 
-import com.bioxx.tfc2.world.WeatherManager;
-
 public class WeatherRenderer extends IRenderHandler
 {
 	private float[] rainXCoords = new float[1024];
@@ -54,7 +52,7 @@ public class WeatherRenderer extends IRenderHandler
 	{
 		++this.rendererUpdateCount;
 		double rainStrength = world.getRainStrength(partialTicks);
-		rainStrength = WeatherManager.getInstance().getPrecipitation((int)mc.player.posX, (int)mc.player.posZ);
+		rainStrength = ClimateSampler.getInstance().getPrecipitation((int)mc.player.posX, (int)mc.player.posZ);
 		if (rainStrength > 0.0)
 		{
 			mc.entityRenderer.enableLightmap();
@@ -120,9 +118,7 @@ public class WeatherRenderer extends IRenderHandler
 					if (k2 != l2)
 					{
 						world.rand.setSeed(x * x * 3121 + x * 45238971 ^ z * z * 418711 + z * 13761);
-						mPos.setPos(x, k2, z);
-
-						if (WeatherManager.getInstance().getTemperature(mPos) >= 0F)
+						if (ClimateSampler.getInstance().getTemperature(x, k2, z) >= 0F)
 						{
 							if (j1 != 0)
 							{
@@ -203,8 +199,8 @@ public class WeatherRenderer extends IRenderHandler
 		WorldClient worldclient = mc.world;
 		if(worldclient.provider.getDimension() != 0)
 			return;
-		float rainStrength = (float)WeatherManager.getInstance().getPrecipitation((int)mc.player.posX, (int)mc.player.posZ);
-		double tempPlayer = WeatherManager.getInstance().getTemperature((int)mc.player.posX,(int)mc.player.posY, (int)mc.player.posZ);
+		float rainStrength = (float)ClimateSampler.getInstance().getPrecipitation((int)mc.player.posX, (int)mc.player.posZ);
+		double tempPlayer = ClimateSampler.getInstance().getTemperature((int)mc.player.posX,(int)mc.player.posY, (int)mc.player.posZ);
 		if(tempPlayer <= 0)
 			return;
 
@@ -237,7 +233,7 @@ public class WeatherRenderer extends IRenderHandler
 			for (int k = 0; k < rainParticles; ++k)
 			{
 				BlockPos blockPos1 = worldclient.getPrecipitationHeight(blockpos.add(worldclient.rand.nextInt(b0) - worldclient.rand.nextInt(b0), 0, worldclient.rand.nextInt(b0) - worldclient.rand.nextInt(b0)));
-				double temp = WeatherManager.getInstance().getTemperature(blockPos1);
+				double temp = ClimateSampler.getInstance().getTemperature(blockPos1);
 				BlockPos blockpos2 = blockPos1.down();
 				IBlockState state = worldclient.getBlockState(blockpos2);
 				Block block = worldclient.getBlockState(blockpos2).getBlock();
@@ -2,7 +2,6 @@ package com.bioxx.tfc2.rendering.bakedmodels;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import javax.vecmath.Matrix4f;
 
@@ -25,7 +24,6 @@ import com.bioxx.tfc2.api.properties.PropertyItem;
 import com.bioxx.tfc2.blocks.BlockPitKiln;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
@@ -36,7 +34,7 @@ public class BakedPitKilnModel implements IPerspectiveAwareModel
 {
 	private final IPerspectiveAwareModel standard;
 
-	private final Map<String, IBakedModel> cache = Maps.newHashMap();
+	private final CompositeModelCache cache = new CompositeModelCache(256);
 	private final VertexFormat format;
 	private final ImmutableMap<ItemCameraTransforms.TransformType, TRSRTransformation> transforms;
 
@@ -103,7 +101,15 @@ public class BakedPitKilnModel implements IPerspectiveAwareModel
 		}
 
 		// the model returned by getActualModel should be a simple model with no special handling
-		return getActualModel(state, items).getQuads(state, side, rand);
+		// so every side is baked the first time these items are seen and reused after that
+		CompositeModelCache.Key key = new CompositeModelCache.Key(items);
+		IBakedModel model = cache.get(key);
+		if(model == null)
+		{
+			model = CompositeModelCache.bake(getActualModel(state, items), state, rand, standard);
+			cache.put(key, model);
+		}
+		return model.getQuads(state, side, rand);
 	}
 
 	@Override
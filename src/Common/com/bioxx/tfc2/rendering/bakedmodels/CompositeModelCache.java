@@ -0,0 +1,129 @@
+package com.bioxx.tfc2.rendering.bakedmodels;
+
+import java.util.*;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.renderer.block.model.IBakedModel;
+
+import com.bioxx.tfc2.api.properties.PropertyItem;
+
+/**
+ * Keeps the finished quads of models that show the items stored in a block so they don't have to be transformed again
+ * every time a chunk is rebuilt. Entries are keyed by the displayed items and the least recently used entry is dropped
+ * once the cache is full. Every cache is emptied when models are baked again after a resource reload.
+ */
+public class CompositeModelCache
+{
+	private static final Set<CompositeModelCache> CACHES = Collections.newSetFromMap(new WeakHashMap<CompositeModelCache, Boolean>());
+
+	private final LinkedHashMap<Key, IBakedModel> cache;
+
+	public CompositeModelCache(final int size)
+	{
+		//Access ordered so that the least recently used model is dropped first
+		cache = new LinkedHashMap<Key, IBakedModel>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, IBakedModel> eldest)
+			{
+				return size() > size;
+			}
+		};
+		synchronized(CACHES)
+		{
+			CACHES.add(this);
+		}
+	}
+
+	public synchronized IBakedModel get(Key key)
+	{
+		return cache.get(key);
+	}
+
+	public synchronized void put(Key key, IBakedModel model)
+	{
+		cache.put(key, model);
+	}
+
+	public synchronized void clear()
+	{
+		cache.clear();
+	}
+
+	/**
+	 * Empties every cache. The cached quads belong to models and sprites from before the reload.
+	 */
+	public static void clearAll()
+	{
+		synchronized(CACHES)
+		{
+			for(CompositeModelCache c : CACHES)
+				c.clear();
+		}
+	}
+
+	/**
+	 * Pulls every quad out of the model so that getting the quads for a side is just a lookup.
+	 */
+	public static IBakedModel bake(IBakedModel model, IBlockState state, long rand, IBakedModel parent)
+	{
+		BakedCompositeModel.Builder builder = new BakedCompositeModel.Builder();
+		builder.add(model, state, rand);
+		return builder.build(parent);
+	}
+
+	/**
+	 * A copy of the model, position, rotation and scale of each displayed item. PItems can be changed after they are
+	 * added to a block so they can't be used as the key themselves.
+	 */
+	public static class Key
+	{
+		private final IBakedModel[] models;
+		private final float[] values;
+		private final int hash;
+
+		public Key(List<PropertyItem.PItem> items)
+		{
+			models = new IBakedModel[items.size()];
+			values = new float[items.size() * 5];
+			int h = 1;
+			int i = 0;
+			for(PropertyItem.PItem item : items)
+			{
+				models[i] = item.model;
+				values[i*5] = item.x;
+				values[i*5+1] = item.y;
+				values[i*5+2] = item.z;
+				values[i*5+3] = item.r;
+				values[i*5+4] = item.s;
+				h = h * 31 + System.identityHashCode(item.model);
+				for(int j = 0; j < 5; j++)
+					h = h * 31 + Float.floatToIntBits(values[i*5+j]);
+				i++;
+			}
+			hash = h;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if(!(o instanceof Key))
+				return false;
+			Key k = (Key)o;
+			if(k.hash != hash || k.models.length != models.length)
+				return false;
+			for(int i = 0; i < models.length; i++)
+			{
+				if(k.models[i] != models[i])
+					return false;
+			}
+			return Arrays.equals(k.values, values);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+}
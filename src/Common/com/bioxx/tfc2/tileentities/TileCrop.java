@@ -12,6 +12,7 @@ import com.bioxx.jmapgen.graph.Center;
 import com.bioxx.tfc2.Core;
 import com.bioxx.tfc2.api.Crop;
 import com.bioxx.tfc2.core.Timekeeper;
+import com.bioxx.tfc2.world.WorldGen;
 
 public class TileCrop extends TileTFC implements ITickable
 {
@@ -48,8 +49,11 @@ public class TileCrop extends TileTFC implements ITickable
 		Timekeeper time = Timekeeper.getInstance();
 		if(time.getTotalTicks() > lastTick + Timekeeper.HOUR_LENGTH)
 		{
-			lastTick += Timekeeper.HOUR_LENGTH;
 			IslandMap map = Core.getMapForWorld(getWorld(), getPos());
+			//Catch up on the missed hours once the island has loaded
+			if(map == null)
+				return;
+			lastTick += Timekeeper.HOUR_LENGTH;
 			if(this.closestHex == null && hexID < 0)
 			{
 				closestHex = map.getClosestCenter(getPos());
@@ -57,8 +61,9 @@ public class TileCrop extends TileTFC implements ITickable
 			}
 			else if(this.closestHex == null)
 			{
-				this.closestHex = Core.getMapForWorld(getWorld(), getPos()).centers.get(hexID);
+				this.closestHex = map.centers.get(hexID);
 			}
+			WorldGen.getInstance().markHexForUpdate(map, closestHex);
 
 			NBTTagCompound nbt = closestHex.getCustomNBT().getCompoundTag("TFC2_Data");
 			NBTTagCompound data;
@@ -1,6 +1,5 @@
 package com.bioxx.tfc2.tileentities;
 
-import java.util.ArrayList;
 import java.util.UUID;
 
 import net.minecraft.block.state.IBlockState;
@@ -29,6 +28,7 @@ import com.bioxx.tfc2.TFCBlocks;
 import com.bioxx.tfc2.api.crafting.KilnManager;
 import com.bioxx.tfc2.api.crafting.KilnManager.KilnEntry;
 import com.bioxx.tfc2.api.properties.PropertyItem;
+import com.bioxx.tfc2.api.util.BlockPosSet;
 import com.bioxx.tfc2.api.util.Helper;
 import com.bioxx.tfc2.blocks.BlockPitKiln;
 import com.bioxx.tfc2.blocks.BlockPitKiln.FillType;
@@ -62,7 +62,7 @@ public class TilePitKiln extends TileTFC implements ITickable, IInventory
 			if(recentCraftResult.result == ProcessEnum.WORKING)
 			{
 				//Scan to make sure that the pit is still valid
-				ArrayList<BlockPos> ignoreList = new ArrayList<BlockPos>();
+				BlockPosSet ignoreList = new BlockPosSet();
 				//ignore this block for recursive scans
 				ignoreList.add(getPos());
 				ValidityScanResult result = isPitValid(ignoreList);
@@ -164,7 +164,7 @@ public class TilePitKiln extends TileTFC implements ITickable, IInventory
 		TFC.proxy.sendToAllNear(getWorld(), getPos(), 200, this.getUpdatePacket());
 	}
 
-	public ValidityScanResult isPitValid(ArrayList<BlockPos> ignoreList)
+	public ValidityScanResult isPitValid(BlockPosSet ignoreList)
 	{
 		ignoreList.add(getPos());
 		long totalTicks = Timekeeper.getInstance().getTotalTicks();
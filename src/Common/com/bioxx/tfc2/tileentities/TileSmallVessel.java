@@ -25,11 +25,15 @@ import com.bioxx.tfc2.TFC;
 import com.bioxx.tfc2.api.properties.PropertyItem;
 import com.bioxx.tfc2.api.util.Helper;
 import com.bioxx.tfc2.blocks.BlockSmallVessel;
+import com.bioxx.tfc2.core.StackScheduler;
 
 public class TileSmallVessel extends TileTFC implements ITickable, IInventory
 {
 	NonNullList<ItemStack> inventory = NonNullList.<ItemStack>withSize(4, ItemStack.EMPTY);
 	EnumFacing.Axis rotation = EnumFacing.Axis.Z;
+	StackScheduler decay = new StackScheduler();
+	//Set whenever the stacks change so the scheduler can index them on the next update
+	boolean stacksChanged = true;
 
 	public TileSmallVessel()
 	{
@@ -42,7 +46,15 @@ public class TileSmallVessel extends TileTFC implements ITickable, IInventory
 	@Override
 	public void update() 
 	{
+		if(world.isRemote)
+			return;
 
+		long time = world.getWorldTime();
+		if(stacksChanged || time >= decay.getNextDue())
+		{
+			stacksChanged = false;
+			decay.update(this, world, getPos(), time);
+		}
 	}
 
 	public IExtendedBlockState writeExtendedBlockState(IExtendedBlockState state) 
@@ -147,6 +159,7 @@ public class TileSmallVessel extends TileTFC implements ITickable, IInventory
 	{
 		NBTTagList invList = nbt.getTagList("inventory", 10);
 		inventory = Helper.readStackArrayFromNBTList(invList, getSizeInventory());
+		stacksChanged = true;
 		rotation = EnumFacing.Axis.values()[nbt.getInteger("axis")];
 	}
 
@@ -212,6 +225,7 @@ public class TileSmallVessel extends TileTFC implements ITickable, IInventory
 				TFC.proxy.sendToAllNear(getWorld(), getPos(), 200, this.getUpdatePacket());
 				return itemstack;
 			}
+			stacksChanged = true;
 			ItemStack itemstack1 = inventory.get(index).splitStack(count);
 			if(inventory.get(index).getMaxStackSize() == 0)
 				inventory.set(index, ItemStack.EMPTY);
@@ -251,6 +265,7 @@ public class TileSmallVessel extends TileTFC implements ITickable, IInventory
 		if(index < getSizeInventory())
 		{
 			inventory.set(index, stack);
+			stacksChanged = true;
 
 			TFC.proxy.sendToAllNear(getWorld(), getPos(), 200, this.getUpdatePacket());//Is this needed?
 			world.markBlockRangeForRenderUpdate(getPos(), getPos());
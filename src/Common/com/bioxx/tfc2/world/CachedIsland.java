@@ -1,26 +1,43 @@
 package com.bioxx.tfc2.world;
 
-import java.util.LinkedList;
-
 import net.minecraft.world.World;
 
 import com.bioxx.jmapgen.IslandMap;
 import com.bioxx.jmapgen.graph.Center;
 import com.bioxx.tfc2.api.Global;
-import com.bioxx.tfc2.api.events.HexUpdateEvent;
 import com.bioxx.tfc2.api.events.IslandUpdateEvent;
 
 public class CachedIsland 
 {
 	public long lastAccess;
 	public IslandMap island;
-	private LinkedList<Center> updateQueue;
+	public final HexUpdateScheduler.IslandHexes hexUpdates;
+	private final long estimatedSize;
 
 	public CachedIsland(IslandMap island)
 	{
 		this.island = island;
-		updateQueue = new LinkedList<Center>();
-		updateQueue.addAll(island.centers);
+		hexUpdates = new HexUpdateScheduler.IslandHexes(island);
+		estimatedSize = estimateSize();
+	}
+
+	/**
+	 * @return A rough estimate of the heap used by this island in bytes. Only used to keep the island cache within its budget.
+	 */
+	public long getEstimatedSize()
+	{
+		return estimatedSize;
+	}
+
+	private long estimateSize()
+	{
+		//Object headers, graph views, per cell arrays and the hex update due tick for every center
+		long bytes = island.centers.size() * 200L;
+		bytes += island.corners.size() * 150L;
+		bytes += island.edges.size() * 40L;
+		for(Center c : island.centers)
+			bytes += c.getAttributes().length * 64L;
+		return bytes;
 	}
 
 	public IslandMap getIslandMap()
@@ -29,15 +46,11 @@ public class CachedIsland
 		return island;
 	}
 
+	/**
+	 * Called every tick on the server. Hex updates are handled separately by the HexUpdateScheduler.
+	 */
 	public void update(World world)
 	{
 		Global.EVENT_BUS.post(new IslandUpdateEvent(island, world));
-		for(int i = 0; i < 50; i++)
-		{
-			Center c = updateQueue.pollFirst();
-			HexUpdateEvent hue = new HexUpdateEvent(island, c);
-			Global.EVENT_BUS.post(hue);
-			updateQueue.addLast(c);
-		}
 	}
 }
@@ -0,0 +1,239 @@
+package com.bioxx.tfc2.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.util.math.BlockPos;
+
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.jmapgen.Spline3D;
+import com.bioxx.jmapgen.processing.CaveAttrNode;
+import com.bioxx.jmapgen.processing.OreAttrNode;
+
+/**
+ * Rasterizes cave and ore seam nodes into the blocks they fill. A node is rasterized once, the first time a chunk
+ * needs it, and the blocks are split up by the chunk they are in so that every chunk the node crosses only has to read
+ * its own part. Each chunk's part is dropped once that chunk has taken it so only the parts of nodes along the edge of
+ * the generated area are kept. A chunk that is generated a second time rasterizes its nodes again.
+ *
+ * Blocks are packed into a short as x << 12 | z << 8 | y in chunk coordinates and sorted, so each column is visited
+ * from the bottom up.
+ */
+public class CarveMask
+{
+	private static final Map<IslandMap, CarveMask> MASKS = new WeakHashMap<IslandMap, CarveMask>();
+
+	private final long seed;
+	private final IdentityHashMap<Object, NodeMask> nodes = new IdentityHashMap<Object, NodeMask>();
+
+	//Scratch space for rasterizing a node
+	private long[] voxels = new long[4096];
+	private int voxelCount;
+
+	private CarveMask(long seed)
+	{
+		this.seed = seed;
+	}
+
+	public static CarveMask get(IslandMap map)
+	{
+		synchronized(MASKS)
+		{
+			CarveMask mask = MASKS.get(map);
+			if(mask == null)
+			{
+				mask = new CarveMask(map.seed);
+				MASKS.put(map, mask);
+			}
+			return mask;
+		}
+	}
+
+	/**
+	 * @param chunkX Chunk x within the island
+	 * @param chunkZ Chunk z within the island
+	 * @return The blocks of this cave node that lie in the chunk or null if there are none.
+	 */
+	public synchronized short[] takeCave(CaveAttrNode n, int chunkX, int chunkZ)
+	{
+		int key = chunkX << 8 | chunkZ;
+		NodeMask mask = nodes.get(n);
+		//A chunk that has already taken its part is being generated again so the node has to be rasterized again
+		if(mask == null || mask.taken.contains(key))
+		{
+			mask = rasterizeCave(n);
+			nodes.put(n, mask);
+		}
+		return take(mask, key);
+	}
+
+	/**
+	 * @param chunkX Chunk x within the island
+	 * @param chunkZ Chunk z within the island
+	 * @return The blocks of this ore seam node that lie in the chunk or null if there are none.
+	 */
+	public synchronized short[] takeOreSeam(OreAttrNode n, int chunkX, int chunkZ)
+	{
+		int key = chunkX << 8 | chunkZ;
+		NodeMask mask = nodes.get(n);
+		//A chunk that has already taken its part is being generated again so the node has to be rasterized again
+		if(mask == null || mask.taken.contains(key))
+		{
+			mask = rasterizeOreSeam(n);
+			nodes.put(n, mask);
+		}
+		return take(mask, key);
+	}
+
+	private short[] take(NodeMask mask, int key)
+	{
+		short[] blocks = mask.chunks.remove(key);
+		mask.taken.add(key);
+		return blocks;
+	}
+
+	private NodeMask rasterizeCave(CaveAttrNode n)
+	{
+		int w = n.getNodeWidth();
+		int h = n.getNodeHeight();
+		double wSq = w > h ? w * w : h * h;
+
+		//Every step of the spline carves the same shape so it only has to be worked out once
+		ArrayList<int[]> shape = new ArrayList<int[]>();
+		for(int x = -w; x <= w; x++)
+		{
+			for(int z = -w; z <= w; z++)
+			{
+				for(int y = -h; y <= h; y++)
+				{
+					if(x*x + y*y + z*z <= wSq && inEllipse(x, y, w, h) && inEllipse(z, y, w, h))
+						shape.add(new int[] {x, y, z});
+				}
+			}
+		}
+
+		voxelCount = 0;
+		Spline3D spline = getSpline(n.getPrev() != null ? n.getPrevOffset() : null, n.getOffset(), n.getNext() != null ? n.getNextOffset() : null);
+		for(double i = 0; i < 1; i+= 0.05)
+		{
+			BlockPos pos = spline.getPoint(i);
+			for(int[] s : shape)
+				addVoxel(pos.getX() + s[0], pos.getY() + s[1], pos.getZ() + s[2]);
+		}
+		return build();
+	}
+
+	private NodeMask rasterizeOreSeam(OreAttrNode n)
+	{
+		int w = n.getNodeWidth();
+		int h = n.getNodeHeight();
+
+		voxelCount = 0;
+		Spline3D spline = getSpline(n.getPrev() != null ? n.getPrevOffset() : null, n.getOffset(), n.getNext() != null ? n.getNextOffset() : null);
+		for(double i = 0; i < 1; i+= 0.03)
+		{
+			BlockPos pos = spline.getPoint(i);
+			for(int y = -h; y < h; y++)
+			{
+				for(int x = -w; x < w; x++)
+				{
+					for(int z = -w; z < w; z++)
+					{
+						int bx = pos.getX() + x, by = pos.getY() + y, bz = pos.getZ() + z;
+						//Seams only fill 3/4 of their blocks. This is decided by position so that every chunk agrees
+						if(getDensity(bx, by, bz) < 0.75)
+							addVoxel(bx, by, bz);
+					}
+				}
+			}
+		}
+		return build();
+	}
+
+	private static Spline3D getSpline(BlockPos prev, BlockPos offset, BlockPos next)
+	{
+		ArrayList<BlockPos> points = new ArrayList<BlockPos>();
+		if(prev != null)
+			points.add(prev);
+		points.add(offset);
+		if(next != null)
+			points.add(next);
+		return new Spline3D(points);
+	}
+
+	private static boolean inEllipse(double x, double y, double radiusX, double radiusY)
+	{
+		return (x * x) / (radiusX * radiusX) + (y * y) / (radiusY * radiusY) < 1;
+	}
+
+	private double getDensity(int x, int y, int z)
+	{
+		long h = seed ^ (x * 341873128712L) ^ (z * 132897987541L) ^ (y * 42317861L);
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		return (h >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @param x Island x
+	 * @param z Island z
+	 */
+	private void addVoxel(int x, int y, int z)
+	{
+		if(y < 0 || y > 255 || x < 0 || z < 0 || x >= 4096 || z >= 4096)
+			return;
+		if(voxelCount == voxels.length)
+			voxels = Arrays.copyOf(voxels, voxels.length * 2);
+		long chunk = (x >> 4) << 8 | (z >> 4);
+		voxels[voxelCount++] = chunk << 16 | (x & 15) << 12 | (z & 15) << 8 | y;
+	}
+
+	/**
+	 * Sorts the voxels of the node that was just rasterized, removes the duplicates and splits them up by chunk.
+	 */
+	private NodeMask build()
+	{
+		NodeMask mask = new NodeMask();
+		Arrays.sort(voxels, 0, voxelCount);
+		int start = 0;
+		while(start < voxelCount)
+		{
+			int chunk = (int)(voxels[start] >>> 16);
+			int end = start;
+			int unique = 0;
+			long last = -1;
+			while(end < voxelCount && (int)(voxels[end] >>> 16) == chunk)
+			{
+				if(voxels[end] != last)
+					unique++;
+				last = voxels[end];
+				end++;
+			}
+
+			short[] blocks = new short[unique];
+			int j = 0;
+			last = -1;
+			for(int i = start; i < end; i++)
+			{
+				if(voxels[i] != last)
+					blocks[j++] = (short)voxels[i];
+				last = voxels[i];
+			}
+			mask.chunks.put(chunk, blocks);
+			start = end;
+		}
+		return mask;
+	}
+
+	private static class NodeMask
+	{
+		final HashMap<Integer, short[]> chunks = new HashMap<Integer, short[]>();
+		final HashSet<Integer> taken = new HashSet<Integer>();
+	}
+}
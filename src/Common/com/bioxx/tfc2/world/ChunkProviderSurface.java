@@ -8,7 +8,6 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
-import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.chunk.Chunk;
@@ -63,26 +62,51 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 	Plane turbMap;
 	Plane turbMap1_4;
 	Plane beachTurbMap;
+	Plane coastTurbMap;
+	Plane pondTurbMap;
 	IslandMap islandMap;
 
-	Vector<Center> centersInChunk;
+	/**
+	 * Noise for the columns of the current chunk. Each is evaluated for the whole chunk the first time it is needed.
+	 */
+	private final ChunkNoise terrainTurb = new ChunkNoise();
+	private final ChunkNoise lakeTurb = new ChunkNoise();
+	private final ChunkNoise pondTurb = new ChunkNoise();
+	private final ChunkNoise coastTurb = new ChunkNoise();
+
+	List<Center> centersInChunk;
 	int[] elevationMap;
+	//Column heights from calculateColumnHeights or the HeightfieldCache, indexed z << 4 | x
+	private final int[] columnHexElev = new int[256];
+	private final int[] columnScanElev = new int[256];
 
 	/**
-	 * Cache for Hex lookup.
+	 * Per thread cache for Hex lookup.
+	 */
+	private HexRaster hexRaster;
+	/**
+	 * Static arrays of sample offsets for performing our hex smoothing
+	 */
+	private static double[][] hexSampleX;
+	private static double[][] hexSampleZ;
+	/**
+	 * Reused by getCentersNear
 	 */
-	private Center[][] centerCache;
+	private final ArrayList<Center> nearCenters = new ArrayList<Center>(6);
+	private final Random spireRand = new Random();
 	/**
-	 * A static array of sample points for performing our hex smoothing
+	 * Reused by carveCaves to hold the packed position of every grass block a cave node removed
 	 */
-	private static Point[][] hexSamplePoints;
+	private short[] grassList = new short[64];
+	private int grassCount;
 
 	public ChunkProviderSurface(World worldIn, long seed, boolean enableMapFeatures, String rules) 
 	{
 		super(worldIn, seed, false, rules);
 		worldObj = worldIn;
 		rand = worldObj.rand;
-		hexSamplePoints = new Point[16][6];
+		hexSampleX = new double[16][6];
+		hexSampleZ = new double[16][6];
 		//Setup the sampling hexagon for hex smoothing
 		for(int i = 0; i < 16; i++)
 		{
@@ -92,7 +116,9 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 
 			for(int j = 0; j < 6; j++)
 			{
-				hexSamplePoints[i][j] = hex_corner(i, j);
+				Point corner = hex_corner(i, j);
+				hexSampleX[i][j] = corner.x;
+				hexSampleZ[i][j] = corner.y;
 			}
 		}
 
@@ -101,6 +127,11 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		turbMap1_4 = createPondTurbMap(seed);
 
 		beachTurbMap = createBeachTurbMap(seed);
+
+		//These two have always used fixed seeds so they stay that way to keep existing worlds seamless
+		coastTurbMap = createCoastTurbMap();
+
+		pondTurbMap = createPondTurbMap(0);
 	}
 
 	private Plane createNormalTurbMap(long seed)
@@ -176,6 +207,39 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		return new Plane(sb2);
 	}
 
+	private Plane createCoastTurbMap()
+	{
+		Perlin b = new Perlin();
+		b.setSeed(30);
+		b.setFrequency (1f/15f);
+		b.setLacunarity(1.5);
+		b.setPersistence(0.25);
+		b.setOctaveCount(2);
+
+		Billow b2 = new Billow();
+		b2.setSeed(300);
+		b2.setFrequency (1f/15f);
+		b2.setOctaveCount(2);
+
+		Billow b3 = new Billow();
+		b3.setSeed(3000);
+		b3.setFrequency (1f/30f);
+		b3.setOctaveCount(3);
+
+		Max m = new Max();
+		m.setSourceModule(0, b2);
+		m.setSourceModule(1, b);
+
+		Max m2 = new Max();
+		m2.setSourceModule(0, m);
+		m2.setSourceModule(1, b3);
+
+		ScaleBias sb2 = new ScaleBias();
+		sb2.setSourceModule(0, m2);
+
+		return new Plane(sb2);
+	}
+
 	private Plane createBeachTurbMap(long seed)
 	{
 		Billow b = new Billow();
@@ -225,9 +289,12 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 	@Override
 	public Chunk provideChunk(int chunkX, int chunkZ)
 	{
-		centerCache = new Center[48][48];
+		long startNanos = System.nanoTime();
+		long startBytes = IslandGenTelemetry.isEnabled() ? GenProfile.getAllocatedBytes() : -1;
 
-		elevationMap = new int[256];
+		//Every column is written by generateTerrain and Chunk.setHeightMap copies the array so it can be reused
+		if(elevationMap == null)
+			elevationMap = new int[256];
 
 		this.chunkX = chunkX;
 		this.chunkZ = chunkZ;
@@ -238,16 +305,14 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		islandChunkZ = worldZ % MAP_SIZE;
 		mapX = (chunkX >> 8);
 		mapZ = (chunkZ >> 8);
-		islandMap = WorldGen.getInstance().getIslandMap(mapX, mapZ);
-		centersInChunk = new Vector<Center>();
-
-		for(int x = -16; x < 32; x++)
-		{
-			for(int z = -16; z < 32; z++)
-			{
-				getHex(new Point(x,z));
-			}
-		}
+		islandMap = WorldGen.getInstance().awaitIslandMap(mapX, mapZ);
+		hexRaster = HexRaster.get();
+		hexRaster.setChunk(islandMap, islandChunkX, islandChunkZ);
+		centersInChunk = hexRaster.getCentersInChunk();
+		terrainTurb.reset();
+		lakeTurb.reset();
+		pondTurb.reset();
+		coastTurb.reset();
 
 		this.rand.setSeed((long)chunkX * 341873128712L + (long)chunkZ * 132897987541L);
 		ChunkPrimer chunkprimer = new ChunkPrimer();
@@ -268,18 +333,20 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		chunk.setHeightMap(elevationMap);
 
 		byte[] biomeArray = chunk.getBiomeArray();
-		Point p = new Point(0, 0);
 		for (int x = 0; x < 16; x++) 
 		{
 			for (int z = 0; z < 16; z++) 
 			{
-				Center c = getHex(p.plus(x, z));
+				Center c = getHex(x, z);
 
 				biomeArray[z << 4 | x] = (byte) Biome.getIdForBiome(c.biome.biome);
 			}
 		}
 		chunk.setBiomeArray(biomeArray);
 		chunk.generateSkylightMap();
+
+		if(IslandGenTelemetry.isEnabled())
+			IslandGenTelemetry.getInstance().recordChunk(System.nanoTime() - startNanos, startBytes < 0 ? -1 : GenProfile.getAllocatedBytes() - startBytes);
 		return chunk;  
 	}
 
@@ -312,7 +379,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 			islandChunkX = worldX % MAP_SIZE;
 			islandChunkZ = worldZ % MAP_SIZE;
 			Point islandPos = new Point(islandChunkX, islandChunkZ).toIslandCoord();
-			IslandMap map = Core.getMapForWorld(worldObj, chunkWorldPos);
+			IslandMap map = Core.awaitMapForWorld(worldObj, chunkWorldPos);
 			Center centerInChunk = null;
 
 			Center temp = map.getClosestCenter(islandPos);
@@ -372,16 +439,14 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 	 */
 	protected void stripChunk(ChunkPrimer primer)
 	{
-		Point p;
 		Center closestCenter;
 		IBlockState state;
 		for(int x = 0; x < 16; x++)
 		{
 			for(int z = 0; z < 16; z++)
 			{
-				p = new Point(x, z);
-				closestCenter = this.getHex(p);
-				int hexElev = this.getHexElevation(closestCenter, p);
+				closestCenter = this.getHex(x, z);
+				int hexElev = this.getHexElevation(closestCenter, x, z);
 
 				if(closestCenter.hasAnyMarkersOf(Marker.Coast, Marker.Ocean))
 					continue;
@@ -404,31 +469,21 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 	 */
 	protected Center getHex(Point p)
 	{
-		int x = (int)p.x;
-		int y = (int)p.y;
-		int x16 = (int)p.x + 16;
-		int y16 = (int)p.y + 16;
-		if(centerCache[x16][y16] == null)
-		{
-			centerCache[x16][y16] = islandMap.getClosestCenter(p.plus(islandChunkX, islandChunkZ).toIslandCoord());
-		}
-
-		if(!centersInChunk.contains(centerCache[x16][y16]))
-		{
-			centersInChunk.add(centerCache[x16][y16]);
-			for(Center n : centerCache[x16][y16].neighbors)
-			{
-				if(!centersInChunk.contains(n))
-					centersInChunk.add(n);
-			}
-		}
+		return getHex((int)p.x, (int)p.y);
+	}
 
-		return centerCache[x16][y16];
+	/**
+	 * @param x local chunk x coordinate in the range -16 to 31
+	 * @param z local chunk z coordinate in the range -16 to 31
+	 * @return Returns the nearest Hex for this map
+	 */
+	protected Center getHex(int x, int z)
+	{
+		return hexRaster.getCenter(x, z);
 	}
 
 	protected void decorate(ChunkPrimer chunkprimer, int chunkX, int chunkZ)
 	{
-		Point p;
 		Center closestCenter;
 		IBlockState grass = TFCBlocks.Grass.getStateFromMeta(this.islandMap.getParams().getSurfaceRock().getMeta());
 		IBlockState dirt = TFCBlocks.Dirt.getStateFromMeta(this.islandMap.getParams().getSurfaceRock().getMeta());
@@ -446,8 +501,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		{
 			for(int z = 0; z < 16; z++)
 			{
-				p = new Point(x, z);
-				closestCenter = this.getHex(p);
+				closestCenter = this.getHex(x, z);
 				closestElev = convertElevation(closestCenter.getElevation());
 				if(islandMap.getParams().hasFeature(Feature.Desert) && closestCenter.getMoisture().isLessThanOrEqual(Moisture.MEDIUM))
 				{
@@ -469,10 +523,10 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 
 				boolean isCliff = false;
 
-				int h0 = x+1 < 16 ? elevationMap[z << 4 | (x+1)] : getHexElevation(getHex(p.plus(1,0)), p.plus(1,0));
-				int h1 = z-1 > 0 ? elevationMap[(z-1) << 4 | x] : getHexElevation(getHex(p.plus(0,-1)), p.plus(0,-1));
-				int h2 = x-1 > 0 ? elevationMap[z << 4 | (x-1)] : getHexElevation(getHex(p.plus(-1,0)), p.plus(-1,0));
-				int h3 = z + 1 < 16 ? elevationMap[(z+1) << 4 | x] : getHexElevation(getHex(p.plus(0,1)), p.plus(0,1));
+				int h0 = x+1 < 16 ? elevationMap[z << 4 | (x+1)] : getHexElevation(getHex(x+1, z), x+1, z);
+				int h1 = z-1 > 0 ? elevationMap[(z-1) << 4 | x] : getHexElevation(getHex(x, z-1), x, z-1);
+				int h2 = x-1 > 0 ? elevationMap[z << 4 | (x-1)] : getHexElevation(getHex(x-1, z), x-1, z);
+				int h3 = z + 1 < 16 ? elevationMap[(z+1) << 4 | x] : getHexElevation(getHex(x, z+1), x, z+1);
 
 				if(hexElev - h0 > 2 || 
 						hexElev - h1 > 2 ||
@@ -487,7 +541,6 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 				{
 					IBlockState block = chunkprimer.getBlockState(x, y, z);
 					IBlockState blockUp = chunkprimer.getBlockState(x, y+1, z);
-					BlockPos basePos = new BlockPos(x,y,z);
 
 					if(block == Blocks.STONE.getDefaultState() && blockUp == Blocks.AIR.getDefaultState())
 					{
@@ -503,7 +556,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 
 						if((closestCenter.biome == BiomeType.BEACH || closestCenter.biome == BiomeType.OCEAN) /*&& y <= Global.SEALEVEL + 2*/)
 						{
-							BlockPos pos = smoothCoast(chunkprimer, p, closestCenter, x, z, y);
+							BlockPos pos = smoothCoast(chunkprimer, closestCenter, x, z, y);
 
 							if(pos.getY() <= Global.SEALEVEL + 2)
 							{
@@ -530,7 +583,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 					{
 						if((closestCenter.biome == BiomeType.BEACH || closestCenter.biome == BiomeType.OCEAN) && y <= Global.SEALEVEL + 2 && y > 10)
 						{
-							BlockPos pos = smoothCoast(chunkprimer, p, closestCenter, x, z, y);
+							BlockPos pos = smoothCoast(chunkprimer, closestCenter, x, z, y);
 
 							elevationMap[z << 4 | x] = pos.getY();
 							chunkprimer.setBlockState(pos.getX(), pos.getY(), pos.getZ(), sand);
@@ -551,8 +604,8 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 						RiverAttribute attrib = (RiverAttribute)closestCenter.getAttribute(Attribute.River);
 						if(attrib.upriver == null || attrib.upriver.size() == 0)
 						{
-							boolean border = isLakeBorder(p, closestCenter, 7);
-							h0 = this.getPondTurbulence(closestCenter, p, 2);
+							boolean border = isLakeBorder(x, z, closestCenter, 7);
+							h0 = this.getPondTurbulence(closestCenter, x, z, 2);
 							if(!border && y < closestElev && y >= closestElev-1-h0)
 							{
 
@@ -566,7 +619,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 					{
 						LakeAttribute attrib = (LakeAttribute)closestCenter.getAttribute(Attribute.Lake);
 						//Not a border area, elev less than the water height, elev greater than the ground height beneath the water
-						if(!isLakeBorder(p, closestCenter) && y < convertElevation(attrib.getLakeElev()) && y >= closestElev-attrib.getBorderDistance()*2-this.getTurbulence(closestCenter, p, 4)-1)
+						if(!isLakeBorder(x, z, closestCenter) && y < convertElevation(attrib.getLakeElev()) && y >= closestElev-attrib.getBorderDistance()*2-this.getTurbulence(closestCenter, x, z, 4)-1)
 							chunkprimer.setBlockState(x, y, z, freshwater);
 						if(getBlock(chunkprimer, x, y, z).isFullCube(getBlock(chunkprimer, x, y, z).getDefaultState()) && blockUp == freshwater)
 						{
@@ -576,7 +629,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 					else if((closestCenter.biome == BiomeType.MARSH || closestCenter.biome == BiomeType.SWAMP) && closestCenter.hasAttribute(Attribute.Lake))
 					{
 						LakeAttribute attrib = (LakeAttribute)closestCenter.getAttribute(Attribute.Lake);
-						if(!isLakeBorder(p, closestCenter) && y < convertElevation(attrib.getLakeElev()) && y >= closestElev-this.getTurbulence(closestCenter, p, 1)-1 && this.rand.nextInt(100) < 70)
+						if(!isLakeBorder(x, z, closestCenter) && y < convertElevation(attrib.getLakeElev()) && y >= closestElev-this.getTurbulence(closestCenter, x, z, 1)-1 && this.rand.nextInt(100) < 70)
 							chunkprimer.setBlockState(x, y, z, freshwater);
 					}
 
@@ -591,7 +644,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		}
 	}
 
-	private BlockPos smoothCoast(ChunkPrimer chunkprimer, Point p, Center closestCenter, int x, int z, int y) 
+	private BlockPos smoothCoast(ChunkPrimer chunkprimer, Center closestCenter, int x, int z, int y) 
 	{
 		IBlockState saltwater = Blocks.WATER.getDefaultState();//TFCBlocks.SaltWaterStatic.getDefaultState();
 		BlockPos pos = new BlockPos(x, y, z);
@@ -599,11 +652,18 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		{
 			double distance = 1000;
 			double clElev = -1;
-			Point p2 = p.plus(islandChunkX, islandChunkZ).toIslandCoord();
-			List<Center> oceanNeighbors = getOceanNeighbors(closestCenter);
-			for(Center c : oceanNeighbors)
+			int px = islandCoord(x + islandChunkX);
+			int pz = islandCoord(z + islandChunkZ);
+			int oceanNeighbors = 0;
+			for(int i = 0; i < closestCenter.neighbors.size(); i++)
 			{
-				double d = p2.distance(c.point);
+				Center c = closestCenter.neighbors.get(i);
+				if(c.biome != BiomeType.OCEAN)
+					continue;
+				oceanNeighbors++;
+				double dx = px - c.point.x;
+				double dz = pz - c.point.y;
+				double d = Math.sqrt(dx*dx + dz*dz);
 				if(d < distance)
 					distance = d;
 				clElev = Math.max(clElev, c.getElevation());
@@ -611,7 +671,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 			clElev = convertElevation(closestCenter.getElevation()) - convertElevation(clElev);
 			int turb = (int)clElev;
 			float range = 25f;
-			if(oceanNeighbors.size() > 3)
+			if(oceanNeighbors > 3)
 				range /=2 ;
 			//if(!closestCenter.hasAttribute(Attribute.River))
 			//	turb += Math.max(this.getBeachTurb(closestCenter, p, 2), 0);
@@ -642,107 +702,55 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		return pos;
 	}
 
-	private ArrayList<Center> getOceanNeighbors(Center c)
+	/**
+	 * Wraps a coordinate into the island the same way as Point.toIslandCoord
+	 */
+	private static int islandCoord(int c)
 	{
-		ArrayList<Center> list = new ArrayList<Center>();
-		for(Center n : c.neighbors)
-		{
-			if(n.biome == BiomeType.OCEAN)
-				list.add(n);
-		}
-		return list;
+		c = c % MAP_SIZE;
+		if(c < 0)
+			c = MAP_SIZE - 1 + c;
+		return c;
 	}
 
-	protected int getBeachTurb(Center c, Point p, double scale)
+	protected int getBeachTurb(Center c, int x, int z, double scale)
 	{
-		Point p2 = p.plus(islandChunkX, islandChunkZ);
-
-		Perlin b = new Perlin();
-		b.setSeed(30);
-		b.setFrequency (1f/15f);
-		b.setLacunarity(1.5);
-		b.setPersistence(0.25);
-		b.setOctaveCount(2);
-
-		Billow b2 = new Billow();
-		b2.setSeed(300);
-		b2.setFrequency (1f/15f);
-		b2.setOctaveCount(2);
-
-		Billow b3 = new Billow();
-		b3.setSeed(3000);
-		b3.setFrequency (1f/30f);
-		b3.setOctaveCount(3);
-
-		Max m = new Max();
-		m.setSourceModule(0, b2);
-		m.setSourceModule(1, b);
-
-		Max m2 = new Max();
-		m2.setSourceModule(0, m);
-		m2.setSourceModule(1, b3);
-
-		ScaleBias sb2 = new ScaleBias();
-		sb2.setSourceModule(0, m2);
+		return (int)(coastTurb.get(coastTurbMap, x, z, islandChunkX, islandChunkZ) * scale);
+	}
 
-		return (int)(sb2.GetValue(p2.x, 0, p2.y) * scale);
+	protected boolean isLakeBorder(int x, int z, Center c, int width)
+	{
+		return isLakeBorderSample(x, z+width, c) || isLakeBorderSample(x, z-width, c) || isLakeBorderSample(x+width, z, c) || 
+				isLakeBorderSample(x-width, z+width, c) || isLakeBorderSample(x-width, z-width, c) || 
+				isLakeBorderSample(x+width, z+width, c) || isLakeBorderSample(x+width, z-width, c);
 	}
 
-	protected boolean isLakeBorder(Point p, Center c, double width)
+	private boolean isLakeBorderSample(int x, int z, Center c)
 	{
-		Point pt = p.plus(0, width);
-		Center c2 = getHex(pt);
-		if(c2 != c && !c2.hasMarker(Marker.Water))
-			return true;
-		pt = p.plus(0, -width);
-		c2 = getHex(pt);
-		if(c2 != c && !c2.hasMarker(Marker.Water))
-			return true;
-		pt = p.plus(width, 0);
-		c2 = getHex(pt);
-		if(c2 != c && !c2.hasMarker(Marker.Water))
-			return true;
-		pt = p.plus(-width, width);
-		c2 = getHex(pt);
-		if(c2 != c && !c2.hasMarker(Marker.Water))
-			return true;
-		pt = p.plus(-width, -width);
-		c2 = getHex(pt);
-		if(c2 != c && !c2.hasMarker(Marker.Water))
-			return true;
-		pt = p.plus(width, width);
-		c2 = getHex(pt);
-		if(c2 != c && !c2.hasMarker(Marker.Water))
-			return true;
-		pt = p.plus(width, -width);
-		c2 = getHex(pt);
-		if(c2 != c && !c2.hasMarker(Marker.Water))
-			return true;
-		return false;
+		Center c2 = getHex(x, z);
+		return c2 != c && !c2.hasMarker(Marker.Water);
 	}
 
-	protected boolean isLakeBorder(Point p, Center c)
+	protected boolean isLakeBorder(int x, int z, Center c)
 	{
-		return isLakeBorder(p, c, 3);
+		return isLakeBorder(x, z, c, 3);
 	}
 
-	protected int getTurbulence(Center c, Point p, double scale)
+	protected int getTurbulence(Center c, int x, int z, double scale)
 	{
-		Point p2 = p.plus(islandChunkX, islandChunkZ);
-		double turb = Math.max(turbMap.GetValue(p2.x, p2.y), 0);
+		double turb = Math.max(lakeTurb.get(turbMap, x, z, islandChunkX, islandChunkZ), 0);
 		return (int)(turb * scale);
 	}
 
-	protected int getPondTurbulence(Center c, Point p, double scale)
+	protected int getPondTurbulence(Center c, int x, int z, double scale)
 	{
-		Point p2 = p.plus(islandChunkX, islandChunkZ);
-		double turb = Math.max(createPondTurbMap(0).GetValue(p2.x, p2.y), 0);
+		double turb = Math.max(pondTurb.get(pondTurbMap, x, z, islandChunkX, islandChunkZ), 0);
 		return (int)(turb * scale);
 	}
 
-	protected int getHexElevation(Center c, Point p)
+	protected int getHexElevation(Center c, int x, int z)
 	{
-		return convertElevation(getSmoothHeightHex(c, p));
+		return convertElevation(getSmoothHeightHex(c, x, z));
 	}
 
 	protected int convertElevation(double height)
@@ -750,37 +758,33 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		return (int)(Global.SEALEVEL+height * islandMap.getParams().islandMaxHeight);
 	}
 
-	protected void generateTerrain(ChunkPrimer chunkprimer, int chunkX, int chunkZ)
+	/**
+	 * Calculates the smoothed terrain height and the water fill height of every column in the chunk.
+	 */
+	protected void calculateColumnHeights()
 	{
-		Point p;
 		Center closestCenter = null;
-		double[] dts = new double[] {0,0};
 		double dist = 0;
-		double loc = 0;
-
-		int maxHeightOfChunk = 255;
 
 		for(int x = 0; x < 16; x++)
 		{
 			for(int z = 0; z < 16; z++)
 			{
-				p = new Point(x, z);
-				closestCenter = this.getHex(p);
-
+				closestCenter = this.getHex(x, z);
 
 				int hexElev = 0;
 				if(!closestCenter.hasAttribute(Attribute.River) && !closestCenter.hasMarker(Marker.Coast) && !closestCenter.hasMarker(Marker.CoastWater) && !closestCenter.hasAttribute(Attribute.Lake))
 				{
 					//hexElev = convertElevation(getSmoothHeightHex(closestCenter, p));
-					hexElev = convertElevation(getSmoothHeightHex(closestCenter, p)) + (int)Math.ceil(turbMap.GetValue(worldX+p.x, worldZ+p.y));
+					hexElev = convertElevation(getSmoothHeightHex(closestCenter, x, z)) + (int)Math.ceil(terrainTurb.get(turbMap, x, z, worldX, worldZ));
 				}
 				else if(closestCenter.hasMarker(Marker.CoastWater))
 				{
-					hexElev = convertElevation(closestCenter.getElevation()) + getBeachTurb(closestCenter, p, 2);
+					hexElev = convertElevation(closestCenter.getElevation()) + getBeachTurb(closestCenter, x, z, 2);
 				}
 				else 
 				{
-					hexElev = convertElevation(getSmoothHeightHex(closestCenter, p));
+					hexElev = convertElevation(getSmoothHeightHex(closestCenter, x, z));
 				}
 				int scanElev = hexElev;
 
@@ -792,7 +796,7 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 
 				if(closestCenter.hasMarker(Marker.Ocean))
 				{
-					Vector<Center> nearCenters = getCentersNear(p, 9);
+					List<Center> nearCenters = getCentersNear(x, z, 9);
 					boolean onlyOcean = true;
 					for(Center c : nearCenters)
 					{
@@ -803,27 +807,54 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 					}
 
 					if(onlyOcean)
-						hexElev = convertElevation(getSmoothHeightHex(closestCenter, p, 9));
+						hexElev = convertElevation(getSmoothHeightHex(closestCenter, x, z, 9));
 				}
 
 				if(closestCenter.hasMarker(Marker.Spire))
 				{
-					Random r = new Random(closestCenter.index);
+					Random r = spireRand;
+					r.setSeed(closestCenter.index);
 					double heightMult = r.nextDouble();
 					double spireElev = closestCenter.getElevation() + (1-closestCenter.getElevation())*(0.5+heightMult*0.3);
 					double diff = spireElev - closestCenter.getElevation();
 					double rad = 20;
-					dist = closestCenter.point.plus(-5+r.nextInt(11), -5+r.nextInt(11)).distance(p.plus(new Point(worldX, worldZ).toIslandCoord()));
+					double dx = closestCenter.point.x + (-5+r.nextInt(11)) - (x + islandCoord(worldX));
+					double dz = closestCenter.point.y + (-5+r.nextInt(11)) - (z + islandCoord(worldZ));
+					dist = Math.sqrt(dx*dx + dz*dz);
 					dist /= 20;
 					dist = 1-dist;
 
 					if(dist > 0.95)
 						dist = 0.95;
 
-					hexElev = convertElevation(getSmoothHeightHex(closestCenter, p) + (diff*(Math.pow(dist, 5))));
+					hexElev = convertElevation(getSmoothHeightHex(closestCenter, x, z) + (diff*(Math.pow(dist, 5))));
 					scanElev = hexElev;
 				}
 
+				columnHexElev[z << 4 | x] = hexElev;
+				columnScanElev[z << 4 | x] = scanElev;
+			}
+		}
+	}
+
+	protected void generateTerrain(ChunkPrimer chunkprimer, int chunkX, int chunkZ)
+	{
+		Center closestCenter = null;
+		int maxHeightOfChunk = 255;
+
+		if(!HeightfieldCache.isEnabled() || !HeightfieldCache.getInstance().getChunk(islandMap, chunkX, chunkZ, columnHexElev, columnScanElev))
+		{
+			calculateColumnHeights();
+			HeightfieldCache.getInstance().putChunk(islandMap, chunkX, chunkZ, columnHexElev, columnScanElev);
+		}
+
+		for(int x = 0; x < 16; x++)
+		{
+			for(int z = 0; z < 16; z++)
+			{
+				closestCenter = this.getHex(x, z);
+				int hexElev = columnHexElev[z << 4 | x];
+				int scanElev = columnScanElev[z << 4 | x];
 
 				maxHeightOfChunk = Math.max(maxHeightOfChunk, scanElev);
 				elevationMap[z << 4 | x] = hexElev;
@@ -1090,42 +1121,50 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		}
 	}
 
-	protected double getSmoothHeightHex(Center c, Point p, int range)
+	/**
+	 * @return The hex at one of the corners of the sampling hexagon around a local position
+	 */
+	private Center getHexSample(int x, int z, int range, int i)
+	{
+		return getHex((int)(hexSampleX[range][i] + x), (int)(hexSampleZ[range][i] + z));
+	}
+
+	protected double getSmoothHeightHex(Center c, int x, int z, int range)
 	{
-		double h = c.elevation;
+		double h = c.getElevation();
 		boolean isLakeBorder = false;
 		boolean isLake = c.hasMarker(Marker.Water) && !c.hasMarker(Marker.Ocean);
 
 		if(isLake)
-			isLakeBorder = isLakeBorder(p, c);
+			isLakeBorder = isLakeBorder(x, z, c);
 
-		if(!(isLake && !isLakeBorder) && (getHex(hexSamplePoints[range][0].plus(p)) != c || getHex(hexSamplePoints[range][1].plus(p)) != c || 
-				getHex(hexSamplePoints[range][2].plus(p)) != c || getHex(hexSamplePoints[range][3].plus(p)) != c || 
-				getHex(hexSamplePoints[range][4].plus(p)) != c || getHex(hexSamplePoints[range][5].plus(p)) != c))
+		if(!(isLake && !isLakeBorder) && (getHexSample(x, z, range, 0) != c || getHexSample(x, z, range, 1) != c || 
+				getHexSample(x, z, range, 2) != c || getHexSample(x, z, range, 3) != c || 
+				getHexSample(x, z, range, 4) != c || getHexSample(x, z, range, 5) != c))
 		{
 			for(int i = 0; i < 6; i++)
 			{
-				h += getHex(hexSamplePoints[range][i].plus(p)).elevation;
+				h += getHexSample(x, z, range, i).getElevation();
 			}
 
 			h /= 7;
 		}
 
-		double outH = c.elevation - (c.elevation - h);
+		double outH = c.getElevation() - (c.getElevation() - h);
 		//If this hex is a water hex and the smoothed elevation is lower than the hex elevation than we do not want to lower this cell
-		if(c.hasMarker(Marker.Water) && isLakeBorder && outH < c.elevation)
-			return c.elevation;
+		if(c.hasMarker(Marker.Water) && isLakeBorder && outH < c.getElevation())
+			return c.getElevation();
 		return outH;
 	}
 
-	protected double getSmoothHeightHex(Center c, Point p)
+	protected double getSmoothHeightHex(Center c, int x, int z)
 	{
 		if(this.islandMap.getParams().hasFeature(Feature.Cliffs))
 		{
 			if(c.hasAttribute(Attribute.River))
-				return getSmoothHeightHex(c, p, 5);
+				return getSmoothHeightHex(c, x, z, 5);
 			else if(getMaximumHeightDifferenceOfNeighbors(c) > 6)
-				return getSmoothHeightHex(c, p, 2);
+				return getSmoothHeightHex(c, x, z, 2);
 		}
 
 		if(islandMap.getParams().hasFeature(Feature.Canyons) || islandMap.getParams().hasFeature(Feature.Gorges))
@@ -1133,32 +1172,32 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 			//If this block is in a gorge hex
 			if(c.hasAttribute(Attribute.Gorge))
 			{
-				return getSmoothHeightHex(c, p, 2);
+				return getSmoothHeightHex(c, x, z, 2);
 			}
 			//If this block is in a canyon hex
 			if(c.hasAttribute(Attribute.Canyon))
 			{
 				CanyonAttribute a = (CanyonAttribute) c.getAttribute(Attribute.Canyon);
 				if(a.nodeNum < 10)
-					return getSmoothHeightHex(c, p, 5);
-				return getSmoothHeightHex(c, p, 2);
+					return getSmoothHeightHex(c, x, z, 5);
+				return getSmoothHeightHex(c, x, z, 2);
 			}
 			//If we're in any other hex then we need to see if we are smoothing into a gorge or canyon hex. If so,
 			//we want to limit the smoothing, otherwise we smooth this block like normal.
-			Vector<Center> nearList = getCentersNear(p, 5);
+			List<Center> nearList = getCentersNear(x, z, 5);
 			for(Center n : nearList)
 			{
 				if(n.hasAttribute(Attribute.Canyon) || n.hasAttribute(Attribute.Gorge))
-					return getSmoothHeightHex(c, p, 2);
+					return getSmoothHeightHex(c, x, z, 2);
 			}
 		}
 
 		if(c.hasAnyMarkersOf(Marker.Pond))
 		{
-			getSmoothHeightHex(c, p, 3);
+			getSmoothHeightHex(c, x, z, 3);
 		}
 
-		return getSmoothHeightHex(c, p, 5);
+		return getSmoothHeightHex(c, x, z, 5);
 	}
 
 	private int getMaximumHeightDifferenceOfNeighbors(Center c)
@@ -1172,17 +1211,20 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		return max;
 	}
 
-	private Vector<Center> getCentersNear(Point p, int range)
+	/**
+	 * @return The hexes at the corners of the sampling hexagon. The list is reused by the next call.
+	 */
+	private List<Center> getCentersNear(int x, int z, int range)
 	{
-		Vector<Center> outList = new Vector<Center>();
+		nearCenters.clear();
 		for(int i = 0; i < 6; i++)
 		{
-			Center c = getHex(hexSamplePoints[range][i].plus(p));
-			if(!outList.contains(c))
-				outList.add(c);
+			Center c = getHexSample(x, z, range, i);
+			if(!nearCenters.contains(c))
+				nearCenters.add(c);
 		}
 
-		return outList;
+		return nearCenters;
 	}
 
 	private Block getBlock(ChunkPrimer chunkprimer, int x, int y, int z)
@@ -1199,179 +1241,103 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 
 	protected void carveCaves(ChunkPrimer chunkprimer)
 	{
-		ArrayList<BlockPos> points = new ArrayList<BlockPos>();
-		BlockPos pos, pos2;
-		Spline3D spline;
 		Point iPoint = new Point(islandChunkX, islandChunkZ).toIslandCoord();
-		Vec3i islandOffset = new Vec3i(iPoint.x, 0, iPoint.y);
-		double wSq = 4;
+		int iChunkX = (int)iPoint.x >> 4;
+		int iChunkZ = (int)iPoint.y >> 4;
+		CarveMask mask = CarveMask.get(islandMap);
+		IBlockState air = Blocks.AIR.getDefaultState();
+		IBlockState down, up, fillBlock, state;
 
 		for(Center c : centersInChunk)
 		{
 			CaveAttribute attrib = ((CaveAttribute)c.getAttribute(Attribute.Cave));
 			if(attrib != null)
 			{
+				boolean river = c.hasAttribute(Attribute.River);
 				for(CaveAttrNode n : attrib.nodes)
 				{
-					if(n.getNodeWidth() > n.getNodeHeight())
-						wSq = n.getNodeWidth() * n.getNodeWidth();
-					else 
-						wSq = n.getNodeHeight() * n.getNodeHeight();
+					short[] blocks = mask.takeCave(n, iChunkX, iChunkZ);
+					if(blocks == null)
+						continue;
 
-					points.clear();
-					if(n.getPrev() != null)
-						points.add(n.getPrevOffset());
-					points.add(n.getOffset());
-					if(n.getNext() != null)
-						points.add(n.getNextOffset());
+					grassCount = 0;
+					for(short block : blocks)
+					{
+						int x = (block >> 12) & 15;
+						int z = (block >> 8) & 15;
+						int y = block & 255;
+						state = getState(chunkprimer, x, y, z);
+						Block b = state.getBlock();
+
+						//If the block is not bedrock or water then its ok to carve it
+						if(b == Blocks.BEDROCK || b.getMaterial(state) == Material.WATER)
+							continue;
 
-					spline = new Spline3D(points);
+						down = getState(chunkprimer, x, y-1, z);
+						up = getState(chunkprimer, x, y+1, z);
 
-					ArrayList<BlockPos> grassList = new ArrayList<BlockPos>();
+						if(b == TFCBlocks.Grass && Core.isDirt(down))
+						{
+							setState(chunkprimer, x, y-1, z, TFCBlocks.Grass.getDefaultState().withProperty(BlockGrass.META_PROPERTY, down.getValue(BlockDirt.META_PROPERTY)));
+						}
 
-					//Iterate down the spline and carve the cave
-					for(double i = 0; i < 1; i+= 0.05)
-					{
-						pos = spline.getPoint(i);
+						if(down.getBlock().getMaterial(down) == Material.WATER)
+							continue;
 
-						//Create a list of all the BlockPos that lay within the bounds of the tunnel
-						ArrayList<BlockPos> list = new ArrayList<BlockPos>();
+						//If the block above this is water then we do not want to carve this block so we dont have floating water
+						if(up.getBlock().getMaterial(up) == Material.WATER)
+							continue;
 
-						for(int x = -n.getNodeWidth(); x <= n.getNodeWidth(); x++)
+						fillBlock = air;
+						//If this is a sea cave and we're blow sea level then change our fillblock to water
+						if(n.isSeaCave() && y < Global.SEALEVEL)
+							fillBlock = Blocks.WATER.getDefaultState();
+						else if(river)
 						{
-							for(int z = -n.getNodeWidth(); z <= n.getNodeWidth(); z++)
-							{
-								for(int y = -n.getNodeHeight(); y <= n.getNodeHeight(); y++)
-								{
-									pos2 = pos.add(x, y, z);
-									if(pos2.distanceSq(pos.getX(), pos.getY(), pos.getZ()) <= wSq)
-										list.add(pos.add(x, y, z));
-								}	
-							}
+							if(up.getBlock() != TFCBlocks.Gravel && b != TFCBlocks.Gravel)
+								fillBlock = state;
 						}
 
-						//Iterate through the list and turn every block into air if it is actually within the bounds
-						IBlockState down, up, fillBlock, state;
-						Iterator it = list.iterator();
-						while(it.hasNext())
+						//If we find a grass block then add it to a list for later use
+						if(Core.isGrass(getState(chunkprimer, x, y, z)))
 						{
-							fillBlock = Blocks.AIR.getDefaultState();
-							pos2 = (BlockPos) it.next();
-							if(inEllipse(pos.getX(), pos.getY(), pos2.getX(), pos2.getY(), n.getNodeWidth(), n.getNodeHeight()) && 
-									inEllipse(pos.getZ(), pos.getY(), pos2.getZ(), pos2.getY(), n.getNodeWidth(), n.getNodeHeight()) )
-							{
-								//pos3 is the coordinates in local chunkspace
-								BlockPos pos3 = pos2.subtract(islandOffset);
-								//Verify that that we are in the active chunk
-								if(pos3.getX() >= 0 && pos3.getY() >= 0 && pos3.getZ() >= 0 && pos3.getX() < 16 && pos3.getY() < 256 && pos3.getZ() < 16)
-								{
-									state = getState(chunkprimer, pos3);
-									Block b = state.getBlock();
-
-									//If the block is not bedrock or water then its ok to carve it
-									if(b != Blocks.BEDROCK && b.getMaterial(state) != Material.WATER)
-									{
-										down = getState(chunkprimer, pos3.down());
-										up = getState(chunkprimer, pos3.up());
-
-										if(b == TFCBlocks.Grass && Core.isDirt(down))
-										{
-											setState(chunkprimer, pos3.down(), TFCBlocks.Grass.getDefaultState().withProperty(BlockGrass.META_PROPERTY, down.getValue(BlockDirt.META_PROPERTY)));
-										}
-
-										if(down.getBlock().getMaterial(down) == Material.WATER)
-											continue;
-
-										//If the block above this is water then we do not want to carve this block so we dont have floating water
-										if(up.getBlock().getMaterial(up) == Material.WATER)
-											continue;
-
-										//If this is a sea cave and we're blow sea level then change our fillblock to water
-										if(n.isSeaCave() && pos3.getY() < Global.SEALEVEL)
-											fillBlock = Blocks.WATER.getDefaultState();
-										else if(c.hasAttribute(Attribute.River))
-										{
-											if(up.getBlock() != TFCBlocks.Gravel && b != TFCBlocks.Gravel)
-												fillBlock = state;
-										}
-
-										//If we find a grass block then add it to a list for later use
-										if(Core.isGrass(getState(chunkprimer, pos3)))
-										{
-											grassList.add(pos3);
-										}
-
-										BlockPos placerUp = pos3.up();
-										/*while(Core.isSoil(getState(chunkprimer, placerUp)))
-										{
-											BlockPos placerDn = placerUp.down();
-											IBlockState stateDn = getState(chunkprimer, placerDn);
-											//keep moving down until we hit stone
-											while(stateDn.getBlock() == Blocks.AIR)
-											{
-												placerDn = placerDn.down();
-												stateDn = getState(chunkprimer, placerDn);
-											}
-											IBlockState upState = getState(chunkprimer, placerUp);
-											setState(chunkprimer, placerDn, upState);
-											setState(chunkprimer, placerUp, fillBlock);
-											placerUp = placerUp.up();
-										}*/
-
-										//Try to remove orphan stone blocks
-										if(Core.isStone(getState(chunkprimer, pos3.up())) && getState(chunkprimer, pos3.up(2)).getBlock() == Blocks.AIR)
-											setState(chunkprimer, pos3.up(), Blocks.AIR.getDefaultState());
-
-
-
-										setState(chunkprimer, pos3, fillBlock);
-
-										if(Core.isSoil(up) && !Core.isGrass(up))
-										{
-											setState(chunkprimer, pos3.up(), TFCBlocks.Stone.getDefaultState().withProperty(BlockStone.META_PROPERTY, islandMap.getParams().getSurfaceRock()));
-										}
-									}
-								}
-							}
+							if(grassCount == grassList.length)
+								grassList = Arrays.copyOf(grassList, grassCount * 2);
+							grassList[grassCount++] = block;
 						}
-					}
 
-					Iterator it = grassList.iterator();
-					while(it.hasNext())
-					{
-						pos = (BlockPos)it.next();
-						IBlockState state = getState(chunkprimer, pos);
-						while(state.getBlock() == Blocks.AIR)
+						//Try to remove orphan stone blocks
+						if(Core.isStone(getState(chunkprimer, x, y+1, z)) && getState(chunkprimer, x, y+2, z).getBlock() == Blocks.AIR)
+							setState(chunkprimer, x, y+1, z, air);
+
+						setState(chunkprimer, x, y, z, fillBlock);
+
+						if(Core.isSoil(up) && !Core.isGrass(up))
 						{
-							pos = pos.down();
-							state = getState(chunkprimer, pos);
+							setState(chunkprimer, x, y+1, z, TFCBlocks.Stone.getDefaultState().withProperty(BlockStone.META_PROPERTY, islandMap.getParams().getSurfaceRock()));
 						}
-						setState(chunkprimer, pos, TFCBlocks.Grass.getDefaultState().withProperty(BlockGrass.META_PROPERTY, islandMap.getParams().getSurfaceRock()));
+					}
+
+					for(int i = 0; i < grassCount; i++)
+					{
+						int x = (grassList[i] >> 12) & 15;
+						int z = (grassList[i] >> 8) & 15;
+						int y = grassList[i] & 255;
+						while(y > 0 && getState(chunkprimer, x, y, z).getBlock() == Blocks.AIR)
+							y--;
+						setState(chunkprimer, x, y, z, TFCBlocks.Grass.getDefaultState().withProperty(BlockGrass.META_PROPERTY, islandMap.getParams().getSurfaceRock()));
 					}
 				}
 			}
 		}
 	}
 
-	private boolean inEllipse(double originX, double originY, double x, double y, double radiusX, double radiusY)
-	{
-		double _x = Math.pow(x - originX, 2) /  Math.pow(radiusX, 2);
-		double _y = Math.pow(y - originY, 2) /  Math.pow(radiusY, 2);
-
-		if(_x + _y < 1)
-			return true;
-
-		return false;
-	}
-
 	protected void placeOreSeams(ChunkPrimer chunkprimer)
 	{
-		ArrayList<BlockPos> points = new ArrayList<BlockPos>();
-		BlockPos pos, pos2;
-		Spline3D spline;
 		Point iPoint = new Point(islandChunkX, islandChunkZ).toIslandCoord();
-		Vec3i islandOffset = new Vec3i(iPoint.x, 0, iPoint.y);
-		double wSq = 4;
+		int iChunkX = (int)iPoint.x >> 4;
+		int iChunkZ = (int)iPoint.y >> 4;
+		CarveMask mask = CarveMask.get(islandMap);
 
 		for(Center c : centersInChunk)
 		{
@@ -1383,52 +1349,18 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 					OreConfig oc = OreRegistry.getInstance().getConfig(n.getOreType(), islandMap.getParams().getSurfaceRock());
 					if(oc.getVeinType() != VeinType.Seam)
 						continue;
-					wSq = n.getNodeWidth() * n.getNodeWidth();
-					points.clear();
-					if(n.getPrev() != null)
-						points.add(n.getPrevOffset().subtract(islandOffset));
-					points.add(n.getOffset().subtract(islandOffset));
-					if(n.getNext() != null)
-						points.add(n.getNextOffset().subtract(islandOffset));
-
-					spline = new Spline3D(points);
-					for(double i = 0; i < 1; i+= 0.03)
-					{
-						pos = spline.getPoint(i);
-
-						ArrayList<BlockPos> list = new ArrayList<BlockPos>();
-						for(int y = -n.getNodeHeight(); y < n.getNodeHeight(); y++)
-						{
-							for(int x = -n.getNodeWidth(); x < n.getNodeWidth(); x++)
-							{
-								for(int z = -n.getNodeWidth(); z < n.getNodeWidth(); z++)
-								{
-									if(this.rand.nextDouble() < 0.75)
-										list.add(pos.add(x, y, z));
-								}	
-							}
-						}
-						IBlockState down, up, fillBlock, state;
-						Iterator it = list.iterator();
-						while(it.hasNext())
-						{
-							fillBlock = oc.getOreBlockState();
-							pos2 = (BlockPos) it.next();
+					short[] blocks = mask.takeOreSeam(n, iChunkX, iChunkZ);
+					if(blocks == null)
+						continue;
 
-							{
-								if(pos2.getX() >= 0 && pos2.getY() >= 0 && pos2.getZ() >= 0 && pos2.getX() < 16 && pos2.getY() < 256 && pos2.getZ() < 16)
-								{
-									state = getState(chunkprimer, pos2);
-									if(Core.isStone(state))
-									{
-										down = getState(chunkprimer, pos2.down());
-										up = getState(chunkprimer, pos2.up());
-
-										setState(chunkprimer, pos2, fillBlock);
-									}
-								}
-							}
-						}
+					IBlockState fillBlock = oc.getOreBlockState();
+					for(short block : blocks)
+					{
+						int x = (block >> 12) & 15;
+						int z = (block >> 8) & 15;
+						int y = block & 255;
+						if(Core.isStone(chunkprimer.getBlockState(x, y, z)))
+							chunkprimer.setBlockState(x, y, z, fillBlock);
 					}
 				}
 			}
@@ -1437,7 +1369,6 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 
 	protected void placeOreLayers(ChunkPrimer chunkprimer)
 	{
-		Point p;
 		BlockPos pos = new BlockPos(0,0,0);
 		BlockPos pos2;
 		double wSq = 4;
@@ -1460,10 +1391,11 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 						{
 							for(int y = n.getOffset().getY(); y < n.getOffset().getY() + n.getNodeHeight(); y++)
 							{
-								p = new Point(x, z);
+								if(this.getHex(x, z) != c)
+									continue;
 								pos2 = pos.add(x, y, z);
 								state = getState(chunkprimer, pos2);
-								if(this.getHex(p) == c && Core.isStone(state))
+								if(Core.isStone(state))
 								{
 									//Add air check
 									this.setState(chunkprimer, pos2, oc.getOreBlockState());
@@ -1489,6 +1421,19 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 			primer.setBlockState(pos.getX(), pos.getY(), pos.getZ(), state);
 	}
 
+	private IBlockState getState(ChunkPrimer primer, int x, int y, int z)
+	{
+		if(y >= 0 && y < 256)
+			return primer.getBlockState(x, y, z);
+		return Blocks.AIR.getDefaultState();
+	}
+
+	private void setState(ChunkPrimer primer, int x, int y, int z, IBlockState state)
+	{
+		if(y >= 0 && y < 256)
+			primer.setBlockState(x, y, z, state);
+	}
+
 	public void createDungeons(ChunkPrimer primer)
 	{
 		Point p = new Point(islandChunkX, islandChunkZ).toIslandCoord();
@@ -1564,4 +1509,37 @@ public class ChunkProviderSurface extends ChunkProviderOverworld
 		return null;
 	}
 
+	/**
+	 * Holds the values of a noise plane for the 16x16 columns of a chunk. The plane is evaluated for every column at
+	 * once the first time a column is requested after a reset.
+	 */
+	private static class ChunkNoise
+	{
+		private final double[] values = new double[256];
+		private boolean filled;
+
+		public void reset()
+		{
+			filled = false;
+		}
+
+		/**
+		 * @param x local chunk x
+		 * @param z local chunk z
+		 * @param originX the x coordinate on the plane of local x 0
+		 * @param originZ the z coordinate on the plane of local z 0
+		 */
+		public double get(Plane plane, int x, int z, int originX, int originZ)
+		{
+			//Anything outside of the chunk is not worth caching
+			if(((x | z) & ~15) != 0)
+				return plane.GetValue(originX + x, originZ + z);
+			if(!filled)
+			{
+				plane.fill(values, originX, originZ, 16, 16, 1);
+				filled = true;
+			}
+			return values[z << 4 | x];
+		}
+	}
 }
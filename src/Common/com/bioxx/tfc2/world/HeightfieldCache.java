@@ -0,0 +1,164 @@
+package com.bioxx.tfc2.world;
+
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.tfc2.api.TFCOptions;
+import com.bioxx.tfc2.api.util.Helper;
+
+/**
+ * Caches the terrain and water heights that chunk generation calculates for every column so that regenerating a chunk
+ * does not have to smooth the hexes again. Each island is split into 16x16 tiles of 256x256 blocks which are filled one
+ * chunk at a time as chunks are generated. Tiles are dropped in least recently used order once there are more than
+ * TFCOptions.heightfieldCacheTiles of them, and the garbage collector may drop them sooner if memory runs low.
+ *
+ * Tiles remember which island map they were filled from so that a regenerated island never reads old heights.
+ */
+public class HeightfieldCache
+{
+	public static final int TILE_BLOCKS = 256;
+	private static final int TILE_CHUNKS = TILE_BLOCKS >> 4;
+
+	private static final HeightfieldCache INSTANCE = new HeightfieldCache();
+
+	//Access ordered so that iteration always starts with the least recently used tile
+	private final LinkedHashMap<Long, SoftReference<Tile>> tiles = new LinkedHashMap<Long, SoftReference<Tile>>(16, 0.75f, true);
+
+	public static HeightfieldCache getInstance()
+	{
+		return INSTANCE;
+	}
+
+	public static boolean isEnabled()
+	{
+		return TFCOptions.heightfieldCacheTiles > 0;
+	}
+
+	/**
+	 * Copies the cached heights for a chunk.
+	 * @param hexElev Receives the terrain height of each column, indexed z << 4 | x
+	 * @param scanElev Receives the height that water and terrain is filled up to, indexed z << 4 | x
+	 * @return False if the chunk has not been cached for this island map
+	 */
+	public synchronized boolean getChunk(IslandMap map, int chunkX, int chunkZ, int[] hexElev, int[] scanElev)
+	{
+		Tile tile = getTile(map, chunkX, chunkZ, false);
+		if(tile == null || !tile.isFilled(chunkX, chunkZ))
+			return false;
+
+		int start = getColumn(chunkX << 4, chunkZ << 4);
+		for(int z = 0; z < 16; z++)
+		{
+			for(int x = 0; x < 16; x++)
+			{
+				hexElev[z << 4 | x] = tile.hexElev[start + z * TILE_BLOCKS + x];
+				scanElev[z << 4 | x] = tile.scanElev[start + z * TILE_BLOCKS + x];
+			}
+		}
+		return true;
+	}
+
+	public synchronized void putChunk(IslandMap map, int chunkX, int chunkZ, int[] hexElev, int[] scanElev)
+	{
+		if(!isEnabled())
+			return;
+
+		Tile tile = getTile(map, chunkX, chunkZ, true);
+		int start = getColumn(chunkX << 4, chunkZ << 4);
+		for(int z = 0; z < 16; z++)
+		{
+			for(int x = 0; x < 16; x++)
+			{
+				tile.hexElev[start + z * TILE_BLOCKS + x] = (short)hexElev[z << 4 | x];
+				tile.scanElev[start + z * TILE_BLOCKS + x] = (short)scanElev[z << 4 | x];
+			}
+		}
+		tile.setFilled(chunkX, chunkZ);
+		evict();
+	}
+
+	public synchronized int size()
+	{
+		return tiles.size();
+	}
+
+	public synchronized void clear()
+	{
+		tiles.clear();
+	}
+
+	private Tile getTile(IslandMap map, int chunkX, int chunkZ, boolean create)
+	{
+		long key = getKey(chunkX, chunkZ);
+		SoftReference<Tile> ref = tiles.get(key);
+		Tile tile = ref == null ? null : ref.get();
+		if(tile != null && tile.map.get() != map)
+			tile = null;
+		if(tile == null && create)
+		{
+			tile = new Tile(map);
+			tiles.put(key, new SoftReference<Tile>(tile));
+		}
+		return tile;
+	}
+
+	private void evict()
+	{
+		Iterator<Map.Entry<Long, SoftReference<Tile>>> iter = tiles.entrySet().iterator();
+		while(iter.hasNext())
+		{
+			Map.Entry<Long, SoftReference<Tile>> e = iter.next();
+			if(tiles.size() > TFCOptions.heightfieldCacheTiles || e.getValue().get() == null)
+				iter.remove();
+		}
+	}
+
+	private static long getKey(int chunkX, int chunkZ)
+	{
+		//Islands are 256 chunks wide so the upper bits of the chunk coords are the island and the rest are the tile
+		int id = Helper.combineCoords(chunkX >> 8, chunkZ >> 8);
+		int tx = (chunkX & 255) / TILE_CHUNKS;
+		int tz = (chunkZ & 255) / TILE_CHUNKS;
+		return ((long)id << 8) | (tz << 4) | tx;
+	}
+
+	private static int getColumn(int worldX, int worldZ)
+	{
+		return (worldZ & (TILE_BLOCKS - 1)) * TILE_BLOCKS + (worldX & (TILE_BLOCKS - 1));
+	}
+
+	private static class Tile
+	{
+		final WeakReference<IslandMap> map;
+		final short[] hexElev = new short[TILE_BLOCKS * TILE_BLOCKS];
+		final short[] scanElev = new short[TILE_BLOCKS * TILE_BLOCKS];
+		//One bit per chunk in the tile
+		final long[] filled = new long[TILE_CHUNKS * TILE_CHUNKS / 64];
+
+		Tile(IslandMap map)
+		{
+			this.map = new WeakReference<IslandMap>(map);
+		}
+
+		boolean isFilled(int chunkX, int chunkZ)
+		{
+			int bit = getBit(chunkX, chunkZ);
+			return (filled[bit >> 6] & (1L << (bit & 63))) != 0;
+		}
+
+		void setFilled(int chunkX, int chunkZ)
+		{
+			int bit = getBit(chunkX, chunkZ);
+			filled[bit >> 6] |= 1L << (bit & 63);
+		}
+
+		private static int getBit(int chunkX, int chunkZ)
+		{
+			return (chunkZ & (TILE_CHUNKS - 1)) * TILE_CHUNKS + (chunkX & (TILE_CHUNKS - 1));
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.bioxx.tfc2.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.bioxx.jmapgen.CenterIndex;
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.jmapgen.graph.Center;
+
+/**
+ * Per thread raster of closest center indices used during chunk generation. Chunk generation looks at a 48x48 block
+ * window around the chunk which is made of 3x3 tiles of 16x16 blocks. Tiles are kept in a small direct mapped table so
+ * the 6 tiles that neighboring chunks share are only filled once, and the tile arrays are reused instead of reallocated.
+ */
+public class HexRaster
+{
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+
+	private static final ThreadLocal<HexRaster> INSTANCE = new ThreadLocal<HexRaster>()
+	{
+		@Override
+		protected HexRaster initialValue()
+		{
+			return new HexRaster();
+		}
+	};
+
+	//Tiles are keyed by the index they were filled from so that islands sharing a topology also share tiles
+	private final CenterIndex[] slotIndex = new CenterIndex[SLOTS];
+	private final int[] slotX = new int[SLOTS];
+	private final int[] slotZ = new int[SLOTS];
+	private final int[][] slotData = new int[SLOTS][256];
+
+	private final int[][] window = new int[9][];
+	private IslandMap map;
+
+	private final ArrayList<Center> centersInChunk = new ArrayList<Center>();
+	private int[] stamps = new int[0];
+	private int stamp = 0;
+
+	private HexRaster() {}
+
+	public static HexRaster get()
+	{
+		return INSTANCE.get();
+	}
+
+	/**
+	 * Prepares the window for a chunk.
+	 * @param islandChunkX Block x of the chunk within the island, wrapped the same way as IslandMap.getClosestCenter
+	 * @param islandChunkZ Block z of the chunk within the island
+	 */
+	public void setChunk(IslandMap map, int islandChunkX, int islandChunkZ)
+	{
+		this.map = map;
+		CenterIndex index = map.getCenterIndex();
+		for(int tz = 0; tz < 3; tz++)
+		{
+			for(int tx = 0; tx < 3; tx++)
+			{
+				window[tz * 3 + tx] = getTile(index, islandChunkX + (tx - 1) * 16, islandChunkZ + (tz - 1) * 16);
+			}
+		}
+		collectCenters();
+	}
+
+	/**
+	 * @param x Local chunk x in the range -16 to 31
+	 * @param z Local chunk z in the range -16 to 31
+	 * @return The index of the closest center
+	 */
+	public int getIndex(int x, int z)
+	{
+		x += 16;
+		z += 16;
+		return window[(z >> 4) * 3 + (x >> 4)][(z & 15) << 4 | (x & 15)];
+	}
+
+	public Center getCenter(int x, int z)
+	{
+		return map.centers.get(getIndex(x, z));
+	}
+
+	/**
+	 * @return Every center in the window along with their neighbors. The list is reused for the next chunk.
+	 */
+	public List<Center> getCentersInChunk()
+	{
+		return centersInChunk;
+	}
+
+	private int[] getTile(CenterIndex index, int originX, int originZ)
+	{
+		int hash = (originX >> 4) * 31 + (originZ >> 4);
+		int slot = (hash ^ (hash >>> SLOT_BITS)) & (SLOTS - 1);
+		int[] data = slotData[slot];
+		if(slotIndex[slot] == index && slotX[slot] == originX && slotZ[slot] == originZ)
+			return data;
+
+		for(int z = 0; z < 16; z++)
+		{
+			int iz = wrap(originZ + z);
+			for(int x = 0; x < 16; x++)
+			{
+				data[z << 4 | x] = index.getClosest(wrap(originX + x), iz);
+			}
+		}
+		slotIndex[slot] = index;
+		slotX[slot] = originX;
+		slotZ[slot] = originZ;
+		return data;
+	}
+
+	private static int wrap(int c)
+	{
+		c = c % 4096;
+		if(c < 0)
+			c = 4095 + c;
+		return c;
+	}
+
+	/**
+	 * Builds the list of centers in the same order as the old per block lookup so that anything iterating it places
+	 * features in the same order as before.
+	 */
+	private void collectCenters()
+	{
+		centersInChunk.clear();
+		if(stamps.length < map.centers.size())
+		{
+			stamps = new int[map.centers.size()];
+			stamp = 0;
+		}
+		stamp++;
+		if(stamp == 0)
+		{
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+
+		int last = -1;
+		for(int x = -16; x < 32; x++)
+		{
+			for(int z = -16; z < 32; z++)
+			{
+				int i = getIndex(x, z);
+				if(i == last)
+					continue;
+				last = i;
+				if(stamps[i] == stamp)
+					continue;
+				Center c = map.centers.get(i);
+				stamps[i] = stamp;
+				centersInChunk.add(c);
+				for(int n = 0; n < c.neighbors.size(); n++)
+				{
+					Center neighbor = c.neighbors.get(n);
+					if(stamps[neighbor.index] != stamp)
+					{
+						stamps[neighbor.index] = stamp;
+						centersInChunk.add(neighbor);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.bioxx.tfc2.world;
+
+import java.util.BitSet;
+import java.util.List;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.tfc2.api.Global;
+import com.bioxx.tfc2.api.TFCOptions;
+import com.bioxx.tfc2.api.events.HexUpdateEvent;
+import com.bioxx.tfc2.core.Timekeeper;
+
+/**
+ * Fires HexUpdateEvents for the hexes of every cached island that hold state which changes over time. Only hexes that
+ * a handler has asked to update again are tracked and each one remembers the tick it is next due, so islands with
+ * nothing due cost nothing. The work is limited to hexUpdateBudgetMicros each tick and shared between the islands by
+ * starting with a different island every tick.
+ */
+public class HexUpdateScheduler
+{
+	private int nextIsland = 0;
+
+	public void tick(List<CachedIsland> islands)
+	{
+		if(islands.isEmpty())
+			return;
+		long now = Timekeeper.getInstance().getTotalTicks();
+		long deadline = System.nanoTime() + Math.max(1, TFCOptions.hexUpdateBudgetMicros) * 1000L;
+		int start = nextIsland % islands.size();
+		for(int i = 0; i < islands.size(); i++)
+		{
+			IslandHexes hexes = islands.get((start + i) % islands.size()).hexUpdates;
+			if(!hexes.update(now, deadline))
+			{
+				//Out of time so this island goes first next tick
+				nextIsland = start + i;
+				return;
+			}
+		}
+		nextIsland = start + 1;
+	}
+
+	/**
+	 * The hexes of one island that need updates.
+	 */
+	public static class IslandHexes
+	{
+		private final IslandMap map;
+		private final BitSet tracked = new BitSet();
+		private final long[] due;
+		//The earliest tick any tracked hex is due. Only recalculated once a pass over the hexes is finished
+		private long nextDue = Long.MAX_VALUE;
+		private long passDue = Long.MAX_VALUE;
+		private int cursor = 0;
+
+		public IslandHexes(IslandMap map)
+		{
+			this.map = map;
+			this.due = new long[map.centers.size()];
+			//Any hex that was saved with data might need to catch up so they are all updated once after loading
+			for(int i = 0; i < due.length; i++)
+			{
+				NBTTagCompound nbt = map.centers.get(i).getCustomNBTIfPresent();
+				if(nbt != null && nbt.hasKey("TFC2_Data"))
+					mark(i, Long.MIN_VALUE);
+			}
+		}
+
+		/**
+		 * Tracks a hex that just had state added to it so that it is updated on the next tick.
+		 */
+		public void mark(int index)
+		{
+			mark(index, Timekeeper.getInstance().getTotalTicks());
+		}
+
+		private void mark(int index, long tick)
+		{
+			if(tracked.get(index) && due[index] <= tick)
+				return;
+			tracked.set(index);
+			due[index] = tick;
+			nextDue = Math.min(nextDue, tick);
+			passDue = Math.min(passDue, tick);
+		}
+
+		public int getTrackedCount()
+		{
+			return tracked.cardinality();
+		}
+
+		/**
+		 * @return False if the deadline passed before every due hex was updated.
+		 */
+		private boolean update(long now, long deadline)
+		{
+			if(nextDue > now)
+				return true;
+
+			for(int i = tracked.nextSetBit(cursor); i >= 0; i = tracked.nextSetBit(i + 1))
+			{
+				if(due[i] <= now)
+				{
+					if(System.nanoTime() > deadline)
+					{
+						cursor = i;
+						return false;
+					}
+					HexUpdateEvent event = new HexUpdateEvent(map, map.centers.get(i), now);
+					Global.EVENT_BUS.post(event);
+					due[i] = event.getNextUpdate();
+					if(due[i] == Long.MAX_VALUE)
+					{
+						tracked.clear(i);
+						continue;
+					}
+				}
+				passDue = Math.min(passDue, due[i]);
+			}
+
+			//Finished a full pass so we know when the next hex is due
+			cursor = 0;
+			nextDue = passDue;
+			passDue = Long.MAX_VALUE;
+			return true;
+		}
+	}
+}
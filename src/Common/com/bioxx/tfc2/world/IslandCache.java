@@ -0,0 +1,119 @@
+package com.bioxx.tfc2.world;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded cache for loaded islands. Islands are kept in least recently used order and are only evicted once the cache
+ * holds more islands or more estimated bytes than allowed. Pinned islands are never evicted.
+ */
+public class IslandCache
+{
+	//Access ordered so that iteration always starts with the least recently used island
+	private final LinkedHashMap<Integer, CachedIsland> islands = new LinkedHashMap<Integer, CachedIsland>(32, 0.75f, true);
+	private long estimatedBytes = 0;
+	//Changes every time an island is added, replaced or removed
+	private volatile int version = 0;
+
+	/**
+	 * Returns the island and marks it as the most recently used.
+	 */
+	public synchronized CachedIsland get(int id)
+	{
+		return islands.get(id);
+	}
+
+	public synchronized boolean containsKey(int id)
+	{
+		return islands.containsKey(id);
+	}
+
+	public synchronized void put(int id, CachedIsland island)
+	{
+		CachedIsland old = islands.put(id, island);
+		if(old != null)
+			estimatedBytes -= old.getEstimatedSize();
+		estimatedBytes += island.getEstimatedSize();
+		version++;
+	}
+
+	public synchronized CachedIsland remove(int id)
+	{
+		CachedIsland old = islands.remove(id);
+		if(old != null)
+		{
+			estimatedBytes -= old.getEstimatedSize();
+			version++;
+		}
+		return old;
+	}
+
+	/**
+	 * @return A snapshot of all cached islands that is safe to iterate while the cache changes.
+	 */
+	public synchronized ArrayList<CachedIsland> values()
+	{
+		return new ArrayList<CachedIsland>(islands.values());
+	}
+
+	/**
+	 * Lets caches of values read from islands tell when they may be out of date without looking the islands up again.
+	 */
+	public int getVersion()
+	{
+		return version;
+	}
+
+	public synchronized int size()
+	{
+		return islands.size();
+	}
+
+	public synchronized long getEstimatedBytes()
+	{
+		return estimatedBytes;
+	}
+
+	public synchronized boolean isOverLimit(int maxIslands, long maxBytes)
+	{
+		return islands.size() > maxIslands || estimatedBytes > maxBytes;
+	}
+
+	/**
+	 * Removes least recently used islands until the cache is back within its limits.
+	 * @param pinned Island IDs that must stay loaded no matter how long ago they were used.
+	 * @return The islands that were removed. The caller is responsible for saving them.
+	 */
+	public synchronized ArrayList<CachedIsland> evict(int maxIslands, long maxBytes, Set<Integer> pinned)
+	{
+		ArrayList<CachedIsland> out = new ArrayList<CachedIsland>();
+		Iterator<Map.Entry<Integer, CachedIsland>> iter = islands.entrySet().iterator();
+		while(iter.hasNext() && (islands.size() > maxIslands || estimatedBytes > maxBytes))
+		{
+			Map.Entry<Integer, CachedIsland> e = iter.next();
+			if(pinned.contains(e.getKey()))
+				continue;
+			iter.remove();
+			estimatedBytes -= e.getValue().getEstimatedSize();
+			out.add(e.getValue());
+			version++;
+		}
+		return out;
+	}
+
+	/**
+	 * Removes every island from the cache.
+	 * @return The islands that were removed. The caller is responsible for saving them.
+	 */
+	public synchronized ArrayList<CachedIsland> clear()
+	{
+		ArrayList<CachedIsland> out = new ArrayList<CachedIsland>(islands.values());
+		islands.clear();
+		estimatedBytes = 0;
+		version++;
+		return out;
+	}
+}
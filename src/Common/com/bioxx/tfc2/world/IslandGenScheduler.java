@@ -0,0 +1,380 @@
+package com.bioxx.tfc2.world;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.entity.player.EntityPlayer;
+
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.tfc2.TFC;
+import com.bioxx.tfc2.api.util.Helper;
+
+/**
+ * Schedules island generation on a fixed pool of worker threads. Every island ID has at most one request in flight at
+ * a time and callers asking for the same island share its future. Requests that have not started yet are ordered by how
+ * close they are to a player and whether the player is heading towards them, and are cancelled once every player has
+ * moved too far away from them.
+ *
+ * Requests are only handed to the pool when a worker is free so that the order can be recalculated every tick.
+ */
+public class IslandGenScheduler
+{
+	//Requests for islands further than this many islands from every player are dropped
+	private static final int STALE_DISTANCE = 2;
+
+	private final WorldGen worldGen;
+	private final ThreadPoolExecutor executor;
+	private final int workerCount;
+	private final HashMap<Integer, Request> inFlight = new HashMap<Integer, Request>();
+	private int runningCount = 0;
+
+	//Statistics for threads that had to wait on an island
+	private long waitCount;
+	private long waitNanos;
+	private long maxWaitNanos;
+	private long waitTimeouts;
+
+	public IslandGenScheduler(WorldGen wg, int threads)
+	{
+		worldGen = wg;
+		workerCount = Math.max(1, threads);
+		executor = new ThreadPoolExecutor(workerCount, workerCount, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+		{
+			private int count = 0;
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread t = new Thread(r, "Map Build Thread: "+(count++));
+				t.setDaemon(true);
+				t.setPriority(2);
+				return t;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Requests that an island be loaded or generated in the background. If the island is already queued or being built
+	 * the existing future is returned.
+	 */
+	public synchronized CompletableFuture<IslandMap> request(int x, int z)
+	{
+		int id = Helper.combineCoords(x, z);
+		Request r = inFlight.get(id);
+		if(r == null)
+		{
+			r = new Request(id, x, z);
+			inFlight.put(id, r);
+			dispatch();
+		}
+		return r.future;
+	}
+
+	/**
+	 * Requests that an island be generated with a specific seed, overwriting any cached copy. These requests skip ahead
+	 * of all normal requests and are never cancelled.
+	 */
+	public synchronized CompletableFuture<IslandMap> requestExact(int x, int z, long seed)
+	{
+		int id = Helper.combineCoords(x, z);
+		Request r = inFlight.get(id);
+		if(r == null)
+		{
+			r = new Request(id, x, z);
+			inFlight.put(id, r);
+		}
+		//If the island is already being built the worker will build it again with this seed once it is done
+		r.exact = true;
+		r.seed = seed;
+		r.score = Double.NEGATIVE_INFINITY;
+		dispatch();
+		return r.future;
+	}
+
+	/**
+	 * @return The future for this island if it is queued or being built, otherwise null.
+	 */
+	public synchronized CompletableFuture<IslandMap> getInFlight(int id)
+	{
+		Request r = inFlight.get(id);
+		return r == null ? null : r.future;
+	}
+
+	/**
+	 * Requests an island that something is about to wait on. Urgent requests are built before any normal request.
+	 */
+	public synchronized CompletableFuture<IslandMap> requestUrgent(int x, int z)
+	{
+		int id = Helper.combineCoords(x, z);
+		Request r = inFlight.get(id);
+		if(r == null)
+		{
+			r = new Request(id, x, z);
+			inFlight.put(id, r);
+		}
+		if(!r.exact)
+		{
+			r.urgent = true;
+			r.score = -Double.MAX_VALUE;
+		}
+		dispatch();
+		return r.future;
+	}
+
+	/**
+	 * Takes a queued request away from the workers so that the calling thread can build the island itself. The caller
+	 * must call finishClaim once it is done.
+	 * @return True if the request was claimed, false if it has already started or no longer exists.
+	 */
+	public synchronized boolean claim(int id)
+	{
+		Request r = inFlight.get(id);
+		if(r == null || r.running || r.claimed || r.exact)
+			return false;
+		r.claimed = true;
+		return true;
+	}
+
+	public void finishClaim(int id, IslandMap map, Throwable error)
+	{
+		Request r;
+		synchronized(this)
+		{
+			r = inFlight.get(id);
+			if(r == null)
+				return;
+			r.claimed = false;
+			//An exact request arrived while the island was being built so let a worker build it again
+			if(r.exact)
+			{
+				dispatch();
+				return;
+			}
+			inFlight.remove(id);
+		}
+		if(error != null)
+			r.future.completeExceptionally(error);
+		else
+			r.future.complete(map);
+	}
+
+	/**
+	 * Records how long a thread had to wait for an island to be ready.
+	 */
+	public synchronized void recordWait(long nanos, boolean timedOut)
+	{
+		waitCount++;
+		waitNanos += nanos;
+		maxWaitNanos = Math.max(maxWaitNanos, nanos);
+		if(timedOut)
+			waitTimeouts++;
+	}
+
+	public synchronized long getWaitCount()
+	{
+		return waitCount;
+	}
+
+	public synchronized long getWaitNanos()
+	{
+		return waitNanos;
+	}
+
+	public synchronized long getMaxWaitNanos()
+	{
+		return maxWaitNanos;
+	}
+
+	public synchronized long getWaitTimeouts()
+	{
+		return waitTimeouts;
+	}
+
+	public synchronized int getQueuedCount()
+	{
+		return inFlight.size() - runningCount;
+	}
+
+	public synchronized int getRunningCount()
+	{
+		return runningCount;
+	}
+
+	/**
+	 * Recalculates the priority of every queued request from the current player positions, cancels requests that no
+	 * player is near anymore and hands the best requests to any free workers. Should be called once per tick.
+	 */
+	public synchronized void tick(List<EntityPlayer> players)
+	{
+		if(inFlight.size() == runningCount)
+			return;
+
+		Iterator<Request> iter = inFlight.values().iterator();
+		while(iter.hasNext())
+		{
+			Request r = iter.next();
+			if(r.running || r.claimed || r.exact || r.urgent)
+				continue;
+			r.score = score(r, players);
+			if(r.score == Double.POSITIVE_INFINITY)
+			{
+				iter.remove();
+				r.future.cancel(false);
+			}
+		}
+		dispatch();
+	}
+
+	/**
+	 * Lower scores are built first. Distance is measured in islands from the player to the center of the island and is
+	 * reduced by up to half when the player is moving or looking towards the island.
+	 */
+	private double score(Request r, List<EntityPlayer> players)
+	{
+		if(players == null || players.isEmpty())
+			return r.score;
+
+		double best = Double.POSITIVE_INFINITY;
+		for(EntityPlayer player : players)
+		{
+			double px = player.posX / WorldGen.ISLAND_SIZE;
+			double pz = player.posZ / WorldGen.ISLAND_SIZE;
+			if(Math.abs(Math.floor(px) - r.x) > STALE_DISTANCE || Math.abs(Math.floor(pz) - r.z) > STALE_DISTANCE)
+				continue;
+
+			double dx = r.x + 0.5 - px;
+			double dz = r.z + 0.5 - pz;
+			double dist = Math.sqrt(dx*dx + dz*dz);
+
+			//Prefer the direction the player is travelling, otherwise the direction they are facing
+			double hx = player.motionX;
+			double hz = player.motionZ;
+			if(hx*hx + hz*hz < 0.0001)
+			{
+				double yaw = Math.toRadians(player.rotationYaw);
+				hx = -Math.sin(yaw);
+				hz = Math.cos(yaw);
+			}
+			double hlen = Math.sqrt(hx*hx + hz*hz);
+			double dot = dist > 0 && hlen > 0 ? (dx*hx + dz*hz) / (dist*hlen) : 0;
+			best = Math.min(best, dist * (1 - 0.25 * (dot + 1)));
+		}
+		return best;
+	}
+
+	private void dispatch()
+	{
+		while(runningCount < workerCount)
+		{
+			Request next = null;
+			for(Request r : inFlight.values())
+			{
+				if(!r.running && !r.claimed && (next == null || r.score < next.score))
+					next = r;
+			}
+			if(next == null)
+				return;
+			next.running = true;
+			runningCount++;
+			executor.execute(new Worker(next));
+		}
+	}
+
+	/**
+	 * Cancels every queued request. Requests that are already running are allowed to finish.
+	 */
+	public synchronized void cancelAll()
+	{
+		Iterator<Request> iter = inFlight.values().iterator();
+		while(iter.hasNext())
+		{
+			Request r = iter.next();
+			if(!r.running && !r.claimed)
+			{
+				iter.remove();
+				r.future.cancel(false);
+			}
+		}
+	}
+
+	private class Worker implements Runnable
+	{
+		private final Request request;
+
+		public Worker(Request r)
+		{
+			request = r;
+		}
+
+		@Override
+		public void run()
+		{
+			IslandMap map = null;
+			Throwable error = null;
+			while(true)
+			{
+				boolean exact;
+				long seed;
+				synchronized(IslandGenScheduler.this)
+				{
+					exact = request.exact;
+					seed = request.seed;
+					request.exact = false;
+				}
+				try
+				{
+					IslandGenTelemetry.setQueueWait(System.nanoTime() - request.created);
+					map = worldGen.buildIsland(request.x, request.z, exact, seed);
+					error = null;
+				}
+				catch(Throwable t)
+				{
+					TFC.log.warn("Error Building Island: " + request.x + ", " + request.z, t);
+					error = t;
+				}
+				synchronized(IslandGenScheduler.this)
+				{
+					//An exact request came in while we were building so the island has to be built again
+					if(request.exact)
+						continue;
+					inFlight.remove(request.id);
+					runningCount--;
+					dispatch();
+				}
+				break;
+			}
+			if(error != null)
+				request.future.completeExceptionally(error);
+			else
+				request.future.complete(map);
+		}
+	}
+
+	private static class Request
+	{
+		final int id;
+		final int x;
+		final int z;
+		final CompletableFuture<IslandMap> future = new CompletableFuture<IslandMap>();
+		final long created = System.nanoTime();
+		boolean running;
+		boolean claimed;
+		boolean exact;
+		boolean urgent;
+		long seed;
+		double score = Double.MAX_VALUE;
+
+		Request(int id, int x, int z)
+		{
+			this.id = id;
+			this.x = x;
+			this.z = z;
+		}
+	}
+}
@@ -0,0 +1,353 @@
+package com.bioxx.tfc2.world;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bioxx.jmapgen.GenProfile;
+import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.jmapgen.IslandParameters.Feature;
+import com.bioxx.tfc2.TFC;
+import com.bioxx.tfc2.api.TFCOptions;
+
+/**
+ * Keeps timing and allocation records for islands that were generated, loaded or saved and for chunk generation so that
+ * slow islands can be traced back to their features. The most recent records are kept in memory for the dbg command and
+ * can also be appended to a log file as CSV or JSON lines. The log is rolled over once it grows past LOG_MAX_BYTES.
+ */
+public class IslandGenTelemetry
+{
+	private static final int MAX_RECORDS = 128;
+	private static final long LOG_MAX_BYTES = 4 * 1024 * 1024;
+
+	private static final IslandGenTelemetry INSTANCE = new IslandGenTelemetry();
+
+	//The scheduler sets this before a worker builds an island so that the record can include the time spent queued
+	private static final ThreadLocal<long[]> QUEUE_WAIT = new ThreadLocal<long[]>()
+	{
+		@Override
+		protected long[] initialValue()
+		{
+			return new long[1];
+		}
+	};
+
+	private final ArrayDeque<Record> records = new ArrayDeque<Record>();
+	//Writing the log has its own lock so that a slow disk never holds up recordChunk during chunk generation
+	private final Object logLock = new Object();
+
+	private long chunkCount;
+	private long chunkNanos;
+	private long chunkMaxNanos;
+	private long chunkBytes;
+
+	public static IslandGenTelemetry getInstance()
+	{
+		return INSTANCE;
+	}
+
+	public static boolean isEnabled()
+	{
+		return TFCOptions.islandGenTelemetry;
+	}
+
+	/**
+	 * @return A new profile to time an island with or the disabled profile if telemetry is turned off.
+	 */
+	public static GenProfile createProfile()
+	{
+		return isEnabled() ? new GenProfile() : GenProfile.DISABLED;
+	}
+
+	public static void setQueueWait(long nanos)
+	{
+		QUEUE_WAIT.get()[0] = nanos;
+	}
+
+	private static long takeQueueWait()
+	{
+		long[] wait = QUEUE_WAIT.get();
+		long nanos = wait[0];
+		wait[0] = 0;
+		return nanos;
+	}
+
+	/**
+	 * Records an island once it has been generated, loaded or saved.
+	 * @param source What was done to the island, such as generate, load or save
+	 * @param queueNanos Time the island spent waiting before this started or -1 to use the time the scheduler set for
+	 * this thread
+	 */
+	public void recordIsland(IslandMap map, String source, GenProfile profile, long queueNanos)
+	{
+		if(profile == GenProfile.DISABLED || !isEnabled())
+			return;
+
+		Record r = new Record();
+		r.time = System.currentTimeMillis();
+		r.source = source;
+		r.x = map.getParams().getXCoord();
+		r.z = map.getParams().getZCoord();
+		r.seed = map.seed;
+		for(Feature f : Feature.values())
+		{
+			if(map.getParams().hasFeature(f))
+				r.features.add(f);
+		}
+		r.centers = map.centers.size();
+		r.corners = map.corners.size();
+		r.edges = map.edges.size();
+		r.queueNanos = queueNanos < 0 ? takeQueueWait() : queueNanos;
+		r.stages = profile.getStages();
+		for(GenProfile.Stage s : r.stages)
+		{
+			//Stages that ran inside another stage on the same thread are already counted by it
+			if(s.name.indexOf('/') >= 0)
+				continue;
+			r.nanos += s.nanos;
+			if(s.bytes > 0)
+				r.bytes += s.bytes;
+		}
+
+		synchronized(this)
+		{
+			records.addLast(r);
+			while(records.size() > MAX_RECORDS)
+				records.removeFirst();
+		}
+		writeLog(r);
+	}
+
+	public synchronized void recordChunk(long nanos, long bytes)
+	{
+		chunkCount++;
+		chunkNanos += nanos;
+		chunkMaxNanos = Math.max(chunkMaxNanos, nanos);
+		if(bytes > 0)
+			chunkBytes += bytes;
+	}
+
+	public synchronized List<Record> getRecords()
+	{
+		return new ArrayList<Record>(records);
+	}
+
+	public synchronized long getChunkCount()
+	{
+		return chunkCount;
+	}
+
+	public synchronized long getChunkNanos()
+	{
+		return chunkNanos;
+	}
+
+	public synchronized long getChunkMaxNanos()
+	{
+		return chunkMaxNanos;
+	}
+
+	public synchronized long getChunkBytes()
+	{
+		return chunkBytes;
+	}
+
+	public synchronized void clear()
+	{
+		records.clear();
+		chunkCount = 0;
+		chunkNanos = 0;
+		chunkMaxNanos = 0;
+		chunkBytes = 0;
+	}
+
+	/**
+	 * @return Lines describing the records grouped by source and the features that make generated islands slowest.
+	 */
+	public List<String> getSummary()
+	{
+		List<Record> list = getRecords();
+		List<String> out = new ArrayList<String>();
+		for(String source : new String[] {"generate", "load", "save"})
+		{
+			int count = 0;
+			long nanos = 0, max = 0, bytes = 0, queue = 0;
+			for(Record r : list)
+			{
+				if(!r.source.equals(source))
+					continue;
+				count++;
+				nanos += r.nanos;
+				max = Math.max(max, r.nanos);
+				bytes += r.bytes;
+				queue += r.queueNanos;
+			}
+			if(count > 0)
+				out.add(source + ": " + count + " islands, avg " + toMs(nanos / count) + "ms, max " + toMs(max) + "ms, avg " +
+						(bytes / count >> 20) + "MB allocated, avg queued " + toMs(queue / count) + "ms");
+		}
+
+		long generated = 0, total = 0;
+		for(Record r : list)
+		{
+			if(r.source.equals("generate"))
+			{
+				generated++;
+				total += r.nanos;
+			}
+		}
+		if(generated > 0)
+		{
+			long avg = total / generated;
+			for(Feature f : Feature.values())
+			{
+				int count = 0;
+				long nanos = 0;
+				for(Record r : list)
+				{
+					if(r.source.equals("generate") && r.features.contains(f))
+					{
+						count++;
+						nanos += r.nanos;
+					}
+				}
+				if(count > 0 && nanos / count > avg)
+					out.add("  " + f.name() + ": " + count + " islands, avg " + toMs(nanos / count) + "ms (" + (nanos / count * 100 / Math.max(1, avg) - 100) + "% over average)");
+			}
+		}
+
+		synchronized(this)
+		{
+			if(chunkCount > 0)
+				out.add("chunks: " + chunkCount + ", avg " + toMs(chunkNanos / chunkCount) + "ms, max " + toMs(chunkMaxNanos) + "ms, avg " +
+						(chunkBytes / chunkCount >> 10) + "KB allocated");
+		}
+		return out;
+	}
+
+	/**
+	 * @return Lines describing each stage of the latest record for this island or an empty list if there is none.
+	 */
+	public List<String> getIslandReport(int x, int z)
+	{
+		List<String> out = new ArrayList<String>();
+		List<Record> list = getRecords();
+		for(int i = list.size()-1; i >= 0; i--)
+		{
+			Record r = list.get(i);
+			if(r.x != x || r.z != z)
+				continue;
+			out.add(r.source + " " + x + "," + z + ": " + toMs(r.nanos) + "ms, " + (r.bytes >> 20) + "MB, queued " + toMs(r.queueNanos) + "ms, " +
+					r.centers + " centers, " + r.corners + " corners, " + r.edges + " edges, features " + r.features);
+			for(GenProfile.Stage s : r.stages)
+				out.add("  " + s.name + ": " + toMs(s.nanos) + "ms, " + (s.bytes >> 10) + "KB on " + s.thread);
+			break;
+		}
+		return out;
+	}
+
+	private static String toMs(long nanos)
+	{
+		return String.valueOf(nanos / 100000 / 10D);
+	}
+
+	private void writeLog(Record r)
+	{
+		String format = TFCOptions.islandGenTelemetryLog;
+		boolean json = format.equalsIgnoreCase("json");
+		if(!json && !format.equalsIgnoreCase("csv"))
+			return;
+
+		String line = json ? r.toJson() : r.toCsv();
+		synchronized(logLock)
+		{
+			File file = new File(".//logs//tfc2-islandgen." + (json ? "json" : "csv"));
+			try
+			{
+				if(!file.getParentFile().exists())
+					file.getParentFile().mkdirs();
+				if(file.length() > LOG_MAX_BYTES)
+				{
+					File old = new File(file.getPath() + ".1");
+					if(old.exists())
+						old.delete();
+					file.renameTo(old);
+				}
+				boolean header = !json && !file.exists();
+				Writer out = new FileWriter(file, true);
+				try
+				{
+					if(header)
+						out.write("time,source,x,z,seed,features,centers,corners,edges,queueMs,totalMs,totalBytes,stages\n");
+					out.write(line);
+					out.write('\n');
+				}
+				finally
+				{
+					out.close();
+				}
+			}
+			catch(IOException e)
+			{
+				TFC.log.warn("Unable to write island generation telemetry to " + file.getPath(), e);
+			}
+		}
+	}
+
+	public static class Record
+	{
+		public long time;
+		public String source;
+		public int x;
+		public int z;
+		public long seed;
+		public final List<Feature> features = new ArrayList<Feature>();
+		public int centers;
+		public int corners;
+		public int edges;
+		public long queueNanos;
+		public long nanos;
+		public long bytes;
+		public List<GenProfile.Stage> stages;
+
+		String toCsv()
+		{
+			StringBuilder sb = new StringBuilder();
+			sb.append(time).append(',').append(source).append(',').append(x).append(',').append(z).append(',').append(seed).append(',');
+			for(int i = 0; i < features.size(); i++)
+				sb.append(i > 0 ? ";" : "").append(features.get(i).name());
+			sb.append(',').append(centers).append(',').append(corners).append(',').append(edges);
+			sb.append(',').append(toMs(queueNanos)).append(',').append(toMs(nanos)).append(',').append(bytes).append(',');
+			for(int i = 0; i < stages.size(); i++)
+			{
+				GenProfile.Stage s = stages.get(i);
+				sb.append(i > 0 ? ";" : "").append(s.name).append('=').append(toMs(s.nanos)).append("ms/").append(s.bytes).append('B');
+			}
+			return sb.toString();
+		}
+
+		String toJson()
+		{
+			StringBuilder sb = new StringBuilder();
+			sb.append("{\"time\":").append(time).append(",\"source\":\"").append(source).append("\",\"x\":").append(x).append(",\"z\":").append(z);
+			sb.append(",\"seed\":").append(seed).append(",\"features\":[");
+			for(int i = 0; i < features.size(); i++)
+				sb.append(i > 0 ? "," : "").append('"').append(features.get(i).name()).append('"');
+			sb.append("],\"centers\":").append(centers).append(",\"corners\":").append(corners).append(",\"edges\":").append(edges);
+			sb.append(",\"queueMs\":").append(toMs(queueNanos)).append(",\"totalMs\":").append(toMs(nanos)).append(",\"totalBytes\":").append(bytes);
+			sb.append(",\"stages\":[");
+			for(int i = 0; i < stages.size(); i++)
+			{
+				GenProfile.Stage s = stages.get(i);
+				sb.append(i > 0 ? "," : "").append("{\"name\":\"").append(s.name).append("\",\"thread\":\"").append(s.thread);
+				sb.append("\",\"ms\":").append(toMs(s.nanos)).append(",\"bytes\":").append(s.bytes).append('}');
+			}
+			sb.append("]}");
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.bioxx.tfc2.world;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.bioxx.jmapgen.GenProfile;
+import com.bioxx.tfc2.TFC;
+
+/**
+ * Write-behind queue for island saves. Islands that are evicted from the cache are handed to this class and written to
+ * disk on a background thread so that NBT creation, compression and file IO never happen on the tick thread.
+ */
+public class IslandWriter
+{
+	private final WorldGen worldGen;
+	private final ThreadPoolExecutor executor;
+	//Islands that have been queued but not written yet. If one is requested again it is taken back from here instead of disk.
+	private final ConcurrentHashMap<Integer, CachedIsland> pending = new ConcurrentHashMap<Integer, CachedIsland>();
+	//Guards writing so that an island is never handed back while the save thread is still writing it
+	private final Object writeLock = new Object();
+	private CachedIsland writing;
+
+	public IslandWriter(WorldGen wg)
+	{
+		worldGen = wg;
+		executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread t = new Thread(r, "Island Save Thread");
+				t.setDaemon(true);
+				t.setPriority(Thread.MIN_PRIORITY+1);
+				return t;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	public void enqueue(final int id, final CachedIsland island)
+	{
+		pending.put(id, island);
+		final long queued = System.nanoTime();
+		executor.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				synchronized(writeLock)
+				{
+					//The island was reclaimed or queued again since this task was created
+					if(pending.get(id) != island)
+						return;
+					writing = island;
+				}
+				try
+				{
+					long wait = System.nanoTime() - queued;
+					GenProfile profile = IslandGenTelemetry.createProfile();
+					GenProfile.Stage stage = profile.begin("write");
+					worldGen.writeMap(island);
+					profile.end(stage);
+					IslandGenTelemetry.getInstance().recordIsland(island.island, "save", profile, wait);
+				}
+				catch(Exception e)
+				{
+					TFC.log.warn("Error Saving Island: " + id, e);
+				}
+				finally
+				{
+					synchronized(writeLock)
+					{
+						writing = null;
+						pending.remove(id, island);
+						writeLock.notifyAll();
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Takes an island back out of the write queue so that it can be used again without reading it from disk. If the
+	 * island is being written right now this waits until the write is finished.
+	 * @return The pending island or null if nothing is queued for this ID
+	 */
+	public CachedIsland reclaim(int id)
+	{
+		synchronized(writeLock)
+		{
+			CachedIsland island = pending.get(id);
+			if(island == null)
+				return null;
+			try
+			{
+				while(writing == island)
+					writeLock.wait();
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			pending.remove(id, island);
+			return island;
+		}
+	}
+
+	/**
+	 * Same as reclaim but never waits. Islands that are being written right now are left alone and null is returned.
+	 */
+	public CachedIsland tryReclaim(int id)
+	{
+		synchronized(writeLock)
+		{
+			CachedIsland island = pending.get(id);
+			if(island == null || writing == island)
+				return null;
+			pending.remove(id, island);
+			return island;
+		}
+	}
+
+	public boolean isPending(int id)
+	{
+		return pending.containsKey(id);
+	}
+
+	public int getPendingCount()
+	{
+		return pending.size();
+	}
+
+	/**
+	 * Blocks until every queued island has been written.
+	 */
+	public void flush()
+	{
+		try
+		{
+			executor.submit(new Runnable()
+			{
+				@Override
+				public void run() {}
+			}).get();
+		}
+		catch(Exception e)
+		{
+			TFC.log.warn("Interrupted while waiting for islands to save", e);
+		}
+	}
+}
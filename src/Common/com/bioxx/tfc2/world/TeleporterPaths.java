@@ -134,7 +134,7 @@ public class TeleporterPaths extends Teleporter
 		BlockPos object = new BlockPos(entityIn);
 		long k = ChunkPos.asLong(playerX, playerZ);
 
-		IslandMap islandMap = Core.getMapForWorld(worldServerInstance, entityIn.getPosition());
+		IslandMap islandMap = Core.awaitMapForWorld(worldServerInstance, entityIn.getPosition());
 		Center closest = islandMap.getClosestCenter(new Point((playerX*8) % 4096,(playerZ*8) % 4096));
 		//Check if we already have a portal position cached here
 		if (this.destinationCoordinateCache.containsKey(k))
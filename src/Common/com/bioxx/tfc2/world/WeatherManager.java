@@ -13,7 +13,6 @@ import com.bioxx.libnoise.module.modifier.Clamp;
 import com.bioxx.libnoise.module.modifier.TranslatePoint;
 import com.bioxx.libnoise.module.source.Const;
 import com.bioxx.libnoise.module.source.Perlin;
-import com.bioxx.tfc2.Core;
 import com.bioxx.tfc2.api.types.ClimateTemp;
 import com.bioxx.tfc2.api.types.Moisture;
 import com.bioxx.tfc2.api.types.Season;
@@ -86,7 +85,7 @@ public class WeatherManager
 
 	public double getPrecipitation(int x, int z)
 	{
-		IslandMap island = WorldGen.getInstance().getIslandMap(x >> 12, z >> 12);
+		IslandMap island = WorldGen.getInstance().getIslandMapOrPlaceholder(x >> 12, z >> 12);
 		return getPrecipitation(island, x, z);
 	}
 
@@ -115,29 +114,40 @@ public class WeatherManager
 
 	public double getTemperature(BlockPos pos)
 	{
-		IslandMap island = WorldGen.getInstance().getIslandMap(pos.getX() >> 12, pos.getZ() >> 12);
+		IslandMap island = WorldGen.getInstance().getIslandMapOrPlaceholder(pos.getX() >> 12, pos.getZ() >> 12);
 		return getTemperature(island, pos);
 	}
 
 	public double getTemperature(IslandMap island, BlockPos pos)
 	{
-		Timekeeper inst = Timekeeper.getInstance();
+		return getBaseTemperature(island, pos.getX(), pos.getZ()) - getElevationModifier(pos.getY());
+	}
+
+	/**
+	 * @return The temperature of a column before it is adjusted for elevation. This only changes once an hour.
+	 */
+	public double getBaseTemperature(IslandMap island, int x, int z)
+	{
 		// 1: Find the island information to get the general climate data
 		ClimateTemp climate = island.getParams().getIslandTemp();
 		// 2: Get seasonal data to combine with the island information
 		SeasonalPeriod period = Timekeeper.getInstance().getSeasonalPeriod();
 		// 3: Get local temperature noise
-		double local = temperatureNoise.getModule().GetValue(pos.getX(), Timekeeper.getInstance().getTotalDays(), pos.getZ()) * climate.getTempVar();
-		// 4: Combine this information and adjust for elevation;
+		double local = temperatureNoise.getModule().GetValue(x, Timekeeper.getInstance().getTotalDays(), z) * climate.getTempVar();
+		// 4: Combine this information
 		double baseMin = climate.getTempMin();
 		double baseMax = climate.getTempMax();
-		double elevationModifier = (((pos.getY()-64)/192D)*8.0);
-		return (baseMin + ((baseMax - baseMin)*period.getTempMultiplier()) + local) * hourlyTempMod[Timekeeper.getInstance().getClockTime()] - elevationModifier;
+		return (baseMin + ((baseMax - baseMin)*period.getTempMultiplier()) + local) * hourlyTempMod[Timekeeper.getInstance().getClockTime()];
+	}
+
+	public static double getElevationModifier(int y)
+	{
+		return ((y-64)/192D)*8.0;
 	}
 
 	public double getTemperature(int x, int y, int z)
 	{
-		return getTemperature(Core.getMapForWorld(worldObj, new BlockPos(x, y, z)), new BlockPos(x, y, z));
+		return getTemperature(WorldGen.getInstance().getIslandMapOrPlaceholder(x >> 12, z >> 12), new BlockPos(x, y, z));
 	}
 
 	public void setupStorms(World world)
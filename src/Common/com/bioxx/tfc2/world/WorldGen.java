@@ -1,13 +1,24 @@
 package com.bioxx.tfc2.world;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.PriorityBlockingQueue;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.BlockPos;
@@ -16,11 +27,15 @@ import net.minecraft.world.World;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.relauncher.Side;
 
+import com.bioxx.jmapgen.GenProfile;
 import com.bioxx.jmapgen.IslandMap;
+import com.bioxx.jmapgen.IslandMapIO;
 import com.bioxx.jmapgen.IslandParameters;
 import com.bioxx.jmapgen.IslandParameters.Feature;
+import com.bioxx.jmapgen.IslandParameters.FeaturePicker;
 import com.bioxx.jmapgen.IslandParameters.Feature.FeatureSig;
 import com.bioxx.jmapgen.RandomCollection;
+import com.bioxx.jmapgen.graph.Center;
 import com.bioxx.tfc2.Reference;
 import com.bioxx.tfc2.TFC;
 import com.bioxx.tfc2.api.Global;
@@ -34,12 +49,12 @@ import com.bioxx.tfc2.api.types.EnumAnimalDiet;
 import com.bioxx.tfc2.api.types.Moisture;
 import com.bioxx.tfc2.api.types.StoneType;
 import com.bioxx.tfc2.api.util.Helper;
-import com.bioxx.tfc2.api.util.IThreadCompleteListener;
+import com.bioxx.tfc2.handlers.ChunkLoadHandler;
 import com.bioxx.tfc2.handlers.client.ClientRenderHandler;
 import com.bioxx.tfc2.networking.server.SMapRequestPacket;
 
 
-public class WorldGen implements IThreadCompleteListener
+public class WorldGen
 {
 	private static WorldGen instance;
 	private static WorldGen instanceClient;
@@ -47,16 +62,17 @@ public class WorldGen implements IThreadCompleteListener
 	private static boolean SHOULD_RESET_CLIENT = false;
 	private static IslandMap EMPTY_MAP = null;
 
-	final java.util.Map<Integer, CachedIsland> islandCache;
+	final IslandCache islandCache;
+	private final IslandWriter islandWriter;
 	public World world;
 	public long worldSeed = Long.MIN_VALUE;
 	public static final int ISLAND_SIZE = 4096;
 
-	private Queue<Integer> mapQueue;
-	private ThreadBuild[] buildThreads;
+	private final IslandGenScheduler generator;
+	private final HexUpdateScheduler hexScheduler = new HexUpdateScheduler();
 
 	//We keep this list so that we dont spam the server with map request packets from things like grass blocks.
-	private ArrayList<Integer> recentlyRequestedMaps = new ArrayList<Integer>();
+	private List<Integer> recentlyRequestedMaps = Collections.synchronizedList(new ArrayList<Integer>());
 
 	public static WorldGen getInstance()
 	{
@@ -74,9 +90,9 @@ public class WorldGen implements IThreadCompleteListener
 	public WorldGen(World w) 
 	{
 		world = w;
-		islandCache = Collections.synchronizedMap(new ConcurrentHashMap<Integer, CachedIsland>());
-		mapQueue = new PriorityBlockingQueue<Integer>();
-		buildThreads = new ThreadBuild[TFCOptions.maxThreadsForIslandGen];
+		islandCache = new IslandCache();
+		islandWriter = new IslandWriter(this);
+		generator = new IslandGenScheduler(this, TFCOptions.maxThreadsForIslandGen);
 		EMPTY_MAP = new IslandMap(ISLAND_SIZE, 0);
 		IslandParameters ip = createParams(0, -2, 0);
 		ip.setIslandTemp(ClimateTemp.TEMPERATE);
@@ -113,29 +129,164 @@ public class WorldGen implements IThreadCompleteListener
 	/**
 	 * Retrieves an island map from the cache or creates it if needed. This is a pass-through method to an internal method which retrieves
 	 * the island map and hands neighboring island maps off to other threads for generation. Coordinates should already be in MapCoords form.
+	 * 
+	 * On the server this blocks until the island has been loaded or generated. Code that runs during the tick should use
+	 * tryGetIslandMap or getIslandMapOrPlaceholder instead.
 	 */
 	public IslandMap getIslandMap(int x, int z)
 	{
 		int id = Helper.combineCoords(x, z);
 		if(recentlyRequestedMaps.contains(id))
 			return EMPTY_MAP;
-		//First we try to load the map from disk if it exists
-		if(!islandCache.containsKey(id))
+		if(getCachedIsland(id) != null)
+			return getMap(x, z);
+
+		if(this == instanceClient)
 		{
+			//Next we try to load the map from disk if it exists, otherwise we ask the server for the seed
 			loadMap(x, z);
+			if(!islandCache.containsKey(id))
+				createFakeMap(x, z);
+			return getMap(x, z);
 		}
-		//If the map did not exist on disk then create it from scratch
-		if(!islandCache.containsKey(id))
+
+		return awaitIslandMap(x, z);
+	}
+
+	/**
+	 * Returns the island map if it is already in memory. Otherwise the island is queued to be loaded or generated in the
+	 * background and null is returned. This never touches the disk or generates anything on the calling thread.
+	 */
+	public IslandMap tryGetIslandMap(int x, int z)
+	{
+		int id = Helper.combineCoords(x, z);
+		//An island that is being saved is left to the workers, which take it back once the write is done
+		if(getCachedIsland(id, false) != null)
+			return getMap(x, z);
+
+		if(this == instanceClient)
 		{
-			if(this == instanceClient)
+			if(!islandWriter.isPending(id))
 				createFakeMap(x, z);
+		}
+		else
+			generator.request(x, z);
+		return null;
+	}
+
+	/**
+	 * Same as tryGetIslandMap but returns a placeholder island instead of null while the real island is being prepared.
+	 * The placeholder is a small temperate island with no features. Use isPlaceholder to tell it apart.
+	 */
+	public IslandMap getIslandMapOrPlaceholder(int x, int z)
+	{
+		IslandMap map = tryGetIslandMap(x, z);
+		return map != null ? map : EMPTY_MAP;
+	}
+
+	public static boolean isPlaceholder(IslandMap map)
+	{
+		return map == EMPTY_MAP;
+	}
+
+	/**
+	 * Loads or generates an island in the background.
+	 * @return A future that completes with the island once it is in the cache.
+	 */
+	public CompletableFuture<IslandMap> getIslandMapAsync(int x, int z)
+	{
+		if(getCachedIsland(Helper.combineCoords(x, z), false) != null)
+			return CompletableFuture.completedFuture(getMap(x, z));
+		return generator.request(x, z);
+	}
+
+	/**
+	 * Waits for an island that is needed right now, such as for chunk generation. The island is moved to the front of the
+	 * queue and the calling thread waits up to islandWaitTimeout milliseconds for a worker to finish it. If no worker has
+	 * started on it by then the calling thread builds it itself. Every wait is recorded by the generation scheduler.
+	 */
+	public IslandMap awaitIslandMap(int x, int z)
+	{
+		int id = Helper.combineCoords(x, z);
+		if(getCachedIsland(id) != null)
+			return getMap(x, z);
+		if(this == instanceClient)
+			return getIslandMap(x, z);
+
+		long start = System.nanoTime();
+		boolean timedOut = false;
+		CompletableFuture<IslandMap> future = generator.requestUrgent(x, z);
+		try
+		{
+			future.get(Math.max(0, TFCOptions.islandWaitTimeout), TimeUnit.MILLISECONDS);
+		}
+		catch(TimeoutException e)
+		{
+			timedOut = true;
+			if(generator.claim(id))
+			{
+				//Every worker is busy with other islands so we build this one ourselves instead of waiting longer
+				IslandMap map = null;
+				Throwable error = null;
+				try
+				{
+					map = buildIsland(x, z, false, 0);
+				}
+				catch(Throwable t)
+				{
+					TFC.log.warn("Error Building Island: " + x + ", " + z, t);
+					error = t;
+				}
+				generator.finishClaim(id, map, error);
+			}
 			else
-				createIsland(x, z);
+			{
+				//A worker is already building it so waiting is quicker than starting over
+				try
+				{
+					future.join();
+				}
+				catch(Exception ex)
+				{
+					TFC.log.warn("Error Building Island: " + x + ", " + z, ex);
+				}
+			}
+		}
+		catch(Exception e)
+		{
+			TFC.log.warn("Error Building Island: " + x + ", " + z, e);
 		}
 
+		long waited = System.nanoTime() - start;
+		generator.recordWait(waited, timedOut);
+		if(timedOut)
+			TFC.log.warn("Waited " + (waited / 1000000) + "ms for Island: " + x + ", " + z);
 		return getMap(x, z);
 	}
 
+	/**
+	 * Returns the cached island, taking it back from the save queue if it was recently unloaded.
+	 */
+	private CachedIsland getCachedIsland(int id)
+	{
+		return getCachedIsland(id, true);
+	}
+
+	/**
+	 * @param wait If false an island that is being saved right now is skipped instead of waiting for the write to finish.
+	 */
+	private CachedIsland getCachedIsland(int id, boolean wait)
+	{
+		CachedIsland ci = islandCache.get(id);
+		if(ci == null)
+		{
+			ci = wait ? islandWriter.reclaim(id) : islandWriter.tryReclaim(id);
+			if(ci != null)
+				islandCache.put(id, ci);
+		}
+		return ci;
+	}
+
 	private IslandMap createFakeMap(int x, int z)
 	{
 		if(recentlyRequestedMaps.contains(Helper.combineCoords(x, z)))
@@ -157,23 +308,32 @@ public class WorldGen implements IThreadCompleteListener
 		//Should only ever be 0 if this map was created but never accessed by the game. Don't queue maps if clientside
 		if(ci.lastAccess == 0 /*&& this != instanceClient*/)
 		{
-			//Add the neighbor maps to the mapQueue for generation in another thread
-			mapQueue.add(Helper.combineCoords(x+1, z));
-			mapQueue.add(Helper.combineCoords(x+1, z-1));
-			mapQueue.add(Helper.combineCoords(x, z-1));
-			mapQueue.add(Helper.combineCoords(x-1, z-1));
-			mapQueue.add(Helper.combineCoords(x-1, z));
-			mapQueue.add(Helper.combineCoords(x-1, z+1));
-			mapQueue.add(Helper.combineCoords(x, z+1));
-			mapQueue.add(Helper.combineCoords(x+1, z+1));
+			//Queue the neighbor maps for generation in another thread
+			for(int i = -1; i <= 1; i++)
+			{
+				for(int k = -1; k <= 1; k++)
+				{
+					if(i != 0 || k != 0)
+						enqueueIsland(x+i, z+k);
+				}
+			}
 		}
 
 		return ci.getIslandMap();
 	}
 
+	/**
+	 * Queues an island for generation in the background. Islands that are already loaded are skipped.
+	 */
 	public void enqueueIsland(int x, int z)
 	{
-		mapQueue.add(Helper.combineCoords(x, z));
+		if(!isMapLoaded(x, z))
+			generator.request(x, z);
+	}
+
+	public IslandGenScheduler getGenerator()
+	{
+		return generator;
 	}
 
 	public boolean isMapLoaded(int x, int z)
@@ -186,6 +346,14 @@ public class WorldGen implements IThreadCompleteListener
 		return islandCache.get(id) != null;
 	}
 
+	/**
+	 * @return A number that changes every time an island is loaded, replaced or unloaded.
+	 */
+	public int getIslandCacheVersion()
+	{
+		return islandCache.getVersion();
+	}
+
 	public IslandMap createIsland(int x, int z)
 	{
 		return createIsland(x, z, world.getSeed()+Helper.combineCoords(x, z), false);
@@ -196,20 +364,51 @@ public class WorldGen implements IThreadCompleteListener
 		Random rand = new Random(seed);
 		long seed2 = rand.nextLong();
 
-		if(islandCache.containsKey(Helper.combineCoords(x, z)))
+		CachedIsland existing = islandCache.get(Helper.combineCoords(x, z));
+		if(existing != null && existing.getIslandMap().seed == seed2)
+		{
+			return existing.getIslandMap();
+		}
+		// 1 to 4 - Generate the island
+		IslandMap map = generateIsland(x, z, seed2);
+
+		// 5 - Create a CachedIsland  and add it to the island cache. It is saved once it is evicted or the cache is reset
+		//since the save thread must never serialize an island that is still in use
+		CachedIsland ci = new CachedIsland(map);
+
+		if(!islandCache.containsKey(Helper.combineCoords(x, z)))
+			islandCache.put(Helper.combineCoords(x, z), ci);
+		else if(overwrite && islandCache.containsKey(Helper.combineCoords(x, z)))
 		{
-			if(islandCache.get(Helper.combineCoords(x, z)).getIslandMap().seed == seed2)
-				return islandCache.get(Helper.combineCoords(x, z)).getIslandMap();
+			islandCache.remove(Helper.combineCoords(x, z));
+			islandCache.put(Helper.combineCoords(x, z), ci);
 		}
+
+		// 6 - Return the new island
+		return ci.island;
+	}
+
+	/**
+	 * Generates an island without touching the cache or the disk. Everything the island needs is created from the seed
+	 * so the same seed always gives the same island no matter how many islands are being generated at the same time.
+	 */
+	IslandMap generateIsland(int x, int z, long seed2)
+	{
+		GenProfile profile = IslandGenTelemetry.createProfile();
+		GenProfile.Stage stage = profile.begin("params");
 		// 1 - Create Island Params and fire event so mods can add or alter it
 		IslandGenEvent.Pre preEvent = new IslandGenEvent.Pre(createParams(seed2, x, z));
 		Global.EVENT_BUS.post(preEvent);
+		profile.end(stage);
 
 		// 2 - Generate the island based on the provided Params
 		IslandMap mapgen = new IslandMap(ISLAND_SIZE, seed2);
 		mapgen.newIsland(preEvent.params);
+		mapgen.setProfile(profile);
 		mapgen.generateFull();
+		mapgen.setProfile(null);
 
+		stage = profile.begin("data");
 		// 3 - Setup all of the important stuff in IslandData
 		//----Make sure we don't access IslandData until after generateFull because the data may become lost
 		// 3.1 - Set the island level based on the island's X Coordinate and unlock the island if it is tier 0
@@ -220,25 +419,62 @@ public class WorldGen implements IThreadCompleteListener
 		}
 		// 3.2 - Perform initial setup on the IslandWildlifeManager
 		mapgen.getIslandData().wildlifeManager.initialBuild(this.world);
+		profile.end(stage);
 
+		stage = profile.begin("post");
 		// 4 Fire a new event with the completed islandmap for mods to alter as needed
-		IslandGenEvent.Post postEvent = new IslandGenEvent.Post(mapgen);
+		IslandGenEvent.Post postEvent = new IslandGenEvent.Post(mapgen, this == instanceClient);
 		Global.EVENT_BUS.post(postEvent);
+		profile.end(stage);
+		IslandGenTelemetry.getInstance().recordIsland(postEvent.islandMap, "generate", profile, -1);
+		return postEvent.islandMap;
+	}
 
-		// 5 - Create a CachedIsland  and add it to the island cache
-		CachedIsland ci = new CachedIsland(postEvent.islandMap);
-		if(this != instanceClient) saveMap(ci);
+	/**
+	 * Generates the same island on several threads at once and checks that every copy saves to exactly the same bytes.
+	 * @return A description of the result
+	 */
+	public String checkDeterminism(final int x, final int z, int threads)
+	{
+		final long seed2 = new Random(world.getSeed()+Helper.combineCoords(x, z)).nextLong();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try
+		{
+			ArrayList<Future<byte[]>> results = new ArrayList<Future<byte[]>>();
+			for(int i = 0; i < threads; i++)
+			{
+				results.add(pool.submit(new Callable<byte[]>()
+				{
+					@Override
+					public byte[] call() throws Exception
+					{
+						IslandMap map = generateIsland(x, z, seed2);
+						ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+						DataOutputStream out = new DataOutputStream(bytes);
+						IslandMapIO.write(map, out);
+						out.flush();
+						return bytes.toByteArray();
+					}
+				}));
+			}
 
-		if(!islandCache.containsKey(Helper.combineCoords(x, z)))
-			islandCache.put(Helper.combineCoords(x, z), ci);
-		else if(overwrite && islandCache.containsKey(Helper.combineCoords(x, z)))
+			byte[] first = results.get(0).get();
+			for(int i = 1; i < threads; i++)
+			{
+				if(!Arrays.equals(first, results.get(i).get()))
+					return "Island " + x + "," + z + " differed between threads (copy " + i + ")";
+			}
+			return "Island " + x + "," + z + " was identical on " + threads + " threads (" + first.length + " bytes)";
+		}
+		catch(Exception e)
 		{
-			islandCache.remove(Helper.combineCoords(x, z));
-			islandCache.put(Helper.combineCoords(x, z), ci);
+			TFC.log.warn("Error checking island determinism: " + x + ", " + z, e);
+			return "Error checking island " + x + "," + z + ": " + e;
+		}
+		finally
+		{
+			pool.shutdown();
 		}
-
-		// 6 - Return the new island
-		return ci.island;
 	}
 
 	private IslandParameters createParams(long seed, int x, int z)
@@ -247,11 +483,11 @@ public class WorldGen implements IThreadCompleteListener
 		Random r = new Random(seed);
 		id.setCoords(x, z);
 		int fcount = 2+r.nextInt(1)+r.nextInt(1);
-		Feature.setupFeatures(r);
+		FeaturePicker features = Feature.setupFeatures(r);
 		//Choose Major Features
 		for(int i = 0; i < fcount; i++)
 		{
-			Feature f = Feature.getRandomFeature(FeatureSig.Major);
+			Feature f = features.getRandomFeature(FeatureSig.Major);
 
 			if(f == null)
 				break;
@@ -277,7 +513,7 @@ public class WorldGen implements IThreadCompleteListener
 		fcount = r.nextInt(3)-r.nextInt(1)-r.nextInt(1);
 		for(int i = 0; i < fcount; i++)
 		{
-			Feature f = Feature.getRandomFeature(FeatureSig.Minor);
+			Feature f = features.getRandomFeature(FeatureSig.Minor);
 			if(id.hasFeature(f)){i--; continue;}
 			else id.setFeatures(f);
 		}
@@ -429,69 +665,127 @@ public class WorldGen implements IThreadCompleteListener
 		return id;
 	}
 
+	/**
+	 * Saves and unloads every cached island. Blocks until all of the islands have been written to disk.
+	 */
 	public void resetCache()
 	{
-		synchronized(islandCache)
+		for(CachedIsland c : islandCache.clear())
 		{
-			for(CachedIsland c : islandCache.values())
-			{
-				saveMap(c);
-			}
-			islandCache.clear();
+			saveMap(c);
 		}
+		islandWriter.flush();
 	}
 
+	/**
+	 * Unloads the least recently used islands once the cache grows past its configured limits. Islands that
+	 * contain a player or loaded chunks are never unloaded. This is called every tick so it returns immediately
+	 * while the cache is within its limits.
+	 */
 	public void trimCache()
 	{
-		long now = System.currentTimeMillis();
-		int key;
-		Set<Integer> keys = islandCache.keySet();
-		CachedIsland c;
-		int timer = 20000;
-		for(Iterator<Integer> iter = keys.iterator(); iter.hasNext();)
+		int maxIslands = Math.max(1, TFCOptions.maxCachedIslands);
+		long maxBytes = Math.max(1, TFCOptions.maxIslandCacheMB) * 1024L * 1024L;
+		if(!islandCache.isOverLimit(maxIslands, maxBytes))
+			return;
+
+		for(CachedIsland c : islandCache.evict(maxIslands, maxBytes, getPinnedIslands()))
+		{
+			saveMap(c);
+		}
+	}
+
+	private HashSet<Integer> getPinnedIslands()
+	{
+		HashSet<Integer> pinned = new HashSet<Integer>();
+		if(world != null)
 		{
-			key = iter.next();
-			c = islandCache.get(key);
-			if(c != null && now-c.lastAccess > timer)//X seconds of no access will trim the map
+			for(EntityPlayer player : world.playerEntities)
 			{
-				saveMap(c);
-				islandCache.remove(key);
+				pinned.add(Helper.combineCoords((int)Math.floor(player.posX) >> 12, (int)Math.floor(player.posZ) >> 12));
 			}
 		}
+		for(Map.Entry<Integer, ArrayList<Center>> e : ChunkLoadHandler.loadedCentersMap.entrySet())
+		{
+			if(!e.getValue().isEmpty())
+				pinned.add(e.getKey());
+		}
+		return pinned;
 	}
 
+	/**
+	 * Queues the island to be written to disk on the save thread. The island must already be out of the cache.
+	 */
 	public void saveMap(CachedIsland island)
 	{
-		try
-		{
-			File file1 = world.getSaveHandler().getMapFileFromName("Map " + island.island.getParams().getXCoord() + "," + 
-					island.island.getParams().getZCoord());
+		islandWriter.enqueue(island.island.getParams().getCantorizedID(), island);
+	}
 
-			if(file1 == null && this == instanceClient)
-			{
-				File file = new File(".//mods//TFC2//cache//"+worldSeed+"//");
-				if(!file.exists())
-					file.mkdirs();
-				file1 = new File(".//mods//TFC2//cache//"+ worldSeed +"//Map " + island.island.getParams().getXCoord() + "," + 
-						island.island.getParams().getZCoord()+ ".dat");
+	/**
+	 * @param legacy True for the old NBT map file, false for the binary island file.
+	 * @return The file that this island is saved to or null if this world has no place to save islands.
+	 */
+	private File getMapFile(int x, int z, boolean legacy)
+	{
+		String name = "Map " + x + "," + z;
+		File dir;
+		if(this == instanceClient)
+		{
+			dir = new File(".//mods//TFC2//cache//"+ worldSeed +"//");
+		}
+		else
+		{
+			File file = world.getSaveHandler().getMapFileFromName(name);
+			if(file == null)
+				return null;
+			dir = file.getParentFile();
+		}
+		return new File(dir, name + (legacy ? ".dat" : ".island"));
+	}
 
-			}
+	/**
+	 * Writes the island to disk on the calling thread. Should only be called by the IslandWriter.
+	 */
+	void writeMap(CachedIsland island)
+	{
+		try
+		{
+			int x = island.island.getParams().getXCoord();
+			int z = island.island.getParams().getZCoord();
+			File file1 = getMapFile(x, z, false);
 
 			if (file1 != null)
 			{
-				NBTTagCompound islandNBT = new NBTTagCompound();
-				island.island.writeToNBT(islandNBT);
-
-				NBTTagCompound finalNBT = new NBTTagCompound();
-				finalNBT.setTag("mapdata", islandNBT);
-				island.island.getParams().writeToNBT(finalNBT);
-
-				finalNBT.setLong("lastAccess", island.lastAccess);
-				finalNBT.setString("TFC2 Version", Reference.ModVersion);
-
-				FileOutputStream fileoutputstream = new FileOutputStream(file1);
-				CompressedStreamTools.writeCompressed(finalNBT, fileoutputstream);
-				fileoutputstream.close();
+				if(!file1.getParentFile().exists())
+					file1.getParentFile().mkdirs();
+
+				NBTTagCompound meta = new NBTTagCompound();
+				island.island.getParams().writeToNBT(meta);
+				meta.setLong("lastAccess", island.lastAccess);
+				meta.setString("TFC2 Version", Reference.ModVersion);
+
+				//Write to a temporary file first so that a crash during the save can't leave a broken map behind
+				File temp = new File(file1.getPath() + ".tmp");
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 65536));
+				try
+				{
+					out.writeInt(IslandMapIO.MAGIC);
+					out.writeInt(IslandMapIO.VERSION);
+					IslandMapIO.writeNBT(out, meta);
+					IslandMapIO.write(island.island, out);
+				}
+				finally
+				{
+					out.close();
+				}
+				if(file1.exists())
+					file1.delete();
+				temp.renameTo(file1);
+
+				//The island has been converted so the old NBT file is no longer needed
+				File legacy = getMapFile(x, z, true);
+				if(legacy.exists())
+					legacy.delete();
 			}
 		}
 		catch (Exception exception)
@@ -502,15 +796,25 @@ public class WorldGen implements IThreadCompleteListener
 
 	public CachedIsland loadMap(int x, int z)
 	{
+		GenProfile profile = IslandGenTelemetry.createProfile();
+		GenProfile.Stage stage = profile.begin("read");
 		try
 		{
-			File file1 = world.getSaveHandler().getMapFileFromName("Map " + x + "," + z);
-
-			if(file1 == null && this == instanceClient)
+			File file1 = getMapFile(x, z, false);
+			if(file1 != null && file1.exists())
 			{
-				file1 = new File(".//mods//tfc2//cache//"+ worldSeed +"//Map " + x + "," + z + ".dat");
+				CachedIsland ci = readMap(file1, x, z);
+				if(ci != null)
+				{
+					islandCache.put(Helper.combineCoords(x, z), ci);
+					profile.end(stage);
+					IslandGenTelemetry.getInstance().recordIsland(ci.island, "load", profile, -1);
+				}
+				return ci;
 			}
 
+			//Islands saved before the binary format existed are imported from NBT and converted the next time they are saved
+			file1 = getMapFile(x, z, true);
 			if (file1 != null && file1.exists())
 			{
 				FileInputStream input = new FileInputStream(file1);
@@ -522,17 +826,14 @@ public class WorldGen implements IThreadCompleteListener
 						file1.delete();
 						return null;
 					}
-				IslandParameters ip = new IslandParameters();
-				ip.readFromNBT(nbt);
-				long seed = world.getSeed()+Helper.combineCoords(x, z);
-				if(this == instanceClient)
-					seed = this.worldSeed + Helper.combineCoords(x, z);
-				IslandMap m = new IslandMap(ISLAND_SIZE, seed);
-				m.newIsland(ip);
+				IslandMap m = new IslandMap(ISLAND_SIZE, getMapSeed(x, z));
+				m.newIsland(readParams(nbt));
 				m.readFromNBT(nbt.getCompoundTag("mapdata"));
 				CachedIsland ci = new CachedIsland(m);
 				ci.lastAccess = nbt.getLong("lastAccess");
 				islandCache.put(Helper.combineCoords(x, z), ci);
+				profile.end(stage);
+				IslandGenTelemetry.getInstance().recordIsland(ci.island, "load", profile, -1);
 				return ci;
 			}
 
@@ -546,202 +847,143 @@ public class WorldGen implements IThreadCompleteListener
 		return null;
 	}
 
-	private boolean doesMapExist(int x, int z)
+	/**
+	 * Reads a binary island file. The whole file is read into one buffer with a single channel read and the island
+	 * arrays are copied straight out of it.
+	 */
+	private CachedIsland readMap(File file, int x, int z) throws IOException
 	{
-		File file1 = world.getSaveHandler().getMapFileFromName("Map " + x + "," + z);
-
-		if(this == instanceClient)
+		ByteBuffer buf;
+		FileInputStream input = new FileInputStream(file);
+		try
 		{
-			file1 = new File(".//mods//tfc2//cache//"+ worldSeed +"//Map " + x + "," + z + ".dat");
+			FileChannel channel = input.getChannel();
+			buf = ByteBuffer.allocate((int)channel.size());
+			while(buf.hasRemaining() && channel.read(buf) >= 0);
+			buf.flip();
 		}
-
-		return (file1 != null && file1.exists());
-	}
-
-	public void forceBuildIsland(int x, int z, long seed)
-	{
-
-		for(int i = 0; i < buildThreads.length; i++)
+		finally
 		{
-			if(buildThreads[i] == null)
-			{
-				buildThreads[i] = new ThreadBuildExact(i, "Map Build Thread: "+i, Helper.combineCoords(x, z), seed);
-				buildThreads[i].setPriority(2);
-				buildThreads[i].addListener(this);
-				buildThreads[i].start();
-				return;
-			}
+			input.close();
 		}
-	}
 
-	public void buildFromQueue()
-	{
-		if(mapQueue.size() == 0)
-			return;
-
-		for(int i = 0; i < buildThreads.length; i++)
+		if(buf.getInt() != IslandMapIO.MAGIC)
+			throw new IOException("Not an island file");
+		int version = buf.getInt();
+		NBTTagCompound meta = IslandMapIO.readNBT(buf);
+		if(this == instanceClient && (version != IslandMapIO.VERSION || !meta.getString("TFC2 Version").equals(Reference.ModVersion)))
 		{
-			if(buildThreads[i] == null && mapQueue.size() > 0)
-			{
-				int id = mapQueue.poll();
-				if(doesMapExist(Helper.getXCoord(id), Helper.getYCoord(id)))
-					return;
-				buildThreads[i] = new ThreadBuild(i, "Map Build Thread: "+i, id);
-				buildThreads[i].setPriority(2);
-				buildThreads[i].addListener(this);
-				buildThreads[i].start();
-			}
+			file.delete();
+			return null;
 		}
+		if(version > IslandMapIO.VERSION)
+			throw new IOException("Island file version " + version + " is newer than this version of TFC2 supports");
+
+		IslandMap m = new IslandMap(ISLAND_SIZE, getMapSeed(x, z));
+		m.newIsland(readParams(meta));
+		IslandMapIO.read(m, buf);
+		CachedIsland ci = new CachedIsland(m);
+		ci.lastAccess = meta.getLong("lastAccess");
+		return ci;
 	}
 
-	public void runUpdateLoop(World world)
+	private IslandParameters readParams(NBTTagCompound nbt)
 	{
-		for(CachedIsland ci : islandCache.values())
-		{
-			ci.update(world);
-		}
+		IslandParameters ip = new IslandParameters();
+		ip.readFromNBT(nbt);
+		return ip;
 	}
 
-	private class ThreadBuild extends Thread
+	private long getMapSeed(int x, int z)
 	{
-		protected String threadName;
-		protected Thread t;
-		protected int id;
-		public final int threadID;
-
-		public ThreadBuild(int threadid, String n, int cantorizedID)
-		{
-			threadName = n;
-			id = cantorizedID;
-			threadID = threadid;
-		}
-
-		private Set<IThreadCompleteListener> listeners = new CopyOnWriteArraySet<IThreadCompleteListener>();
-		public void addListener(final IThreadCompleteListener listener) 
-		{
-			listeners.add(listener);
-		}
-		public void removeListener(final IThreadCompleteListener listener) 
-		{
-			listeners.remove(listener);
-		}
-		private void notifyListeners() 
-		{
-			for (IThreadCompleteListener listener : listeners) 
-			{
-				listener.notifyOfThreadComplete(this);
-			}
-		}
+		if(this == instanceClient)
+			return this.worldSeed + Helper.combineCoords(x, z);
+		return world.getSeed()+Helper.combineCoords(x, z);
+	}
 
-		@Override
-		public void run()
-		{
-			try
-			{
-				createIsland(Helper.getXCoord(id),Helper.getYCoord(id));
-			}
-			catch(Exception e)
-			{
-				e.printStackTrace();
-			}
-			finally 
-			{
-				notifyListeners();
-			}
-		}
+	private boolean doesMapExist(int x, int z)
+	{
+		//Islands that are loaded or still waiting to be written may not have a file yet
+		int id = Helper.combineCoords(x, z);
+		if(islandCache.containsKey(id) || islandWriter.isPending(id))
+			return true;
 
-		@Override
-		public void start()
-		{
-			if (t == null)
-			{
-				t = new Thread (this, threadName);
-				t.start();
-			}
-		}
+		File file1 = getMapFile(x, z, false);
+		if(file1 != null && file1.exists())
+			return true;
+		file1 = getMapFile(x, z, true);
+		return (file1 != null && file1.exists());
 	}
 
-	@Override
-	public void notifyOfThreadComplete(Thread thread) 
+	/**
+	 * Builds the island with the given seed in the background, replacing any cached copy. Used by the client once the
+	 * server has told it which seed to use.
+	 */
+	public CompletableFuture<IslandMap> forceBuildIsland(int x, int z, long seed)
 	{
-		buildThreads[((ThreadBuild)thread).threadID] = null;
+		return generator.requestExact(x, z, seed);
 	}
 
-	private class ThreadBuildExact extends ThreadBuild
+	/**
+	 * Updates the priorities of queued islands and starts building the most important ones.
+	 */
+	public void buildFromQueue()
 	{
-		private long seed;
+		generator.tick(world != null ? world.playerEntities : null);
+	}
 
-		public ThreadBuildExact(int threadid, String n, int cantorizedID, long seed)
+	/**
+	 * Called by the generation workers. Loads the island from disk if it exists, otherwise generates it.
+	 */
+	IslandMap buildIsland(int x, int z, boolean exact, long seed)
+	{
+		int id = Helper.combineCoords(x, z);
+		if(!exact)
 		{
-			super(threadid, n, cantorizedID);
-			this.seed = seed;
+			CachedIsland ci = getCachedIsland(id);
+			if(ci == null && doesMapExist(x, z))
+				ci = loadMap(x, z);
+			if(ci != null)
+				return ci.getIslandMap();
+			return createIsland(x, z);
 		}
 
-		private final Set<IThreadCompleteListener> listeners = new CopyOnWriteArraySet<IThreadCompleteListener>();
-		@Override
-		public void addListener(final IThreadCompleteListener listener) 
-		{
-			listeners.add(listener);
-		}
-		@Override
-		public void removeListener(final IThreadCompleteListener listener) 
-		{
-			listeners.remove(listener);
-		}
-		private void notifyListeners() 
+		try
 		{
-			for (IThreadCompleteListener listener : listeners) 
+			if(doesMapExist(x, z))
 			{
-				listener.notifyOfThreadComplete(this);
+				CachedIsland ci = loadMap(x, z);
+				if(ci != null)
+					return ci.getIslandMap();
 			}
+			return createIsland(x, z, seed, true);
 		}
-
-		@Override
-		public void run()
+		finally 
 		{
-			try
-			{
-				if(doesMapExist(Helper.getXCoord(id),Helper.getYCoord(id)))
-				{
-					if(loadMap(Helper.getXCoord(id),Helper.getYCoord(id)) == null)
-						createIsland(Helper.getXCoord(id),Helper.getYCoord(id), seed, true);
-				}
-				else
-				{
-					createIsland(Helper.getXCoord(id),Helper.getYCoord(id), seed, true);
-				}
-			}
-			catch(Exception e)
-			{
-				e.printStackTrace();
-			}
-			finally 
-			{
-				int size = recentlyRequestedMaps.size();
-				for(int i = 0; i < size; i++)
-				{
-					if(recentlyRequestedMaps.get(i) == id)
-					{
-						recentlyRequestedMaps.remove(i);
-						size--;i--;
-					}
-				}
-				ClientRenderHandler.IsGeneratingFirstIsland  = false;
-				notifyListeners();
-			}
-
+			recentlyRequestedMaps.removeAll(Collections.singleton(id));
 			ClientRenderHandler.IsGeneratingFirstIsland  = false;
 		}
+	}
 
-		@Override
-		public void start()
+	public void runUpdateLoop(World world)
+	{
+		//values() returns a snapshot so islands can be loaded or unloaded by the update events
+		ArrayList<CachedIsland> islands = islandCache.values();
+		for(CachedIsland ci : islands)
 		{
-			if (t == null)
-			{
-				t = new Thread (this, threadName);
-				t.start();
-			}
+			ci.update(world);
 		}
+		hexScheduler.tick(islands);
 	}
 
+	/**
+	 * Should be called whenever state that changes over time, such as crop nutrients or hydration, is added to a hex so
+	 * that it starts receiving HexUpdateEvents.
+	 */
+	public void markHexForUpdate(IslandMap map, Center c)
+	{
+		CachedIsland ci = islandCache.get(map.getParams().getCantorizedID());
+		if(ci != null && ci.island == map)
+			ci.hexUpdates.mark(c.index);
+	}
 }
@@ -41,7 +41,7 @@ public class WorldGenCliffNoise implements IWorldGenerator
 		worldZ = chunkZ;
 
 		BlockPos bp = new BlockPos(chunkX, 0, chunkZ);
-		IslandMap map = Core.getMapForWorld(world, new BlockPos(chunkX, 0, chunkZ));
+		IslandMap map = Core.awaitMapForWorld(world, new BlockPos(chunkX, 0, chunkZ));
 		IBlockState stone = TFCBlocks.Stone.getDefaultState().withProperty(BlockStone.META_PROPERTY, map.getParams().getSurfaceRock());
 		Perlin perlin = new Perlin(0, 1f/16f, 0.25);
 		perlin.setLacunarity(2);
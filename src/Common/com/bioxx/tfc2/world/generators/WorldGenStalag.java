@@ -34,7 +34,7 @@ public class WorldGenStalag implements IWorldGenerator
 			return;
 		chunkX = chunkX * 16;
 		chunkZ = chunkZ * 16 ;
-		map = WorldGen.getInstance().getIslandMap(chunkX >> 12, chunkZ >> 12);
+		map = WorldGen.getInstance().awaitIslandMap(chunkX >> 12, chunkZ >> 12);
 		IBlockState stalac = TFCBlocks.StoneStalac.getDefaultState().withProperty(BlockStoneStalag.META_PROPERTY, map.getParams().getSurfaceRock());
 		IBlockState stalag = TFCBlocks.StoneStalag.getDefaultState().withProperty(BlockStoneStalag.META_PROPERTY, map.getParams().getSurfaceRock());
 		for(int x = 0; x < 16; x++)
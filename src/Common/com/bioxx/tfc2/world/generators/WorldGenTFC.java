@@ -34,7 +34,7 @@ public class WorldGenTFC implements IWorldGenerator
 		chunkX *= 16;
 		chunkZ *= 16;
 
-		map = Core.getMapForWorld(world, new BlockPos(chunkX, 0, chunkZ));
+		map = Core.awaitMapForWorld(world, new BlockPos(chunkX, 0, chunkZ));
 		iMoisture = map.getParams().getIslandMoisture();
 	}
 
@@ -48,7 +48,7 @@ public class WorldGenPortalsHex extends WorldGenHex
 				/*
 				 * This should hopefully prevent stacking portals from occuring if the world saves but the islandmap does not
 				 */
-				if(findPortal(world, bp.add(0, map.convertHeightToMC(closest.elevation)+Global.SEALEVEL, 0)) != null)
+				if(findPortal(world, bp.add(0, map.convertHeightToMC(closest.getElevation())+Global.SEALEVEL, 0)) != null)
 				{
 					return;
 				}